@@ -0,0 +1,90 @@
+package com.example.myapp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark and exits with status 1 if any got
+ * worse by more than the threshold, so it can gate a build:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.myapp.BenchmarkComparison \
+ *     -Djmh.args="target/jmh-results/&lt;before&gt;.json target/jmh-results/&lt;after&gt;.json 10"
+ * </pre>
+ * Worse means a lower score in throughput mode and a higher one in the time modes. A change
+ * smaller than the combined error margins is never reported as a regression.
+ */
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparison <baseline.json> <current.json> [threshold%=10]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-80s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue().path("primaryMetric");
+            if (before == null) {
+                System.out.printf("%-80s %14s %14.3f %9s%n", entry.getKey(), "-", after.path("score").asDouble(), "new");
+                continue;
+            }
+            before = before.path("primaryMetric");
+            double oldScore = before.path("score").asDouble();
+            double newScore = after.path("score").asDouble();
+            double change = oldScore == 0 ? 0 : (newScore - oldScore) / oldScore;
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            double worsening = higherIsBetter ? -change : change;
+            double noise = error(before) + error(after);
+            boolean regressed = worsening > threshold && Math.abs(newScore - oldScore) > noise;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-80s %14.3f %14.3f %+8.1f%% %s %s%n", entry.getKey(), oldScore, newScore,
+                    change * 100, after.path("scoreUnit").asText(), regressed ? "REGRESSION" : "");
+        }
+        System.out.println(regressions == 0 ? "No regressions" : regressions + " regression(s)");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    // Benchmark name plus its parameters, e.g. "...PasswordEncoderBenchmark.login {strength=10}"
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            if (params.isObject() && !params.isEmpty()) {
+                key.append(" {");
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(param.getKey()).append('=').append(param.getValue().asText());
+                    if (fields.hasNext()) {
+                        key.append(", ");
+                    }
+                }
+                key.append('}');
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
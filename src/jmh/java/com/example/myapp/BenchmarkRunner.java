@@ -0,0 +1,69 @@
+package com.example.myapp;
+
+import org.openjdk.jmh.Main;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs JMH as {@code org.openjdk.jmh.Main} does, and unless a result file is asked for
+ * explicitly, writes the results as JSON to {@code <dir>/<commit>-<timestamp>.json}, where the
+ * directory is the {@code benchmark.results.dir} system property ({@code target/jmh-results}
+ * from the benchmark profile). Keep the files from successive commits and compare two of them
+ * with {@link BenchmarkComparison}.
+ */
+public final class BenchmarkRunner {
+
+    private static final Set<String> NO_RUN_OPTIONS = Set.of("-l", "-lp", "-lprof", "-lrf", "-h");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(List.of(args));
+        if (!jmhArgs.contains("-rff") && !jmhArgs.contains("-rf") && jmhArgs.stream().noneMatch(NO_RUN_OPTIONS::contains)) {
+            Path dir = Paths.get(System.getProperty("benchmark.results.dir", "target/jmh-results"));
+            Files.createDirectories(dir);
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            Path result = dir.resolve(commit() + "-" + timestamp + ".json");
+            jmhArgs.addAll(List.of("-rf", "json", "-rff", result.toString()));
+            System.out.println("JMH results will be written to " + result.toAbsolutePath());
+        }
+        Main.main(jmhArgs.toArray(String[]::new));
+    }
+
+    // The short hash of HEAD, with a suffix when the tree has uncommitted changes
+    private static String commit() {
+        try {
+            String head = git("rev-parse", "--short", "HEAD");
+            if (head.isEmpty()) {
+                return "unknown";
+            }
+            return git("status", "--porcelain", "--untracked-files=no").isEmpty() ? head : head + "-dirty";
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    private static String git(String... command) throws IOException, InterruptedException {
+        List<String> line = new ArrayList<>(List.of("git"));
+        line.addAll(List.of(command));
+        Process process = new ProcessBuilder(line).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes()).trim();
+        if (!process.waitFor(10, TimeUnit.SECONDS) || process.exitValue() != 0) {
+            return "";
+        }
+        return output;
+    }
+}
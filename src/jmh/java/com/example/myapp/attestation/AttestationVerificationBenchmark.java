@@ -0,0 +1,110 @@
+package com.example.myapp.attestation;
+
+import com.example.myapp.payload.response.AttestationVerification;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.ParticipationSummary;
+import com.example.myapp.repositories.ParticipationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of answering {@code /api/attestations/verify/{code}} once the participants are loaded
+ * and the participation has been confirmed: decoding and checking the signature, the
+ * participant lookup, then the cache lookup. Refusing a tampered or revoked code and issuing
+ * one are measured too. The repository is a stub that answers the load and the first lookup
+ * only, so the measured calls never reach a database.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="AttestationVerificationBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(1)
+public class AttestationVerificationBenchmark {
+
+    private static final byte[] SECRET = "benchmark-secret-benchmark-secret-0123".getBytes();
+
+    private AttestationCodes attestationCodes;
+    private ParticipationSummary participant;
+    private String code;
+    private String tamperedCode;
+    private String revokedCode;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        participant = new ParticipationSummary(1_234_567L, new Date(), 654_321L, "Rousseau", "Camille",
+                98_765L, "Atelier soudure");
+        ParticipationRepository repository = (ParticipationRepository) Proxy.newProxyInstance(
+                ParticipationRepository.class.getClassLoader(), new Class<?>[]{ParticipationRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findSummaryByUserIdAndEvenementId")) {
+                        return Optional.of(participant);
+                    }
+                    if (method.getName().equals("streamEvenementUserPairs")) {
+                        return Stream.of(new IdPair(participant.evenementId(), participant.userId()));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        PlatformTransactionManager transactionManager = (PlatformTransactionManager) Proxy.newProxyInstance(
+                PlatformTransactionManager.class.getClassLoader(), new Class<?>[]{PlatformTransactionManager.class},
+                (proxy, method, args) -> method.getName().equals("getTransaction") ? new SimpleTransactionStatus() : null);
+        attestationCodes = new AttestationCodes(repository, transactionManager, new SimpleMeterRegistry(),
+                Base64.getEncoder().encodeToString(SECRET), 100_000, Duration.ofMinutes(10));
+        attestationCodes.reload();
+
+        code = attestationCodes.issue(participant);
+        char first = code.charAt(0);
+        tamperedCode = (first == 'Z' ? 'Y' : 'Z') + code.substring(1);
+        // Confirms the participation once, as the first check of a printed code would
+        attestationCodes.verify(code).orElseThrow();
+
+        ParticipationSummary cancelled = new ParticipationSummary(1_234_568L, new Date(), 654_322L, "Martin",
+                "Louis", participant.evenementId(), participant.evenementTitre());
+        revokedCode = attestationCodes.issue(cancelled);
+        attestationCodes.participationRemoved(cancelled.userId(), cancelled.evenementId());
+    }
+
+    @Benchmark
+    public Optional<AttestationVerification> verify() {
+        return attestationCodes.verify(code);
+    }
+
+    @Benchmark
+    public Optional<AttestationVerification> rejectTampered() {
+        return attestationCodes.verify(tamperedCode);
+    }
+
+    @Benchmark
+    public Optional<AttestationVerification> rejectRevoked() {
+        return attestationCodes.verify(revokedCode);
+    }
+
+    @Benchmark
+    public String issue() {
+        return attestationCodes.issue(participant);
+    }
+}
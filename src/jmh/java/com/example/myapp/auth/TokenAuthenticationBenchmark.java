@@ -0,0 +1,91 @@
+package com.example.myapp.auth;
+
+import com.example.myapp.enums.Role;
+import com.example.myapp.services.impl.AuthServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of resolving the caller from a bearer token: signature check, claims
+ * parsing, expiry and the revocation lookup, with the revocation list empty or holding many
+ * live entries. Signing is measured too, since login and refresh pay it twice.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="TokenAuthenticationBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(1)
+public class TokenAuthenticationBenchmark {
+
+    private static final byte[] SECRET = "benchmark-secret-benchmark-secret-0123".getBytes();
+
+    @Param({"0", "100000"})
+    private int revokedSessions;
+
+    private AuthServiceImpl authService;
+    private TokenCodec tokenCodec;
+    private TokenClaims claims;
+    private String accessToken;
+    private String tamperedToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TokenRevocations revocations = new TokenRevocations();
+        long until = Instant.now().plus(Duration.ofDays(1)).getEpochSecond();
+        for (int i = 0; i < revokedSessions; i++) {
+            revocations.revokeSession("revoked-" + i, until);
+        }
+        // Resolving a token never touches the user service
+        authService = new AuthServiceImpl(null, revocations, Base64.getEncoder().encodeToString(SECRET),
+                Duration.ofMinutes(15), Duration.ofDays(14));
+        tokenCodec = new TokenCodec(SECRET);
+
+        Instant now = Instant.now();
+        claims = new TokenClaims(TokenType.ACCESS, 42L, Role.USER, "session-42", "token-42", now.toEpochMilli(),
+                now.getEpochSecond() + Duration.ofHours(1).toSeconds());
+        accessToken = tokenCodec.sign(claims);
+        char last = accessToken.charAt(accessToken.length() - 2);
+        tamperedToken = accessToken.substring(0, accessToken.length() - 2) + (last == 'A' ? 'B' : 'A')
+                + accessToken.charAt(accessToken.length() - 1);
+    }
+
+    @Benchmark
+    public AuthPrincipal authenticate() {
+        return authService.authenticate(accessToken);
+    }
+
+    @Benchmark
+    public boolean rejectTampered() {
+        try {
+            authService.authenticate(tamperedToken);
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    @Benchmark
+    public String sign() {
+        return tokenCodec.sign(claims);
+    }
+}
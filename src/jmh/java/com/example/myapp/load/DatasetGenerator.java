@@ -0,0 +1,310 @@
+package com.example.myapp.load;
+
+import com.example.myapp.entities.Attestation;
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Demand;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.entities.Member;
+import com.example.myapp.entities.Participation;
+import com.example.myapp.entities.President;
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.DemandStatus;
+import com.example.myapp.enums.EventType;
+import com.example.myapp.enums.Role;
+import com.example.myapp.feed.UpcomingEventsFeed;
+import com.example.myapp.repositories.AttestationRepository;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.DemandRepository;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.repositories.MemberRepository;
+import com.example.myapp.repositories.ParticipationRepository;
+import com.example.myapp.repositories.PresidentRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.search.ContentSearch;
+import com.example.myapp.services.BenchmarkContext;
+import com.example.myapp.services.ClubStatsService;
+import com.example.myapp.utils.PasswordEncoder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeds a campus worth of users, clubs, members, presidents, events, participations, pending
+ * demands and attestations through the repositories, and hands back what was created so a load
+ * scenario can pick valid ids. Every user has the password {@link #PASSWORD}; it is hashed once
+ * and the hash shared, since hashing thousands of passwords would dominate the seeding time.
+ * <p>
+ * On its own it fills the database named by {@code -Dbenchmark.datasource.url}:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.myapp.load.DatasetGenerator \
+ *     -Djmh.args="users=20000 clubs=200" -Dbenchmark.datasource.url=jdbc:postgresql://...
+ * </pre>
+ */
+public final class DatasetGenerator {
+
+    public static final String PASSWORD = "load-test-password";
+
+    private static final Duration DAY = Duration.ofDays(1);
+
+    /**
+     * How much to seed. Half of each club's events are in the past and carry an attestation,
+     * the other half are upcoming.
+     */
+    public record Sizes(int users, int clubs, int membersPerClub, int eventsPerClub, int participationsPerEvent,
+                        int demandsPerClub) {
+
+        public Sizes {
+            if (users < 1 || clubs < 1 || membersPerClub < 1 || eventsPerClub < 0 || participationsPerEvent < 0
+                    || demandsPerClub < 0) {
+                throw new IllegalArgumentException("Sizes must be positive");
+            }
+            if (membersPerClub + demandsPerClub > users) {
+                throw new IllegalArgumentException("A club needs " + (membersPerClub + demandsPerClub)
+                        + " distinct users, only " + users + " are seeded");
+            }
+        }
+
+        /**
+         * Sizes from {@code users=, clubs=, members=, events=, participations=, demands=}
+         * options, with defaults for the ones left out.
+         */
+        public static Sizes from(Map<String, String> options) {
+            return new Sizes(
+                    Integer.parseInt(options.getOrDefault("users", "5000")),
+                    Integer.parseInt(options.getOrDefault("clubs", "50")),
+                    Integer.parseInt(options.getOrDefault("members", "40")),
+                    Integer.parseInt(options.getOrDefault("events", "10")),
+                    Integer.parseInt(options.getOrDefault("participations", "15")),
+                    Integer.parseInt(options.getOrDefault("demands", "5")));
+        }
+    }
+
+    /**
+     * What was seeded, by id. The maps are keyed by club id.
+     */
+    public record Dataset(List<User> users, List<Club> clubs, Map<Long, Long> presidents,
+                          Map<Long, Set<Long>> members, Map<Long, Set<Long>> pendingDemands,
+                          Map<Long, List<Long>> upcomingEvenements, List<Long> attestedEvenements) {
+    }
+
+    private final ApplicationContext context;
+    private final Random random;
+
+    public DatasetGenerator(ApplicationContext context, long seed) {
+        this.context = context;
+        this.random = new Random(seed);
+    }
+
+    public Dataset seed(Sizes sizes) {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<User> users = users(run, sizes.users());
+        List<Club> clubs = clubs(run, sizes.clubs());
+
+        Map<Long, Long> presidents = new HashMap<>();
+        Map<Long, Set<Long>> members = new HashMap<>();
+        Map<Long, List<User>> membersByClub = new HashMap<>();
+        Map<Long, Set<Long>> pendingDemands = new HashMap<>();
+        List<Member> memberRows = new ArrayList<>();
+        List<President> presidentRows = new ArrayList<>();
+        List<Demand> demandRows = new ArrayList<>();
+        Date now = new Date();
+        for (Club club : clubs) {
+            List<User> picked = sample(users, sizes.membersPerClub() + sizes.demandsPerClub());
+            List<User> clubMembers = picked.subList(0, sizes.membersPerClub());
+            for (User user : clubMembers) {
+                memberRows.add(member(user, club, now));
+            }
+            members.put(club.getId(), ids(clubMembers));
+            membersByClub.put(club.getId(), clubMembers);
+            presidentRows.add(president(clubMembers.get(0), club, now));
+            presidents.put(club.getId(), clubMembers.get(0).getId());
+
+            List<User> applicants = picked.subList(sizes.membersPerClub(), picked.size());
+            for (User user : applicants) {
+                demandRows.add(demand(user, club, now));
+            }
+            pendingDemands.put(club.getId(), ids(applicants));
+        }
+        context.getBean(MemberRepository.class).saveAll(memberRows);
+        context.getBean(PresidentRepository.class).saveAll(presidentRows);
+        context.getBean(DemandRepository.class).saveAll(demandRows);
+
+        Map<Long, List<Long>> upcoming = new HashMap<>();
+        List<Evenement> past = new ArrayList<>();
+        List<Evenement> evenements = new ArrayList<>();
+        int pastPerClub = sizes.eventsPerClub() / 2;
+        for (Club club : clubs) {
+            for (int i = 0; i < sizes.eventsPerClub(); i++) {
+                // Past events spread over the last six months, upcoming ones over the next two
+                int days = i < pastPerClub ? -1 - random.nextInt(180) : 1 + random.nextInt(60);
+                evenements.add(evenement(club, i, new Date(now.getTime() + days * DAY.toMillis())));
+            }
+        }
+        evenements = context.getBean(EvenementRepository.class).saveAll(evenements);
+
+        List<Participation> participations = new ArrayList<>();
+        for (Evenement evenement : evenements) {
+            Long clubId = evenement.getClub().getId();
+            if (evenement.getDate().before(now)) {
+                past.add(evenement);
+            } else {
+                upcoming.computeIfAbsent(clubId, id -> new ArrayList<>()).add(evenement.getId());
+            }
+            List<User> clubMembers = membersByClub.get(clubId);
+            for (User user : sample(clubMembers, Math.min(sizes.participationsPerEvent(), clubMembers.size()))) {
+                participations.add(participation(user, evenement));
+            }
+        }
+        context.getBean(ParticipationRepository.class).saveAll(participations);
+
+        List<Attestation> attestations = new ArrayList<>();
+        for (Evenement evenement : past) {
+            Attestation attestation = new Attestation();
+            attestation.setNom("Attestation de participation");
+            attestation.setDescription("Participation à « " + evenement.getTitre() + " »");
+            attestation.setEvenement(evenement);
+            attestations.add(attestation);
+        }
+        context.getBean(AttestationRepository.class).saveAll(attestations);
+
+        // The rows went in behind the services, so the derived views are rebuilt from the tables
+        context.getBean(ClubStatsService.class).reconcile();
+        context.getBean(UpcomingEventsFeed.class).resync();
+        context.getBean(ContentSearch.class).rebuild();
+
+        return new Dataset(users, clubs, presidents, members, pendingDemands, upcoming,
+                past.stream().map(Evenement::getId).toList());
+    }
+
+    private List<User> users(String run, int count) {
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD).join();
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setNom("Nom" + i);
+            user.setPrenom("Prénom" + i);
+            user.setEmail(email(run, i));
+            user.setMdp(hash);
+            user.setRole(Role.USER);
+            users.add(user);
+        }
+        return context.getBean(UserRepository.class).saveAll(users);
+    }
+
+    private List<Club> clubs(String run, int count) {
+        List<Club> clubs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Club club = new Club();
+            club.setNom("Club " + i + " " + run);
+            club.setDescription("Club de charge numéro " + i + ", ouvert à tous les étudiants.");
+            clubs.add(club);
+        }
+        return context.getBean(ClubRepository.class).saveAll(clubs);
+    }
+
+    private List<User> sample(List<User> users, int count) {
+        Set<Integer> picked = new HashSet<>();
+        List<User> sample = new ArrayList<>(count);
+        while (sample.size() < count) {
+            int index = random.nextInt(users.size());
+            if (picked.add(index)) {
+                sample.add(users.get(index));
+            }
+        }
+        return sample;
+    }
+
+    private static Member member(User user, Club club, Date now) {
+        Member member = new Member();
+        member.setUser(user);
+        member.setClub(club);
+        member.setJoinDate(now);
+        member.setActive(true);
+        return member;
+    }
+
+    private static President president(User user, Club club, Date now) {
+        President president = new President();
+        president.setUser(user);
+        president.setClub(club);
+        president.setStartDate(now);
+        president.setCurrent(true);
+        return president;
+    }
+
+    private static Demand demand(User user, Club club, Date now) {
+        Demand demand = new Demand();
+        demand.setUser(user);
+        demand.setClub(club);
+        demand.setStatus(DemandStatus.PENDING);
+        demand.setRequestDate(now);
+        demand.setComment("Je souhaite rejoindre le club.");
+        return demand;
+    }
+
+    private static Evenement evenement(Club club, int i, Date date) {
+        Evenement evenement = new Evenement();
+        evenement.setTitre("Événement " + i + " — " + club.getNom());
+        evenement.setDescription("Rencontre du club, ouverte aux membres et aux curieux.");
+        evenement.setDate(date);
+        evenement.setEventType(EventType.values()[i % EventType.values().length]);
+        evenement.setClub(club);
+        return evenement;
+    }
+
+    private static Participation participation(User user, Evenement evenement) {
+        Participation participation = new Participation();
+        participation.setUser(user);
+        participation.setEvenement(evenement);
+        participation.setDate(new Date());
+        return participation;
+    }
+
+    private static Set<Long> ids(List<User> users) {
+        Set<Long> ids = new HashSet<>();
+        users.forEach(user -> ids.add(user.getId()));
+        return ids;
+    }
+
+    static String email(String run, int i) {
+        return "load-" + run + "-" + i + "@example.com";
+    }
+
+    /**
+     * {@code key=value} arguments as a map, as both harness mains take them.
+     */
+    static Map<String, String> options(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 1) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    public static void main(String[] args) {
+        Sizes sizes = Sizes.from(options(args));
+        try (ConfigurableApplicationContext context = BenchmarkContext.start(WebApplicationType.NONE)) {
+            long start = System.nanoTime();
+            Dataset dataset = new DatasetGenerator(context, 42).seed(sizes);
+            System.out.printf("Seeded %d users, %d clubs, %d upcoming and %d past events in %d ms%n",
+                    dataset.users().size(), dataset.clubs().size(),
+                    dataset.upcomingEvenements().values().stream().mapToInt(List::size).sum(),
+                    dataset.attestedEvenements().size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
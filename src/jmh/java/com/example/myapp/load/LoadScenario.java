@@ -0,0 +1,294 @@
+package com.example.myapp.load;
+
+import com.example.myapp.entities.User;
+import com.example.myapp.services.BenchmarkContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * End-to-end HTTP load test: starts the application on a random port against the embedded
+ * database (or {@code -Dbenchmark.datasource.url}), seeds it with {@link DatasetGenerator}, then
+ * has virtual users walk the student flow over and over:
+ * <ol>
+ *     <li>log in,</li>
+ *     <li>browse the clubs and open one they have not joined,</li>
+ *     <li>look at the upcoming events, all of them and the club's,</li>
+ *     <li>ask to join the club, which its president sees in the pending list and approves,</li>
+ *     <li>register for one of the club's upcoming events,</li>
+ *     <li>fetch the attestation of a past event.</li>
+ * </ol>
+ * Each virtual user owns its own slice of the seeded users, so two of them never race on the
+ * same demand. The report has throughput and p50/p95/p99 per endpoint, after a warm-up whose
+ * numbers are dropped:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.myapp.load.LoadScenario \
+ *     -Djmh.args="vus=16 duration=60 warmup=30 users=5000 clubs=50"
+ * </pre>
+ * Passwords are hashed at the production cost unless {@code bcrypt=} says otherwise; the
+ * per-address login limit is lifted since every request comes from the loopback address.
+ */
+public class LoadScenario {
+
+    private static final String LOGIN = "POST /api/auth/login";
+    private static final String CLUBS = "GET /api/clubs";
+    private static final String CLUB = "GET /api/clubs/{id}";
+    private static final String UPCOMING = "GET /api/evenements/upcoming";
+    private static final String CLUB_UPCOMING = "GET /api/evenements/upcoming?clubId={id}";
+    private static final String CREATE_DEMAND = "POST /api/demands/create";
+    private static final String PENDING_DEMANDS = "GET /api/demands/club/{id}/pending";
+    private static final String APPROVE_DEMAND = "PUT /api/demands/approve/{id}";
+    private static final String PARTICIPATE = "POST /api/participations";
+    private static final String ATTESTATION = "GET /api/attestations/evenement/{id}";
+    private static final String FLOW = "whole flow";
+    private static final List<String> ENDPOINTS = List.of(LOGIN, CLUBS, CLUB, UPCOMING, CLUB_UPCOMING, CREATE_DEMAND,
+            PENDING_DEMANDS, APPROVE_DEMAND, PARTICIPATE, ATTESTATION, FLOW);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String baseUrl;
+    private final DatasetGenerator.Dataset dataset;
+    private final HttpClient client;
+    private final List<VirtualUser> virtualUsers = new ArrayList<>();
+
+    public LoadScenario(String baseUrl, DatasetGenerator.Dataset dataset, int virtualUsers) {
+        this.baseUrl = baseUrl;
+        this.dataset = dataset;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(virtualUsers))
+                .build();
+        for (int i = 0; i < virtualUsers; i++) {
+            this.virtualUsers.add(new VirtualUser(i, virtualUsers));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = DatasetGenerator.options(args);
+        DatasetGenerator.Sizes sizes = DatasetGenerator.Sizes.from(options);
+        int vus = Integer.parseInt(options.getOrDefault("vus", "16"));
+        int seconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "30"));
+        String bcrypt = options.getOrDefault("bcrypt", "10");
+
+        ConfigurableApplicationContext context = BenchmarkContext.start(WebApplicationType.SERVLET,
+                "server.port=0",
+                "app.security.bcrypt.strength=" + bcrypt,
+                "app.auth.login.ip-limit=65535");
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+        long start = System.nanoTime();
+        DatasetGenerator.Dataset dataset = new DatasetGenerator(context, 42).seed(sizes);
+        System.out.printf("Seeded %s in %d ms%n", sizes, (System.nanoTime() - start) / 1_000_000);
+
+        LoadScenario scenario = new LoadScenario(baseUrl, dataset, vus);
+        if (warmup > 0) {
+            scenario.run(warmup);
+        }
+        Map<String, LoadStats> stats = scenario.run(seconds);
+        System.out.printf("%d virtual users for %d s after %d s of warm-up%n", vus, seconds, warmup);
+        for (String endpoint : ENDPOINTS) {
+            stats.get(endpoint).print(endpoint, seconds);
+        }
+        context.close();
+        System.exit(0);
+    }
+
+    /**
+     * Runs every virtual user through the flow until the time is up and merges what they saw,
+     * by endpoint.
+     */
+    public Map<String, LoadStats> run(int seconds) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(virtualUsers.size());
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Future<Map<String, LoadStats>>> futures = new ArrayList<>();
+        for (VirtualUser virtualUser : virtualUsers) {
+            futures.add(workers.submit(() -> {
+                Map<String, LoadStats> stats = newStats();
+                while (System.nanoTime() < deadline) {
+                    long flowStart = System.nanoTime();
+                    virtualUser.iterate(stats);
+                    stats.get(FLOW).record(System.nanoTime() - flowStart, 200, 0);
+                }
+                return stats;
+            }));
+        }
+        Map<String, LoadStats> total = newStats();
+        for (Future<Map<String, LoadStats>> future : futures) {
+            future.get().forEach((endpoint, stats) -> total.get(endpoint).merge(stats));
+        }
+        workers.shutdown();
+        return total;
+    }
+
+    private static Map<String, LoadStats> newStats() {
+        Map<String, LoadStats> stats = new LinkedHashMap<>();
+        ENDPOINTS.forEach(endpoint -> stats.put(endpoint, new LoadStats()));
+        return stats;
+    }
+
+    private final class VirtualUser {
+
+        private final List<User> users = new ArrayList<>();
+        // Clubs each user is in or has asked to join, so they only ever ask for new ones
+        private final Map<Long, Set<Long>> joined = new HashMap<>();
+        // Bearer of each club's president, who alone may approve its demands; logged in on first need
+        private final Map<Long, String> presidentAuthorizations = new HashMap<>();
+        private final Random random;
+        private int next;
+
+        VirtualUser(int index, int count) {
+            this.random = new Random(index);
+            List<User> all = dataset.users();
+            for (int i = index; i < all.size(); i += count) {
+                users.add(all.get(i));
+                joined.put(all.get(i).getId(), new HashSet<>());
+            }
+            dataset.members().forEach((clubId, members) -> members.forEach(userId -> join(userId, clubId)));
+            dataset.pendingDemands().forEach((clubId, applicants) -> applicants.forEach(userId -> join(userId, clubId)));
+        }
+
+        private void join(Long userId, Long clubId) {
+            Set<Long> clubs = joined.get(userId);
+            if (clubs != null) {
+                clubs.add(clubId);
+            }
+        }
+
+        void iterate(Map<String, LoadStats> stats) {
+            User user = users.get(next++ % users.size());
+            JsonNode tokens = send(stats, LOGIN, post("/api/auth/login",
+                    "{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + DatasetGenerator.PASSWORD + "\"}"));
+            if (tokens == null) {
+                return;
+            }
+            String authorization = "Bearer " + tokens.path("accessToken").asText();
+
+            send(stats, CLUBS, get("/api/clubs"));
+            Long clubId = unjoinedClub(user.getId());
+            if (clubId == null) {
+                clubId = dataset.clubs().get(random.nextInt(dataset.clubs().size())).getId();
+            }
+            send(stats, CLUB, get("/api/clubs/" + clubId));
+            send(stats, UPCOMING, get("/api/evenements/upcoming?size=20"));
+            send(stats, CLUB_UPCOMING, get("/api/evenements/upcoming?size=20&clubId=" + clubId));
+
+            if (joined.get(user.getId()).add(clubId)) {
+                JsonNode demand = send(stats, CREATE_DEMAND, HttpRequest.newBuilder(uri("/api/demands/create?clubId=" + clubId))
+                        .header("Authorization", authorization)
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build());
+                // The president's side of the same request
+                send(stats, PENDING_DEMANDS, get("/api/demands/club/" + clubId + "/pending"));
+                String presidentAuthorization = presidentAuthorization(stats, clubId);
+                if (demand != null && presidentAuthorization != null
+                        && send(stats, APPROVE_DEMAND, HttpRequest.newBuilder(uri("/api/demands/approve/" + demand.path("id").asLong()))
+                                .header("Authorization", presidentAuthorization)
+                                .PUT(HttpRequest.BodyPublishers.noBody())
+                                .build()) == null) {
+                    // Likely an expired token on a long run: log the president in again next time
+                    presidentAuthorizations.remove(clubId);
+                }
+            }
+
+            List<Long> upcoming = dataset.upcomingEvenements().get(clubId);
+            if (upcoming != null && !upcoming.isEmpty()) {
+                Long evenementId = upcoming.get(random.nextInt(upcoming.size()));
+                send(stats, PARTICIPATE, post("/api/participations", "{\"user\":{\"id\":" + user.getId()
+                        + "},\"evenement\":{\"id\":" + evenementId + "},\"date\":" + System.currentTimeMillis() + "}"));
+            }
+
+            List<Long> attested = dataset.attestedEvenements();
+            if (!attested.isEmpty()) {
+                send(stats, ATTESTATION, get("/api/attestations/evenement/" + attested.get(random.nextInt(attested.size()))));
+            }
+        }
+
+        private String presidentAuthorization(Map<String, LoadStats> stats, Long clubId) {
+            String authorization = presidentAuthorizations.get(clubId);
+            if (authorization != null) {
+                return authorization;
+            }
+            Long presidentId = dataset.presidents().get(clubId);
+            Optional<User> president = dataset.users().stream().filter(user -> user.getId().equals(presidentId)).findFirst();
+            if (president.isEmpty()) {
+                return null;
+            }
+            JsonNode tokens = send(stats, LOGIN, post("/api/auth/login",
+                    "{\"email\":\"" + president.get().getEmail() + "\",\"password\":\"" + DatasetGenerator.PASSWORD + "\"}"));
+            if (tokens == null) {
+                return null;
+            }
+            authorization = "Bearer " + tokens.path("accessToken").asText();
+            presidentAuthorizations.put(clubId, authorization);
+            return authorization;
+        }
+
+        private Long unjoinedClub(Long userId) {
+            Set<Long> clubs = joined.get(userId);
+            int count = dataset.clubs().size();
+            int offset = random.nextInt(count);
+            for (int i = 0; i < count; i++) {
+                Long clubId = dataset.clubs().get((offset + i) % count).getId();
+                if (!clubs.contains(clubId)) {
+                    return clubId;
+                }
+            }
+            return null;
+        }
+
+        // The response body as JSON on a 2xx, null otherwise; the status is tallied either way
+        private JsonNode send(Map<String, LoadStats> stats, String endpoint, HttpRequest request) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                stats.get(endpoint).record(System.nanoTime() - start, response.statusCode(), response.body().length);
+                if (response.statusCode() / 100 != 2) {
+                    return null;
+                }
+                return response.body().length == 0 ? JSON.nullNode() : JSON.readTree(response.body());
+            } catch (IOException e) {
+                stats.get(endpoint).record(System.nanoTime() - start, 0, 0);
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.myapp.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-worker latency and status tally for the HTTP load harnesses; merged once the run ends.
+ */
+public final class LoadStats {
+
+    private long[] latencies = new long[1 << 16];
+    private int count;
+    private long bytes;
+    private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+    public void record(long nanos, int status, long length) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+        bytes += length;
+        statuses.merge(status, 1, Integer::sum);
+    }
+
+    public void merge(LoadStats other) {
+        if (count + other.count > latencies.length) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+        }
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+        bytes += other.bytes;
+        other.statuses.forEach((status, n) -> statuses.merge(status, n, Integer::sum));
+    }
+
+    public void print(String name, int seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        System.out.printf("%-60s %9.0f req/s %9.1f MB/s  p50 %7.2f ms  p95 %7.2f ms  p99 %7.2f ms  %s%n",
+                name,
+                count / (double) seconds,
+                bytes / (double) seconds / (1024 * 1024),
+                percentile(sorted, 0.50) / 1e6,
+                percentile(sorted, 0.95) / 1e6,
+                percentile(sorted, 0.99) / 1e6,
+                statuses);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.myapp.media;
+
+import com.example.myapp.load.LoadStats;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * HTTP load harness for the image endpoints. Point it at a running instance (before and after a
+ * change) and compare the report lines:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.myapp.media.MediaLoadTest \
+ *     -Djmh.args="http://localhost:8081 /api/media/&lt;key&gt;.png,/api/clubs/logos/&lt;file&gt;.png 32 30"
+ * </pre>
+ * Every path is hit twice: once as a cold fetch and once as a browser revalidation that replays
+ * the ETag from the first response.
+ */
+public class MediaLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: MediaLoadTest <baseUrl> <path[,path...]> [concurrency=32] [seconds=20]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        String[] paths = args[1].split(",");
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(concurrency))
+                .build();
+
+        for (String path : paths) {
+            URI uri = URI.create(baseUrl + path);
+            HttpResponse<byte[]> probe = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofByteArray());
+            String etag = probe.headers().firstValue("ETag").orElse(null);
+
+            run(path + " full", client, HttpRequest.newBuilder(uri).build(), concurrency, seconds);
+            if (etag != null) {
+                HttpRequest revalidate = HttpRequest.newBuilder(uri).header("If-None-Match", etag).build();
+                run(path + " revalidate", client, revalidate, concurrency, seconds);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(String name, HttpClient client, HttpRequest request, int concurrency, int seconds) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Future<LoadStats>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(workers.submit(() -> {
+                LoadStats stats = new LoadStats();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                    stats.record(System.nanoTime() - start, response.statusCode(), response.body().length);
+                }
+                return stats;
+            }));
+        }
+        LoadStats total = new LoadStats();
+        for (Future<LoadStats> future : futures) {
+            total.merge(future.get());
+        }
+        workers.shutdown();
+        total.print(name, seconds);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.myapp.media;
+
+import com.example.myapp.load.LoadStats;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Concurrent upload throughput and latency against a running instance, through the raw streaming
+ * endpoint and the multipart one, synchronous and async:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.myapp.media.MediaUploadLoadTest \
+ *     -Djmh.args="http://localhost:8081 2097152 16 30"
+ * </pre>
+ * Every request carries distinct bytes so deduplication cannot short-circuit the write path.
+ */
+public class MediaUploadLoadTest {
+
+    private static final String BOUNDARY = "----media-upload-load-test";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: MediaUploadLoadTest <baseUrl> [sizeBytes=1048576] [concurrency=16] [seconds=20]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 1024 * 1024;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(concurrency))
+                .build();
+
+        for (String mode : new String[] {"raw", "raw async", "multipart", "multipart async"}) {
+            run(mode + " " + size + " B", client, baseUrl, mode, size, concurrency, seconds);
+        }
+        System.exit(0);
+    }
+
+    private static void run(String name, HttpClient client, String baseUrl, String mode,
+                            int size, int concurrency, int seconds) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Future<LoadStats>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(workers.submit(() -> {
+                LoadStats stats = new LoadStats();
+                byte[] body = new byte[size];
+                ThreadLocalRandom.current().nextBytes(body);
+                long sequence = 0;
+                while (System.nanoTime() < deadline) {
+                    ByteBuffer.wrap(body).putLong(Thread.currentThread().getId() << 40 | sequence++);
+                    HttpRequest request = request(baseUrl, mode, body);
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    stats.record(System.nanoTime() - start, response.statusCode(), body.length);
+                }
+                return stats;
+            }));
+        }
+        LoadStats total = new LoadStats();
+        for (Future<LoadStats> future : futures) {
+            total.merge(future.get());
+        }
+        workers.shutdown();
+        total.print(name, seconds);
+    }
+
+    private static HttpRequest request(String baseUrl, String mode, byte[] body) {
+        boolean async = mode.endsWith("async");
+        if (mode.startsWith("raw")) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/media?filename=load.bin" + (async ? "&async=true" : "")))
+                    .header("Content-Type", "application/octet-stream")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+        }
+        byte[] head = ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"load.bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes();
+        byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes();
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/upload" + (async ? "?async=true" : "")))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(head, body, tail)))
+                .build();
+    }
+}
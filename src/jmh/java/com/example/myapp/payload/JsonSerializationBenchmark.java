@@ -0,0 +1,177 @@
+package com.example.myapp.payload;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Demand;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.DemandStatus;
+import com.example.myapp.enums.EventType;
+import com.example.myapp.enums.Role;
+import com.example.myapp.payload.response.ClubSummary;
+import com.example.myapp.payload.response.DemandSummary;
+import com.example.myapp.payload.response.EvenementSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing a response page of clubs, events or demands with the ObjectMapper settings
+ * Spring MVC uses, as entity graphs (a club with its events, an event with its club, a demand
+ * with its user and club) and as the flat summaries the read endpoints return. Page sizes are
+ * one item, the default page and the maximum page. Bytes go to a reused buffer, as they would
+ * to the response stream.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="JsonSerializationBenchmark"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(1)
+public class JsonSerializationBenchmark {
+
+    private static final String DESCRIPTION = "Atelier ouvert à tous les étudiants, venez découvrir le club, "
+            + "rencontrer les membres et participer aux projets de l'année. Inscription sur place.";
+    private static final int EVENTS_PER_CLUB = 8;
+
+    @Param({"1", "50", "500"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+
+    private List<Club> clubs;
+    private List<Evenement> evenements;
+    private List<Demand> demands;
+    private List<ClubSummary> clubSummaries;
+    private List<EvenementSummary> evenementSummaries;
+    private List<DemandSummary> demandSummaries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        clubs = new ArrayList<>();
+        evenements = new ArrayList<>();
+        demands = new ArrayList<>();
+        clubSummaries = new ArrayList<>();
+        evenementSummaries = new ArrayList<>();
+        demandSummaries = new ArrayList<>();
+        Date now = new Date();
+        for (long i = 1; i <= size; i++) {
+            // A club with its events, whose back-references are left out as a detached graph would be
+            Club club = club(i);
+            List<Evenement> clubEvents = new ArrayList<>();
+            for (long e = 0; e < EVENTS_PER_CLUB; e++) {
+                clubEvents.add(evenement(i * EVENTS_PER_CLUB + e, null, now));
+            }
+            club.setEvenements(clubEvents);
+            clubs.add(club);
+
+            evenements.add(evenement(i, club(i), now));
+
+            Demand demand = new Demand();
+            demand.setId(i);
+            demand.setUser(user(i));
+            demand.setClub(club(i));
+            demand.setStatus(DemandStatus.PENDING);
+            demand.setRequestDate(now);
+            demand.setComment("Je souhaite rejoindre le club pour participer aux activités.");
+            demands.add(demand);
+
+            clubSummaries.add(new ClubSummary(i, "Club " + i, DESCRIPTION, "/api/media/" + i + ".png"));
+            evenementSummaries.add(new EvenementSummary(i, "Événement " + i, DESCRIPTION, now, "/api/media/" + i + ".jpg",
+                    EventType.WORKSHOP, i, "Club " + i));
+            demandSummaries.add(new DemandSummary(i, i, "Nom" + i, "Prénom" + i, i, "Club " + i, DemandStatus.PENDING,
+                    now, null, demand.getComment()));
+        }
+    }
+
+    @Benchmark
+    public int clubsWithEvents() throws IOException {
+        return write(clubs);
+    }
+
+    @Benchmark
+    public int evenementsWithClub() throws IOException {
+        return write(evenements);
+    }
+
+    @Benchmark
+    public int demandsWithUserAndClub() throws IOException {
+        return write(demands);
+    }
+
+    @Benchmark
+    public int clubSummaries() throws IOException {
+        return write(clubSummaries);
+    }
+
+    @Benchmark
+    public int evenementSummaries() throws IOException {
+        return write(evenementSummaries);
+    }
+
+    @Benchmark
+    public int demandSummaries() throws IOException {
+        return write(demandSummaries);
+    }
+
+    private int write(Object value) throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, value);
+        return out.size();
+    }
+
+    private static Club club(long id) {
+        Club club = new Club();
+        club.setId(id);
+        club.setNom("Club " + id);
+        club.setDescription(DESCRIPTION);
+        club.setLogopath("/api/media/" + id + ".png");
+        return club;
+    }
+
+    private static Evenement evenement(long id, Club club, Date date) {
+        Evenement evenement = new Evenement();
+        evenement.setId(id);
+        evenement.setTitre("Événement " + id);
+        evenement.setDescription(DESCRIPTION);
+        evenement.setDate(date);
+        evenement.setImageurl("/api/media/" + id + ".jpg");
+        evenement.setEventType(EventType.WORKSHOP);
+        evenement.setClub(club);
+        return evenement;
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setNom("Nom" + id);
+        user.setPrenom("Prénom" + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setMdp("$2a$10$abcdefghijklmnopqrstuuN9bqE0S1sVYbVhQ2l0N4m1r7y3xGq6");
+        user.setRole(Role.USER);
+        return user;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.myapp.search;
+
+import com.example.myapp.enums.SearchType;
+import com.example.myapp.payload.response.ClubSummary;
+import com.example.myapp.payload.response.EvenementSummary;
+import com.example.myapp.payload.response.SearchResults;
+import com.example.myapp.payload.response.UserSummary;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Search latency over an index of 100k clubs, events and users whose text mixes a few dozen
+ * French topic words into a larger filler vocabulary. Sample mode reports the latency
+ * distribution (p50, p90, p99...) of each query shape; add {@code -t} to measure it under
+ * concurrent callers.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="SearchIndexBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(1)
+public class SearchIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "atelier", "conférence", "échecs", "théâtre", "musique", "randonnée", "cinéma", "débat",
+            "photographie", "robotique", "programmation", "sécurité", "écologie", "littérature", "peinture",
+            "danse", "football", "natation", "journalisme", "entrepreneuriat", "intelligence", "artificielle",
+            "réseau", "données", "espace", "astronomie", "chimie", "histoire", "géographie", "cuisine",
+            "bénévolat", "solidarité", "voyage", "langues", "anglais", "espagnol", "découverte", "initiation",
+            "tournoi", "soirée", "rencontre", "concours", "formation", "séminaire", "exposition", "projection"
+    };
+    private static final String[] SYLLABLES = {
+            "ba", "cé", "di", "fo", "gu", "la", "mé", "no", "pi", "ré", "sa", "té", "vo", "zu", "ch", "an", "on", "eu"
+    };
+    private static final String[] NAMES = {
+            "Hélène", "Léa", "Chloé", "Zoé", "Jérôme", "François", "Étienne", "Noël", "Amélie", "Benoît",
+            "Martin", "Bernard", "Dubois", "Lefèvre", "Moreau", "Girard", "Lambert", "Rousseau", "Mercier", "Fontaine"
+    };
+
+    @Param({"100000"})
+    private int documents;
+
+    private SearchIndex index;
+    private String[] lexicon;
+    private final Set<SearchType> all = EnumSet.allOf(SearchType.class);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        // Filler vocabulary, so topic words are common without being in every document
+        lexicon = new String[5000];
+        for (int i = 0; i < lexicon.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int syllable = 0; syllable < 2 + random.nextInt(3); syllable++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            lexicon[i] = word.toString();
+        }
+        index = new SearchIndex(new ByteBuffersDirectory());
+        Iterator<SearchDocument> generated = LongStream.rangeClosed(1, documents)
+                .mapToObj(id -> generate(id, random))
+                .iterator();
+        index.replaceAll(generated);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Benchmark
+    public SearchResults singleWord() {
+        return index.search("robotique", all, 0, 20);
+    }
+
+    @Benchmark
+    public SearchResults accentsAndElision() {
+        return index.search("l'ecologie debats", all, 0, 20);
+    }
+
+    @Benchmark
+    public SearchResults typedPrefix() {
+        return index.search("conf intel", all, 0, 20);
+    }
+
+    @Benchmark
+    public SearchResults shortPrefixFilteredByType() {
+        return index.search("fon", EnumSet.of(SearchType.USER), 0, 20);
+    }
+
+    @Benchmark
+    public SearchResults deepPage() {
+        return index.search("atelier", all, 40, 20);
+    }
+
+    private SearchDocument generate(long id, Random random) {
+        return switch ((int) (id % 3)) {
+            case 0 -> SearchDocument.of(club(id, "Club " + words(random, 2), words(random, 25)));
+            case 1 -> SearchDocument.of(evenement(id, capitalize(words(random, 4)), words(random, 40)));
+            default -> SearchDocument.of(user(id, NAMES[random.nextInt(10)], NAMES[10 + random.nextInt(10)]));
+        };
+    }
+
+    private static ClubSummary club(long id, String nom, String description) {
+        return new ClubSummary(id, nom, description, null);
+    }
+
+    private static EvenementSummary evenement(long id, String titre, String description) {
+        return new EvenementSummary(id, titre, description, null, null, null, null, null);
+    }
+
+    private static UserSummary user(long id, String prenom, String nom) {
+        return new UserSummary(id, nom, prenom,
+                (prenom + "." + nom + id).toLowerCase() + "@example.com", null, null);
+    }
+
+    // One word in five is a topic word, the rest filler
+    private String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(random.nextInt(6) == 0 ? " de l'" : " ");
+            }
+            text.append(random.nextInt(5) == 0
+                    ? WORDS[random.nextInt(WORDS.length)]
+                    : lexicon[random.nextInt(lexicon.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
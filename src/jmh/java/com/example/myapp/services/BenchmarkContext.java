@@ -0,0 +1,62 @@
+package com.example.myapp.services;
+
+import com.example.myapp.MyappApplication;
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.User;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.support.TestEntities;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The application without its web layer, on the test database (in-memory H2) unless the
+ * {@code benchmark.datasource.url} system property names another, for benchmarks that go
+ * through the real services and repositories.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return start(WebApplicationType.NONE);
+    }
+
+    /**
+     * The same context with a web layer or without, the given {@code key=value} properties
+     * overriding the benchmark defaults.
+     */
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... overrides) {
+        List<String> properties = new ArrayList<>(List.of(
+                "app.security.bcrypt.strength=4",
+                "app.sql-log.sample-rate=0",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN"));
+        String url = System.getProperty("benchmark.datasource.url");
+        if (url != null) {
+            properties.add("spring.datasource.url=" + url);
+        }
+        properties.addAll(List.of(overrides));
+        return new SpringApplicationBuilder(MyappApplication.class)
+                .web(webApplicationType)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    static Club newClub(ConfigurableApplicationContext context, String name) {
+        return context.getBean(ClubRepository.class).save(TestEntities.newClub(TestEntities.uniqueName(name)));
+    }
+
+    static List<User> newUsers(ConfigurableApplicationContext context, String prefix, int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(TestEntities.newUser(TestEntities.uniqueName(prefix)));
+        }
+        return context.getBean(UserRepository.class).saveAll(users);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.myapp.services;
+
+import com.example.myapp.MyappApplication;
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.payload.response.ImportReport;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.utils.ImportRowReader;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newEvenement;
+import static com.example.myapp.support.TestEntities.uniqueName;
+
+/**
+ * Rows per second for the three bulk imports, in process against the test database (H2) or any
+ * JDBC URL given as second argument:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.myapp.services.BulkImportLoadTest \
+ *     -Djmh.args="50000 jdbc:postgresql://localhost:5433/clubs_bench?reWriteBatchedInserts=true"
+ * </pre>
+ * BCrypt runs at cost 4 so the user import measures the write path rather than hashing.
+ */
+public class BulkImportLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        List<String> properties = new ArrayList<>(List.of(
+                "app.security.bcrypt.strength=4",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN"));
+        if (args.length > 1) {
+            properties.add("spring.datasource.url=" + args[1]);
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MyappApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run()) {
+            BulkImportService bulkImportService = context.getBean(BulkImportService.class);
+            Club club = context.getBean(ClubRepository.class).save(newClub(uniqueName("bulk-import")));
+            Evenement evenement = context.getBean(EvenementRepository.class).save(newEvenement(club, club.getNom()));
+
+            StringBuilder users = new StringBuilder("nom,prenom,email,password\n");
+            StringBuilder members = new StringBuilder("email,clubId\n");
+            StringBuilder participations = new StringBuilder("email,evenementId\n");
+            for (int i = 0; i < rows; i++) {
+                String email = "bulk-" + i + "@example.com";
+                users.append("Nom").append(i).append(",Prenom,").append(email).append(",secret123\n");
+                members.append(email).append(',').append(club.getId()).append('\n');
+                participations.append(email).append(',').append(evenement.getId()).append('\n');
+            }
+
+            run("users", users, bulkImportService::importUsers);
+            run("members", members, bulkImportService::importMembers);
+            run("participations", participations, bulkImportService::importParticipations);
+        }
+        System.exit(0);
+    }
+
+    private static void run(String name, CharSequence csv, Function<ImportRowReader, ImportReport> importer) throws IOException {
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        ImportReport report;
+        try (ImportRowReader reader = new ImportRowReader(new ByteArrayInputStream(bytes), ImportRowReader.TEXT_CSV_VALUE)) {
+            report = importer.apply(reader);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-15s %8d imported %6d rejected %8.2f s %10.0f rows/s%n",
+                name, report.imported(), report.rejected(), seconds, report.received() / seconds);
+    }
+}
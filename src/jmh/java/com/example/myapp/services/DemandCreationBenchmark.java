@@ -0,0 +1,78 @@
+package com.example.myapp.services;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Demand;
+import com.example.myapp.entities.User;
+import com.example.myapp.repositories.DemandRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code DemandService.createDemand} end to end against the embedded database: the membership
+ * check, the insert and flush, the commit and the after-commit stats update. Each invocation
+ * files the same demand again; the previous one is deleted outside the measured time so the
+ * pending-demand index does not refuse it.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="DemandCreationBenchmark"};
+ * add {@code -jvmArgsAppend -Dbenchmark.datasource.url=jdbc:postgresql://...} to use PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Hibernate's query path takes some 30 seconds of calls to be fully compiled
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(1)
+public class DemandCreationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private DemandService demandService;
+    private DemandRepository demandRepository;
+    private User user;
+    private Club club;
+    private Long lastDemandId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        demandService = context.getBean(DemandService.class);
+        demandRepository = context.getBean(DemandRepository.class);
+        club = BenchmarkContext.newClub(context, "demands");
+        user = BenchmarkContext.newUsers(context, "demands", 1).get(0);
+    }
+
+    @Setup(Level.Invocation)
+    public void removePreviousDemand() {
+        if (lastDemandId != null) {
+            demandRepository.deleteById(lastDemandId);
+            lastDemandId = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Demand createDemand() {
+        Demand demand = demandService.createDemand(user, club, "Je souhaite rejoindre le club.");
+        lastDemandId = demand.getId();
+        return demand;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.myapp.services;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Member;
+import com.example.myapp.entities.User;
+import com.example.myapp.membership.MembershipIndex;
+import com.example.myapp.payload.response.MemberSummary;
+import com.example.myapp.repositories.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code MemberService.isUserMemberOfClub}, the check in front of every demand, for a member
+ * and a non-member of a club with a small or a large membership, together with the active
+ * member count and the members two clubs share. Each is measured through the service, which
+ * answers from the in-memory membership index, and through the repository path it replaced,
+ * into the embedded database.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="MembershipCheckBenchmark"};
+ * add {@code -jvmArgsAppend -Dbenchmark.datasource.url=jdbc:postgresql://...} to use PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Hibernate's query path takes some 30 seconds of calls to be fully compiled
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(1)
+public class MembershipCheckBenchmark {
+
+    @Param({"100", "10000"})
+    private int members;
+
+    private ConfigurableApplicationContext context;
+    private MemberService memberService;
+    private MemberRepository memberRepository;
+    private Club club;
+    // Holds every other member of the first club
+    private Club otherClub;
+    private User member;
+    private User outsider;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        memberService = context.getBean(MemberService.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        club = BenchmarkContext.newClub(context, "membership");
+        otherClub = BenchmarkContext.newClub(context, "membership-other");
+
+        List<User> users = BenchmarkContext.newUsers(context, "membership", members + 1);
+        List<Member> rows = new ArrayList<>(members + members / 2);
+        for (int i = 0; i < members; i++) {
+            rows.add(member(users.get(i), club));
+            if (i % 2 == 0) {
+                rows.add(member(users.get(i), otherClub));
+            }
+        }
+        memberRepository.saveAll(rows);
+        // Written around the service, so the index has to be reloaded to see them
+        context.getBean(MembershipIndex.class).rebuild();
+        member = users.get(members / 2);
+        outsider = users.get(members);
+    }
+
+    private static Member member(User user, Club club) {
+        Member row = new Member();
+        row.setUser(user);
+        row.setClub(club);
+        row.setJoinDate(new Date());
+        row.setActive(true);
+        return row;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean member() {
+        return memberService.isUserMemberOfClub(member, club);
+    }
+
+    @Benchmark
+    public boolean nonMember() {
+        return memberService.isUserMemberOfClub(outsider, club);
+    }
+
+    @Benchmark
+    public boolean repositoryMember() {
+        return memberRepository.existsByUserIdAndClubIdAndIsActiveTrue(member.getId(), club.getId());
+    }
+
+    @Benchmark
+    public boolean repositoryNonMember() {
+        return memberRepository.existsByUserIdAndClubIdAndIsActiveTrue(outsider.getId(), club.getId());
+    }
+
+    @Benchmark
+    public long activeCount() {
+        return memberService.getActiveMemberCount(club);
+    }
+
+    @Benchmark
+    public long repositoryActiveCount() {
+        return memberRepository.countByClubIdAndIsActiveTrue(club.getId());
+    }
+
+    @Benchmark
+    public List<Long> sharedMembers() {
+        return memberService.findSharedActiveUserIds(club, otherClub);
+    }
+
+    @Benchmark
+    public Set<Long> repositorySharedMembers() {
+        Set<Long> shared = new HashSet<>();
+        for (MemberSummary summary : memberRepository.findActiveSummariesByClubId(club.getId())) {
+            shared.add(summary.userId());
+        }
+        Set<Long> other = new HashSet<>();
+        for (MemberSummary summary : memberRepository.findActiveSummariesByClubId(otherClub.getId())) {
+            other.add(summary.userId());
+        }
+        shared.retainAll(other);
+        return shared;
+    }
+}
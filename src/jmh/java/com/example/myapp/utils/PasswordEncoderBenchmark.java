@@ -0,0 +1,62 @@
+package com.example.myapp.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login throughput (one verify per login) through the bounded hashing pool at several BCrypt
+ * costs. Eight caller threads stand in for concurrent Tomcat workers; the pool size is left at
+ * its default of one worker per core, as in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(8)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"8", "10", "12"})
+    private int strength;
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        passwordEncoder = new PasswordEncoder(strength, 0, 1024, 0);
+        hash = passwordEncoder.encode(PASSWORD).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        passwordEncoder.destroy();
+    }
+
+    @Benchmark
+    public boolean login() {
+        return passwordEncoder.matches(PASSWORD, hash).join();
+    }
+
+    @Benchmark
+    public String register() {
+        return passwordEncoder.encode(PASSWORD).join();
+    }
+}
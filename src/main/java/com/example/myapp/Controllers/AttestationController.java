@@ -1,17 +1,30 @@
 package com.example.myapp.Controllers;
 
 
+import com.example.myapp.attestation.AttestationCodes;
+import com.example.myapp.attestation.AttestationDocuments;
+import com.example.myapp.attestation.AttestationTemplate;
+import com.example.myapp.config.PaginationSettings;
 import com.example.myapp.entities.Attestation;
 import com.example.myapp.entities.Evenement;
+import com.example.myapp.enums.VerificationStatus;
+import com.example.myapp.payload.response.AttestationSummary;
+import com.example.myapp.payload.response.AttestationVerification;
+import com.example.myapp.payload.response.CursorPage;
 import com.example.myapp.services.AttestationService;
 import com.example.myapp.services.EvenementService;
+import com.example.myapp.utils.CursorCodec;
+import com.example.myapp.utils.NdjsonStreamer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.*;
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -21,42 +34,92 @@ public class AttestationController {
 
     private final AttestationService attestationService;
     private final EvenementService evenementService;
+    private final PaginationSettings paginationSettings;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final AttestationDocuments attestationDocuments;
+    private final AttestationCodes attestationCodes;
 
     @Autowired
     public AttestationController(
             AttestationService attestationService,
-            EvenementService evenementService
+            EvenementService evenementService,
+            PaginationSettings paginationSettings,
+            NdjsonStreamer ndjsonStreamer,
+            AttestationDocuments attestationDocuments,
+            AttestationCodes attestationCodes
     ) {
         this.attestationService = attestationService;
         this.evenementService = evenementService;
+        this.paginationSettings = paginationSettings;
+        this.ndjsonStreamer = ndjsonStreamer;
+        this.attestationDocuments = attestationDocuments;
+        this.attestationCodes = attestationCodes;
     }
 
     @GetMapping
-    public ResponseEntity<List<Attestation>> getAllAttestations() {
-        List<Attestation> attestations = attestationService.getAllAttestations();
+    public ResponseEntity<CursorPage<AttestationSummary>> getAllAttestations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        CursorPage<AttestationSummary> attestations = attestationService.getAttestationsPage(afterId, paginationSettings.resolve(size));
         return new ResponseEntity<>(attestations, HttpStatus.OK);
     }
 
+    @GetMapping(produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllAttestations(@RequestParam(required = false) String cursor) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok()
+                .contentType(NdjsonStreamer.APPLICATION_NDJSON)
+                .body(ndjsonStreamer.<AttestationSummary>stream(rows -> attestationService.streamAttestations(afterId, rows)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Attestation> getAttestationById(@PathVariable Long id) {
-        Optional<Attestation> attestation = attestationService.getAttestationById(id);
+    public ResponseEntity<AttestationSummary> getAttestationById(@PathVariable Long id) {
+        Optional<AttestationSummary> attestation = attestationService.getAttestationSummaryById(id);
         return attestation.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/evenement/{evenementId}")
-    public ResponseEntity<Attestation> getAttestationByEvenementId(@PathVariable Long evenementId) {
-        Optional<Evenement> evenement = evenementService.getEvenementById(evenementId);
-        if (evenement.isEmpty()) {
+    public ResponseEntity<AttestationSummary> getAttestationByEvenementId(@PathVariable Long evenementId) {
+        Optional<AttestationSummary> attestation = attestationService.getAttestationSummaryByEvenementId(evenementId);
+        return attestation.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    // Every participant's PDF in one ZIP, written while the documents are produced
+    @GetMapping("/evenement/{evenementId}/documents")
+    public ResponseEntity<StreamingResponseBody> downloadAttestationDocuments(@PathVariable Long evenementId) {
+        Optional<AttestationTemplate> template = attestationService.getTemplateByEvenementId(evenementId);
+        if (template.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("attestations-" + evenementId + ".zip").build().toString())
+                .body(out -> attestationDocuments.writeBundle(template.get(), out));
+    }
 
-        Attestation attestation = attestationService.getAttestationByEvenementId(evenementId);
-        if (attestation == null) {
+    // Public: anyone holding an attestation can have it confirmed
+    @GetMapping("/verify/{code}")
+    public ResponseEntity<AttestationVerification> verifyAttestation(@PathVariable String code) {
+        Optional<AttestationVerification> verification = attestationCodes.verify(code);
+        if (verification.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-
-        return new ResponseEntity<>(attestation, HttpStatus.OK);
+        HttpStatus status = verification.get().status() == VerificationStatus.VALID ? HttpStatus.OK : HttpStatus.GONE;
+        return new ResponseEntity<>(verification.get(), status);
     }
 
     @PostMapping
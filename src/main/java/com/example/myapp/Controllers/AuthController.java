@@ -0,0 +1,79 @@
+package com.example.myapp.Controllers;
+
+import com.example.myapp.auth.AuthPrincipal;
+import com.example.myapp.auth.LoginThrottledException;
+import com.example.myapp.payload.request.LoginRequest;
+import com.example.myapp.payload.request.RefreshRequest;
+import com.example.myapp.payload.response.AuthTokens;
+import com.example.myapp.services.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/auth")
+public class AuthController {
+
+    private final AuthService authService;
+
+    @Autowired
+    public AuthController(AuthService authService) {
+        this.authService = authService;
+    }
+
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody @Valid LoginRequest loginRequest,
+                                                      HttpServletRequest request) {
+        return authService.login(loginRequest, request.getRemoteAddr())
+                .<ResponseEntity<?>>thenApply(tokens -> new ResponseEntity<>(tokens, HttpStatus.OK))
+                .exceptionally(AuthController::loginFailure);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthTokens> refresh(@RequestBody @Valid RefreshRequest refreshRequest) {
+        try {
+            return new ResponseEntity<>(authService.refresh(refreshRequest.getRefreshToken()), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(AuthPrincipal principal) {
+        if (principal == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        authService.logout(principal);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @GetMapping("/me")
+    public ResponseEntity<AuthPrincipal> me(AuthPrincipal principal) {
+        if (principal == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        return new ResponseEntity<>(principal, HttpStatus.OK);
+    }
+
+    private static ResponseEntity<?> loginFailure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        // The hashing pool is full: ask the client to come back rather than queueing without bound
+        if (cause instanceof RejectedExecutionException) {
+            return new ResponseEntity<>("Service temporairement surchargé, réessayez", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (cause instanceof LoginThrottledException throttled) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(throttled.getRetryAfter().toSeconds()))
+                    .body(throttled.getMessage());
+        }
+        return new ResponseEntity<>(cause.getMessage(), HttpStatus.UNAUTHORIZED);
+    }
+}
@@ -1,67 +1,74 @@
 package com.example.myapp.Controllers;
 
 import com.example.myapp.entities.Club;
+import com.example.myapp.entities.ClubStats;
+import com.example.myapp.media.MediaFileServer;
+import com.example.myapp.media.MediaStorage;
+import com.example.myapp.payload.response.ClubSummary;
 import com.example.myapp.services.ClubService;
+import com.example.myapp.services.ClubStatsService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/clubs")
 public class ClubController {
 
     private final ClubService clubService;
+    private final ClubStatsService clubStatsService;
+    private final MediaStorage mediaStorage;
+    private final MediaFileServer mediaFileServer;
+    // Logos uploaded before the shared media store are still served from here
     private final Path fileStoragePath;
     private final String fileStorageLocation = "uploads/images/clubs";
 
     @Autowired
-    public ClubController(ClubService clubService) {
+    public ClubController(ClubService clubService, ClubStatsService clubStatsService, MediaStorage mediaStorage,
+                          MediaFileServer mediaFileServer) {
         this.clubService = clubService;
+        this.clubStatsService = clubStatsService;
+        this.mediaStorage = mediaStorage;
+        this.mediaFileServer = mediaFileServer;
         this.fileStoragePath = Paths.get(fileStorageLocation).toAbsolutePath().normalize();
-
-        try {
-            Files.createDirectories(this.fileStoragePath);
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
-        }
     }
 
     @GetMapping
-    public ResponseEntity<List<Club>> getAllClubs() {
-        List<Club> clubs = clubService.getAllClubs();
+    public ResponseEntity<List<ClubSummary>> getAllClubs() {
+        List<ClubSummary> clubs = clubService.getAllClubSummaries();
         return new ResponseEntity<>(clubs, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Club> getClubById(@PathVariable Long id) {
-        return clubService.getClubById(id)
+    public ResponseEntity<ClubSummary> getClubById(@PathVariable Long id) {
+        return clubService.getClubSummaryById(id)
                 .map(club -> new ResponseEntity<>(club, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<ClubStats> getClubStats(@PathVariable Long id) {
+        return clubStatsService.getStats(id)
+                .map(stats -> new ResponseEntity<>(stats, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
     @GetMapping("/nom/{nom}")
-    public ResponseEntity<Club> getClubByNom(@PathVariable String nom) {
-        Club club = clubService.getClubByNom(nom);
-        return club != null ?
-                new ResponseEntity<>(club, HttpStatus.OK) :
-                new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    public ResponseEntity<ClubSummary> getClubByNom(@PathVariable String nom) {
+        return clubService.getClubSummaryByNom(nom)
+                .map(club -> new ResponseEntity<>(club, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @PostMapping(consumes = { MediaType.MULTIPART_FORM_DATA_VALUE })
@@ -70,8 +77,11 @@ public class ClubController {
             @RequestPart(value = "logo", required = false) MultipartFile logo) {
 
         if (logo != null && !logo.isEmpty()) {
-            String logoPath = saveLogo(logo);
+            String logoPath = mediaStorage.urlFor(mediaStorage.store(logo));
             club.setLogopath(logoPath);
+        } else {
+            // A path sent by the client holds no reference on its blob, so it is never stored
+            club.setLogopath(null);
         }
 
         Club savedClub = clubService.saveClub(club);
@@ -88,19 +98,29 @@ public class ClubController {
                 .map(existingClub -> {
                     club.setId(id);
 
+                    String storedLogo = null;
                     if (logo != null && !logo.isEmpty()) {
-                        // Delete old logo if exists
-                        if (existingClub.getLogopath() != null) {
-                            deleteLogoFile(existingClub.getLogopath());
-                        }
-                        String logoPath = saveLogo(logo);
-                        club.setLogopath(logoPath);
+                        storedLogo = mediaStorage.urlFor(mediaStorage.store(logo));
+                        club.setLogopath(storedLogo);
                     } else {
                         // Keep the existing logo if no new logo is provided
                         club.setLogopath(existingClub.getLogopath());
                     }
 
-                    Club updatedClub = clubService.saveClub(club);
+                    Club updatedClub;
+                    try {
+                        updatedClub = clubService.saveClub(club);
+                    } catch (RuntimeException e) {
+                        if (storedLogo != null) {
+                            mediaStorage.release(storedLogo);
+                        }
+                        throw e;
+                    }
+                    // Release the old logo only once the club points at the new one, and after
+                    // storing it, in case they are the same blob
+                    if (storedLogo != null && existingClub.getLogopath() != null) {
+                        mediaStorage.release(existingClub.getLogopath());
+                    }
                     return new ResponseEntity<>(updatedClub, HttpStatus.OK);
                 })
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
@@ -110,9 +130,9 @@ public class ClubController {
     public ResponseEntity<Void> deleteClub(@PathVariable Long id) {
         return clubService.getClubById(id)
                 .map(club -> {
-                    // Delete associated logo if exists
+                    // Drop this club's reference to its logo
                     if (club.getLogopath() != null) {
-                        deleteLogoFile(club.getLogopath());
+                        mediaStorage.release(club.getLogopath());
                     }
                     clubService.deleteClub(id);
                     return new ResponseEntity<Void>(HttpStatus.NO_CONTENT);
@@ -121,50 +141,7 @@ public class ClubController {
     }
 
     @GetMapping("/logos/{filename:.+}")
-    public ResponseEntity<Resource> getLogo(@PathVariable String filename) {
-        try {
-            Path filePath = this.fileStoragePath.resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists()) {
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (MalformedURLException ex) {
-            return ResponseEntity.badRequest().build();
-        }
-    }
-
-    private String saveLogo(MultipartFile file) {
-        try {
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String newFilename = UUID.randomUUID().toString() + fileExtension;
-
-            Path targetLocation = this.fileStoragePath.resolve(newFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/api/clubs/logos/")
-                    .path(newFilename)
-                    .toUriString();
-
-            return fileDownloadUri;
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not store file. Please try again!", ex);
-        }
-    }
-
-    private void deleteLogoFile(String logoUrl) {
-        try {
-            String filename = logoUrl.substring(logoUrl.lastIndexOf('/') + 1);
-            Path filePath = this.fileStoragePath.resolve(filename).normalize();
-            Files.deleteIfExists(filePath);
-        } catch (IOException ex) {
-            System.err.println("Error deleting logo file: " + ex.getMessage());
-        }
+    public void getLogo(@PathVariable String filename, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        mediaFileServer.serveFrom(request, response, this.fileStoragePath, filename);
     }
-}
\ No newline at end of file
+}
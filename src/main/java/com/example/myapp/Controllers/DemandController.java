@@ -1,16 +1,28 @@
 package com.example.myapp.Controllers;
 
+import com.example.myapp.auth.AuthPrincipal;
+import com.example.myapp.config.PaginationSettings;
 import com.example.myapp.entities.Demand;
 import com.example.myapp.entities.Club;
 import com.example.myapp.entities.User;
 import com.example.myapp.enums.DemandStatus;
+import com.example.myapp.enums.Role;
+import com.example.myapp.payload.request.DemandBatchRequest;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.DemandBatchResult;
+import com.example.myapp.payload.response.DemandSummary;
 import com.example.myapp.services.DemandService;
 import com.example.myapp.services.ClubService;
+import com.example.myapp.services.PresidentService;
 import com.example.myapp.services.UserService;
+import com.example.myapp.utils.CursorCodec;
+import com.example.myapp.utils.NdjsonStreamer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,73 +34,97 @@ public class DemandController {
     private final DemandService demandService;
     private final ClubService clubService;
     private final UserService userService;
+    private final PresidentService presidentService;
+    private final PaginationSettings paginationSettings;
+    private final NdjsonStreamer ndjsonStreamer;
 
     @Autowired
-    public DemandController(DemandService demandService, ClubService clubService, UserService userService) {
+    public DemandController(DemandService demandService, ClubService clubService, UserService userService, PresidentService presidentService, PaginationSettings paginationSettings, NdjsonStreamer ndjsonStreamer) {
         this.demandService = demandService;
         this.clubService = clubService;
         this.userService = userService;
+        this.presidentService = presidentService;
+        this.paginationSettings = paginationSettings;
+        this.ndjsonStreamer = ndjsonStreamer;
     }
 
     @GetMapping
-    public ResponseEntity<List<Demand>> getAllDemands() {
-        List<Demand> demands = demandService.findAll();
+    public ResponseEntity<CursorPage<DemandSummary>> getAllDemands(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        CursorPage<DemandSummary> demands = demandService.findPage(afterId, paginationSettings.resolve(size));
         return new ResponseEntity<>(demands, HttpStatus.OK);
     }
 
+    @GetMapping(produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllDemands(@RequestParam(required = false) String cursor) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok()
+                .contentType(NdjsonStreamer.APPLICATION_NDJSON)
+                .body(ndjsonStreamer.<DemandSummary>stream(rows -> demandService.streamAll(afterId, rows)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Demand> getDemandById(@PathVariable Long id) {
-        Optional<Demand> demand = demandService.findById(id);
+    public ResponseEntity<DemandSummary> getDemandById(@PathVariable Long id) {
+        Optional<DemandSummary> demand = demandService.findSummaryById(id);
         return demand
                 .map(value -> new ResponseEntity<>(value, HttpStatus.OK))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/club/{clubId}")
-    public ResponseEntity<List<Demand>> getDemandsByClub(@PathVariable Long clubId) {
-        Optional<Club> club = clubService.getClubById(clubId);
-        if (club.isPresent()) {
-            List<Demand> demands = demandService.findByClub(club.get());
-            return new ResponseEntity<>(demands, HttpStatus.OK);
+    public ResponseEntity<List<DemandSummary>> getDemandsByClub(@PathVariable Long clubId) {
+        List<DemandSummary> demands = demandService.findSummariesByClubId(clubId);
+        // Only an empty result needs the extra lookup to tell "no demands" from "no such club"
+        if (demands.isEmpty() && clubService.getClubById(clubId).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(demands, HttpStatus.OK);
     }
 
     @GetMapping("/club/{clubId}/pending")
-    public ResponseEntity<List<Demand>> getPendingDemandsByClub(@PathVariable Long clubId) {
-        Optional<Club> club = clubService.getClubById(clubId);
-        if (club.isPresent()) {
-            List<Demand> pendingDemands = demandService.findPendingDemandsByClub(club.get());
-            return new ResponseEntity<>(pendingDemands, HttpStatus.OK);
+    public ResponseEntity<List<DemandSummary>> getPendingDemandsByClub(@PathVariable Long clubId) {
+        List<DemandSummary> pendingDemands = demandService.findPendingSummariesByClubId(clubId);
+        if (pendingDemands.isEmpty() && clubService.getClubById(clubId).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(pendingDemands, HttpStatus.OK);
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Demand>> getDemandsByUser(@PathVariable Long userId) {
-        Optional<User> user = userService.getUserById(userId);
-        if (user.isPresent()) {
-            List<Demand> demands = demandService.findByUser(user.get());
-            return new ResponseEntity<>(demands, HttpStatus.OK);
+    public ResponseEntity<List<DemandSummary>> getDemandsByUser(@PathVariable Long userId) {
+        List<DemandSummary> demands = demandService.findSummariesByUserId(userId);
+        if (demands.isEmpty() && userService.getUserById(userId).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(demands, HttpStatus.OK);
     }
 
     @GetMapping("/user/{userId}/pending")
-    public ResponseEntity<List<Demand>> getPendingDemandsByUser(@PathVariable Long userId) {
-        Optional<User> user = userService.getUserById(userId);
-        if (user.isPresent()) {
-            List<Demand> pendingDemands = demandService.findPendingDemandsByUser(user.get());
-            return new ResponseEntity<>(pendingDemands, HttpStatus.OK);
+    public ResponseEntity<List<DemandSummary>> getPendingDemandsByUser(@PathVariable Long userId) {
+        List<DemandSummary> pendingDemands = demandService.findPendingSummariesByUserId(userId);
+        if (pendingDemands.isEmpty() && userService.getUserById(userId).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(pendingDemands, HttpStatus.OK);
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Demand>> getDemandsByStatus(@PathVariable String status) {
+    public ResponseEntity<List<DemandSummary>> getDemandsByStatus(@PathVariable String status) {
         try {
             DemandStatus demandStatus = DemandStatus.valueOf(status.toUpperCase());
-            List<Demand> demands = demandService.findByStatus(demandStatus);
+            List<DemandSummary> demands = demandService.findSummariesByStatus(demandStatus);
             return new ResponseEntity<>(demands, HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
@@ -96,8 +132,13 @@ public class DemandController {
     }
 
     @GetMapping("/check")
-    public ResponseEntity<Boolean> checkActiveDemand(@RequestParam Long userId, @RequestParam Long clubId) {
-        Optional<User> user = userService.getUserById(userId);
+    public ResponseEntity<Boolean> checkActiveDemand(@RequestParam(required = false) Long userId, @RequestParam Long clubId,
+                                                     AuthPrincipal principal) {
+        Long actingUserId = AuthPrincipal.actingUserId(principal, userId);
+        if (actingUserId == null) {
+            return new ResponseEntity<>(principal == null ? HttpStatus.BAD_REQUEST : HttpStatus.FORBIDDEN);
+        }
+        Optional<User> user = userService.getUserById(actingUserId);
         Optional<Club> club = clubService.getClubById(clubId);
 
         if (user.isPresent() && club.isPresent()) {
@@ -108,28 +149,37 @@ public class DemandController {
     }
 
     @GetMapping("/latest")
-    public ResponseEntity<Demand> getLatestDemand(@RequestParam Long userId, @RequestParam Long clubId) {
-        Optional<User> user = userService.getUserById(userId);
-        Optional<Club> club = clubService.getClubById(clubId);
-
-        if (user.isPresent() && club.isPresent()) {
-            Optional<Demand> latestDemand = demandService.getLatestDemand(user.get(), club.get());
-            return latestDemand
-                    .map(value -> new ResponseEntity<>(value, HttpStatus.OK))
-                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<DemandSummary> getLatestDemand(@RequestParam(required = false) Long userId, @RequestParam Long clubId,
+                                                         AuthPrincipal principal) {
+        Long actingUserId = AuthPrincipal.actingUserId(principal, userId);
+        if (actingUserId == null) {
+            return new ResponseEntity<>(principal == null ? HttpStatus.BAD_REQUEST : HttpStatus.FORBIDDEN);
         }
-        return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        Optional<DemandSummary> latestDemand = demandService.getLatestDemandSummary(actingUserId, clubId);
+        if (latestDemand.isPresent()) {
+            return new ResponseEntity<>(latestDemand.get(), HttpStatus.OK);
+        }
+        if (userService.getUserById(actingUserId).isEmpty() || clubService.getClubById(clubId).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
+    // With a bearer token the demand is the caller's own; userId is only for clients without one
     @PostMapping("/create")
-    public ResponseEntity<?> createDemand(@RequestParam Long userId, @RequestParam Long clubId, @RequestParam(required = false) String comment) {
-        Optional<User> user = userService.getUserById(userId);
+    public ResponseEntity<?> createDemand(@RequestParam(required = false) Long userId, @RequestParam Long clubId,
+                                          @RequestParam(required = false) String comment, AuthPrincipal principal) {
+        Long actingUserId = AuthPrincipal.actingUserId(principal, userId);
+        if (actingUserId == null) {
+            return new ResponseEntity<>(principal == null ? HttpStatus.BAD_REQUEST : HttpStatus.FORBIDDEN);
+        }
+        Optional<User> user = userService.getUserById(actingUserId);
         Optional<Club> club = clubService.getClubById(clubId);
 
         if (user.isPresent() && club.isPresent()) {
             try {
                 Demand demand = demandService.createDemand(user.get(), club.get(), comment);
-                return new ResponseEntity<>(demand, HttpStatus.CREATED);
+                return new ResponseEntity<>(summaryOf(demand), HttpStatus.CREATED);
             } catch (IllegalStateException e) {
                 return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
             }
@@ -138,22 +188,52 @@ public class DemandController {
     }
 
     @PutMapping("/approve/{demandId}")
-    public ResponseEntity<?> approveDemand(@PathVariable Long demandId) {
+    public ResponseEntity<?> approveDemand(@PathVariable Long demandId, AuthPrincipal principal) {
+        ResponseEntity<?> refusal = refuseUnlessDeciderOfDemand(principal, demandId);
+        if (refusal != null) {
+            return refusal;
+        }
         try {
             Demand approvedDemand = demandService.approveDemand(demandId);
-            return new ResponseEntity<>(approvedDemand, HttpStatus.OK);
+            return new ResponseEntity<>(summaryOf(approvedDemand), HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
     @PutMapping("/reject/{demandId}")
-    public ResponseEntity<?> rejectDemand(@PathVariable Long demandId, @RequestParam String rejectionReason) {
+    public ResponseEntity<?> rejectDemand(@PathVariable Long demandId, @RequestParam String rejectionReason,
+                                          AuthPrincipal principal) {
+        ResponseEntity<?> refusal = refuseUnlessDeciderOfDemand(principal, demandId);
+        if (refusal != null) {
+            return refusal;
+        }
         try {
             Demand rejectedDemand = demandService.rejectDemand(demandId, rejectionReason);
-            return new ResponseEntity<>(rejectedDemand, HttpStatus.OK);
+            return new ResponseEntity<>(summaryOf(rejectedDemand), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PostMapping("/club/{clubId}/batch")
+    public ResponseEntity<?> decideDemands(@PathVariable Long clubId, @RequestBody DemandBatchRequest request,
+                                           AuthPrincipal principal) {
+        if (principal == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        if (!mayDecide(principal, clubId)) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        try {
+            DemandBatchResult result = demandService.decideDemands(
+                    clubId, request.getApprove(), request.getReject(), request.getRejectionReason());
+            return new ResponseEntity<>(result, HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (ConcurrencyFailureException e) {
+            // Another batch held some of the same rows; nothing was applied, the client may retry
+            return new ResponseEntity<>("Demands are being decided concurrently, please retry", HttpStatus.CONFLICT);
         }
     }
 
@@ -165,4 +245,34 @@ public class DemandController {
         }
         return new ResponseEntity<>("Failed to cancel demand. It may not exist or not be in a pending state.", HttpStatus.BAD_REQUEST);
     }
-}
\ No newline at end of file
+
+    /**
+     * Demands are decided by the current president of their club, or by an admin.
+     *
+     * @return the response to send instead of deciding, or null when the caller may go ahead
+     */
+    private ResponseEntity<?> refuseUnlessDeciderOfDemand(AuthPrincipal principal, Long demandId) {
+        if (principal == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        Optional<Long> clubId = demandService.findClubIdById(demandId);
+        if (clubId.isEmpty()) {
+            return new ResponseEntity<>("Demand not found", HttpStatus.NOT_FOUND);
+        }
+        if (!mayDecide(principal, clubId.get())) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        return null;
+    }
+
+    private boolean mayDecide(AuthPrincipal principal, Long clubId) {
+        return principal.role() == Role.ADMIN || presidentService.isCurrentPresident(principal.userId(), clubId);
+    }
+
+    // The entity's user has lazy collections that cannot be written once the session is gone
+    private static DemandSummary summaryOf(Demand demand) {
+        return new DemandSummary(demand.getId(), demand.getUser().getId(), demand.getUser().getNom(),
+                demand.getUser().getPrenom(), demand.getClub().getId(), demand.getClub().getNom(), demand.getStatus(),
+                demand.getRequestDate(), demand.getResponseDate(), demand.getComment());
+    }
+}
@@ -1,82 +1,138 @@
 package com.example.myapp.Controllers;
 
+import com.example.myapp.config.PaginationSettings;
 import com.example.myapp.entities.Evenement;
 import com.example.myapp.enums.EventType;
+import com.example.myapp.feed.UpcomingEventsFeed;
+import com.example.myapp.media.MediaFileServer;
+import com.example.myapp.media.MediaStorage;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.EvenementSummary;
 import com.example.myapp.services.EvenementService;
+import com.example.myapp.utils.CursorCodec;
+import com.example.myapp.utils.NdjsonStreamer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/evenements")
 public class EvenementController {
 
     private final EvenementService evenementService;
+    private final UpcomingEventsFeed upcomingEventsFeed;
+    private final PaginationSettings paginationSettings;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final MediaStorage mediaStorage;
+    private final MediaFileServer mediaFileServer;
+    // Images uploaded before the shared media store are still served from here
     private final Path fileStoragePath;
     private final String fileStorageLocation = "uploads/images/evenements";
 
     @Autowired
-    public EvenementController(EvenementService evenementService) {
+    public EvenementController(EvenementService evenementService, UpcomingEventsFeed upcomingEventsFeed,
+                               PaginationSettings paginationSettings, NdjsonStreamer ndjsonStreamer,
+                               MediaStorage mediaStorage, MediaFileServer mediaFileServer) {
         this.evenementService = evenementService;
+        this.upcomingEventsFeed = upcomingEventsFeed;
+        this.paginationSettings = paginationSettings;
+        this.ndjsonStreamer = ndjsonStreamer;
+        this.mediaStorage = mediaStorage;
+        this.mediaFileServer = mediaFileServer;
         this.fileStoragePath = Paths.get(fileStorageLocation).toAbsolutePath().normalize();
+    }
 
-        // Create directory if it doesn't exist
+    @GetMapping
+    public ResponseEntity<CursorPage<EvenementSummary>> getAllEvenements(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        long afterId;
         try {
-            Files.createDirectories(this.fileStoragePath);
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
+        CursorPage<EvenementSummary> evenements = evenementService.getEvenementsPage(afterId, paginationSettings.resolve(size));
+        return new ResponseEntity<>(evenements, HttpStatus.OK);
     }
 
-    @GetMapping
-    public ResponseEntity<List<Evenement>> getAllEvenements() {
-        List<Evenement> evenements = evenementService.getAllEvenements();
-        return new ResponseEntity<>(evenements, HttpStatus.OK);
+    @GetMapping(produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEvenements(@RequestParam(required = false) String cursor) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok()
+                .contentType(NdjsonStreamer.APPLICATION_NDJSON)
+                .body(ndjsonStreamer.<EvenementSummary>stream(rows -> evenementService.streamEvenements(afterId, rows)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Evenement> getEvenementById(@PathVariable Long id) {
-        return evenementService.getEvenementById(id)
+    public ResponseEntity<EvenementSummary> getEvenementById(@PathVariable Long id) {
+        return evenementService.getEvenementSummaryById(id)
                 .map(evenement -> new ResponseEntity<>(evenement, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/club/{clubId}")
-    public ResponseEntity<List<Evenement>> getEvenementsByClubId(@PathVariable Long clubId) {
-        List<Evenement> evenements = evenementService.getEvenementsByClubId(clubId);
+    public ResponseEntity<List<EvenementSummary>> getEvenementsByClubId(@PathVariable Long clubId) {
+        List<EvenementSummary> evenements = evenementService.getEvenementSummariesByClubId(clubId);
         return new ResponseEntity<>(evenements, HttpStatus.OK);
     }
 
     @GetMapping("/type/{eventType}")
-    public ResponseEntity<List<Evenement>> getEvenementsByType(@PathVariable EventType eventType) {
-        List<Evenement> evenements = evenementService.getEvenementsByType(eventType);
+    public ResponseEntity<List<EvenementSummary>> getEvenementsByType(@PathVariable EventType eventType) {
+        List<EvenementSummary> evenements = evenementService.getEvenementSummariesByType(eventType);
         return new ResponseEntity<>(evenements, HttpStatus.OK);
     }
 
+    /**
+     * Home page feed, served from memory. Events after {@code date} (today onwards by default),
+     * earliest first; polling clients send If-None-Match and get a 304 until the feed changes.
+     */
     @GetMapping("/upcoming")
-    public ResponseEntity<List<Evenement>> getUpcomingEvenements(
-            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") Date date) {
-        List<Evenement> evenements = evenementService.getUpcomingEvenements(date);
-        return new ResponseEntity<>(evenements, HttpStatus.OK);
+    public ResponseEntity<CursorPage<EvenementSummary>> getUpcomingEvenements(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+            @RequestParam(required = false) Long clubId,
+            @RequestParam(required = false) EventType eventType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        CursorCodec.Position after;
+        try {
+            after = CursorCodec.decodePosition(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        LocalDate from = date != null ? date.plusDays(1) : null;
+        String etag = "W/\"" + upcomingEventsFeed.tag(from) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        CursorPage<EvenementSummary> evenements = upcomingEventsFeed.page(from, clubId, eventType, after,
+                paginationSettings.resolve(size));
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(evenements);
     }
 
     @PostMapping(consumes = { MediaType.MULTIPART_FORM_DATA_VALUE })
@@ -85,8 +141,11 @@ public class EvenementController {
             @RequestPart(value = "image", required = false) MultipartFile image) {
 
         if (image != null && !image.isEmpty()) {
-            String imagePath = saveImage(image);
+            String imagePath = mediaStorage.urlFor(mediaStorage.store(image));
             evenement.setImageurl(imagePath);
+        } else {
+            // A path sent by the client holds no reference on its blob, so it is never stored
+            evenement.setImageurl(null);
         }
 
         Evenement savedEvenement = evenementService.saveEvenement(evenement);
@@ -103,17 +162,26 @@ public class EvenementController {
                 .map(existingEvenement -> {
                     evenement.setId(id);
 
+                    String storedImage = null;
                     if (image != null && !image.isEmpty()) {
-                        if (existingEvenement.getImageurl() != null) {
-                            deleteImageFile(existingEvenement.getImageurl());
-                        }
-                        String imagePath = saveImage(image);
-                        evenement.setImageurl(imagePath);
+                        storedImage = mediaStorage.urlFor(mediaStorage.store(image));
+                        evenement.setImageurl(storedImage);
                     } else {
                         evenement.setImageurl(existingEvenement.getImageurl());
                     }
 
-                    evenementService.updateEvenement(evenement);
+                    try {
+                        evenementService.updateEvenement(evenement);
+                    } catch (RuntimeException e) {
+                        if (storedImage != null) {
+                            mediaStorage.release(storedImage);
+                        }
+                        throw e;
+                    }
+                    // The old image goes only once the event points at the new one
+                    if (storedImage != null && existingEvenement.getImageurl() != null) {
+                        mediaStorage.release(existingEvenement.getImageurl());
+                    }
                     return new ResponseEntity<>(evenement, HttpStatus.OK);
                 })
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
@@ -124,7 +192,7 @@ public class EvenementController {
         return evenementService.getEvenementById(id)
                 .map(evenement -> {
                     if (evenement.getImageurl() != null) {
-                        deleteImageFile(evenement.getImageurl());
+                        mediaStorage.release(evenement.getImageurl());
                     }
                     evenementService.deleteEvenement(id);
                     return new ResponseEntity<Void>(HttpStatus.NO_CONTENT);
@@ -133,50 +201,7 @@ public class EvenementController {
     }
 
     @GetMapping("/images/{filename:.+}")
-    public ResponseEntity<Resource> getImage(@PathVariable String filename) {
-        try {
-            Path filePath = this.fileStoragePath.resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists()) {
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (MalformedURLException ex) {
-            return ResponseEntity.badRequest().build();
-        }
-    }
-
-    private String saveImage(MultipartFile file) {
-        try {
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String newFilename = UUID.randomUUID().toString() + fileExtension;
-
-            Path targetLocation = this.fileStoragePath.resolve(newFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/api/evenements/images/")
-                    .path(newFilename)
-                    .toUriString();
-
-            return fileDownloadUri;
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not store file. Please try again!", ex);
-        }
-    }
-
-    private void deleteImageFile(String imageUrl) {
-        try {
-            String filename = imageUrl.substring(imageUrl.lastIndexOf('/') + 1);
-            Path filePath = this.fileStoragePath.resolve(filename).normalize();
-            Files.deleteIfExists(filePath);
-        } catch (IOException ex) {
-            System.err.println("Error deleting image file: " + ex.getMessage());
-        }
+    public void getImage(@PathVariable String filename, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        mediaFileServer.serveFrom(request, response, this.fileStoragePath, filename);
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,50 @@
 package com.example.myapp.Controllers;
 
+import com.example.myapp.media.MediaStorage;
+import com.example.myapp.media.MediaUploads;
+import com.example.myapp.media.StagedUpload;
+import com.example.myapp.payload.response.UploadStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
+import java.io.InputStream;
+import java.net.URI;
 
 
 @RestController
 public class FileController {
 
+    private final MediaStorage mediaStorage;
+    private final MediaUploads mediaUploads;
+
+    @Autowired
+    public FileController(MediaStorage mediaStorage, MediaUploads mediaUploads) {
+        this.mediaStorage = mediaStorage;
+        this.mediaUploads = mediaUploads;
+    }
+
     @PostMapping("/upload")
-    public String uploadFile(@RequestParam("file") MultipartFile file) throws IOException {
-        String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-        Path filePath = Paths.get("uploads/" + fileName);
-        Files.copy(file.getInputStream(), filePath);
-        return "/uploads/" + fileName;
+    public ResponseEntity<?> uploadFile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean async) throws IOException {
+        if (!async) {
+            return ResponseEntity.ok(MediaStorage.URL_PREFIX + mediaStorage.store(file).key());
+        }
+
+        StagedUpload staged;
+        try (InputStream in = file.getInputStream()) {
+            staged = mediaStorage.stage(in);
+        }
+        String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+        UploadStatus status = mediaUploads.commitAsync(staged, baseUrl);
+        return ResponseEntity.accepted()
+                .location(URI.create(baseUrl + MediaStorage.URL_PREFIX + "uploads/" + status.id()))
+                .body(status);
     }
 }
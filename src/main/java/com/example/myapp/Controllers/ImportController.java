@@ -0,0 +1,56 @@
+package com.example.myapp.Controllers;
+
+import com.example.myapp.payload.response.ImportReport;
+import com.example.myapp.services.BulkImportService;
+import com.example.myapp.utils.ImportRowReader;
+import com.example.myapp.utils.NdjsonStreamer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+
+/**
+ * Bulk imports read straight from the request body, CSV with a header line or NDJSON, so the
+ * file is never buffered whole. Rows that fail validation are listed in the report.
+ */
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    private final BulkImportService bulkImportService;
+
+    @Autowired
+    public ImportController(BulkImportService bulkImportService) {
+        this.bulkImportService = bulkImportService;
+    }
+
+    @PostMapping(value = "/users", consumes = {ImportRowReader.TEXT_CSV_VALUE, NdjsonStreamer.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importUsers(HttpServletRequest request) {
+        return importRows(request, bulkImportService::importUsers);
+    }
+
+    @PostMapping(value = "/members", consumes = {ImportRowReader.TEXT_CSV_VALUE, NdjsonStreamer.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importMembers(HttpServletRequest request) {
+        return importRows(request, bulkImportService::importMembers);
+    }
+
+    @PostMapping(value = "/participations", consumes = {ImportRowReader.TEXT_CSV_VALUE, NdjsonStreamer.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importParticipations(HttpServletRequest request) {
+        return importRows(request, bulkImportService::importParticipations);
+    }
+
+    private ResponseEntity<?> importRows(HttpServletRequest request, Function<ImportRowReader, ImportReport> importer) {
+        try (ImportRowReader rows = new ImportRowReader(request.getInputStream(), request.getContentType())) {
+            return new ResponseEntity<>(importer.apply(rows), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (IOException | UncheckedIOException e) {
+            return new ResponseEntity<>("Lecture du fichier impossible", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.myapp.Controllers;
+
+import com.example.myapp.entities.MediaBlob;
+import com.example.myapp.enums.VariantStatus;
+import com.example.myapp.media.ImageVariantPipeline;
+import com.example.myapp.media.MediaFileServer;
+import com.example.myapp.media.MediaStorage;
+import com.example.myapp.media.MediaUploads;
+import com.example.myapp.media.StagedUpload;
+import com.example.myapp.payload.response.MediaVariantSet;
+import com.example.myapp.payload.response.UploadStatus;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+@RestController
+@RequestMapping("/api/media")
+public class MediaController {
+
+    private final MediaStorage mediaStorage;
+    private final MediaFileServer mediaFileServer;
+    private final ImageVariantPipeline imageVariantPipeline;
+    private final MediaUploads mediaUploads;
+
+    @Autowired
+    public MediaController(MediaStorage mediaStorage, MediaFileServer mediaFileServer, ImageVariantPipeline imageVariantPipeline,
+                           MediaUploads mediaUploads) {
+        this.mediaStorage = mediaStorage;
+        this.mediaFileServer = mediaFileServer;
+        this.imageVariantPipeline = imageVariantPipeline;
+        this.mediaUploads = mediaUploads;
+    }
+
+    /**
+     * Raw-body upload: the request stream goes straight to a temp file, with no multipart
+     * buffering in between. With {@code async=true} the answer is 202 and a status URL as soon
+     * as the body has been received; the commit into the store happens in the background.
+     */
+    @PostMapping(consumes = "!multipart/form-data")
+    public ResponseEntity<UploadStatus> upload(
+            @RequestParam(defaultValue = "false") boolean async,
+            HttpServletRequest request) throws IOException {
+        StagedUpload staged = mediaStorage.stage(request.getInputStream());
+        String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+
+        if (async) {
+            UploadStatus status = mediaUploads.commitAsync(staged, baseUrl);
+            return ResponseEntity.accepted()
+                    .location(URI.create(baseUrl + MediaStorage.URL_PREFIX + "uploads/" + status.id()))
+                    .body(status);
+        }
+        UploadStatus status = mediaUploads.commit(staged, baseUrl);
+        return ResponseEntity.created(URI.create(status.url())).body(status);
+    }
+
+    @GetMapping("/uploads/{id}")
+    public ResponseEntity<UploadStatus> getUploadStatus(@PathVariable String id) {
+        return mediaUploads.status(id)
+                .map(status -> new ResponseEntity<>(status, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * {@code ?w=} picks the smallest finished rendition at least that wide; until one exists, or
+     * when the original is already narrower, the original is served.
+     */
+    @GetMapping("/{key:.+}")
+    public void getMedia(
+            @PathVariable String key,
+            @RequestParam(name = "w", required = false) Integer width,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<String> digest = MediaStorage.digestOf(key);
+        if (digest.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // Until the rendition for the width is ready, whatever stands in for it must not be kept
+        boolean provisional = false;
+        if (width != null && width > 0) {
+            OptionalInt renditionWidth = imageVariantPipeline.renditionWidth(width);
+            Optional<ImageVariantPipeline.VariantFile> variant = imageVariantPipeline.find(digest.get(), width);
+            if (variant.isPresent()) {
+                ImageVariantPipeline.VariantFile found = variant.get();
+                if (found.width() == renditionWidth.orElse(-1)) {
+                    mediaFileServer.serveImmutable(request, response, found.file(), found.key(), found.key());
+                } else {
+                    mediaFileServer.serveProvisional(request, response, found.file(), found.key(), found.key());
+                }
+                return;
+            }
+            provisional = renditionWidth.isPresent();
+        }
+
+        // Local blobs are served from the key alone, without a database round trip
+        Optional<Path> file = mediaStorage.localFile(key);
+        if (file.isPresent()) {
+            if (provisional) {
+                mediaFileServer.serveProvisional(request, response, file.get(), key, digest.get());
+            } else {
+                mediaFileServer.serveImmutable(request, response, file.get(), key, digest.get());
+            }
+            return;
+        }
+
+        Optional<MediaBlob> blob = mediaStorage.find(key);
+        if (blob.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        mediaFileServer.serveStream(request, response, mediaStorage.open(blob.get()), blob.get().getSize(),
+                key, blob.get().getDigest(), blob.get().getContentType(), provisional);
+    }
+
+    @GetMapping("/{key}/variants")
+    public ResponseEntity<MediaVariantSet> getVariants(@PathVariable String key) {
+        Optional<String> digest = MediaStorage.digestOf(key);
+        if (digest.isEmpty() || mediaStorage.find(key).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path(MediaStorage.URL_PREFIX)
+                .path(key)
+                .toUriString();
+        List<MediaVariantSet.Rendition> renditions = imageVariantPipeline.variantsOf(digest.get()).stream()
+                .filter(variant -> variant.getStatus() == VariantStatus.READY)
+                .map(variant -> new MediaVariantSet.Rendition(variant.getWidth(), url + "?w=" + variant.getWidth()))
+                .toList();
+        return new ResponseEntity<>(new MediaVariantSet(url, renditions), HttpStatus.OK);
+    }
+}
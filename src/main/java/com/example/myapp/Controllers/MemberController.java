@@ -1,15 +1,22 @@
 package com.example.myapp.Controllers;
 
+import com.example.myapp.auth.AuthPrincipal;
+import com.example.myapp.config.PaginationSettings;
 import com.example.myapp.entities.Member;
 import com.example.myapp.entities.Club;
 import com.example.myapp.entities.User;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.MemberSummary;
 import com.example.myapp.services.MemberService;
 import com.example.myapp.services.ClubService;
 import com.example.myapp.services.UserService;
+import com.example.myapp.utils.CursorCodec;
+import com.example.myapp.utils.NdjsonStreamer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -21,71 +28,112 @@ public class MemberController {
     private final MemberService memberService;
     private final ClubService clubService;
     private final UserService userService;
+    private final PaginationSettings paginationSettings;
+    private final NdjsonStreamer ndjsonStreamer;
 
     @Autowired
-    public MemberController(MemberService memberService, ClubService clubService, UserService userService) {
+    public MemberController(MemberService memberService, ClubService clubService, UserService userService, PaginationSettings paginationSettings, NdjsonStreamer ndjsonStreamer) {
         this.memberService = memberService;
         this.clubService = clubService;
         this.userService = userService;
+        this.paginationSettings = paginationSettings;
+        this.ndjsonStreamer = ndjsonStreamer;
     }
 
     @GetMapping
-    public ResponseEntity<List<Member>> getAllMembers() {
-        List<Member> members = memberService.findAll();
+    public ResponseEntity<CursorPage<MemberSummary>> getAllMembers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        CursorPage<MemberSummary> members = memberService.findPage(afterId, paginationSettings.resolve(size));
         return new ResponseEntity<>(members, HttpStatus.OK);
     }
 
+    @GetMapping(produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllMembers(@RequestParam(required = false) String cursor) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok()
+                .contentType(NdjsonStreamer.APPLICATION_NDJSON)
+                .body(ndjsonStreamer.<MemberSummary>stream(rows -> memberService.streamAll(afterId, rows)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Member> getMemberById(@PathVariable Long id) {
-        Optional<Member> member = memberService.findById(id);
+    public ResponseEntity<MemberSummary> getMemberById(@PathVariable Long id) {
+        Optional<MemberSummary> member = memberService.findSummaryById(id);
         return member
                 .map(value -> new ResponseEntity<>(value, HttpStatus.OK))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/club/{clubId}")
-    public ResponseEntity<List<Member>> getMembersByClub(@PathVariable Long clubId) {
-        Optional<Club> club = clubService.getClubById(clubId);
-        if (club.isPresent()) {
-            List<Member> members = memberService.findByClub(club.get());
-            return new ResponseEntity<>(members, HttpStatus.OK);
+    public ResponseEntity<List<MemberSummary>> getMembersByClub(@PathVariable Long clubId) {
+        List<MemberSummary> members = memberService.findSummariesByClubId(clubId);
+        // Only an empty result needs the extra lookup to tell "no members" from "no such club"
+        if (members.isEmpty() && clubService.getClubById(clubId).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(members, HttpStatus.OK);
     }
 
     @GetMapping("/club/{clubId}/active")
-    public ResponseEntity<List<Member>> getActiveMembers(@PathVariable Long clubId) {
+    public ResponseEntity<List<MemberSummary>> getActiveMembers(@PathVariable Long clubId) {
+        List<MemberSummary> activeMembers = memberService.findActiveSummariesByClubId(clubId);
+        if (activeMembers.isEmpty() && clubService.getClubById(clubId).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(activeMembers, HttpStatus.OK);
+    }
+
+    /**
+     * Ids of the users active in both clubs, e.g. to invite the members of one club to the
+     * other's joint events.
+     */
+    @GetMapping("/club/{clubId}/shared/{otherClubId}")
+    public ResponseEntity<List<Long>> getSharedActiveMembers(@PathVariable Long clubId, @PathVariable Long otherClubId) {
         Optional<Club> club = clubService.getClubById(clubId);
-        if (club.isPresent()) {
-            List<Member> activeMembers = memberService.findActiveMembers(club.get());
-            return new ResponseEntity<>(activeMembers, HttpStatus.OK);
+        Optional<Club> otherClub = clubService.getClubById(otherClubId);
+        if (club.isEmpty() || otherClub.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(memberService.findSharedActiveUserIds(club.get(), otherClub.get()), HttpStatus.OK);
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Member>> getMembershipsByUser(@PathVariable Long userId) {
-        Optional<User> user = userService.getUserById(userId);
-        if (user.isPresent()) {
-            List<Member> memberships = memberService.findByUser(user.get());
-            return new ResponseEntity<>(memberships, HttpStatus.OK);
+    public ResponseEntity<List<MemberSummary>> getMembershipsByUser(@PathVariable Long userId) {
+        List<MemberSummary> memberships = memberService.findSummariesByUserId(userId);
+        if (memberships.isEmpty() && userService.getUserById(userId).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(memberships, HttpStatus.OK);
     }
 
     @GetMapping("/user/{userId}/active")
-    public ResponseEntity<List<Member>> getUserActiveClubs(@PathVariable Long userId) {
-        Optional<User> user = userService.getUserById(userId);
-        if (user.isPresent()) {
-            List<Member> activeClubs = memberService.findUserActiveClubs(user.get());
-            return new ResponseEntity<>(activeClubs, HttpStatus.OK);
+    public ResponseEntity<List<MemberSummary>> getUserActiveClubs(@PathVariable Long userId) {
+        List<MemberSummary> activeClubs = memberService.findActiveSummariesByUserId(userId);
+        if (activeClubs.isEmpty() && userService.getUserById(userId).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(activeClubs, HttpStatus.OK);
     }
 
     @GetMapping("/check")
-    public ResponseEntity<Boolean> checkMembership(@RequestParam Long userId, @RequestParam Long clubId) {
-        Optional<User> user = userService.getUserById(userId);
+    public ResponseEntity<Boolean> checkMembership(@RequestParam(required = false) Long userId, @RequestParam Long clubId,
+                                                   AuthPrincipal principal) {
+        Long actingUserId = AuthPrincipal.actingUserId(principal, userId);
+        if (actingUserId == null) {
+            return new ResponseEntity<>(principal == null ? HttpStatus.BAD_REQUEST : HttpStatus.FORBIDDEN);
+        }
+        Optional<User> user = userService.getUserById(actingUserId);
         Optional<Club> club = clubService.getClubById(clubId);
 
         if (user.isPresent() && club.isPresent()) {
@@ -105,6 +153,15 @@ public class MemberController {
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
+    @GetMapping("/count/{clubId}/active")
+    public ResponseEntity<Long> getActiveMemberCount(@PathVariable Long clubId) {
+        Optional<Club> club = clubService.getClubById(clubId);
+        if (club.isPresent()) {
+            return new ResponseEntity<>(memberService.getActiveMemberCount(club.get()), HttpStatus.OK);
+        }
+        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
     @PostMapping("/add")
     public ResponseEntity<Member> addMember(@RequestParam Long userId, @RequestParam Long clubId) {
         Optional<User> user = userService.getUserById(userId);
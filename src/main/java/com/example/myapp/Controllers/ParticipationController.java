@@ -1,16 +1,32 @@
 package com.example.myapp.Controllers;
 
 
-import com.example.myapp.entities.Evenement;
+import com.example.myapp.auth.AuthPrincipal;
+import com.example.myapp.checkin.CheckinDesk;
+import com.example.myapp.config.PaginationSettings;
 import com.example.myapp.entities.Participation;
-import com.example.myapp.entities.User;
+import com.example.myapp.enums.RegistrationStatus;
+import com.example.myapp.enums.Role;
+import com.example.myapp.payload.request.CheckinRequest;
+import com.example.myapp.payload.response.CheckinBitmap;
+import com.example.myapp.payload.response.CheckinResult;
+import com.example.myapp.payload.response.CheckinTicket;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.ParticipationSummary;
+import com.example.myapp.payload.response.RegistrationResult;
+import com.example.myapp.registration.EventRegistrations;
 import com.example.myapp.services.EvenementService;
 import com.example.myapp.services.ParticipationService;
+import com.example.myapp.services.PresidentService;
 import com.example.myapp.services.UserService;
+import com.example.myapp.utils.CursorCodec;
+import com.example.myapp.utils.NdjsonStreamer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.*;
 
 import java.util.Date;
@@ -25,96 +41,188 @@ public class ParticipationController {
     private final ParticipationService participationService;
     private final UserService userService;
     private final EvenementService evenementService;
+    private final PaginationSettings paginationSettings;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final EventRegistrations eventRegistrations;
+    private final CheckinDesk checkinDesk;
+    private final PresidentService presidentService;
 
     @Autowired
     public ParticipationController(
             ParticipationService participationService,
             UserService userService,
-            EvenementService evenementService
+            EvenementService evenementService,
+            PaginationSettings paginationSettings,
+            NdjsonStreamer ndjsonStreamer,
+            EventRegistrations eventRegistrations,
+            CheckinDesk checkinDesk,
+            PresidentService presidentService
     ) {
         this.participationService = participationService;
         this.userService = userService;
         this.evenementService = evenementService;
+        this.paginationSettings = paginationSettings;
+        this.ndjsonStreamer = ndjsonStreamer;
+        this.eventRegistrations = eventRegistrations;
+        this.checkinDesk = checkinDesk;
+        this.presidentService = presidentService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Participation>> getAllParticipations() {
-        List<Participation> participations = participationService.getAllParticipations();
+    public ResponseEntity<CursorPage<ParticipationSummary>> getAllParticipations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        CursorPage<ParticipationSummary> participations = participationService.getParticipationsPage(afterId, paginationSettings.resolve(size));
         return new ResponseEntity<>(participations, HttpStatus.OK);
     }
 
+    @GetMapping(produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllParticipations(@RequestParam(required = false) String cursor) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok()
+                .contentType(NdjsonStreamer.APPLICATION_NDJSON)
+                .body(ndjsonStreamer.<ParticipationSummary>stream(rows -> participationService.streamParticipations(afterId, rows)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Participation> getParticipationById(@PathVariable Long id) {
-        Optional<Participation> participation = participationService.getParticipationById(id);
+    public ResponseEntity<ParticipationSummary> getParticipationById(@PathVariable Long id) {
+        Optional<ParticipationSummary> participation = participationService.getParticipationSummaryById(id);
         return participation.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Participation>> getParticipationsByUserId(@PathVariable Long userId) {
-        Optional<User> user = userService.getUserById(userId);
-        if (user.isEmpty()) {
+    public ResponseEntity<List<ParticipationSummary>> getParticipationsByUserId(@PathVariable Long userId) {
+        List<ParticipationSummary> participations = participationService.getParticipationSummariesByUserId(userId);
+        // Only an empty result needs the extra lookup to tell "no participations" from "no such user"
+        if (participations.isEmpty() && userService.getUserById(userId).isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        List<Participation> participations = participationService.getParticipationsByUserId(userId);
         return new ResponseEntity<>(participations, HttpStatus.OK);
     }
 
     @GetMapping("/evenement/{evenementId}")
-    public ResponseEntity<List<Participation>> getParticipationsByEvenementId(@PathVariable Long evenementId) {
-        Optional<Evenement> evenement = evenementService.getEvenementById(evenementId);
-        if (evenement.isEmpty()) {
+    public ResponseEntity<List<ParticipationSummary>> getParticipationsByEvenementId(@PathVariable Long evenementId) {
+        List<ParticipationSummary> participations = participationService.getParticipationSummariesByEvenementId(evenementId);
+        if (participations.isEmpty() && evenementService.getEvenementById(evenementId).isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        List<Participation> participations = participationService.getParticipationsByEvenementId(evenementId);
         return new ResponseEntity<>(participations, HttpStatus.OK);
     }
 
     @GetMapping("/user/{userId}/evenement/{evenementId}")
-    public ResponseEntity<Participation> getParticipationByUserAndEvenement(
+    public ResponseEntity<ParticipationSummary> getParticipationByUserAndEvenement(
             @PathVariable Long userId,
             @PathVariable Long evenementId) {
-        Participation participation = participationService.getParticipationByUserAndEvenement(userId, evenementId);
-        if (participation == null) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        return new ResponseEntity<>(participation, HttpStatus.OK);
+        return participationService.getParticipationSummaryByUserAndEvenement(userId, evenementId)
+                .map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * Takes a seat for the user, 201, or puts them on the waitlist when the event is full, 202.
+     * A user already registered or already waiting gets 409 with where they stand.
+     */
     @PostMapping
-    public ResponseEntity<Participation> createParticipation(@Valid @RequestBody Participation participation) {
-        // Vérifier si l'utilisateur existe
-        Optional<User> user = userService.getUserById(participation.getUser().getId());
-        if (user.isEmpty()) {
+    public ResponseEntity<RegistrationResult> createParticipation(@Valid @RequestBody Participation participation) {
+        if (participation.getUser().getId() == null || participation.getEvenement().getId() == null) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
+        // Définir la date de participation à aujourd'hui si non spécifiée
+        Date date = participation.getDate() != null ? participation.getDate() : new Date();
 
-        // Vérifier si l'événement existe
-        Optional<Evenement> evenement = evenementService.getEvenementById(participation.getEvenement().getId());
-        if (evenement.isEmpty()) {
+        RegistrationResult result;
+        try {
+            result = eventRegistrations.register(participation.getUser().getId(),
+                    participation.getEvenement().getId(), date);
+        } catch (IllegalArgumentException e) {
+            // Utilisateur ou événement inexistant
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
+        HttpStatus status = switch (result.status()) {
+            case REGISTERED -> HttpStatus.CREATED;
+            case WAITLISTED -> HttpStatus.ACCEPTED;
+            case ALREADY_REGISTERED, ALREADY_WAITLISTED -> HttpStatus.CONFLICT;
+        };
+        return new ResponseEntity<>(result, status);
+    }
 
-        // Vérifier si la participation existe déjà
-        Participation existingParticipation = participationService.getParticipationByUserAndEvenement(
-                participation.getUser().getId(),
-                participation.getEvenement().getId());
+    @GetMapping("/evenement/{evenementId}/waitlist/{userId}")
+    public ResponseEntity<RegistrationResult> getWaitlistPosition(@PathVariable Long evenementId, @PathVariable Long userId) {
+        return eventRegistrations.waitlistPosition(userId, evenementId)
+                .map(position -> new ResponseEntity<>(RegistrationResult.waitlisted(RegistrationStatus.WAITLISTED,
+                        userId, evenementId, position), HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
 
-        if (existingParticipation != null) {
-            return new ResponseEntity<>(HttpStatus.CONFLICT);
-        }
+    @DeleteMapping("/evenement/{evenementId}/waitlist/{userId}")
+    public ResponseEntity<Void> leaveWaitlist(@PathVariable Long evenementId, @PathVariable Long userId) {
+        return eventRegistrations.leaveWaitlist(userId, evenementId)
+                ? new ResponseEntity<>(HttpStatus.NO_CONTENT)
+                : new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
 
-        // Définir la date de participation à aujourd'hui si non spécifiée
-        if (participation.getDate() == null) {
-            participation.setDate(new Date());
+    /**
+     * The ticket lets anyone holding it in, so only the participant, the current president of
+     * the event's club or an admin may read it.
+     */
+    @GetMapping("/{id}/checkin-token")
+    public ResponseEntity<CheckinTicket> getCheckinTicket(@PathVariable Long id, AuthPrincipal principal) {
+        if (principal == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
+        Optional<IdPair> userAndClub = participationService.getUserClubPairById(id);
+        if (userAndClub.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        Long participantId = userAndClub.get().left();
+        Long clubId = userAndClub.get().right();
+        if (!principal.userId().equals(participantId) && principal.role() != Role.ADMIN
+                && !presidentService.isCurrentPresident(principal.userId(), clubId)) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        return checkinDesk.ticket(id)
+                .map(ticket -> new ResponseEntity<>(ticket, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Scans a ticket at the door: 200 lets the participant in, anything else comes with the
+     * reason so the door can tell a second scan (409, with the first check-in time) from a ticket
+     * for another event (409), a cancelled participation (404) or a forged code (400).
+     */
+    @PostMapping("/checkin")
+    public ResponseEntity<CheckinResult> checkIn(@Valid @RequestBody CheckinRequest request) {
+        CheckinResult result = checkinDesk.checkIn(request.getToken(), request.getEvenementId());
+        HttpStatus status = switch (result.status()) {
+            case ADMITTED -> HttpStatus.OK;
+            case ALREADY_CHECKED_IN, WRONG_EVENT -> HttpStatus.CONFLICT;
+            case NOT_REGISTERED -> HttpStatus.NOT_FOUND;
+            case INVALID -> HttpStatus.BAD_REQUEST;
+        };
+        return new ResponseEntity<>(result, status);
+    }
 
-        Participation savedParticipation = participationService.saveParticipation(participation);
-        return new ResponseEntity<>(savedParticipation, HttpStatus.CREATED);
+    @GetMapping("/checkin/evenement/{evenementId}/offline")
+    public ResponseEntity<CheckinBitmap> getOfflineCheckinBitmap(@PathVariable Long evenementId) {
+        return checkinDesk.offlineBitmap(evenementId)
+                .map(bitmap -> new ResponseEntity<>(bitmap, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Participation> updateParticipation(
+    public ResponseEntity<ParticipationSummary> updateParticipation(
             @PathVariable Long id,
             @Valid @RequestBody Participation participationDetails) {
         Optional<Participation> participation = participationService.getParticipationById(id);
@@ -127,8 +235,16 @@ public class ParticipationController {
         existingParticipation.setUser(participationDetails.getUser());
         existingParticipation.setEvenement(participationDetails.getEvenement());
 
-        Participation updatedParticipation = participationService.saveParticipation(existingParticipation);
-        return new ResponseEntity<>(updatedParticipation, HttpStatus.OK);
+        try {
+            participationService.saveParticipation(existingParticipation);
+        } catch (IllegalArgumentException e) {
+            // Moving to another event or user goes through DELETE and POST, which keep seats in step
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        // The saved entity's associations are lazy and cannot be written out past the transaction
+        return participationService.getParticipationSummaryById(id)
+                .map(summary -> new ResponseEntity<>(summary, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @DeleteMapping("/{id}")
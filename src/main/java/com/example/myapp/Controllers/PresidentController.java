@@ -1,15 +1,21 @@
 package com.example.myapp.Controllers;
 
+import com.example.myapp.config.PaginationSettings;
 import com.example.myapp.entities.President;
 import com.example.myapp.entities.Club;
 import com.example.myapp.entities.User;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.PresidentSummary;
 import com.example.myapp.services.PresidentService;
 import com.example.myapp.services.ClubService;
 import com.example.myapp.services.UserService;
+import com.example.myapp.utils.CursorCodec;
+import com.example.myapp.utils.NdjsonStreamer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Date;
 import java.util.List;
@@ -22,48 +28,69 @@ public class PresidentController {
     private final PresidentService presidentService;
     private final ClubService clubService;
     private final UserService userService;
+    private final PaginationSettings paginationSettings;
+    private final NdjsonStreamer ndjsonStreamer;
 
     @Autowired
-    public PresidentController(PresidentService presidentService, ClubService clubService, UserService userService) {
+    public PresidentController(PresidentService presidentService, ClubService clubService, UserService userService, PaginationSettings paginationSettings, NdjsonStreamer ndjsonStreamer) {
         this.presidentService = presidentService;
         this.clubService = clubService;
         this.userService = userService;
+        this.paginationSettings = paginationSettings;
+        this.ndjsonStreamer = ndjsonStreamer;
     }
 
     @GetMapping
-    public ResponseEntity<List<President>> getAllPresidents() {
-        List<President> presidents = presidentService.findAll();
+    public ResponseEntity<CursorPage<PresidentSummary>> getAllPresidents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        CursorPage<PresidentSummary> presidents = presidentService.findPage(afterId, paginationSettings.resolve(size));
         return new ResponseEntity<>(presidents, HttpStatus.OK);
     }
 
+    @GetMapping(produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPresidents(@RequestParam(required = false) String cursor) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok()
+                .contentType(NdjsonStreamer.APPLICATION_NDJSON)
+                .body(ndjsonStreamer.<PresidentSummary>stream(rows -> presidentService.streamAll(afterId, rows)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<President> getPresidentById(@PathVariable Long id) {
-        Optional<President> president = presidentService.findById(id);
+    public ResponseEntity<PresidentSummary> getPresidentById(@PathVariable Long id) {
+        Optional<PresidentSummary> president = presidentService.findSummaryById(id);
         return president
                 .map(value -> new ResponseEntity<>(value, HttpStatus.OK))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/club/{clubId}/current")
-    public ResponseEntity<President> getCurrentPresidentByClub(@PathVariable Long clubId) {
-        Optional<Club> club = clubService.getClubById(clubId);
-        if (club.isPresent()) {
-            Optional<President> president = presidentService.findCurrentPresidentByClub(club.get());
-            return president
-                    .map(value -> new ResponseEntity<>(value, HttpStatus.OK))
-                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
-        }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    public ResponseEntity<PresidentSummary> getCurrentPresidentByClub(@PathVariable Long clubId) {
+        Optional<PresidentSummary> president = presidentService.findCurrentPresidentSummaryByClubId(clubId);
+        return president
+                .map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/club/{clubId}/history")
-    public ResponseEntity<List<President>> getPresidentHistory(@PathVariable Long clubId) {
-        Optional<Club> club = clubService.getClubById(clubId);
-        if (club.isPresent()) {
-            List<President> presidentHistory = presidentService.getPresidentHistory(club.get());
-            return new ResponseEntity<>(presidentHistory, HttpStatus.OK);
+    public ResponseEntity<List<PresidentSummary>> getPresidentHistory(@PathVariable Long clubId) {
+        List<PresidentSummary> presidentHistory = presidentService.getPresidentHistorySummaries(clubId);
+        // Only an empty result needs the extra lookup to tell "no history" from "no such club"
+        if (presidentHistory.isEmpty() && clubService.getClubById(clubId).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(presidentHistory, HttpStatus.OK);
     }
 
     @PostMapping("/appoint")
@@ -0,0 +1,47 @@
+package com.example.myapp.Controllers;
+
+import com.example.myapp.config.PaginationSettings;
+import com.example.myapp.enums.SearchType;
+import com.example.myapp.payload.response.SearchResults;
+import com.example.myapp.search.ContentSearch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final ContentSearch contentSearch;
+    private final PaginationSettings paginationSettings;
+    // Ranked pages are recomputed from the top on every request, so deep paging is capped
+    private final int maxResults;
+
+    @Autowired
+    public SearchController(ContentSearch contentSearch, PaginationSettings paginationSettings,
+                            @Value("${app.search.max-results:1000}") int maxResults) {
+        this.contentSearch = contentSearch;
+        this.paginationSettings = paginationSettings;
+        this.maxResults = maxResults;
+    }
+
+    @GetMapping
+    public ResponseEntity<SearchResults> search(
+            @RequestParam String q,
+            @RequestParam(required = false) List<SearchType> type,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        int limit = paginationSettings.resolve(size);
+        if (q.isBlank() || page < 0 || (long) (page + 1) * limit > maxResults) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Set<SearchType> types = type == null || type.isEmpty() ? EnumSet.allOf(SearchType.class) : EnumSet.copyOf(type);
+        return new ResponseEntity<>(contentSearch.search(q, types, page, limit), HttpStatus.OK);
+    }
+}
@@ -1,143 +1,207 @@
 package com.example.myapp.Controllers;
 
+import com.example.myapp.auth.LoginThrottledException;
+import com.example.myapp.config.PaginationSettings;
 import com.example.myapp.entities.User;
 import com.example.myapp.enums.Role;
+import com.example.myapp.media.MediaFileServer;
+import com.example.myapp.media.MediaStorage;
 import com.example.myapp.payload.request.LoginRequest;
 import com.example.myapp.payload.request.SignupRequest;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.UserSummary;
+import com.example.myapp.services.AuthService;
 import com.example.myapp.services.UserService;
+import com.example.myapp.utils.CursorCodec;
+import com.example.myapp.utils.NdjsonStreamer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserService userService;
+    private final AuthService authService;
+    private final PaginationSettings paginationSettings;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final MediaStorage mediaStorage;
+    private final MediaFileServer mediaFileServer;
+    private final Executor taskExecutor;
+    // Avatars uploaded before the shared media store are still served from here
     private final Path fileStoragePath;
     private final String fileStorageLocation = "uploads/images/avatars";
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, AuthService authService, PaginationSettings paginationSettings,
+                          NdjsonStreamer ndjsonStreamer, MediaStorage mediaStorage, MediaFileServer mediaFileServer,
+                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
         this.userService = userService;
+        this.authService = authService;
+        this.paginationSettings = paginationSettings;
+        this.ndjsonStreamer = ndjsonStreamer;
+        this.mediaStorage = mediaStorage;
+        this.mediaFileServer = mediaFileServer;
+        this.taskExecutor = taskExecutor;
         this.fileStoragePath = Paths.get(fileStorageLocation).toAbsolutePath().normalize();
+    }
 
+    @GetMapping
+    public ResponseEntity<CursorPage<UserSummary>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        long afterId;
         try {
-            Files.createDirectories(this.fileStoragePath);
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
+        CursorPage<UserSummary> users = userService.getUsersPage(afterId, paginationSettings.resolve(size));
+        return new ResponseEntity<>(users, HttpStatus.OK);
     }
 
-    @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return new ResponseEntity<>(users, HttpStatus.OK);
+    @GetMapping(produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers(@RequestParam(required = false) String cursor) {
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok()
+                .contentType(NdjsonStreamer.APPLICATION_NDJSON)
+                .body(ndjsonStreamer.<UserSummary>stream(rows -> userService.streamUsers(afterId, rows)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        return userService.getUserById(id)
+    public ResponseEntity<UserSummary> getUserById(@PathVariable Long id) {
+        return userService.getUserSummaryById(id)
                 .map(user -> new ResponseEntity<>(user, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/email/{email}")
-    public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
-        return userService.getUserByEmail(email)
+    public ResponseEntity<UserSummary> getUserByEmail(@PathVariable String email) {
+        return userService.getUserSummaryByEmail(email)
                 .map(user -> new ResponseEntity<>(user, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/role/{role}")
-    public ResponseEntity<List<User>> getUsersByRole(@PathVariable Role role) {
-        List<User> users = userService.getUsersByRole(role);
+    public ResponseEntity<List<UserSummary>> getUsersByRole(@PathVariable Role role) {
+        List<UserSummary> users = userService.getUserSummariesByRole(role);
         return new ResponseEntity<>(users, HttpStatus.OK);
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@RequestBody @Valid SignupRequest signupRequest) {
-        try {
-            User registeredUser = userService.registerUser(signupRequest);
-            return new ResponseEntity<>(registeredUser, HttpStatus.CREATED);
-        } catch (RuntimeException e) {
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
-        }
+    public CompletableFuture<ResponseEntity<?>> registerUser(@RequestBody @Valid SignupRequest signupRequest) {
+        // Avatars only come from an upload, which is what takes the blob reference
+        signupRequest.setAvatar(null);
+        return userService.registerUser(signupRequest)
+                .<ResponseEntity<?>>thenApply(registeredUser -> new ResponseEntity<>(registeredUser, HttpStatus.CREATED))
+                .exceptionally(e -> errorResponse(e, HttpStatus.BAD_REQUEST));
     }
 
     @PostMapping(value = "/register-with-avatar", consumes = { MediaType.MULTIPART_FORM_DATA_VALUE })
-    public ResponseEntity<?> registerUserWithAvatar(
+    public CompletableFuture<ResponseEntity<?>> registerUserWithAvatar(
             @RequestPart("signupRequest") @Valid SignupRequest signupRequest,
             @RequestPart(value = "avatar", required = false) MultipartFile avatar) {
 
         try {
             if (avatar != null && !avatar.isEmpty()) {
-                String avatarPath = saveAvatar(avatar);
+                String avatarPath = mediaStorage.urlFor(mediaStorage.store(avatar));
                 signupRequest.setAvatar(avatarPath);
+            } else {
+                signupRequest.setAvatar(null);
             }
-
-            User registeredUser = userService.registerUser(signupRequest);
-            return new ResponseEntity<>(registeredUser, HttpStatus.CREATED);
         } catch (RuntimeException e) {
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST));
         }
+
+        return userService.registerUser(signupRequest)
+                .<ResponseEntity<?>>thenApply(registeredUser -> new ResponseEntity<>(registeredUser, HttpStatus.CREATED))
+                .exceptionally(e -> errorResponse(e, HttpStatus.BAD_REQUEST));
     }
 
+    // Same as /api/auth/login, kept for existing clients
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@RequestBody @Valid LoginRequest loginRequest) {
-        try {
-            User authenticatedUser = userService.authenticateUser(loginRequest);
-            return new ResponseEntity<>(authenticatedUser, HttpStatus.OK);
-        } catch (RuntimeException e) {
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.UNAUTHORIZED);
-        }
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@RequestBody @Valid LoginRequest loginRequest,
+                                                                 HttpServletRequest request) {
+        return authService.login(loginRequest, request.getRemoteAddr())
+                .<ResponseEntity<?>>thenApply(tokens -> new ResponseEntity<>(tokens, HttpStatus.OK))
+                .exceptionally(e -> errorResponse(e, HttpStatus.UNAUTHORIZED));
     }
 
     @PutMapping(value = "/{id}", consumes = { MediaType.MULTIPART_FORM_DATA_VALUE })
-    public ResponseEntity<User> updateUser(
+    public CompletableFuture<ResponseEntity<?>> updateUser(
             @PathVariable Long id,
             @RequestPart("user") @Valid User user,
             @RequestPart(value = "avatar", required = false) MultipartFile avatar) {
 
-        return userService.getUserById(id)
-                .map(existingUser -> {
-                    user.setId(id);
-
-                    if (user.getMdp() == null || user.getMdp().isEmpty()) {
-                        user.setMdp(existingUser.getMdp());
+        Optional<User> existing = userService.getUserById(id);
+        if (existing.isEmpty()) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        }
+        User existingUser = existing.get();
+        user.setId(id);
+
+        // The avatar URL is built from the current request, so it has to happen before the hand-off
+        String storedAvatar = avatar != null && !avatar.isEmpty() ? mediaStorage.urlFor(mediaStorage.store(avatar)) : null;
+        user.setAvatar(storedAvatar != null ? storedAvatar : existingUser.getAvatar());
+
+        // The form sends the password back with every edit; only a new one gets a new hash
+        String currentHash = existingUser.getMdp();
+        CompletableFuture<String> mdp = user.getMdp() != null && !user.getMdp().isEmpty()
+                ? userService.encodePasswordIfChanged(user.getMdp(), currentHash)
+                : CompletableFuture.completedFuture(currentHash);
+
+        // The writes leave the hashing pool, whose threads are for BCrypt only
+        CompletableFuture<User> saved = mdp.thenApplyAsync(hash -> {
+            user.setMdp(hash);
+            return userService.saveUser(user);
+        }, taskExecutor);
+        // Nothing points at the new avatar unless the save went through
+        saved.exceptionally(e -> {
+            if (storedAvatar != null) {
+                mediaStorage.release(storedAvatar);
+            }
+            return null;
+        });
+        return saved
+                .<ResponseEntity<?>>thenApply(updatedUser -> {
+                    // The old avatar goes only once the user points at the new one
+                    if (storedAvatar != null && existingUser.getAvatar() != null) {
+                        mediaStorage.release(existingUser.getAvatar());
                     }
-
-                    if (avatar != null && !avatar.isEmpty()) {
-                        if (existingUser.getAvatar() != null) {
-                            deleteAvatarFile(existingUser.getAvatar());
-                        }
-                        String avatarPath = saveAvatar(avatar);
-                        user.setAvatar(avatarPath);
-                    } else {
-                        user.setAvatar(existingUser.getAvatar());
+                    // Sessions opened with the old password end with it
+                    if (!updatedUser.getMdp().equals(currentHash)) {
+                        authService.revokeAll(id);
                     }
-
-                    User updatedUser = userService.saveUser(user);
-                    return new ResponseEntity<>(updatedUser, HttpStatus.OK);
+                    // The saved entity's participations are not loaded, so the summary goes back
+                    return new ResponseEntity<>(UserSummary.of(updatedUser), HttpStatus.OK);
                 })
-                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+                .exceptionally(e -> errorResponse(e, HttpStatus.BAD_REQUEST));
     }
 
     @DeleteMapping("/{id}")
@@ -145,9 +209,10 @@ public class UserController {
         return userService.getUserById(id)
                 .map(user -> {
                     if (user.getAvatar() != null) {
-                        deleteAvatarFile(user.getAvatar());
+                        mediaStorage.release(user.getAvatar());
                     }
                     userService.deleteUser(id);
+                    authService.revokeAll(id);
                     return new ResponseEntity<Void>(HttpStatus.NO_CONTENT);
                 })
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
@@ -160,50 +225,21 @@ public class UserController {
     }
 
     @GetMapping("/avatars/{filename:.+}")
-    public ResponseEntity<Resource> getAvatar(@PathVariable String filename) {
-        try {
-            Path filePath = this.fileStoragePath.resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists()) {
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (MalformedURLException ex) {
-            return ResponseEntity.badRequest().build();
-        }
+    public void getAvatar(@PathVariable String filename, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        mediaFileServer.serveFrom(request, response, this.fileStoragePath, filename);
     }
 
-    private String saveAvatar(MultipartFile file) {
-        try {
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String newFilename = UUID.randomUUID().toString() + fileExtension;
-
-            Path targetLocation = this.fileStoragePath.resolve(newFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/api/users/avatars/")
-                    .path(newFilename)
-                    .toUriString();
-
-            return fileDownloadUri;
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not store file. Please try again!", ex);
+    private ResponseEntity<?> errorResponse(Throwable e, HttpStatus status) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        // The hashing pool is full: ask the client to come back rather than queueing without bound
+        if (cause instanceof RejectedExecutionException) {
+            return new ResponseEntity<>("Service temporairement surchargé, réessayez", HttpStatus.SERVICE_UNAVAILABLE);
         }
-    }
-
-    private void deleteAvatarFile(String avatarUrl) {
-        try {
-            String filename = avatarUrl.substring(avatarUrl.lastIndexOf('/') + 1);
-            Path filePath = this.fileStoragePath.resolve(filename).normalize();
-            Files.deleteIfExists(filePath);
-        } catch (IOException ex) {
-            System.err.println("Error deleting avatar file: " + ex.getMessage());
+        if (cause instanceof LoginThrottledException throttled) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(throttled.getRetryAfter().toSeconds()))
+                    .body(throttled.getMessage());
         }
+        return new ResponseEntity<>(cause.getMessage(), status);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,217 @@
+package com.example.myapp.attestation;
+
+import com.example.myapp.enums.VerificationStatus;
+import com.example.myapp.payload.response.AttestationVerification;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.ParticipationSummary;
+import com.example.myapp.repositories.ParticipationRepository;
+import com.example.myapp.utils.IdBitmap;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Issues the verification code printed on each attestation and answers verification requests.
+ * A forged or mistyped code is refused on its signature alone. A genuine one is revoked once
+ * its participation is deleted, which is answered from memory: every (event, user) pair with a
+ * participation is held as one {@link IdBitmap} of user ids per event, loaded at startup and
+ * then periodically, with pairs added as codes are issued and removed as participations are
+ * deleted through the service. Deletions made elsewhere show up at the next reload. Until the
+ * first load has finished, revocation is checked against the database.
+ * <p>
+ * The names in a valid answer are read once per participation and remembered for a while, so
+ * repeated checks of the same code skip the database altogether.
+ */
+@Component
+public class AttestationCodes {
+
+    private static final Logger log = LoggerFactory.getLogger(AttestationCodes.class);
+
+    private final VerificationCodeCodec codec;
+    private final ParticipationRepository participationRepository;
+    private final TransactionTemplate readOnly;
+    private final Object writeLock = new Object();
+    private volatile Map<Long, IdBitmap> participants;
+    private final Cache<IdPair, ParticipationSummary> confirmed;
+    private final Counter valid;
+    private final Counter revoked;
+    private final Counter invalid;
+
+    @Autowired
+    public AttestationCodes(ParticipationRepository participationRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.attestations.verification.secret:}") String secret,
+                            @Value("${app.attestations.verification.cache-size:100000}") long cacheSize,
+                            @Value("${app.attestations.verification.cache-ttl:PT10M}") Duration cacheTtl) {
+        this.participationRepository = participationRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.codec = new VerificationCodeCodec(secret.isBlank() ? generatedSecret() : Base64.getDecoder().decode(secret));
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, confirmed, "attestation.verifications");
+        this.valid = Counter.builder("attestation.verify").tag("result", "valid").register(meterRegistry);
+        this.revoked = Counter.builder("attestation.verify").tag("result", "revoked").register(meterRegistry);
+        this.invalid = Counter.builder("attestation.verify").tag("result", "invalid").register(meterRegistry);
+    }
+
+    public String issue(ParticipationSummary participation) {
+        // Participations made since the last load become known once they have a code to check
+        participationAdded(participation.userId(), participation.evenementId());
+        return codec.sign(new VerificationClaims(participation.userId(), participation.evenementId(),
+                issuedOn(participation.date())));
+    }
+
+    /**
+     * Empty when the code was not issued by us.
+     */
+    public Optional<AttestationVerification> verify(String code) {
+        VerificationClaims claims;
+        try {
+            claims = codec.verify(code);
+        } catch (IllegalArgumentException e) {
+            invalid.increment();
+            return Optional.empty();
+        }
+        Map<Long, IdBitmap> current = participants;
+        if (current != null) {
+            IdBitmap users = current.get(claims.evenementId());
+            if (users == null || !users.contains(claims.userId())) {
+                return revoked(claims);
+            }
+        }
+        IdPair key = new IdPair(claims.userId(), claims.evenementId());
+        ParticipationSummary participation = confirmed.getIfPresent(key);
+        if (participation == null) {
+            participation = participationRepository
+                    .findSummaryByUserIdAndEvenementId(claims.userId(), claims.evenementId())
+                    .orElse(null);
+            if (participation == null) {
+                return revoked(claims);
+            }
+            confirmed.put(key, participation);
+        }
+        valid.increment();
+        return Optional.of(new AttestationVerification(VerificationStatus.VALID, participation.userId(),
+                participation.userNom(), participation.userPrenom(), participation.evenementId(),
+                participation.evenementTitre(), claims.issuedOn()));
+    }
+
+    /**
+     * Revokes the pair's code; called once the participation's deletion has committed.
+     */
+    public void participationRemoved(Long userId, Long evenementId) {
+        synchronized (writeLock) {
+            Map<Long, IdBitmap> current = participants;
+            if (current != null) {
+                IdBitmap users = current.getOrDefault(evenementId, IdBitmap.EMPTY).without(userId);
+                if (users.isEmpty()) {
+                    current.remove(evenementId);
+                } else {
+                    current.put(evenementId, users);
+                }
+            }
+        }
+        confirmed.invalidate(new IdPair(userId, evenementId));
+    }
+
+    /**
+     * Replaces the participants in memory with the database's, picking up participations
+     * deleted behind the service's back.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.attestations.verification.reload-interval:PT15M}",
+            initialDelayString = "${app.attestations.verification.reload-interval:PT15M}")
+    public void reload() {
+        long start = System.nanoTime();
+        // Under the write lock, so a deletion committed during the load is applied after it
+        synchronized (writeLock) {
+            Map<Long, IdBitmap> fresh = new ConcurrentHashMap<>();
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<IdPair> rows = participationRepository.streamEvenementUserPairs()) {
+                    Long evenementId = null;
+                    long[] userIds = new long[64];
+                    int count = 0;
+                    for (IdPair row : (Iterable<IdPair>) rows::iterator) {
+                        if (!row.left().equals(evenementId)) {
+                            if (evenementId != null) {
+                                fresh.put(evenementId, IdBitmap.of(Arrays.copyOf(userIds, count)));
+                            }
+                            evenementId = row.left();
+                            count = 0;
+                        }
+                        if (count == userIds.length) {
+                            userIds = Arrays.copyOf(userIds, count * 2);
+                        }
+                        userIds[count++] = row.right();
+                    }
+                    if (evenementId != null) {
+                        fresh.put(evenementId, IdBitmap.of(Arrays.copyOf(userIds, count)));
+                    }
+                }
+            });
+            participants = fresh;
+        }
+        log.info("Attestation participants reloaded in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void participationAdded(Long userId, Long evenementId) {
+        Map<Long, IdBitmap> current = participants;
+        if (current == null || current.getOrDefault(evenementId, IdBitmap.EMPTY).contains(userId)) {
+            return;
+        }
+        synchronized (writeLock) {
+            current = participants;
+            current.put(evenementId, current.getOrDefault(evenementId, IdBitmap.EMPTY).with(userId));
+        }
+    }
+
+    private Optional<AttestationVerification> revoked(VerificationClaims claims) {
+        revoked.increment();
+        return Optional.of(new AttestationVerification(VerificationStatus.REVOKED, claims.userId(), null, null,
+                claims.evenementId(), null, claims.issuedOn()));
+    }
+
+    private static LocalDate issuedOn(Date date) {
+        // Date columns come back as java.sql.Date, whose toInstant() throws
+        return date == null ? LocalDate.now() : Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    // Without a configured secret, codes printed before a restart no longer verify after it
+    private static byte[] generatedSecret() {
+        log.warn("app.attestations.verification.secret is not set; using a random key, "
+                + "verification codes will not survive a restart");
+        byte[] secret = new byte[VerificationCodeCodec.MIN_SECRET_BYTES];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+}
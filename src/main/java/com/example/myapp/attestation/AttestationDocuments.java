@@ -0,0 +1,253 @@
+package com.example.myapp.attestation;
+
+import com.example.myapp.entities.AttestationDocument;
+import com.example.myapp.media.ObjectStore;
+import com.example.myapp.payload.response.ParticipationSummary;
+import com.example.myapp.repositories.AttestationDocumentRepository;
+import com.example.myapp.repositories.ParticipationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Personalised attestation PDFs for every participant of an event, written as one ZIP while
+ * they are produced. Participants are read a page at a time and rendered on a small bounded
+ * pool with only a fixed number in flight per download, so memory does not grow with the size
+ * of the event. Every rendered document is kept in the {@link ObjectStore} under a key derived
+ * from the template version and the participant, so downloading again only copies files.
+ * Each stored document is recorded in attestation_documents: it is deleted with its
+ * participation, and {@link #sweep()} deletes the ones replaced by a newer rendition or left
+ * behind by participations deleted elsewhere.
+ */
+@Component
+public class AttestationDocuments implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AttestationDocuments.class);
+    private static final int PAGE_SIZE = 500;
+    private static final String CONTENT_TYPE = "application/pdf";
+
+    private final ParticipationRepository participationRepository;
+    private final AttestationDocumentRepository attestationDocumentRepository;
+    private final AttestationCodes attestationCodes;
+    private final ObjectStore objectStore;
+    private final Path tempDir;
+    private final int inFlightPerDownload;
+    private final ThreadPoolExecutor executor;
+    private final Counter rendered;
+    private final Counter cached;
+
+    @Autowired
+    public AttestationDocuments(ParticipationRepository participationRepository,
+                                AttestationDocumentRepository attestationDocumentRepository,
+                                AttestationCodes attestationCodes,
+                                ObjectStore objectStore,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.attestations.render.threads:2}") int threads,
+                                @Value("${app.attestations.render.queue-capacity:64}") int queueCapacity,
+                                @Value("${app.attestations.render.in-flight-per-download:16}") int inFlightPerDownload,
+                                @Value("${app.media.temp-dir:uploads/media/.tmp}") String tempDir) {
+        this.participationRepository = participationRepository;
+        this.attestationDocumentRepository = attestationDocumentRepository;
+        this.attestationCodes = attestationCodes;
+        this.objectStore = objectStore;
+        this.tempDir = Paths.get(tempDir).toAbsolutePath().normalize();
+        this.inFlightPerDownload = inFlightPerDownload;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // A full queue makes the downloading thread render its next document itself, which slows
+        // that download down instead of failing it halfway through an already started response
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "attestation-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.rendered = Counter.builder("attestation.documents").tag("source", "rendered").register(meterRegistry);
+        this.cached = Counter.builder("attestation.documents").tag("source", "cache").register(meterRegistry);
+    }
+
+    /**
+     * Writes the ZIP of every participant's attestation to the stream, in participation order,
+     * and finishes it without closing the stream.
+     */
+    public void writeBundle(AttestationTemplate template, OutputStream out) throws IOException {
+        String version = template.version();
+        Deque<Pending> window = new ArrayDeque<>(inFlightPerDownload);
+        ZipOutputStream zip = new ZipOutputStream(out);
+        try {
+            long afterId = 0;
+            List<ParticipationSummary> page;
+            do {
+                page = participationRepository.findSummariesByEvenementIdAfter(template.evenementId(), afterId,
+                        Limit.of(PAGE_SIZE));
+                for (ParticipationSummary participant : page) {
+                    if (window.size() == inFlightPerDownload) {
+                        write(zip, window.removeFirst());
+                    }
+                    window.addLast(new Pending(entryName(participant),
+                            CompletableFuture.supplyAsync(() -> document(template, version, participant), executor)));
+                    afterId = participant.id();
+                }
+            } while (page.size() == PAGE_SIZE);
+            while (!window.isEmpty()) {
+                write(zip, window.removeFirst());
+            }
+            zip.finish();
+        } finally {
+            // Only left over when the client went away or a document failed
+            window.forEach(pending -> pending.document().cancel(false));
+        }
+    }
+
+    /**
+     * One participant's attestation, from the store when this version was rendered before.
+     */
+    byte[] document(AttestationTemplate template, String version, ParticipationSummary participant) {
+        String code = attestationCodes.issue(participant);
+        String key = objectKey(version, participant, code);
+        try {
+            if (objectStore.exists(key)) {
+                try (InputStream in = objectStore.get(key)) {
+                    cached.increment();
+                    return in.readAllBytes();
+                }
+            }
+            byte[] pdf = AttestationPdfRenderer.render(template, participant, code);
+            Files.createDirectories(tempDir);
+            Path staged = Files.createTempFile(tempDir, "attestation-", ".pdf");
+            try {
+                Files.write(staged, pdf);
+                objectStore.put(key, staged, CONTENT_TYPE);
+            } finally {
+                Files.deleteIfExists(staged);
+            }
+            try {
+                attestationDocumentRepository.save(new AttestationDocument(participant.id(), key));
+            } catch (DataIntegrityViolationException e) {
+                // Another download rendered the same document at the same time
+            }
+            rendered.increment();
+            return pdf;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes the participation's stored documents; called once its deletion has committed.
+     */
+    public void participationRemoved(Long participationId) {
+        attestationDocumentRepository.findObjectKeysByParticipationId(participationId).forEach(this::delete);
+    }
+
+    @Scheduled(fixedDelayString = "${app.attestations.documents.sweep-interval:PT1H}",
+            initialDelayString = "${app.attestations.documents.sweep-interval:PT1H}")
+    public void sweep() {
+        List<String> keys;
+        int deleted = 0;
+        do {
+            keys = attestationDocumentRepository.findSupersededObjectKeys(Limit.of(PAGE_SIZE));
+            for (String key : keys) {
+                if (!delete(key)) {
+                    // Left for the next sweep rather than fetched again by this one
+                    return;
+                }
+                deleted++;
+            }
+        } while (keys.size() == PAGE_SIZE);
+        if (deleted > 0) {
+            log.info("Deleted {} superseded attestation documents", deleted);
+        }
+    }
+
+    // The row goes only once the object is gone, so a failed delete is retried by the next sweep
+    private boolean delete(String key) {
+        try {
+            objectStore.delete(key);
+        } catch (IOException e) {
+            log.warn("Could not delete attestation document {}", key, e);
+            return false;
+        }
+        attestationDocumentRepository.deleteByObjectKey(key);
+        return true;
+    }
+
+    private static void write(ZipOutputStream zip, Pending pending) throws IOException {
+        byte[] pdf;
+        try {
+            pdf = pending.document().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+        zip.putNextEntry(new ZipEntry(pending.name()));
+        zip.write(pdf);
+        zip.closeEntry();
+    }
+
+    // Everything printed about the participant is in the key, so a renamed user gets a new document
+    static String objectKey(String version, ParticipationSummary participant, String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((version + "\0" + participant.id() + "\0" + participant.userId() + "\0"
+                    + participant.userPrenom() + "\0" + participant.userNom() + "\0"
+                    + (participant.date() == null ? "" : participant.date().getTime()) + "\0" + code)
+                    .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest()) + ".pdf";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String entryName(ParticipationSummary participant) {
+        String name = participant.userNom() + "-" + participant.userPrenom();
+        String ascii = Normalizer.normalize(name, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("[^A-Za-z0-9-]+", "_");
+        return "attestation-" + ascii + "-" + participant.userId() + ".pdf";
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private record Pending(String name, CompletableFuture<byte[]> document) {
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.myapp.attestation;
+
+import com.example.myapp.payload.response.ParticipationSummary;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes a one-page A4 landscape PDF by hand: the standard Helvetica fonts need no embedding,
+ * so a document is a few kilobytes of text and rendering one is a matter of microseconds.
+ * Text is Latin-1, which covers French; anything outside it prints as '?'.
+ */
+public final class AttestationPdfRenderer {
+
+    /**
+     * Bumped whenever the layout changes, so documents cached under the old one are not reused.
+     */
+    public static final int LAYOUT_REVISION = 2;
+
+    private static final float PAGE_WIDTH = 842;
+    private static final float PAGE_HEIGHT = 595;
+    private static final float TEXT_WIDTH = 640;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("d MMMM yyyy", Locale.FRENCH);
+
+    // Helvetica advance widths, in thousandths of the font size, for ' ' (32) to '~' (126)
+    private static final short[] WIDTHS = {
+            278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+            556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+            1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+            667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+            333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+            556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584};
+
+    private AttestationPdfRenderer() {
+    }
+
+    public static byte[] render(AttestationTemplate template, ParticipationSummary participant, String verificationCode) {
+        Content content = new Content();
+        content.raw("q 0.16 0.29 0.48 RG 3 w 30 30 782 535 re S 0.5 w 40 40 762 515 re S Q\n");
+        content.raw("0.15 g\n");
+
+        content.centered(true, 34, 470, template.nom());
+        content.centered(false, 14, 410, "Décernée à");
+        content.centered(true, 28, 370, join(participant.userPrenom(), participant.userNom()));
+
+        float y = 320;
+        for (String line : wrap(template.description(), 13, TEXT_WIDTH)) {
+            content.centered(false, 13, y, line);
+            y -= 18;
+        }
+        y -= 10;
+        content.centered(false, 14, y, "pour sa participation à « " + template.evenementTitre() + " »");
+        String organiser = template.clubNom() == null ? "" : "organisé par " + template.clubNom() + " ";
+        content.centered(false, 14, y - 22, organiser + "le " + format(template.evenementDate()));
+
+        content.centered(true, 11, 100, "Code de vérification : " + verificationCode);
+        content.text(false, 10, 60, 60, "Délivrée le " + format(participant.date()));
+        String reference = "Référence " + participant.evenementId() + "-" + participant.userId();
+        content.text(false, 10, PAGE_WIDTH - 60 - width(reference, false, 10), 60, reference);
+        return document(content.bytes());
+    }
+
+    private static byte[] document(byte[] contents) {
+        Pdf pdf = new Pdf();
+        pdf.object("<< /Type /Catalog /Pages 2 0 R >>");
+        pdf.object("<< /Type /Pages /Kids [3 0 R] /Count 1 >>");
+        pdf.object("<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + (int) PAGE_WIDTH + " " + (int) PAGE_HEIGHT + "]"
+                + " /Resources << /Font << /F1 4 0 R /F2 5 0 R >> >> /Contents 6 0 R >>");
+        pdf.object("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+        pdf.object("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+        pdf.stream(contents);
+        return pdf.finish();
+    }
+
+    private static String join(String first, String last) {
+        return ((first == null ? "" : first) + " " + (last == null ? "" : last)).trim();
+    }
+
+    private static String format(Date date) {
+        // Date columns come back as java.sql.Date, whose toInstant() throws
+        return date == null ? "" : DATE.format(Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()));
+    }
+
+    static List<String> wrap(String text, float size, float maxWidth) {
+        List<String> lines = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return lines;
+        }
+        StringBuilder line = new StringBuilder();
+        for (String word : text.trim().split("\\s+")) {
+            String candidate = line.isEmpty() ? word : line + " " + word;
+            if (!line.isEmpty() && width(candidate, false, size) > maxWidth) {
+                lines.add(line.toString());
+                line.setLength(0);
+                line.append(word);
+            } else {
+                line.setLength(0);
+                line.append(candidate);
+            }
+        }
+        lines.add(line.toString());
+        return lines;
+    }
+
+    /**
+     * Approximate printed width. Accented letters are measured as their base letter and bold
+     * as a little wider than regular, which is close enough to centre a line.
+     */
+    static float width(String text, boolean bold, float size) {
+        float units = 0;
+        for (byte b : latin1(text)) {
+            int c = b & 0xff;
+            units += c >= 32 && c <= 126 ? WIDTHS[c - 32] : 556;
+        }
+        return units * size / 1000 * (bold ? 1.06f : 1f);
+    }
+
+    private static byte[] latin1(String text) {
+        return text == null ? new byte[0] : text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static final class Content {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(2048);
+
+        void centered(boolean bold, float size, float y, String text) {
+            text(bold, size, (PAGE_WIDTH - width(text, bold, size)) / 2, y, text);
+        }
+
+        void text(boolean bold, float size, float x, float y, String text) {
+            raw(String.format(Locale.ROOT, "BT /%s %.0f Tf %.2f %.2f Td (", bold ? "F2" : "F1", size, x, y));
+            for (byte b : latin1(text)) {
+                if (b == '(' || b == ')' || b == '\\') {
+                    out.write('\\');
+                }
+                out.write(b);
+            }
+            raw(") Tj ET\n");
+        }
+
+        void raw(String operators) {
+            out.writeBytes(operators.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        byte[] bytes() {
+            return out.toByteArray();
+        }
+    }
+
+    // Objects are numbered from 1 in the order they are added; the xref table records where each starts
+    private static final class Pdf {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        private final List<Integer> offsets = new ArrayList<>();
+
+        Pdf() {
+            ascii("%PDF-1.4\n");
+            // A binary comment line, so transfer tools do not take the file for text
+            out.writeBytes(new byte[] {'%', (byte) 0xe2, (byte) 0xe3, (byte) 0xcf, (byte) 0xd3, '\n'});
+        }
+
+        void object(String dictionary) {
+            begin();
+            ascii(dictionary + "\nendobj\n");
+        }
+
+        void stream(byte[] data) {
+            begin();
+            ascii("<< /Length " + data.length + " >>\nstream\n");
+            out.writeBytes(data);
+            ascii("\nendstream\nendobj\n");
+        }
+
+        byte[] finish() {
+            int xref = out.size();
+            ascii("xref\n0 " + (offsets.size() + 1) + "\n0000000000 65535 f \n");
+            for (int offset : offsets) {
+                ascii(String.format(Locale.ROOT, "%010d 00000 n \n", offset));
+            }
+            ascii("trailer\n<< /Size " + (offsets.size() + 1) + " /Root 1 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+            return out.toByteArray();
+        }
+
+        private void begin() {
+            offsets.add(out.size());
+            ascii(offsets.size() + " 0 obj\n");
+        }
+
+        private void ascii(String text) {
+            out.writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
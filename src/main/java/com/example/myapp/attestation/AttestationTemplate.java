@@ -0,0 +1,33 @@
+package com.example.myapp.attestation;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+
+/**
+ * Everything on an attestation that is the same for every participant of the event: the
+ * attestation row's text and the event it certifies.
+ */
+public record AttestationTemplate(String nom, String description, Long evenementId, String evenementTitre,
+                                  Date evenementDate, String clubNom) {
+
+    /**
+     * Digest of the layout revision and every field above, so a document rendered from an
+     * older text or layout is never mistaken for a current one.
+     */
+    public String version() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object field : new Object[] {AttestationPdfRenderer.LAYOUT_REVISION, nom, description, evenementId,
+                    evenementTitre, evenementDate == null ? null : evenementDate.getTime(), clubNom}) {
+                digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.myapp.attestation;
+
+import java.time.LocalDate;
+
+/**
+ * What a verification code vouches for: this user took part in this event, attested on this day.
+ */
+public record VerificationClaims(long userId, long evenementId, LocalDate issuedOn) {
+}
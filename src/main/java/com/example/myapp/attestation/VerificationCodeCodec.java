@@ -0,0 +1,108 @@
+package com.example.myapp.attestation;
+
+import com.example.myapp.utils.CrockfordBase32;
+import com.example.myapp.utils.Varints;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Short codes printed on attestations: the user id, event id and issue day as varints followed
+ * by 80 bits of their HMAC-SHA256, in Crockford base32 grouped by four
+ * ({@code 1B2C-3D4E-...}) so they can be read over the phone and typed back. Decoding ignores
+ * case and dashes and reads I/L as 1 and O as 0. At most 38 characters while ids stay below two
+ * million. Thread-safe.
+ */
+public final class VerificationCodeCodec {
+
+    public static final int MIN_SECRET_BYTES = 32;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 10;
+    // Keeps these MACs apart from anything else that might ever be signed with the same secret
+    private static final byte[] CONTEXT = "attestation-verification:v1".getBytes(StandardCharsets.US_ASCII);
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public VerificationCodeCodec(byte[] secret) {
+        if (secret.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("Verification secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String sign(VerificationClaims claims) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        Varints.write(out, claims.userId());
+        Varints.write(out, claims.evenementId());
+        Varints.write(out, claims.issuedOn().toEpochDay());
+        byte[] payload = out.toByteArray();
+        out.write(mac(payload), 0, MAC_BYTES);
+        return group(CrockfordBase32.encode(out.toByteArray()));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the code is malformed or its signature does not match
+     */
+    public VerificationClaims verify(String code) {
+        byte[] bytes;
+        try {
+            bytes = CrockfordBase32.decode(code);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed verification code");
+        }
+        if (bytes.length <= MAC_BYTES) {
+            throw new IllegalArgumentException("Malformed verification code");
+        }
+        int payloadLength = bytes.length - MAC_BYTES;
+        byte[] payload = Arrays.copyOf(bytes, payloadLength);
+        byte[] expected = Arrays.copyOf(mac(payload), MAC_BYTES);
+        if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(bytes, payloadLength, bytes.length))) {
+            throw new IllegalArgumentException("Invalid verification code");
+        }
+        // Signed by us, so only a format change could make these reads fail
+        int[] position = {0};
+        long userId = Varints.read(payload, position);
+        long evenementId = Varints.read(payload, position);
+        long epochDay = Varints.read(payload, position);
+        if (position[0] != payload.length) {
+            throw new IllegalArgumentException("Malformed verification code");
+        }
+        return new VerificationClaims(userId, evenementId, LocalDate.ofEpochDay(epochDay));
+    }
+
+    private static String group(String digits) {
+        StringBuilder code = new StringBuilder(digits.length() + digits.length() / 4);
+        for (int i = 0; i < digits.length(); i += 4) {
+            if (i > 0) {
+                code.append('-');
+            }
+            code.append(digits, i, Math.min(i + 4, digits.length()));
+        }
+        return code.toString();
+    }
+
+    private byte[] mac(byte[] payload) {
+        Mac mac = macs.get();
+        mac.update(CONTEXT);
+        return mac.doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
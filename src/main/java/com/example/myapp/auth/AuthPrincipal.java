@@ -0,0 +1,23 @@
+package com.example.myapp.auth;
+
+import com.example.myapp.enums.Role;
+
+/**
+ * The caller, as read from its access token. Controller methods get it by declaring a
+ * parameter of this type; it is null when the request carried no token.
+ */
+public record AuthPrincipal(Long userId, Role role, String sessionId) {
+
+    public static final String ATTRIBUTE = AuthPrincipal.class.getName();
+
+    /**
+     * The user a request acts for: the caller when authenticated, otherwise the legacy
+     * {@code userId} parameter. Null when an authenticated caller names someone else.
+     */
+    public static Long actingUserId(AuthPrincipal principal, Long requestedUserId) {
+        if (principal == null) {
+            return requestedUserId;
+        }
+        return requestedUserId == null || requestedUserId.equals(principal.userId()) ? principal.userId() : null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.myapp.auth;
+
+import com.example.myapp.services.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Resolves the caller from an {@code Authorization: Bearer} header and exposes it as an
+ * {@link AuthPrincipal} request attribute. Requests without a bearer token go through
+ * anonymously; a token that does not verify is answered with 401 straight away.
+ */
+@Component
+public class BearerTokenInterceptor implements HandlerInterceptor {
+
+    private static final String BEARER = "Bearer ";
+
+    private final AuthService authService;
+
+    @Autowired
+    public BearerTokenInterceptor(AuthService authService) {
+        this.authService = authService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return true;
+        }
+        try {
+            request.setAttribute(AuthPrincipal.ATTRIBUTE, authService.authenticate(authorization.substring(BEARER.length()).trim()));
+            return true;
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.myapp.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Caps login attempts per email (guessing one account's password) and per client address
+ * (one source trying many accounts), before any password is hashed. Every attempt counts, so a
+ * burst is cut off while its first hashes are still running; a successful login clears the
+ * email's count but not the address's.
+ * <p>
+ * The address is the request's remote address: behind a reverse proxy, set
+ * {@code server.forward-headers-strategy} so it is the client's and not the proxy's.
+ * Blocked attempts are counted in {@code auth.login.throttled{limit=email|ip}}.
+ */
+@Component
+public class LoginThrottle {
+
+    private final SlidingWindowLimiter byEmail;
+    private final SlidingWindowLimiter byAddress;
+    private final Duration emailWindow;
+    private final Duration addressWindow;
+    private final Counter emailThrottled;
+    private final Counter addressThrottled;
+
+    @Autowired
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${app.auth.login.email-limit:10}") int emailLimit,
+                         @Value("${app.auth.login.email-window:PT15M}") Duration emailWindow,
+                         @Value("${app.auth.login.ip-limit:30}") int addressLimit,
+                         @Value("${app.auth.login.ip-window:PT1M}") Duration addressWindow,
+                         @Value("${app.auth.login.max-tracked-keys:100000}") int maxKeys) {
+        Clock clock = Clock.systemUTC();
+        this.byEmail = new SlidingWindowLimiter(emailLimit, emailWindow, maxKeys, clock);
+        this.byAddress = new SlidingWindowLimiter(addressLimit, addressWindow, maxKeys, clock);
+        this.emailWindow = emailWindow;
+        this.addressWindow = addressWindow;
+        this.emailThrottled = Counter.builder("auth.login.throttled").tag("limit", "email").register(meterRegistry);
+        this.addressThrottled = Counter.builder("auth.login.throttled").tag("limit", "ip").register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", byEmail, SlidingWindowLimiter::size)
+                .tag("limit", "email").register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", byAddress, SlidingWindowLimiter::size)
+                .tag("limit", "ip").register(meterRegistry);
+        FunctionCounter.builder("auth.login.throttle.evicted", byEmail, SlidingWindowLimiter::evicted)
+                .tag("limit", "email").register(meterRegistry);
+        FunctionCounter.builder("auth.login.throttle.evicted", byAddress, SlidingWindowLimiter::evicted)
+                .tag("limit", "ip").register(meterRegistry);
+    }
+
+    /**
+     * Counts a login attempt.
+     *
+     * @throws LoginThrottledException if the email or the address is over its limit
+     */
+    public void acquire(String email, String clientAddress) {
+        // The address goes first so one source spraying emails does not fill the email map
+        if (clientAddress != null && !byAddress.tryAcquire(clientAddress)) {
+            addressThrottled.increment();
+            throw new LoginThrottledException(addressWindow);
+        }
+        if (!byEmail.tryAcquire(normalize(email))) {
+            emailThrottled.increment();
+            throw new LoginThrottledException(emailWindow);
+        }
+    }
+
+    public void succeeded(String email) {
+        byEmail.reset(normalize(email));
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.login.ip-window:PT1M}",
+            initialDelayString = "${app.auth.login.ip-window:PT1M}")
+    public void evictIdle() {
+        byEmail.evictIdle();
+        byAddress.evictIdle();
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
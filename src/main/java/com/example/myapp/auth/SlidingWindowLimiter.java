@@ -0,0 +1,165 @@
+package com.example.myapp.auth;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allows at most {@code limit} attempts per key over any window of the configured length,
+ * approximated from the count of the current fixed window plus the previous one weighted by
+ * how much of it still overlaps. Each key is a single {@link AtomicLong} packing the window
+ * index with both counts, so admitting an attempt is one CAS and never blocks.
+ * <p>
+ * The map holds at most {@code maxKeys} keys. Keys idle for two windows count nothing and
+ * are dropped by {@link #evictIdle()}; if the map is still full, a newcomer makes room by
+ * dropping the keys with the fewest recent attempts, so flooding the map with fresh keys can
+ * neither slip attempts through untracked nor free a key that is near its limit.
+ * {@link #evicted()} counts the live keys dropped that way.
+ */
+public class SlidingWindowLimiter {
+
+    private static final long COUNT_MASK = 0xFFFF;
+
+    private final int limit;
+    private final long windowMillis;
+    private final int maxKeys;
+    private final Clock clock;
+    private final Map<String, AtomicLong> windows = new ConcurrentHashMap<>();
+    private final AtomicLong evicted = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    public SlidingWindowLimiter(int limit, Duration window, int maxKeys, Clock clock) {
+        if (limit < 1 || limit > COUNT_MASK) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + COUNT_MASK);
+        }
+        // Keeps the window index within 32 bits
+        if (window.toSeconds() < 1) {
+            throw new IllegalArgumentException("Window must be at least one second");
+        }
+        this.limit = limit;
+        this.windowMillis = window.toMillis();
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * Counts an attempt for the key, unless that would take it over the limit.
+     *
+     * @return false if the attempt is refused
+     */
+    public boolean tryAcquire(String key) {
+        AtomicLong state = windows.get(key);
+        if (state == null) {
+            if (windows.size() >= maxKeys) {
+                makeRoom();
+            }
+            state = windows.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        long now = clock.millis();
+        while (true) {
+            long current = state.get();
+            if (estimate(current, now) >= limit) {
+                return false;
+            }
+            long next = rollTo(current, now / windowMillis) + 1;
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Forgets the key's attempts, e.g. once a login has succeeded.
+     */
+    public void reset(String key) {
+        windows.remove(key);
+    }
+
+    /**
+     * Drops keys whose last attempt is more than a full window ago. An attempt racing with the
+     * removal of its key may go uncounted, which is harmless for a key that was idle.
+     */
+    public void evictIdle() {
+        long index = clock.millis() / windowMillis;
+        windows.values().removeIf(state -> windowIndex(state.get()) < index - 1);
+    }
+
+    public int size() {
+        return windows.size();
+    }
+
+    public long evicted() {
+        return evicted.get();
+    }
+
+    /**
+     * Drops idle keys and, if that is not enough, every key at the lowest estimates until at
+     * least a sixteenth of the map is free, so under a flood of newcomers the scan runs once per
+     * many of them rather than once each.
+     */
+    private void makeRoom() {
+        synchronized (evictionLock) {
+            if (windows.size() < maxKeys) {
+                return;
+            }
+            evictIdle();
+            if (windows.size() < maxKeys) {
+                return;
+            }
+            long now = clock.millis();
+            int[] keysByEstimate = new int[limit + 1];
+            for (AtomicLong state : windows.values()) {
+                keysByEstimate[roundedEstimate(state.get(), now)]++;
+            }
+            int wanted = Math.max(1, maxKeys / 16);
+            int cutoff = 0;
+            int freed = keysByEstimate[0];
+            while (freed < wanted && cutoff < limit) {
+                freed += keysByEstimate[++cutoff];
+            }
+            int highest = cutoff;
+            windows.values().removeIf(state -> {
+                if (roundedEstimate(state.get(), now) > highest) {
+                    return false;
+                }
+                evicted.incrementAndGet();
+                return true;
+            });
+        }
+    }
+
+    // Attempts over the sliding window ending now
+    private double estimate(long state, long now) {
+        long rolled = rollTo(state, now / windowMillis);
+        double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+        return previous(rolled) * previousWeight + count(rolled);
+    }
+
+    private int roundedEstimate(long state, long now) {
+        return (int) Math.min(limit, Math.ceil(estimate(state, now)));
+    }
+
+    // Layout: window index in the high 32 bits, previous window count, current window count
+    private static long rollTo(long state, long index) {
+        long stateIndex = windowIndex(state);
+        if (stateIndex == index) {
+            return state;
+        }
+        long previous = stateIndex == index - 1 ? count(state) : 0;
+        return (index << 32) | (previous << 16);
+    }
+
+    private static long windowIndex(long state) {
+        return state >>> 32;
+    }
+
+    private static long previous(long state) {
+        return (state >>> 16) & COUNT_MASK;
+    }
+
+    private static long count(long state) {
+        return state & COUNT_MASK;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.myapp.auth;
+
+import com.example.myapp.enums.Role;
+
+/**
+ * What a signed token asserts. Tokens of one login share {@code sessionId}, so revoking the
+ * session revokes them all; {@code tokenId} identifies this token alone. The issue time is in
+ * epoch milliseconds, so a revocation can tell tokens of the same second apart; the expiry is
+ * in epoch seconds.
+ */
+public record TokenClaims(TokenType type, long userId, Role role, String sessionId, String tokenId,
+                          long issuedAtMillis, long expiresAt) {
+}
@@ -0,0 +1,118 @@
+package com.example.myapp.auth;
+
+import com.example.myapp.enums.Role;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Signs and verifies self-contained tokens in the compact JWT form
+ * ({@code header.claims.signature}, HMAC-SHA256), so any JWT library can read them. Only
+ * this exact header is accepted: the algorithm is never taken from the token.
+ * <p>
+ * {@link #verify(String)} checks the signature and shape only; expiry and revocation are the
+ * caller's business. Thread-safe.
+ */
+public final class TokenCodec {
+
+    public static final int MIN_SECRET_BYTES = 32;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.US_ASCII));
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final SecretKeySpec key;
+    // Mac instances are stateful; one per thread avoids both locking and a lookup per token
+    private final ThreadLocal<Mac> macs;
+
+    public TokenCodec(byte[] secret) {
+        if (secret.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("Token secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String sign(TokenClaims claims) {
+        ObjectNode body = JSON.createObjectNode()
+                .put("typ", claims.type().name())
+                .put("sub", Long.toString(claims.userId()))
+                .put("role", claims.role() == null ? null : claims.role().name())
+                .put("sid", claims.sessionId())
+                .put("jti", claims.tokenId())
+                // A NumericDate may carry a fraction; the milliseconds go there
+                .put("iat", BigDecimal.valueOf(claims.issuedAtMillis(), 3))
+                .put("exp", claims.expiresAt());
+        String signed;
+        try {
+            signed = HEADER + "." + ENCODER.encodeToString(JSON.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        return signed + "." + ENCODER.encodeToString(mac(signed));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or its signature does not match
+     */
+    public TokenClaims verify(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot != HEADER.length() || firstDot == lastDot || !token.startsWith(HEADER)) {
+            throw new IllegalArgumentException("Malformed token");
+        }
+        byte[] signature;
+        byte[] payload;
+        try {
+            signature = DECODER.decode(token.substring(lastDot + 1));
+            payload = DECODER.decode(token.substring(firstDot + 1, lastDot));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed token", e);
+        }
+        if (!MessageDigest.isEqual(signature, mac(token.substring(0, lastDot)))) {
+            throw new IllegalArgumentException("Invalid token signature");
+        }
+        try {
+            JsonNode body = JSON.readTree(payload);
+            JsonNode role = body.path("role");
+            return new TokenClaims(
+                    TokenType.valueOf(body.path("typ").asText()),
+                    Long.parseLong(body.path("sub").asText()),
+                    role.isTextual() ? Role.valueOf(role.asText()) : null,
+                    body.path("sid").asText(),
+                    body.path("jti").asText(),
+                    Math.round(body.path("iat").asDouble() * 1000),
+                    body.path("exp").asLong());
+        } catch (IOException | IllegalArgumentException e) {
+            // Signed by us, so only a codec change could get here
+            throw new IllegalArgumentException("Unreadable token claims", e);
+        }
+    }
+
+    private byte[] mac(String signed) {
+        return macs.get().doFinal(signed.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.myapp.auth;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens withdrawn before their expiry, kept in memory so checking one is a map lookup.
+ * Whole sessions are revoked at logout, single refresh tokens once they have been used, and
+ * everything a user was issued up to a point when their password changes or the account goes.
+ * An entry is only needed until the last token it covers would have expired anyway, which
+ * {@link #purge()} relies on to keep the maps small.
+ * <p>
+ * The list is per instance: behind a load balancer a revocation only holds on the instance
+ * that recorded it, and a restart forgets it. Short access tokens bound both windows.
+ */
+@Component
+public class TokenRevocations {
+
+    private final Clock clock;
+    // Key -> epoch second after which the entry can go
+    private final Map<String, Long> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Long> usedRefreshTokens = new ConcurrentHashMap<>();
+    private final Map<Long, Cutoff> userCutoffs = new ConcurrentHashMap<>();
+
+    public TokenRevocations() {
+        this(Clock.systemUTC());
+    }
+
+    TokenRevocations(Clock clock) {
+        this.clock = clock;
+    }
+
+    public boolean isRevoked(TokenClaims claims) {
+        if (sessions.containsKey(claims.sessionId())) {
+            return true;
+        }
+        Cutoff cutoff = userCutoffs.get(claims.userId());
+        return cutoff != null && claims.issuedAtMillis() <= cutoff.issuedUpTo();
+    }
+
+    public void revokeSession(String sessionId, long until) {
+        sessions.merge(sessionId, until, Math::max);
+    }
+
+    /**
+     * Revokes every token issued to the user up to now, to the millisecond.
+     */
+    public void revokeUser(long userId, long until) {
+        long now = clock.millis();
+        userCutoffs.merge(userId, new Cutoff(now, until),
+                (previous, next) -> new Cutoff(now, Math.max(previous.until(), until)));
+    }
+
+    /**
+     * Marks a refresh token as spent. Returns false if it already was: the token has been
+     * replayed, by its owner or by whoever copied it.
+     */
+    public boolean useRefreshToken(TokenClaims claims) {
+        return usedRefreshTokens.putIfAbsent(claims.tokenId(), claims.expiresAt()) == null;
+    }
+
+    public int size() {
+        return sessions.size() + usedRefreshTokens.size() + userCutoffs.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.revocation-purge-interval:PT5M}",
+            initialDelayString = "${app.auth.revocation-purge-interval:PT5M}")
+    public void purge() {
+        long now = now();
+        sessions.values().removeIf(until -> until < now);
+        usedRefreshTokens.values().removeIf(until -> until < now);
+        userCutoffs.values().removeIf(cutoff -> cutoff.until() < now);
+    }
+
+    private long now() {
+        return clock.instant().getEpochSecond();
+    }
+
+    // issuedUpTo in epoch milliseconds, until in epoch seconds
+    private record Cutoff(long issuedUpTo, long until) {
+    }
+}
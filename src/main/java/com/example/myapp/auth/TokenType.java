@@ -0,0 +1,6 @@
+package com.example.myapp.auth;
+
+
+public enum TokenType {
+    ACCESS, REFRESH
+}
@@ -0,0 +1,11 @@
+package com.example.myapp.cache;
+
+public final class CacheNames {
+
+    public static final String CLUBS = "clubs";
+    public static final String EVENEMENTS = "evenements";
+    public static final String USERS = "users";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.myapp.cache;
+
+/**
+ * Second, shared cache tier sitting behind the in-process near cache (e.g. Redis or
+ * memcached). Implementations must be thread-safe and must never throw on a miss.
+ */
+public interface CacheTier {
+
+    /**
+     * @return the cached value, or null when absent
+     */
+    Object get(String cacheName, Object key);
+
+    void put(String cacheName, Object key, Object value);
+
+    void evict(String cacheName, Object key);
+
+    void clear(String cacheName);
+}
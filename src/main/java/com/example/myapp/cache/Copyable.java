@@ -0,0 +1,10 @@
+package com.example.myapp.cache;
+
+/**
+ * A mutable value the caches only ever hand out by copy, so a caller changing what it was given
+ * never changes what the next caller reads.
+ */
+public interface Copyable<T> {
+
+    T copy();
+}
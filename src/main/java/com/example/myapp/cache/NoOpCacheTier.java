@@ -0,0 +1,24 @@
+package com.example.myapp.cache;
+
+/**
+ * Default second tier: nothing is shared between instances, only the near cache is used.
+ */
+public class NoOpCacheTier implements CacheTier {
+
+    @Override
+    public Object get(String cacheName, Object key) {
+        return null;
+    }
+
+    @Override
+    public void put(String cacheName, Object key, Object value) {
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+    }
+
+    @Override
+    public void clear(String cacheName) {
+    }
+}
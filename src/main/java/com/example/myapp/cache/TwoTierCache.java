@@ -0,0 +1,121 @@
+package com.example.myapp.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spring {@link org.springframework.cache.Cache} backed by a bounded Caffeine near cache and a
+ * pluggable {@link CacheTier}. Reads try the near cache first and promote second tier hits into
+ * it; writes and evictions go to both tiers so an invalidation is never masked by the near copy.
+ * {@link Copyable} values are copied on the way in and on the way out, so cached entities are
+ * never shared with the callers that modify them.
+ */
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<Object, Object> nearCache;
+    private final CacheTier secondTier;
+    private final LongAdder secondTierHits = new LongAdder();
+    private final LongAdder secondTierMisses = new LongAdder();
+
+    public TwoTierCache(String name, Cache<Object, Object> nearCache, CacheTier secondTier) {
+        super(false);
+        this.name = name;
+        this.nearCache = nearCache;
+        this.secondTier = secondTier;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Cache<Object, Object> getNativeCache() {
+        return nearCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = nearCache.getIfPresent(key);
+        if (value == null) {
+            value = lookupSecondTier(key);
+            if (value != null) {
+                nearCache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) fromStoreValue(nearCache.get(key, k -> {
+            Object value = lookupSecondTier(k);
+            if (value != null) {
+                return value;
+            }
+            try {
+                value = toStoreValue(valueLoader.call());
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+            secondTier.put(name, k, value);
+            return value;
+        }));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object storeValue = toStoreValue(value);
+        secondTier.put(name, key, storeValue);
+        nearCache.put(key, storeValue);
+    }
+
+    @Override
+    public void evict(Object key) {
+        secondTier.evict(name, key);
+        nearCache.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        secondTier.clear(name);
+        nearCache.invalidateAll();
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        return super.toStoreValue(copyOf(userValue));
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return copyOf(super.fromStoreValue(storeValue));
+    }
+
+    public long getSecondTierHits() {
+        return secondTierHits.sum();
+    }
+
+    public long getSecondTierMisses() {
+        return secondTierMisses.sum();
+    }
+
+    private static Object copyOf(Object value) {
+        return value instanceof Copyable<?> copyable ? copyable.copy() : value;
+    }
+
+    private Object lookupSecondTier(Object key) {
+        Object value = secondTier.get(name, key);
+        if (value != null) {
+            secondTierHits.increment();
+        } else {
+            secondTierMisses.increment();
+        }
+        return value;
+    }
+}
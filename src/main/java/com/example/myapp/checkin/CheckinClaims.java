@@ -0,0 +1,4 @@
+package com.example.myapp.checkin;
+
+public record CheckinClaims(long participationId, long evenementId) {
+}
@@ -0,0 +1,183 @@
+package com.example.myapp.checkin;
+
+import com.example.myapp.enums.CheckinStatus;
+import com.example.myapp.payload.response.CheckinBitmap;
+import com.example.myapp.payload.response.CheckinEntry;
+import com.example.myapp.payload.response.CheckinResult;
+import com.example.myapp.payload.response.CheckinTicket;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.repositories.ParticipationRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The door of each event: its participations and who already came in, loaded in one query on
+ * the first scan and kept in memory while scans keep coming, so a scan is a signature check
+ * and two map lookups. Admissions are recorded by the {@link CheckinWriter} after the answer.
+ * <p>
+ * A participation created after the door was loaded is looked up on its first scan; one
+ * deleted through the service is forgotten at once.
+ */
+@Component
+public class CheckinDesk {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckinDesk.class);
+
+    private final CheckinTokenCodec codec;
+    private final ParticipationRepository participationRepository;
+    private final EvenementRepository evenementRepository;
+    private final CheckinWriter checkinWriter;
+    private final LoadingCache<Long, Door> doors;
+    private final int bitsPerParticipant;
+    private final Map<CheckinStatus, Counter> scans = new EnumMap<>(CheckinStatus.class);
+
+    @Autowired
+    public CheckinDesk(ParticipationRepository participationRepository,
+                       EvenementRepository evenementRepository,
+                       CheckinWriter checkinWriter,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.checkin.secret:}") String secret,
+                       @Value("${app.checkin.max-open-doors:1000}") long maxOpenDoors,
+                       @Value("${app.checkin.door-idle-ttl:PT2H}") Duration doorIdleTtl,
+                       @Value("${app.checkin.offline.bits-per-participant:16}") int bitsPerParticipant) {
+        this.participationRepository = participationRepository;
+        this.evenementRepository = evenementRepository;
+        this.checkinWriter = checkinWriter;
+        this.codec = new CheckinTokenCodec(secret.isBlank() ? generatedSecret() : Base64.getDecoder().decode(secret));
+        this.bitsPerParticipant = bitsPerParticipant;
+        this.doors = Caffeine.newBuilder()
+                .maximumSize(maxOpenDoors)
+                .expireAfterAccess(doorIdleTtl)
+                .recordStats()
+                .build(this::open);
+        CaffeineCacheMetrics.monitor(meterRegistry, doors, "checkin.doors");
+        for (CheckinStatus status : CheckinStatus.values()) {
+            scans.put(status, Counter.builder("checkin.scans")
+                    .tag("result", status.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    public Optional<CheckinTicket> ticket(Long participationId) {
+        return participationRepository.findUserEvenementPairById(participationId)
+                .map(pair -> new CheckinTicket(participationId, pair.right(),
+                        codec.sign(new CheckinClaims(participationId, pair.right()))));
+    }
+
+    /**
+     * @param expectedEvenementId the event the scanner is set up for, or null to accept any
+     */
+    public CheckinResult checkIn(String token, Long expectedEvenementId) {
+        CheckinClaims claims;
+        try {
+            claims = codec.verify(token);
+        } catch (IllegalArgumentException e) {
+            return count(CheckinResult.rejected(CheckinStatus.INVALID, null, null));
+        }
+        if (expectedEvenementId != null && expectedEvenementId != claims.evenementId()) {
+            return count(CheckinResult.rejected(CheckinStatus.WRONG_EVENT, claims.participationId(), claims.evenementId()));
+        }
+        Door door = doors.get(claims.evenementId());
+        CheckinEntry entry = door.attendees.get(claims.participationId());
+        if (entry == null) {
+            entry = participationRepository.findCheckinEntryById(claims.participationId())
+                    .filter(found -> found.evenementId() == claims.evenementId())
+                    .orElse(null);
+            if (entry == null) {
+                return count(CheckinResult.rejected(CheckinStatus.NOT_REGISTERED, claims.participationId(),
+                        claims.evenementId()));
+            }
+            door.add(entry);
+        }
+        Instant now = Instant.now();
+        Instant first = door.checkedIn.putIfAbsent(entry.participationId(), now);
+        if (first != null) {
+            return count(CheckinResult.of(CheckinStatus.ALREADY_CHECKED_IN, entry, first));
+        }
+        checkinWriter.submit(entry.participationId(), now);
+        return count(CheckinResult.of(CheckinStatus.ADMITTED, entry, now));
+    }
+
+    /**
+     * Empty when the event does not exist.
+     */
+    public Optional<CheckinBitmap> offlineBitmap(Long evenementId) {
+        if (!evenementRepository.existsById(evenementId)) {
+            return Optional.empty();
+        }
+        Door door = doors.get(evenementId);
+        int participants = door.attendees.size();
+        int bits = OfflineBitmap.bits(participants, bitsPerParticipant);
+        int hashes = OfflineBitmap.hashes(bitsPerParticipant);
+        byte[] bitmap = new byte[bits / 8];
+        for (Long participationId : door.attendees.keySet()) {
+            OfflineBitmap.add(bitmap, bits, hashes, codec.fingerprint(new CheckinClaims(participationId, evenementId)));
+        }
+        return Optional.of(new CheckinBitmap(evenementId, participants, bits, hashes,
+                Base64.getEncoder().encodeToString(bitmap)));
+    }
+
+    public void participationRemoved(Long evenementId, Long participationId) {
+        Door door = doors.getIfPresent(evenementId);
+        if (door != null) {
+            door.attendees.remove(participationId);
+        }
+    }
+
+    public void evenementDeleted(Long evenementId) {
+        doors.invalidate(evenementId);
+    }
+
+    private Door open(Long evenementId) {
+        Door door = new Door();
+        for (CheckinEntry entry : participationRepository.findCheckinEntriesByEvenementId(evenementId)) {
+            door.add(entry);
+        }
+        return door;
+    }
+
+    private CheckinResult count(CheckinResult result) {
+        scans.get(result.status()).increment();
+        return result;
+    }
+
+    // Without a configured secret, tickets issued before a restart are refused after it
+    private static byte[] generatedSecret() {
+        log.warn("app.checkin.secret is not set; using a random key, check-in tickets will not survive a restart");
+        byte[] secret = new byte[CheckinTokenCodec.MIN_SECRET_BYTES];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    private static final class Door {
+        final Map<Long, CheckinEntry> attendees = new ConcurrentHashMap<>();
+        final Map<Long, Instant> checkedIn = new ConcurrentHashMap<>();
+
+        void add(CheckinEntry entry) {
+            attendees.putIfAbsent(entry.participationId(), entry);
+            Date checkedInAt = entry.checkedInAt();
+            if (checkedInAt != null) {
+                checkedIn.putIfAbsent(entry.participationId(), Instant.ofEpochMilli(checkedInAt.getTime()));
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.myapp.checkin;
+
+import com.example.myapp.utils.CrockfordBase32;
+import com.example.myapp.utils.Varints;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Check-in tickets: the participation id and event id as varints followed by 64 bits of their
+ * HMAC-SHA256, in Crockford base32 without separators, about 23 characters. Those 64 bits are
+ * also the ticket's {@linkplain #fingerprint(String) fingerprint} in the offline bitmap, which
+ * scanners can read without the secret. Thread-safe.
+ */
+public final class CheckinTokenCodec {
+
+    public static final int MIN_SECRET_BYTES = 32;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 8;
+    // Keeps these MACs apart from anything else that might ever be signed with the same secret
+    private static final byte[] CONTEXT = "checkin:v1".getBytes(StandardCharsets.US_ASCII);
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public CheckinTokenCodec(byte[] secret) {
+        if (secret.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("Check-in secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String sign(CheckinClaims claims) {
+        byte[] payload = payload(claims);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length + MAC_BYTES);
+        out.write(payload, 0, payload.length);
+        out.write(mac(payload), 0, MAC_BYTES);
+        return CrockfordBase32.encode(out.toByteArray());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or its signature does not match
+     */
+    public CheckinClaims verify(String token) {
+        byte[] bytes = bytes(token);
+        int payloadLength = bytes.length - MAC_BYTES;
+        byte[] payload = Arrays.copyOf(bytes, payloadLength);
+        byte[] expected = Arrays.copyOf(mac(payload), MAC_BYTES);
+        if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(bytes, payloadLength, bytes.length))) {
+            throw new IllegalArgumentException("Invalid check-in token");
+        }
+        // Signed by us, so only a format change could make these reads fail
+        int[] position = {0};
+        long participationId = Varints.read(payload, position);
+        long evenementId = Varints.read(payload, position);
+        if (position[0] != payload.length) {
+            throw new IllegalArgumentException("Malformed check-in token");
+        }
+        return new CheckinClaims(participationId, evenementId);
+    }
+
+    /**
+     * Fingerprint of the ticket that would be issued for these claims.
+     */
+    public long fingerprint(CheckinClaims claims) {
+        return ByteBuffer.wrap(mac(payload(claims))).getLong();
+    }
+
+    /**
+     * Fingerprint of a ticket as printed, without checking its signature: what an offline
+     * scanner computes.
+     */
+    public static long fingerprint(String token) {
+        byte[] bytes = bytes(token);
+        return ByteBuffer.wrap(bytes, bytes.length - MAC_BYTES, MAC_BYTES).getLong();
+    }
+
+    private static byte[] payload(CheckinClaims claims) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16);
+        Varints.write(out, claims.participationId());
+        Varints.write(out, claims.evenementId());
+        return out.toByteArray();
+    }
+
+    private static byte[] bytes(String token) {
+        byte[] bytes;
+        try {
+            bytes = CrockfordBase32.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed check-in token");
+        }
+        if (bytes.length <= MAC_BYTES) {
+            throw new IllegalArgumentException("Malformed check-in token");
+        }
+        return bytes;
+    }
+
+    private byte[] mac(byte[] payload) {
+        Mac mac = macs.get();
+        mac.update(CONTEXT);
+        return mac.doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.myapp.checkin;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists check-in times behind the door's back. Scans only queue their timestamp; one thread
+ * drains the queue and writes what it found as a single JDBC batch, so a rush of arrivals costs
+ * a few statements a second instead of a transaction per person. When the queue is full the
+ * scanning thread writes its own check-in, which slows that scan down instead of losing it.
+ * <p>
+ * The first check-in wins: a row that already has a time keeps it. Times still queued when the
+ * application stops are written on shutdown; a crash loses them, and the participant would be
+ * admitted again by the next instance.
+ */
+@Component
+public class CheckinWriter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckinWriter.class);
+
+    private static final String UPDATE = "update participation set checked_in_at = ? where id = ? and checked_in_at is null";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final ExecutorService executor;
+    private final Counter written;
+    private final Counter failed;
+    private volatile boolean running = true;
+
+    @Autowired
+    public CheckinWriter(JdbcTemplate jdbcTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.checkin.writer.queue-capacity:10000}") int queueCapacity,
+                         @Value("${app.checkin.writer.batch-size:500}") int batchSize,
+                         @Value("${app.checkin.writer.max-delay:PT0.2S}") Duration maxDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.written = Counter.builder("checkin.writes").tag("result", "written").register(meterRegistry);
+        this.failed = Counter.builder("checkin.writes").tag("result", "failed").register(meterRegistry);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkin-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.execute(this::drain);
+    }
+
+    public void submit(long participationId, Instant checkedInAt) {
+        Pending pending = new Pending(participationId, checkedInAt);
+        if (!queue.offer(pending)) {
+            write(List.of(pending));
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Pending first = queue.poll(maxDelay.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // What arrived meanwhile goes in the same batch
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            rows.add(new Object[] {Timestamp.from(pending.checkedInAt()), pending.participationId()});
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE, rows);
+            written.increment(batch.size());
+        } catch (DataAccessException e) {
+            // The door already admitted these people; only the record of it is lost
+            failed.increment(batch.size());
+            log.warn("Could not record {} check-ins", batch.size(), e);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            write(rest.subList(from, Math.min(from + batchSize, rest.size())));
+        }
+    }
+
+    private record Pending(long participationId, Instant checkedInAt) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.myapp.checkin;
+
+/**
+ * The Bloom filter behind {@link com.example.myapp.payload.response.CheckinBitmap}, with the
+ * hashing its documentation spells out for scanner implementations.
+ */
+final class OfflineBitmap {
+
+    private OfflineBitmap() {
+    }
+
+    /**
+     * The number of hash functions that minimises false positives at this density.
+     */
+    static int hashes(int bitsPerEntry) {
+        return Math.max(1, (int) Math.round(bitsPerEntry * Math.log(2)));
+    }
+
+    static int bits(int entries, int bitsPerEntry) {
+        long bits = Math.max(64L, (long) entries * bitsPerEntry);
+        return (int) Math.min((bits + 7) & ~7L, Integer.MAX_VALUE - 7);
+    }
+
+    static void add(byte[] bitmap, int bits, int hashes, long fingerprint) {
+        int h1 = (int) (fingerprint >>> 32);
+        int h2 = (int) fingerprint | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            bitmap[bit >>> 3] |= (byte) (1 << (bit & 7));
+        }
+    }
+
+    static boolean mightContain(byte[] bitmap, int bits, int hashes, long fingerprint) {
+        int h1 = (int) (fingerprint >>> 32);
+        int h2 = (int) fingerprint | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            if ((bitmap[bit >>> 3] & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.myapp.config;
+
+import com.example.myapp.auth.AuthPrincipalArgumentResolver;
+import com.example.myapp.auth.BearerTokenInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class AuthConfig implements WebMvcConfigurer {
+
+    private final BearerTokenInterceptor bearerTokenInterceptor;
+
+    @Autowired
+    public AuthConfig(BearerTokenInterceptor bearerTokenInterceptor) {
+        this.bearerTokenInterceptor = bearerTokenInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(bearerTokenInterceptor).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new AuthPrincipalArgumentResolver());
+    }
+}
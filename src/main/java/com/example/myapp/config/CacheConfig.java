@@ -0,0 +1,64 @@
+package com.example.myapp.config;
+
+import com.example.myapp.cache.CacheNames;
+import com.example.myapp.cache.CacheTier;
+import com.example.myapp.cache.NoOpCacheTier;
+import com.example.myapp.cache.TwoTierCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * The second tier is whatever {@link CacheTier} bean is present, if any; without one only
+     * the near cache is used.
+     */
+    @Bean
+    public CacheManager cacheManager(ObjectProvider<CacheTier> cacheTierProvider,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.cache.near.maximum-size:10000}") long maximumSize,
+                                     @Value("${app.cache.near.time-to-live:10m}") Duration timeToLive) {
+        CacheTier cacheTier = cacheTierProvider.getIfAvailable(NoOpCacheTier::new);
+        List<TwoTierCache> caches = List.of(CacheNames.CLUBS, CacheNames.EVENEMENTS, CacheNames.USERS).stream()
+                .map(name -> twoTierCache(name, cacheTier, meterRegistry, maximumSize, timeToLive))
+                .toList();
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+
+    private TwoTierCache twoTierCache(String name, CacheTier cacheTier, MeterRegistry meterRegistry,
+                                      long maximumSize, Duration timeToLive) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nearCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        TwoTierCache cache = new TwoTierCache(name, nearCache, cacheTier);
+
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size... for the near tier
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, name, "tier", "near");
+        FunctionCounter.builder("cache.second.tier.gets", cache, TwoTierCache::getSecondTierHits)
+                .tags("cache", name, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.second.tier.gets", cache, TwoTierCache::getSecondTierMisses)
+                .tags("cache", name, "result", "miss")
+                .register(meterRegistry);
+        return cache;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.myapp.config;
+
+import com.example.myapp.metrics.SampledSqlLogger;
+import com.example.myapp.metrics.ServiceTimingAspect;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Request, repository, connection pool and Hibernate metrics come from Actuator's
+ * auto-configuration; service timings from {@link com.example.myapp.metrics.ServiceTimingAspect}.
+ * Everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final List<String> HISTOGRAMS = List.of(
+            "http.server.requests", ServiceTimingAspect.METRIC, "spring.data.repository.invocations", "media.upload.size");
+
+    /**
+     * Publishes histogram buckets for the latency and size metrics, so percentiles can be
+     * aggregated across instances in Prometheus rather than computed per instance.
+     */
+    @Bean
+    public MeterFilter percentileHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!HISTOGRAMS.contains(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        };
+    }
+
+    /**
+     * Installs the sampled SQL log unless another statement inspector is configured, or the
+     * sample rate is zero.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sampledSqlLogging(@Value("${app.sql-log.sample-rate:0.01}") double sampleRate) {
+        return properties -> {
+            if (sampleRate > 0) {
+                properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, new SampledSqlLogger(sampleRate));
+            }
+        };
+    }
+}
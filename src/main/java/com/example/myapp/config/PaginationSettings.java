@@ -0,0 +1,27 @@
+package com.example.myapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PaginationSettings {
+
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public PaginationSettings(@Value("${app.pagination.default-page-size:50}") int defaultPageSize,
+                              @Value("${app.pagination.max-page-size:500}") int maxPageSize) {
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Clamps a client supplied page size to [1, max-page-size], falling back to the default.
+     */
+    public int resolve(Integer requestedSize) {
+        if (requestedSize == null || requestedSize <= 0) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(requestedSize, maxPageSize);
+    }
+}
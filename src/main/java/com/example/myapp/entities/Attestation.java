@@ -6,7 +6,8 @@ import jakarta.validation.constraints.NotBlank;
 @Entity
 public class Attestation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attestation_seq")
+    @SequenceGenerator(name = "attestation_seq", sequenceName = "attestation_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Le nom est requis")
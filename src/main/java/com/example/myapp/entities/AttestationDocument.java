@@ -0,0 +1,47 @@
+package com.example.myapp.entities;
+
+import jakarta.persistence.*;
+
+import java.util.Date;
+
+/**
+ * One rendered attestation PDF in the object store. Not tied to its participation by a foreign
+ * key: the PDF has to be deleted from the store too, which the sweep does for rows whose
+ * participation is gone.
+ */
+@Entity
+@Table(name = "attestation_documents",
+        uniqueConstraints = @UniqueConstraint(columnNames = "object_key"),
+        indexes = @Index(columnList = "participation_id"))
+public class AttestationDocument {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attestation_documents_seq")
+    @SequenceGenerator(name = "attestation_documents_seq", sequenceName = "attestation_documents_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long participationId;
+
+    @Column(nullable = false)
+    private String objectKey;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt;
+
+    public AttestationDocument() {}
+
+    public AttestationDocument(Long participationId, String objectKey) {
+        this.participationId = participationId;
+        this.objectKey = objectKey;
+        this.createdAt = new Date();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getParticipationId() { return participationId; }
+    public void setParticipationId(Long participationId) { this.participationId = participationId; }
+    public String getObjectKey() { return objectKey; }
+    public void setObjectKey(String objectKey) { this.objectKey = objectKey; }
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+}
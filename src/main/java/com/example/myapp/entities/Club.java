@@ -1,13 +1,15 @@
 package com.example.myapp.entities;
 
+import com.example.myapp.cache.Copyable;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import java.util.List;
 
 @Entity
-public class Club {
+public class Club implements Copyable<Club> {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "club_seq")
+    @SequenceGenerator(name = "club_seq", sequenceName = "club_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Le nom est requis")
@@ -33,4 +35,15 @@ public class Club {
     public void setLogopath(String logopath) { this.logopath = logopath; }
     public List<Evenement> getEvenements() { return evenements; }
     public void setEvenements(List<Evenement> evenements) { this.evenements = evenements; }
+
+    @Override
+    public Club copy() {
+        Club copy = new Club();
+        copy.id = id;
+        copy.nom = nom;
+        copy.description = description;
+        copy.logopath = logopath;
+        // Events are left out: the list would be shared, and it is lazy besides
+        return copy;
+    }
 }
\ No newline at end of file
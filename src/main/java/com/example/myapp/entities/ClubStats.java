@@ -0,0 +1,51 @@
+package com.example.myapp.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * Counters shown on club dashboards, one row per club. Never saved as a whole: the write paths
+ * shift the counters in place through {@code ClubStatsRepository} and the reconciliation job
+ * corrects any drift.
+ */
+@Entity
+@Table(name = "club_stats")
+public class ClubStats {
+
+    @Id
+    @Column(name = "club_id")
+    private Long clubId;
+
+    @Column(name = "member_count", nullable = false)
+    private long memberCount;
+
+    @Column(name = "active_member_count", nullable = false)
+    private long activeMemberCount;
+
+    @Column(name = "pending_demand_count", nullable = false)
+    private long pendingDemandCount;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    @Column(name = "participation_count", nullable = false)
+    private long participationCount;
+
+    public ClubStats() {}
+
+    public ClubStats(Long clubId) {
+        this.clubId = clubId;
+    }
+
+    public Long getClubId() { return clubId; }
+    public void setClubId(Long clubId) { this.clubId = clubId; }
+    public long getMemberCount() { return memberCount; }
+    public void setMemberCount(long memberCount) { this.memberCount = memberCount; }
+    public long getActiveMemberCount() { return activeMemberCount; }
+    public void setActiveMemberCount(long activeMemberCount) { this.activeMemberCount = activeMemberCount; }
+    public long getPendingDemandCount() { return pendingDemandCount; }
+    public void setPendingDemandCount(long pendingDemandCount) { this.pendingDemandCount = pendingDemandCount; }
+    public long getEventCount() { return eventCount; }
+    public void setEventCount(long eventCount) { this.eventCount = eventCount; }
+    public long getParticipationCount() { return participationCount; }
+    public void setParticipationCount(long participationCount) { this.participationCount = participationCount; }
+}
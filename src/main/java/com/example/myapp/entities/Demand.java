@@ -6,10 +6,17 @@ import java.util.Date;
 
 @Entity
 @Table(name = "demands")
+@NamedEntityGraph(name = Demand.WITH_USER_AND_CLUB, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("club")
+})
 public class Demand {
 
+    public static final String WITH_USER_AND_CLUB = "Demand.withUserAndClub";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "demands_seq")
+    @SequenceGenerator(name = "demands_seq", sequenceName = "demands_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -35,6 +42,9 @@ public class Demand {
     @Column(name = "comment", length = 500)
     private String comment;
 
+    @Version
+    private Long version;
+
     public Demand() {
         this.status = DemandStatus.PENDING;
         this.requestDate = new Date();
@@ -95,4 +105,12 @@ public class Demand {
     public void setComment(String comment) {
         this.comment = comment;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -1,16 +1,19 @@
 package com.example.myapp.entities;
 
+import com.example.myapp.cache.Copyable;
 import com.example.myapp.enums.EventType;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import java.util.Date;
 import java.util.List;
 
 @Entity
-public class Evenement {
+public class Evenement implements Copyable<Evenement> {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evenement_seq")
+    @SequenceGenerator(name = "evenement_seq", sequenceName = "evenement_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Le titre est requis")
@@ -27,6 +30,10 @@ public class Evenement {
 
     private EventType eventType;
 
+    // Null means no limit
+    @PositiveOrZero(message = "La capacité ne peut pas être négative")
+    private Integer capacity;
+
     @ManyToOne
     @JoinColumn(name = "club_id")
     @NotNull(message = "Le club est requis")
@@ -50,6 +57,8 @@ public class Evenement {
     public void setDate(Date date) { this.date = date; }
     public String getImageurl() { return imageurl; }
     public void setImageurl(String imageurl) { this.imageurl = imageurl; }
+    public Integer getCapacity() { return capacity; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
     public Club getClub() { return club; }
     public void setClub(Club club) { this.club = club; }
     public List<Participation> getParticipations() { return participations; }
@@ -64,4 +73,20 @@ public class Evenement {
     public void setEventType(EventType eventType) {
         this.eventType = eventType;
     }
+
+    @Override
+    public Evenement copy() {
+        Evenement copy = new Evenement();
+        copy.id = id;
+        copy.titre = titre;
+        copy.description = description;
+        copy.date = date == null ? null : (Date) date.clone();
+        copy.imageurl = imageurl;
+        copy.eventType = eventType;
+        copy.capacity = capacity;
+        copy.club = club == null ? null : club.copy();
+        // Participations are left out: the list would be shared, and it is lazy besides
+        copy.attestation = attestation;
+        return copy;
+    }
 }
\ No newline at end of file
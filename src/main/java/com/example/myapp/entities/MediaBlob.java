@@ -0,0 +1,48 @@
+package com.example.myapp.entities;
+
+import jakarta.persistence.*;
+
+import java.util.Date;
+
+/**
+ * One stored media blob, keyed by the SHA-256 of its content, with the number of entity fields
+ * currently pointing at it.
+ */
+@Entity
+@Table(name = "media_blobs")
+public class MediaBlob {
+    @Id
+    @Column(length = 64)
+    private String digest;
+
+    private long size;
+
+    private String contentType;
+
+    @Column(name = "ref_count")
+    private int refCount;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt;
+
+    public MediaBlob() {}
+
+    public MediaBlob(String digest, long size, String contentType) {
+        this.digest = digest;
+        this.size = size;
+        this.contentType = contentType;
+        this.refCount = 1;
+        this.createdAt = new Date();
+    }
+
+    public String getDigest() { return digest; }
+    public void setDigest(String digest) { this.digest = digest; }
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    public int getRefCount() { return refCount; }
+    public void setRefCount(int refCount) { this.refCount = refCount; }
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,64 @@
+package com.example.myapp.entities;
+
+import com.example.myapp.enums.VariantStatus;
+import jakarta.persistence.*;
+
+import java.util.Date;
+
+/**
+ * One resized rendition of a media blob. Rows are created as PENDING when the blob is first
+ * stored and double as the work queue, so unfinished renditions are picked up after a restart.
+ */
+@Entity
+@Table(name = "media_variants",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"digest", "width"}),
+        indexes = @Index(columnList = "status, updated_at"))
+public class MediaVariant {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "media_variants_seq")
+    @SequenceGenerator(name = "media_variants_seq", sequenceName = "media_variants_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(length = 64, nullable = false)
+    private String digest;
+
+    private int width;
+
+    @Enumerated(EnumType.STRING)
+    private VariantStatus status;
+
+    private String objectKey;
+
+    private long size;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedAt;
+
+    private int attempts;
+
+    public MediaVariant() {}
+
+    public MediaVariant(String digest, int width) {
+        this.digest = digest;
+        this.width = width;
+        this.status = VariantStatus.PENDING;
+        this.updatedAt = new Date();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getDigest() { return digest; }
+    public void setDigest(String digest) { this.digest = digest; }
+    public int getWidth() { return width; }
+    public void setWidth(int width) { this.width = width; }
+    public VariantStatus getStatus() { return status; }
+    public void setStatus(VariantStatus status) { this.status = status; }
+    public String getObjectKey() { return objectKey; }
+    public void setObjectKey(String objectKey) { this.objectKey = objectKey; }
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+    public Date getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+}
@@ -4,10 +4,17 @@ import jakarta.persistence.*;
 
 @Entity
 @Table(name = "members")
+@NamedEntityGraph(name = Member.WITH_USER_AND_CLUB, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("club")
+})
 public class Member {
 
+    public static final String WITH_USER_AND_CLUB = "Member.withUserAndClub";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "members_seq")
+    @SequenceGenerator(name = "members_seq", sequenceName = "members_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -4,9 +4,21 @@ import jakarta.validation.constraints.NotNull;
 import java.util.Date;
 
 @Entity
+@NamedEntityGraph(name = Participation.WITH_USER_AND_EVENEMENT,
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode(value = "evenement", subgraph = "evenement")
+        },
+        subgraphs = @NamedSubgraph(name = "evenement", attributeNodes = {
+                @NamedAttributeNode("club"),
+                @NamedAttributeNode("attestation")
+        }))
 public class Participation {
+    public static final String WITH_USER_AND_EVENEMENT = "Participation.withUserAndEvenement";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "participation_seq")
+    @SequenceGenerator(name = "participation_seq", sequenceName = "participation_seq", allocationSize = 50)
     private Long id;
 
     @Temporal(TemporalType.DATE)
@@ -23,6 +35,11 @@ public class Participation {
     @NotNull(message = "L'événement est requis")
     private Evenement evenement;
 
+    // Written by the check-in writer only; saving a participation never touches it
+    @Column(name = "checked_in_at", insertable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date checkedInAt;
+
     public Participation() {}
 
     public Long getId() { return id; }
@@ -33,4 +50,6 @@ public class Participation {
     public void setUser(User user) { this.user = user; }
     public Evenement getEvenement() { return evenement; }
     public void setEvenement(Evenement evenement) { this.evenement = evenement; }
+    public Date getCheckedInAt() { return checkedInAt; }
+    public void setCheckedInAt(Date checkedInAt) { this.checkedInAt = checkedInAt; }
 }
\ No newline at end of file
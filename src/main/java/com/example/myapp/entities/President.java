@@ -5,17 +5,24 @@ import java.util.Date;
 
 @Entity
 @Table(name = "presidents")
+@NamedEntityGraph(name = President.WITH_USER_AND_CLUB, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("club")
+})
 public class President {
 
+    public static final String WITH_USER_AND_CLUB = "President.withUserAndClub";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "presidents_seq")
+    @SequenceGenerator(name = "presidents_seq", sequenceName = "presidents_seq", allocationSize = 50)
     private Long id;
 
-    @OneToOne
+    @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @OneToOne
+    @ManyToOne
     @JoinColumn(name = "club_id", nullable = false)
     private Club club;
 
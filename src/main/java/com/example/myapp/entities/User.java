@@ -1,16 +1,18 @@
 package com.example.myapp.entities;
 
+import com.example.myapp.cache.Copyable;
 import com.example.myapp.enums.Role;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import java.util.List;
 
 @Entity
 @Table(name = "users")
-public class User {
+public class User implements Copyable<User> {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Le nom est requis")
@@ -26,6 +28,7 @@ public class User {
     @NotBlank(message = "Le mot de passe est requis")
     @Size(min = 6, message = "Le mot de passe doit avoir au moins 6 caractères")
     @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String mdp;
 
     @Enumerated(EnumType.STRING)
@@ -48,16 +51,27 @@ public class User {
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
     public String getMdp() { return mdp; }
-    public void setMdp(String mdp) {
-        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        this.mdp = passwordEncoder.encode(mdp);
-    }
+    public void setMdp(String mdp) { this.mdp = mdp; }
     public Role getRole() { return role; }
     public void setRole(Role role) { this.role = role; }
     public String getAvatar() { return avatar; }
     public void setAvatar(String avatar) { this.avatar = avatar; }
     public List<Participation> getParticipations() { return participations; }
     public void setParticipations(List<Participation> participations) { this.participations = participations; }
+
+    @Override
+    public User copy() {
+        User copy = new User();
+        copy.id = id;
+        copy.nom = nom;
+        copy.prenom = prenom;
+        copy.email = email;
+        copy.mdp = mdp;
+        copy.role = role;
+        copy.avatar = avatar;
+        // Participations are left out: the list would be shared, and it is lazy besides
+        return copy;
+    }
 }
 
 
@@ -0,0 +1,37 @@
+package com.example.myapp.entities;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+@Entity
+@Table(name = "waitlist")
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "waitlist_seq")
+    @SequenceGenerator(name = "waitlist_seq", sequenceName = "waitlist_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "evenement_id", nullable = false)
+    private Evenement evenement;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "request_date", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date requestDate;
+
+    public WaitlistEntry() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Evenement getEvenement() { return evenement; }
+    public void setEvenement(Evenement evenement) { this.evenement = evenement; }
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+    public Date getRequestDate() { return requestDate; }
+    public void setRequestDate(Date requestDate) { this.requestDate = requestDate; }
+}
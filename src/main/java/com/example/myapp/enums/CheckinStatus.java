@@ -0,0 +1,9 @@
+package com.example.myapp.enums;
+
+public enum CheckinStatus {
+    ADMITTED,
+    ALREADY_CHECKED_IN,
+    WRONG_EVENT,
+    NOT_REGISTERED,
+    INVALID
+}
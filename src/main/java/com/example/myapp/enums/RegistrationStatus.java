@@ -0,0 +1,8 @@
+package com.example.myapp.enums;
+
+public enum RegistrationStatus {
+    REGISTERED,
+    WAITLISTED,
+    ALREADY_REGISTERED,
+    ALREADY_WAITLISTED
+}
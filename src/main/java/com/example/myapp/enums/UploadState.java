@@ -0,0 +1,7 @@
+package com.example.myapp.enums;
+
+public enum UploadState {
+    PENDING,
+    STORED,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.example.myapp.enums;
+
+public enum VariantStatus {
+    PENDING,
+    READY,
+    SKIPPED,
+    FAILED
+}
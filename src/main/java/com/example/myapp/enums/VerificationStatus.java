@@ -0,0 +1,6 @@
+package com.example.myapp.enums;
+
+public enum VerificationStatus {
+    VALID,
+    REVOKED
+}
@@ -0,0 +1,248 @@
+package com.example.myapp.feed;
+
+import com.example.myapp.enums.EventType;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.EvenementSummary;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.utils.AfterCommit;
+import com.example.myapp.utils.CursorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Upcoming events held in memory, ordered by (day, id), so the home page feed is a sorted map
+ * walk instead of a query. Besides the global ordering there is one ordering per club and per
+ * event type, and a filtered page walks the narrowest of them.
+ * <p>
+ * Reads never lock: they walk an immutable snapshot, and every write publishes a new one.
+ * Writes go through {@link #evenementChanged(Long)} once their transaction
+ * has committed, and {@link #resync()} reloads everything periodically to drop past events and
+ * pick up writes made elsewhere (another instance, bulk SQL, a renamed club). Every change
+ * moves {@link #tag(LocalDate)}, which is all a conditional request has to compare.
+ */
+@Component
+public class UpcomingEventsFeed {
+
+    private final EvenementRepository evenementRepository;
+    private final Clock clock = Clock.systemDefaultZone();
+    // Distinguishes this instance's versions from another's, or from before a restart
+    private final long epoch = ThreadLocalRandom.current().nextLong() >>> 1;
+    private final AtomicLong version = new AtomicLong();
+    private final Object writeLock = new Object();
+    private volatile Index index = new Index();
+
+    @Autowired
+    public UpcomingEventsFeed(EvenementRepository evenementRepository) {
+        this.evenementRepository = evenementRepository;
+    }
+
+    /**
+     * Page of events on or after {@code from}, earliest first, optionally restricted to a club
+     * and/or an event type. Days before today are never in the index, so an earlier
+     * {@code from} means today.
+     */
+    public CursorPage<EvenementSummary> page(LocalDate from, Long clubId, EventType eventType,
+                                             CursorCodec.Position after, int limit) {
+        Index current = index;
+        NavigableMap<Key, EvenementSummary> source = clubId != null
+                ? current.byClub.getOrDefault(clubId, Index.EMPTY)
+                : eventType != null ? current.byType.getOrDefault(eventType, Index.EMPTY) : current.all;
+
+        Key start = new Key(effectiveStart(from).toEpochDay(), Long.MIN_VALUE);
+        if (after != null) {
+            Key resume = new Key(after.position(), after.id());
+            if (resume.compareTo(start) > 0) {
+                start = resume;
+            }
+        }
+
+        List<EvenementSummary> items = new ArrayList<>(limit);
+        Key last = null;
+        for (Map.Entry<Key, EvenementSummary> entry : source.tailMap(start, false).entrySet()) {
+            EvenementSummary summary = entry.getValue();
+            if (eventType != null && summary.eventType() != eventType) {
+                continue;
+            }
+            if (items.size() == limit) {
+                return new CursorPage<>(items, CursorCodec.encode(last.day(), last.id()));
+            }
+            items.add(summary);
+            last = entry.getKey();
+        }
+        return new CursorPage<>(items, null);
+    }
+
+    /**
+     * Opaque tag that changes whenever a page starting at {@code from} may have changed: on any
+     * write to the index, and when the day rolls over.
+     */
+    public String tag(LocalDate from) {
+        return Long.toHexString(epoch) + "-" + version.get() + "-" + effectiveStart(from).toEpochDay();
+    }
+
+    private LocalDate effectiveStart(LocalDate from) {
+        LocalDate today = LocalDate.now(clock);
+        return from == null || from.isBefore(today) ? today : from;
+    }
+
+    /**
+     * Re-reads one event and files it under its current day, club and type, or drops it when
+     * it is gone or past. Inside a transaction this waits for the commit, so the index never
+     * shows a write that is then rolled back.
+     */
+    public void evenementChanged(Long id) {
+        AfterCommit.run(() -> reload(id));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.feed.resync-interval:PT1M}",
+            initialDelayString = "${app.feed.resync-interval:PT1M}")
+    public void resync() {
+        // The query runs under the write lock so a change committed meanwhile is applied after the swap, not lost by it
+        synchronized (writeLock) {
+            LocalDate today = LocalDate.now(clock);
+            Index fresh = new Index();
+            for (EvenementSummary summary : evenementRepository.findSummariesByDateAfter(toDate(today.minusDays(1)))) {
+                Key key = keyOf(summary);
+                if (key.day() >= today.toEpochDay()) {
+                    fresh.put(key, summary);
+                }
+            }
+            if (!fresh.all.equals(index.all)) {
+                index = fresh;
+                version.incrementAndGet();
+            }
+        }
+    }
+
+    private void reload(Long id) {
+        synchronized (writeLock) {
+            Index current = index;
+            long today = LocalDate.now(clock).toEpochDay();
+            EvenementSummary summary = evenementRepository.findSummaryById(id)
+                    .filter(found -> found.date() != null && keyOf(found).day() >= today)
+                    .orElse(null);
+            if (Objects.equals(summary, current.get(id))) {
+                return;
+            }
+            // Swapped in whole, so a page never walks an index that is half way through a change
+            index = current.with(id, summary);
+            version.incrementAndGet();
+        }
+    }
+
+    private static Key keyOf(EvenementSummary summary) {
+        LocalDate day = summary.date() instanceof java.sql.Date sqlDate
+                ? sqlDate.toLocalDate()
+                : summary.date().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return new Key(day.toEpochDay(), summary.id());
+    }
+
+    private static Date toDate(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    record Key(long day, long id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byDay = Long.compare(day, other.day);
+            return byDay != 0 ? byDay : Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * The three orderings of one snapshot. Filled while it is built under the feed's write lock,
+     * then never changed once published: a change makes a new index, which shares the club and
+     * type orderings it leaves alone, and readers of the old one keep a consistent view.
+     */
+    private static final class Index {
+        static final NavigableMap<Key, EvenementSummary> EMPTY = Collections.emptyNavigableMap();
+
+        final NavigableMap<Key, EvenementSummary> all;
+        final Map<Long, NavigableMap<Key, EvenementSummary>> byClub;
+        final Map<EventType, NavigableMap<Key, EvenementSummary>> byType;
+        final Map<Long, Key> keys;
+
+        Index() {
+            this(new TreeMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>());
+        }
+
+        private Index(NavigableMap<Key, EvenementSummary> all, Map<Long, NavigableMap<Key, EvenementSummary>> byClub,
+                      Map<EventType, NavigableMap<Key, EvenementSummary>> byType, Map<Long, Key> keys) {
+            this.all = all;
+            this.byClub = byClub;
+            this.byType = byType;
+            this.keys = keys;
+        }
+
+        EvenementSummary get(Long id) {
+            Key key = keys.get(id);
+            return key == null ? null : all.get(key);
+        }
+
+        /**
+         * A copy of this index with {@code id} filed as {@code summary}, or dropped when it is null.
+         */
+        Index with(Long id, EvenementSummary summary) {
+            EvenementSummary previous = get(id);
+            Index next = new Index(new TreeMap<>(all), new HashMap<>(byClub), new HashMap<>(byType), new HashMap<>(keys));
+            // Only the orderings this change touches are copied before being edited
+            for (EvenementSummary touched : new EvenementSummary[]{previous, summary}) {
+                if (touched != null && touched.clubId() != null) {
+                    next.byClub.put(touched.clubId(), new TreeMap<>(byClub.getOrDefault(touched.clubId(), EMPTY)));
+                }
+                if (touched != null && touched.eventType() != null) {
+                    next.byType.put(touched.eventType(), new TreeMap<>(byType.getOrDefault(touched.eventType(), EMPTY)));
+                }
+            }
+            next.remove(id);
+            if (summary != null) {
+                next.put(keyOf(summary), summary);
+            }
+            return next;
+        }
+
+        void put(Key key, EvenementSummary summary) {
+            all.put(key, summary);
+            keys.put(key.id(), key);
+            if (summary.clubId() != null) {
+                byClub.computeIfAbsent(summary.clubId(), club -> new TreeMap<>()).put(key, summary);
+            }
+            if (summary.eventType() != null) {
+                byType.computeIfAbsent(summary.eventType(), type -> new TreeMap<>()).put(key, summary);
+            }
+        }
+
+        private void remove(Long id) {
+            Key key = keys.remove(id);
+            if (key == null) {
+                return;
+            }
+            EvenementSummary summary = all.remove(key);
+            if (summary.clubId() != null) {
+                byClub.get(summary.clubId()).remove(key);
+            }
+            if (summary.eventType() != null) {
+                byType.get(summary.eventType()).remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.myapp.media;
+
+import com.example.myapp.entities.MediaVariant;
+import com.example.myapp.enums.VariantStatus;
+import com.example.myapp.repositories.MediaVariantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Produces downscaled renditions of stored images on a small bounded pool. The media_variants
+ * rows are the source of truth: every job only turns PENDING rows into READY/SKIPPED/FAILED, so
+ * running it twice is harmless, and anything still PENDING after a crash or a full queue is
+ * picked up again by {@link #resume()}. Every start counts as an attempt, so an image that
+ * keeps failing (or keeps killing the process) ends up FAILED instead of being retried forever.
+ */
+@Component
+public class ImageVariantPipeline implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantPipeline.class);
+    private static final int RESUME_BATCH = 100;
+
+    private final ObjectStore objectStore;
+    private final MediaVariantRepository mediaVariantRepository;
+    private final int[] widths;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final int maxAttempts;
+    private final Path tempDir;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ImageVariantPipeline(ObjectStore objectStore,
+                                MediaVariantRepository mediaVariantRepository,
+                                @Value("${app.media.variants.widths:160,480,1024}") int[] widths,
+                                @Value("${app.media.variants.jpeg-quality:0.82}") float jpegQuality,
+                                @Value("${app.media.variants.max-pixels:40000000}") long maxPixels,
+                                @Value("${app.media.variants.max-attempts:5}") int maxAttempts,
+                                @Value("${app.media.variants.threads:2}") int threads,
+                                @Value("${app.media.variants.queue-capacity:1000}") int queueCapacity,
+                                @Value("${app.media.temp-dir:uploads/media/.tmp}") String tempDir) {
+        this.objectStore = objectStore;
+        this.mediaVariantRepository = mediaVariantRepository;
+        this.widths = Arrays.stream(widths).sorted().distinct().toArray();
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        this.maxAttempts = maxAttempts;
+        this.tempDir = Paths.get(tempDir).toAbsolutePath().normalize();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        ImageIO.setUseCache(false);
+    }
+
+    /**
+     * Records the renditions wanted for a newly stored image and queues the work.
+     */
+    public void schedule(String digest) {
+        Set<Integer> existing = mediaVariantRepository.findByDigestOrderByWidth(digest).stream()
+                .map(MediaVariant::getWidth)
+                .collect(Collectors.toSet());
+        for (int width : widths) {
+            if (!existing.contains(width)) {
+                try {
+                    mediaVariantRepository.save(new MediaVariant(digest, width));
+                } catch (DataIntegrityViolationException e) {
+                    // Another upload of the same content got there first
+                }
+            }
+        }
+        submit(digest);
+    }
+
+    /**
+     * Width of the rendition that answers a request for {@code width} once it is ready; empty
+     * when the request is wider than every rendition, so the original answers it for good.
+     */
+    public OptionalInt renditionWidth(int width) {
+        return Arrays.stream(widths).filter(candidate -> candidate >= width).findFirst();
+    }
+
+    /**
+     * Smallest finished rendition at least {@code width} pixels wide, looked up on disk only.
+     * Empty when none is ready yet or the original is already small enough.
+     */
+    public Optional<VariantFile> find(String digest, int width) {
+        for (int candidate : widths) {
+            if (candidate < width) {
+                continue;
+            }
+            for (String extension : new String[] {".jpg", ".png"}) {
+                String key = variantKey(digest, candidate, extension);
+                Optional<Path> file = objectStore.localPath(key);
+                if (file.isPresent()) {
+                    return Optional.of(new VariantFile(key, candidate, file.get()));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<MediaVariant> variantsOf(String digest) {
+        return mediaVariantRepository.findByDigestOrderByWidth(digest);
+    }
+
+    /**
+     * Removes every rendition of a blob; called once the blob itself is unreferenced.
+     */
+    public void deleteVariants(String digest) {
+        for (MediaVariant variant : mediaVariantRepository.findByDigestOrderByWidth(digest)) {
+            if (variant.getObjectKey() != null) {
+                deleteQuietly(variant.getObjectKey());
+            }
+        }
+        mediaVariantRepository.deleteByDigest(digest);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.media.variants.resume-interval:PT5M}",
+            initialDelayString = "${app.media.variants.resume-interval:PT5M}")
+    public void resume() {
+        List<String> pending = mediaVariantRepository.findDigestsByStatus(VariantStatus.PENDING, Limit.of(RESUME_BATCH));
+        pending.forEach(this::submit);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void submit(String digest) {
+        if (!inFlight.add(digest)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(digest);
+                } catch (RuntimeException | IOException e) {
+                    if (mediaVariantRepository.failExhausted(digest, maxAttempts) > 0) {
+                        log.warn("Image variants for {} failed, giving up after {} attempts", digest, maxAttempts, e);
+                    } else {
+                        log.warn("Image variants for {} failed, will retry", digest, e);
+                    }
+                } finally {
+                    inFlight.remove(digest);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full: the rows stay PENDING and the next resume() picks them up
+            inFlight.remove(digest);
+        }
+    }
+
+    private void process(String digest) throws IOException {
+        // Attempts that never got to report back, the process died on this image
+        if (mediaVariantRepository.failExhausted(digest, maxAttempts) > 0) {
+            log.warn("Image variants for {} given up after {} attempts", digest, maxAttempts);
+        }
+        List<MediaVariant> pending = mediaVariantRepository.findByDigestOrderByWidth(digest).stream()
+                .filter(variant -> variant.getStatus() == VariantStatus.PENDING)
+                .toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+        mediaVariantRepository.recordAttempt(digest);
+        if (!objectStore.exists(digest)) {
+            pending.forEach(variant -> mediaVariantRepository.complete(variant.getId(), VariantStatus.FAILED, null, 0));
+            return;
+        }
+
+        BufferedImage original;
+        try (InputStream in = objectStore.get(digest)) {
+            original = ImageResizer.read(in, maxPixels);
+        }
+        if (original == null) {
+            pending.forEach(variant -> mediaVariantRepository.complete(variant.getId(), VariantStatus.FAILED, null, 0));
+            return;
+        }
+
+        Map<Integer, MediaVariant> byWidth = pending.stream()
+                .collect(Collectors.toMap(MediaVariant::getWidth, Function.identity()));
+        for (MediaVariant variant : byWidth.values()) {
+            if (original.getWidth() <= variant.getWidth()) {
+                // Never upscale; the original already is the best rendition for this width
+                mediaVariantRepository.complete(variant.getId(), VariantStatus.SKIPPED, null, 0);
+                continue;
+            }
+            String key = variantKey(digest, variant.getWidth(), ImageResizer.extensionFor(original));
+            long size;
+            Optional<Path> existing = objectStore.localPath(key);
+            if (existing.isPresent()) {
+                // Written before a crash, only the row update was lost
+                size = Files.size(existing.get());
+            } else {
+                Path temp = Files.createTempFile(tempDir, "variant-", ".part");
+                try {
+                    ImageResizer.write(ImageResizer.scaleToWidth(original, variant.getWidth()), temp, jpegQuality);
+                    size = Files.size(temp);
+                    objectStore.put(key, temp, null);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            if (mediaVariantRepository.complete(variant.getId(), VariantStatus.READY, key, size) == 0) {
+                // The blob was deleted while we were working on it
+                deleteQuietly(key);
+            }
+        }
+    }
+
+    private void deleteQuietly(String key) {
+        try {
+            objectStore.delete(key);
+        } catch (IOException e) {
+            log.warn("Could not delete image variant {}", key, e);
+        }
+    }
+
+    private static String variantKey(String digest, int width, String extension) {
+        return digest + "_w" + width + extension;
+    }
+
+    /**
+     * A finished rendition on local disk.
+     */
+    public record VariantFile(String key, int width, Path file) {
+    }
+}
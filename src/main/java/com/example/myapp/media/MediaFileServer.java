@@ -0,0 +1,230 @@
+package com.example.myapp.media;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves stored images straight from disk: conditional GET (304), single byte ranges (206/416)
+ * and cache headers, with the body handed to Tomcat's sendfile when the connector supports it
+ * and {@link FileChannel#transferTo} otherwise.
+ * <p>
+ * The Content-Type comes from the stored bytes, never from the requested name. Only raster
+ * images are served inline; anything else is an {@code application/octet-stream} attachment,
+ * so an uploaded page or script can never run in the application's origin.
+ */
+@Component
+public class MediaFileServer {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Content-addressed names never change meaning, so clients may keep them for a year
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    // For a stand-in that changes once a rendition is ready: kept, but revalidated on every use
+    private static final String PROVISIONAL = "no-cache";
+
+    private final String mutableCacheControl;
+    private final long sendfileMinSize;
+
+    public MediaFileServer(@Value("${app.media.cache-control:public, max-age=86400}") String mutableCacheControl,
+                           @Value("${app.media.sendfile-min-size:49152}") long sendfileMinSize) {
+        this.mutableCacheControl = mutableCacheControl;
+        this.sendfileMinSize = sendfileMinSize;
+    }
+
+    /**
+     * Serves a content-addressed blob; the digest doubles as a strong ETag. A key whose extension
+     * is not the one of the blob's content is answered with 404.
+     */
+    public void serveImmutable(HttpServletRequest request, HttpServletResponse response,
+                               Path file, String key, String digest) throws IOException {
+        serveBlob(request, response, file, key, digest, IMMUTABLE);
+    }
+
+    /**
+     * Like {@link #serveImmutable}, for a blob that answers a URL only until something better
+     * is ready for it, such as the original standing in for a pending rendition.
+     */
+    public void serveProvisional(HttpServletRequest request, HttpServletResponse response,
+                                 Path file, String key, String digest) throws IOException {
+        serveBlob(request, response, file, key, digest, PROVISIONAL);
+    }
+
+    /**
+     * Serves {@code filename} from {@code directory}, refusing anything that resolves outside it.
+     */
+    public void serveFrom(HttpServletRequest request, HttpServletResponse response,
+                          Path directory, String filename) throws IOException {
+        Path file = directory.resolve(filename).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String etag = "W/\"" + Long.toHexString(Files.size(file)) + "-"
+                + Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + "\"";
+        serve(request, response, file, filename, MediaTypeSniffer.sniff(file), etag, mutableCacheControl);
+    }
+
+    /**
+     * Fallback for backends without a local file: full body only, still cacheable and revalidatable.
+     */
+    public void serveStream(HttpServletRequest request, HttpServletResponse response, InputStream content, long length,
+                            String key, String digest, String contentType, boolean provisional) throws IOException {
+        try (InputStream in = content) {
+            if (!extensionMatches(key, contentType)) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            response.setHeader(HttpHeaders.CACHE_CONTROL, provisional ? PROVISIONAL : IMMUTABLE);
+            if (new ServletWebRequest(request, response).checkNotModified("\"" + digest + "\"")) {
+                return;
+            }
+            contentHeaders(response, key, contentType);
+            response.setContentLengthLong(length);
+            if (!"HEAD".equals(request.getMethod())) {
+                in.transferTo(response.getOutputStream());
+            }
+        }
+    }
+
+    private void serveBlob(HttpServletRequest request, HttpServletResponse response,
+                           Path file, String key, String digest, String cacheControl) throws IOException {
+        String contentType = MediaTypeSniffer.sniff(file);
+        if (!extensionMatches(key, contentType)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        serve(request, response, file, key, contentType, "\"" + digest + "\"", cacheControl);
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response,
+                       Path file, String name, String contentType, String etag, String cacheControl) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        // Sets ETag/Last-Modified and answers 304 (or 412) on its own
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        contentHeaders(response, name, contentType);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0 && rangeStillValid(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Multi-range responses are rarely used for images; those requests get the whole file
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (count >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * If-Range: only honour the range when the client's validator still matches this file.
+     */
+    private static boolean rangeStillValid(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Ranges need a strong match
+            return !etag.startsWith("W/") && ifRange.equals(etag);
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return since >= 0 && lastModified / 1000 <= since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void contentHeaders(HttpServletResponse response, String name, String contentType) {
+        if (MediaTypeSniffer.isRasterImage(contentType)) {
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + name + "\"");
+        } else {
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"");
+        }
+        response.setHeader("X-Content-Type-Options", "nosniff");
+    }
+
+    /**
+     * A bare digest, or the digest with the extension its content was stored under.
+     */
+    private static boolean extensionMatches(String key, String contentType) {
+        int dot = key.lastIndexOf('.');
+        if (dot < 0) {
+            return true;
+        }
+        String expected = contentType == null ? null : MediaTypeSniffer.extensionFor(contentType);
+        return key.substring(dot).equals(expected != null ? expected : MediaTypeSniffer.UNKNOWN_EXTENSION);
+    }
+}
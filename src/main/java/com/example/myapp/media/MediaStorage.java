@@ -0,0 +1,245 @@
+package com.example.myapp.media;
+
+import com.example.myapp.entities.MediaBlob;
+import com.example.myapp.repositories.MediaBlobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store shared by avatars, club logos and event images. Uploads are hashed
+ * while they are streamed to a temp file, each distinct content is kept once, and a reference
+ * count per digest decides when a blob can actually be deleted.
+ */
+@Component
+public class MediaStorage {
+
+    public static final String URL_PREFIX = "/api/media/";
+
+    private static final Logger log = LoggerFactory.getLogger(MediaStorage.class);
+    private static final Pattern KEY = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,8})?");
+    private static final int LOCK_STRIPES = 64;
+
+    private final ObjectStore objectStore;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final ImageVariantPipeline imageVariantPipeline;
+    private final Path tempDir;
+    private final long maxUploadSize;
+    private final Counter stagedBytes;
+    private final Counter rejectedBytes;
+    private final DistributionSummary uploadSizes;
+    // Serialises retain/release of the same digest so a blob cannot be deleted while being re-stored
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    @Autowired
+    public MediaStorage(ObjectStore objectStore,
+                        MediaBlobRepository mediaBlobRepository,
+                        ImageVariantPipeline imageVariantPipeline,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.media.temp-dir:uploads/media/.tmp}") String tempDir,
+                        @Value("${app.media.max-upload-size:10MB}") DataSize maxUploadSize) {
+        this.objectStore = objectStore;
+        this.mediaBlobRepository = mediaBlobRepository;
+        this.imageVariantPipeline = imageVariantPipeline;
+        this.tempDir = Paths.get(tempDir).toAbsolutePath().normalize();
+        this.maxUploadSize = maxUploadSize.toBytes();
+        // Every upload endpoint stages through here, so these cover avatars, logos, images and raw media
+        this.stagedBytes = Counter.builder("media.upload.bytes").baseUnit("bytes").tag("outcome", "staged")
+                .register(meterRegistry);
+        this.rejectedBytes = Counter.builder("media.upload.bytes").baseUnit("bytes").tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.uploadSizes = DistributionSummary.builder("media.upload.size").baseUnit("bytes")
+                .register(meterRegistry);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        try {
+            Files.createDirectories(this.tempDir);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
+        }
+    }
+
+    public StoredMedia store(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return store(in);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file. Please try again!", ex);
+        }
+    }
+
+    public StoredMedia store(InputStream content) throws IOException {
+        StagedUpload upload = stage(content);
+        try {
+            return commit(upload);
+        } finally {
+            discard(upload);
+        }
+    }
+
+    /**
+     * Streams the upload into a temp file, hashing it, sniffing its type and enforcing the size
+     * limit in the same single pass. Nothing is visible in the store until {@link #commit}. The
+     * client's file name plays no part: content that is not recognised is stored as {@code .bin}.
+     *
+     * @throws MediaTooLargeException as soon as more than the configured maximum has been read
+     */
+    public StagedUpload stage(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        long size = 0;
+        try {
+            MessageDigest sha256 = sha256();
+            byte[] header = new byte[MediaTypeSniffer.HEADER_SIZE];
+            int headerLength = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxUploadSize) {
+                        throw new MediaTooLargeException(maxUploadSize);
+                    }
+                    if (headerLength < header.length) {
+                        int n = Math.min(read, header.length - headerLength);
+                        System.arraycopy(buffer, 0, header, headerLength, n);
+                        headerLength += n;
+                    }
+                    sha256.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            String digest = HexFormat.of().formatHex(sha256.digest());
+            String contentType = MediaTypeSniffer.sniff(header, headerLength);
+            // Never the name's extension: an .html or .svg key must not be servable as active content
+            String extension = MediaTypeSniffer.extensionFor(contentType);
+            stagedBytes.increment(size);
+            uploadSizes.record(size);
+            return new StagedUpload(temp, digest, size, contentType, extension != null ? extension : MediaTypeSniffer.UNKNOWN_EXTENSION);
+        } catch (IOException | RuntimeException e) {
+            rejectedBytes.increment(size);
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a reference on the staged content, moving it into the store if it is new.
+     */
+    public StoredMedia commit(StagedUpload upload) throws IOException {
+        String digest = upload.digest();
+        boolean created = false;
+        synchronized (lockFor(digest)) {
+            if (mediaBlobRepository.retain(digest) == 0) {
+                mediaBlobRepository.save(new MediaBlob(digest, upload.size(), upload.contentType()));
+                created = true;
+            }
+            if (!objectStore.exists(digest)) {
+                objectStore.put(digest, upload.file(), upload.contentType());
+            }
+        }
+        if (created && upload.contentType().startsWith("image/")) {
+            imageVariantPipeline.schedule(digest);
+        }
+        return new StoredMedia(digest + upload.extension(), digest, upload.size(), upload.contentType());
+    }
+
+    public void discard(StagedUpload upload) {
+        try {
+            Files.deleteIfExists(upload.file());
+        } catch (IOException ex) {
+            log.warn("Could not delete staged upload {}", upload.file(), ex);
+        }
+    }
+
+    /**
+     * Drops one reference to the media behind a URL or key previously returned by this class
+     * and deletes the blob once nothing points at it. Anything that is not a media key (legacy
+     * upload URLs, external links) is ignored.
+     */
+    public void release(String urlOrKey) {
+        Optional<String> digest = digestOf(urlOrKey);
+        if (digest.isEmpty()) {
+            return;
+        }
+        synchronized (lockFor(digest.get())) {
+            if (mediaBlobRepository.release(digest.get()) == 0) {
+                return;
+            }
+            if (mediaBlobRepository.deleteIfUnreferenced(digest.get()) > 0) {
+                try {
+                    objectStore.delete(digest.get());
+                } catch (IOException ex) {
+                    log.warn("Could not delete media blob {}", digest.get(), ex);
+                }
+                imageVariantPipeline.deleteVariants(digest.get());
+            }
+        }
+    }
+
+    public Optional<MediaBlob> find(String key) {
+        return digestOf(key).flatMap(mediaBlobRepository::findById);
+    }
+
+    /**
+     * The blob behind a media key as a local file, without touching the database.
+     */
+    public Optional<Path> localFile(String key) {
+        return digestOf(key).flatMap(objectStore::localPath);
+    }
+
+    public InputStream open(MediaBlob blob) throws IOException {
+        return objectStore.get(blob.getDigest());
+    }
+
+    /**
+     * Absolute URL for the media, built from the current request like the other upload URLs.
+     */
+    public String urlFor(StoredMedia media) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path(URL_PREFIX)
+                .path(media.key())
+                .toUriString();
+    }
+
+    public static Optional<String> digestOf(String urlOrKey) {
+        if (urlOrKey == null) {
+            return Optional.empty();
+        }
+        String key = urlOrKey.substring(urlOrKey.lastIndexOf('/') + 1);
+        Matcher matcher = KEY.matcher(key);
+        return matcher.matches() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+
+    private Object lockFor(String digest) {
+        return locks[Math.floorMod(digest.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.myapp.media;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class MediaTooLargeException extends RuntimeException {
+
+    public MediaTooLargeException(long maxSize) {
+        super("Le fichier dépasse la taille maximale autorisée (" + maxSize + " octets)");
+    }
+}
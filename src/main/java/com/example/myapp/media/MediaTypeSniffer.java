@@ -0,0 +1,90 @@
+package com.example.myapp.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Content type from the first bytes of a file, so a client-supplied Content-Type cannot make a
+ * script pass for an image.
+ */
+final class MediaTypeSniffer {
+
+    /** Enough for every signature below. */
+    static final int HEADER_SIZE = 16;
+
+    /** Key extension of content that matched no signature. */
+    static final String UNKNOWN_EXTENSION = ".bin";
+
+    private MediaTypeSniffer() {}
+
+    /**
+     * @return the detected type, or {@code application/octet-stream} when nothing matches
+     */
+    static String sniff(byte[] header, int length) {
+        if (startsWith(header, length, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, length, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, length, 'R', 'I', 'F', 'F') && length >= 12
+                && "WEBP".equals(new String(header, 8, 4, StandardCharsets.US_ASCII))) {
+            return "image/webp";
+        }
+        if (startsWith(header, length, 'B', 'M')) {
+            return "image/bmp";
+        }
+        if (startsWith(header, length, '%', 'P', 'D', 'F', '-')) {
+            return "application/pdf";
+        }
+        return "application/octet-stream";
+    }
+
+    static String sniff(Path file) throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            return sniff(header, in.readNBytes(header, 0, HEADER_SIZE));
+        }
+    }
+
+    /**
+     * Whether browsers may be given the content inline: only the image formats above, which
+     * cannot carry script.
+     */
+    static boolean isRasterImage(String contentType) {
+        return contentType != null && contentType.startsWith("image/") && extensionFor(contentType) != null;
+    }
+
+    /**
+     * @return the canonical extension for a sniffed type, or null when the type was not recognised
+     */
+    static String extensionFor(String contentType) {
+        return switch (contentType) {
+            case "image/jpeg" -> ".jpg";
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            case "image/webp" -> ".webp";
+            case "image/bmp" -> ".bmp";
+            case "application/pdf" -> ".pdf";
+            default -> null;
+        };
+    }
+
+    private static boolean startsWith(byte[] header, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.myapp.media;
+
+import com.example.myapp.enums.UploadState;
+import com.example.myapp.payload.response.UploadStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Commits staged uploads on a background pool so the request can answer 202 as soon as the body
+ * is on disk. Statuses are kept in memory for a while so clients can poll them.
+ */
+@Component
+public class MediaUploads implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaUploads.class);
+
+    private final MediaStorage mediaStorage;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, UploadStatus> statuses;
+
+    @Autowired
+    public MediaUploads(MediaStorage mediaStorage,
+                        @Value("${app.media.upload.threads:2}") int threads,
+                        @Value("${app.media.upload.queue-capacity:100}") int queueCapacity,
+                        @Value("${app.media.upload.status-ttl:1h}") Duration statusTtl) {
+        this.mediaStorage = mediaStorage;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(statusTtl)
+                .build();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "media-upload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Commits synchronously: the staged file is always cleaned up.
+     */
+    public UploadStatus commit(StagedUpload upload, String baseUrl) throws IOException {
+        try {
+            return stored(UUID.randomUUID().toString(), mediaStorage.commit(upload), baseUrl);
+        } finally {
+            mediaStorage.discard(upload);
+        }
+    }
+
+    /**
+     * Queues the commit and returns its PENDING status. When the pool is saturated the commit
+     * runs on the caller instead, so the upload is never lost.
+     */
+    public UploadStatus commitAsync(StagedUpload upload, String baseUrl) throws IOException {
+        String id = UUID.randomUUID().toString();
+        UploadStatus pending = UploadStatus.pending(id);
+        statuses.put(id, pending);
+        try {
+            executor.execute(() -> {
+                try {
+                    statuses.put(id, stored(id, mediaStorage.commit(upload), baseUrl));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Upload {} could not be stored", id, e);
+                    statuses.put(id, UploadStatus.failed(id, "Could not store file. Please try again!"));
+                } finally {
+                    mediaStorage.discard(upload);
+                }
+            });
+            return pending;
+        } catch (RejectedExecutionException e) {
+            try {
+                UploadStatus status = stored(id, mediaStorage.commit(upload), baseUrl);
+                statuses.put(id, status);
+                return status;
+            } finally {
+                mediaStorage.discard(upload);
+            }
+        }
+    }
+
+    public Optional<UploadStatus> status(String id) {
+        return Optional.ofNullable(statuses.getIfPresent(id));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static UploadStatus stored(String id, StoredMedia media, String baseUrl) {
+        return new UploadStatus(id, UploadState.STORED, media.key(), baseUrl + MediaStorage.URL_PREFIX + media.key(),
+                media.size(), media.contentType(), null);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.myapp.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Blob backend behind {@link MediaStorage}, shaped after the S3 object API (HEAD, PUT, GET,
+ * DELETE on flat keys) so a bucket-backed implementation can replace the local one without
+ * touching callers. Implementations must be thread-safe.
+ */
+public interface ObjectStore {
+
+    boolean exists(String key);
+
+    /**
+     * Stores the file under the key. The source is consumed: implementations may move it.
+     */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    InputStream get(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * The object as a local file, when the backend keeps one, so it can be sent without copying
+     * through the JVM heap. Remote backends leave this empty and are served through {@link #get}.
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.myapp.media;
+
+import java.nio.file.Path;
+
+/**
+ * An upload that has been received, hashed and sniffed into a temp file but not yet committed
+ * to the store.
+ */
+public record StagedUpload(Path file, String digest, long size, String contentType, String extension) {
+}
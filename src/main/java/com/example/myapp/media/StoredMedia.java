@@ -0,0 +1,8 @@
+package com.example.myapp.media;
+
+/**
+ * A stored upload. {@code key} is what goes into URLs: the content digest plus the original
+ * extension, so two uploads of the same bytes share one blob.
+ */
+public record StoredMedia(String key, String digest, long size, String contentType) {
+}
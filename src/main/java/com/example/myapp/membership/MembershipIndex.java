@@ -0,0 +1,160 @@
+package com.example.myapp.membership;
+
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.MemberSummary;
+import com.example.myapp.repositories.MemberRepository;
+import com.example.myapp.utils.AfterCommit;
+import com.example.myapp.utils.IdBitmap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The active members of every club as one {@link IdBitmap} of user ids per club, so membership
+ * checks, active member counts and questions across clubs never reach the database.
+ * <p>
+ * Reads never lock. Writes go through {@link #membershipsChanged(Collection)}, which re-reads
+ * the changed memberships once their transaction has committed, so the index never shows a
+ * change that is then rolled back and the order in which concurrent changes arrive does not
+ * matter. {@link #rebuild()} reloads everything at startup and then periodically, to pick up
+ * writes made elsewhere (another instance, bulk SQL, a deleted club or user). Until the first
+ * rebuild has finished, answers come from the database.
+ */
+@Component
+public class MembershipIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MembershipIndex.class);
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate readOnly;
+    private final Object writeLock = new Object();
+    private volatile Map<Long, IdBitmap> clubs;
+
+    @Autowired
+    public MembershipIndex(MemberRepository memberRepository, PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.memberRepository = memberRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        Gauge.builder("membership.index.clubs", this, index -> index.clubs == null ? 0 : index.clubs.size())
+                .register(meterRegistry);
+    }
+
+    public boolean isActiveMember(Long userId, Long clubId) {
+        Map<Long, IdBitmap> current = clubs;
+        if (current == null) {
+            return memberRepository.existsByUserIdAndClubIdAndIsActiveTrue(userId, clubId);
+        }
+        IdBitmap members = current.get(clubId);
+        return members != null && members.contains(userId);
+    }
+
+    public long activeMemberCount(Long clubId) {
+        return activeMembers(clubId).cardinality();
+    }
+
+    public IdBitmap activeMembers(Long clubId) {
+        Map<Long, IdBitmap> current = clubs;
+        if (current == null) {
+            return IdBitmap.of(memberRepository.findActiveSummariesByClubId(clubId).stream()
+                    .mapToLong(MemberSummary::userId)
+                    .toArray());
+        }
+        return current.getOrDefault(clubId, IdBitmap.EMPTY);
+    }
+
+    /**
+     * Users active in both clubs.
+     */
+    public IdBitmap sharedActiveMembers(Long clubId, Long otherClubId) {
+        return activeMembers(clubId).and(activeMembers(otherClubId));
+    }
+
+    public void membershipChanged(Long userId, Long clubId) {
+        membershipsChanged(Set.of(new IdPair(userId, clubId)));
+    }
+
+    /**
+     * Re-reads these (user id, club id) memberships after the current transaction commits, or
+     * at once outside of one.
+     */
+    public void membershipsChanged(Collection<IdPair> userClubPairs) {
+        if (userClubPairs.isEmpty()) {
+            return;
+        }
+        Set<IdPair> pairs = Set.copyOf(userClubPairs);
+        AfterCommit.run(() -> {
+            // The query runs under the write lock so a rebuild cannot swap in an older state after it
+            synchronized (writeLock) {
+                Map<Long, IdBitmap> current = clubs;
+                if (current == null) {
+                    return;
+                }
+                Set<IdPair> active = new HashSet<>(memberRepository.findActiveUserClubPairs(
+                        pairs.stream().map(IdPair::left).collect(Collectors.toSet()),
+                        pairs.stream().map(IdPair::right).collect(Collectors.toSet())));
+                for (IdPair pair : pairs) {
+                    IdBitmap members = current.getOrDefault(pair.right(), IdBitmap.EMPTY);
+                    members = active.contains(pair) ? members.with(pair.left()) : members.without(pair.left());
+                    if (members.isEmpty()) {
+                        current.remove(pair.right());
+                    } else {
+                        current.put(pair.right(), members);
+                    }
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.membership.rebuild-interval:PT15M}",
+            initialDelayString = "${app.membership.rebuild-interval:PT15M}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (writeLock) {
+            Map<Long, IdBitmap> fresh = new ConcurrentHashMap<>();
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<IdPair> rows = memberRepository.streamActiveClubUserPairs()) {
+                    Long clubId = null;
+                    long[] userIds = new long[64];
+                    int count = 0;
+                    for (IdPair row : (Iterable<IdPair>) rows::iterator) {
+                        if (!row.left().equals(clubId)) {
+                            if (clubId != null) {
+                                fresh.put(clubId, IdBitmap.of(Arrays.copyOf(userIds, count)));
+                            }
+                            clubId = row.left();
+                            count = 0;
+                        }
+                        if (count == userIds.length) {
+                            userIds = Arrays.copyOf(userIds, count * 2);
+                        }
+                        userIds[count++] = row.right();
+                    }
+                    if (clubId != null) {
+                        fresh.put(clubId, IdBitmap.of(Arrays.copyOf(userIds, count)));
+                    }
+                }
+            });
+            clubs = fresh;
+        }
+        log.info("Membership index rebuilt in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.myapp.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a random sample of the SQL Hibernate prepares, in place of {@code show-sql}, which
+ * writes every statement to stdout. Each sampled statement is one line with the SQL and the
+ * sample rate as key-value pairs, so structured logging ({@code logging.structured.format.*})
+ * turns them into fields. Slow statements are logged separately and unsampled by Hibernate
+ * ({@code hibernate.log_slow_query}).
+ */
+public class SampledSqlLogger implements StatementInspector {
+
+    private static final Logger log = LoggerFactory.getLogger("com.example.myapp.sql");
+
+    private final double sampleRate;
+
+    public SampledSqlLogger(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.atInfo()
+                    .addKeyValue("sql", sql.replaceAll("\\s+", " ").trim())
+                    .addKeyValue("sampleRate", sampleRate)
+                    .log("Sampled SQL statement");
+        }
+        return sql;
+    }
+}
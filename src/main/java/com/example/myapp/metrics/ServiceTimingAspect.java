@@ -0,0 +1,61 @@
+package com.example.myapp.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Times every public method of the service layer as {@code app.service{service, method,
+ * exception}}. A method returning a {@link CompletableFuture} is timed until the future
+ * completes, so hashing and other work handed to a pool is included. Calls a service makes
+ * to itself bypass the proxy and are part of the caller's time.
+ */
+@Aspect
+@Component
+public class ServiceTimingAspect {
+
+    public static final String METRIC = "app.service";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ServiceTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.example.myapp.services.impl.*ServiceImpl.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            stop(sample, joinPoint, e);
+            throw e;
+        }
+        if (result instanceof CompletableFuture<?> future) {
+            future.whenComplete((value, e) -> stop(sample, joinPoint, e));
+        } else {
+            stop(sample, joinPoint, null);
+        }
+        return result;
+    }
+
+    private void stop(Timer.Sample sample, ProceedingJoinPoint joinPoint, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        String service = ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName().replace("Impl", "");
+        sample.stop(Timer.builder(METRIC)
+                .tag("service", service)
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("exception", cause == null ? "none" : cause.getClass().getSimpleName())
+                .register(meterRegistry));
+    }
+}
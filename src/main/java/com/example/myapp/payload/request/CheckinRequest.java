@@ -0,0 +1,35 @@
+package com.example.myapp.payload.request;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class CheckinRequest {
+    @NotBlank(message = "Le jeton est requis")
+    private String token;
+
+    // The event the scanner is set up for; a ticket for any other one is refused
+    private Long evenementId;
+
+    public CheckinRequest() {
+    }
+
+    public CheckinRequest(String token, Long evenementId) {
+        this.token = token;
+        this.evenementId = evenementId;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public Long getEvenementId() {
+        return evenementId;
+    }
+
+    public void setEvenementId(Long evenementId) {
+        this.evenementId = evenementId;
+    }
+}
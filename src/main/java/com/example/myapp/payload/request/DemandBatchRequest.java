@@ -0,0 +1,45 @@
+package com.example.myapp.payload.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DemandBatchRequest {
+    private List<Long> approve = new ArrayList<>();
+
+    private List<Long> reject = new ArrayList<>();
+
+    private String rejectionReason;
+
+    public DemandBatchRequest() {
+    }
+
+    public DemandBatchRequest(List<Long> approve, List<Long> reject, String rejectionReason) {
+        this.approve = approve;
+        this.reject = reject;
+        this.rejectionReason = rejectionReason;
+    }
+
+    public List<Long> getApprove() {
+        return approve;
+    }
+
+    public void setApprove(List<Long> approve) {
+        this.approve = approve != null ? approve : new ArrayList<>();
+    }
+
+    public List<Long> getReject() {
+        return reject;
+    }
+
+    public void setReject(List<Long> reject) {
+        this.reject = reject != null ? reject : new ArrayList<>();
+    }
+
+    public String getRejectionReason() {
+        return rejectionReason;
+    }
+
+    public void setRejectionReason(String rejectionReason) {
+        this.rejectionReason = rejectionReason;
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.myapp.payload.response;
+
+public record AttestationSummary(Long id, String nom, String description, Long evenementId, String evenementTitre) {
+}
@@ -0,0 +1,13 @@
+package com.example.myapp.payload.response;
+
+import com.example.myapp.enums.VerificationStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Answer to a verification code. A revoked code only echoes the ids it carries: the
+ * participation it vouched for no longer exists.
+ */
+public record AttestationVerification(VerificationStatus status, Long userId, String userNom, String userPrenom,
+                                      Long evenementId, String evenementTitre, LocalDate issuedOn) {
+}
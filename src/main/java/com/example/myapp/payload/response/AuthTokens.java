@@ -0,0 +1,7 @@
+package com.example.myapp.payload.response;
+
+/**
+ * Issued at login and on refresh. {@code expiresIn} is the access token's lifetime in seconds.
+ */
+public record AuthTokens(String accessToken, String refreshToken, String tokenType, long expiresIn, UserSummary user) {
+}
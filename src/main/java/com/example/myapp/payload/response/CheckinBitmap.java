@@ -0,0 +1,14 @@
+package com.example.myapp.payload.response;
+
+/**
+ * Valid tickets of an event as a Bloom filter, for scanners that lose their connection. The
+ * device needs no secret: a token is Crockford base32 whose last 8 bytes, read big-endian as
+ * {@code fp}, are its fingerprint. With {@code h1 = (int) (fp >>> 32)} and
+ * {@code h2 = (int) fp | 1}, the ticket is valid when for every {@code i} below
+ * {@code hashes} bit {@code floorMod(h1 + i * h2, bits)} is set, in 32-bit wrapping
+ * arithmetic. Bit {@code n} is {@code bitmap[n / 8] & (1 << (n % 8))}; the bitmap is base64.
+ * A forged token is accepted with a probability of about 0.6185<sup>bits/participants</sup>,
+ * and the device remembers what it already scanned to refuse second entries.
+ */
+public record CheckinBitmap(Long evenementId, int participants, int bits, int hashes, String bitmap) {
+}
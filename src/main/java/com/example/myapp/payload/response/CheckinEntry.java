@@ -0,0 +1,10 @@
+package com.example.myapp.payload.response;
+
+import java.util.Date;
+
+/**
+ * What the door needs to know about one participation.
+ */
+public record CheckinEntry(Long participationId, Long evenementId, Long userId, String userNom, String userPrenom,
+                           Date checkedInAt) {
+}
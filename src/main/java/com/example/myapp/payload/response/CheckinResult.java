@@ -0,0 +1,22 @@
+package com.example.myapp.payload.response;
+
+import com.example.myapp.enums.CheckinStatus;
+
+import java.time.Instant;
+
+/**
+ * Outcome of one scan. For {@code ALREADY_CHECKED_IN}, {@code checkedInAt} is the first
+ * check-in, so the door can tell a second scan from a copied ticket.
+ */
+public record CheckinResult(CheckinStatus status, Long participationId, Long evenementId, Long userId,
+                            String userNom, String userPrenom, Instant checkedInAt) {
+
+    public static CheckinResult of(CheckinStatus status, CheckinEntry entry, Instant checkedInAt) {
+        return new CheckinResult(status, entry.participationId(), entry.evenementId(), entry.userId(),
+                entry.userNom(), entry.userPrenom(), checkedInAt);
+    }
+
+    public static CheckinResult rejected(CheckinStatus status, Long participationId, Long evenementId) {
+        return new CheckinResult(status, participationId, evenementId, null, null, null, null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.myapp.payload.response;
+
+/**
+ * The token to encode in a participant's QR code. It only holds base32 digits, so QR
+ * alphanumeric mode keeps the code small.
+ */
+public record CheckinTicket(Long participationId, Long evenementId, String token) {
+}
@@ -0,0 +1,4 @@
+package com.example.myapp.payload.response;
+
+public record ClubSummary(Long id, String nom, String description, String logopath) {
+}
@@ -0,0 +1,10 @@
+package com.example.myapp.payload.response;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch decision. {@code skipped} holds the ids that were not pending any more,
+ * do not exist or belong to another club.
+ */
+public record DemandBatchResult(List<Long> approved, List<Long> rejected, List<Long> skipped) {
+}
@@ -0,0 +1,9 @@
+package com.example.myapp.payload.response;
+
+import com.example.myapp.enums.DemandStatus;
+
+import java.util.Date;
+
+public record DemandSummary(Long id, Long userId, String userNom, String userPrenom, Long clubId, String clubNom,
+                            DemandStatus status, Date requestDate, Date responseDate, String comment) {
+}
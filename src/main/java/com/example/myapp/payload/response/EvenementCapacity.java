@@ -0,0 +1,8 @@
+package com.example.myapp.payload.response;
+
+/**
+ * Seats of an event and its club, read together when the event's seat counter is loaded. A
+ * null capacity means no limit.
+ */
+public record EvenementCapacity(Long id, Long clubId, Integer capacity) {
+}
@@ -0,0 +1,9 @@
+package com.example.myapp.payload.response;
+
+import com.example.myapp.enums.EventType;
+
+import java.util.Date;
+
+public record EvenementSummary(Long id, String titre, String description, Date date, String imageurl,
+                               EventType eventType, Long clubId, String clubNom) {
+}
@@ -0,0 +1,7 @@
+package com.example.myapp.payload.response;
+
+/**
+ * Two ids read together by a constructor expression, e.g. the (user, club) of a membership.
+ */
+public record IdPair(Long left, Long right) {
+}
@@ -0,0 +1,13 @@
+package com.example.myapp.payload.response;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} is capped; {@code errorsTruncated} tells whether more
+ * rows were rejected than are listed.
+ */
+public record ImportReport(long received, long imported, long rejected, List<RowError> errors, boolean errorsTruncated) {
+
+    public record RowError(long line, String message) {
+    }
+}
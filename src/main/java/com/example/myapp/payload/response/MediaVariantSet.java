@@ -0,0 +1,12 @@
+package com.example.myapp.payload.response;
+
+import java.util.List;
+
+/**
+ * Everything a client needs to build a {@code srcset}: the original plus each finished width.
+ */
+public record MediaVariantSet(String url, List<Rendition> variants) {
+
+    public record Rendition(int width, String url) {
+    }
+}
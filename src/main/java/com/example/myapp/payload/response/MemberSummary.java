@@ -0,0 +1,7 @@
+package com.example.myapp.payload.response;
+
+import java.util.Date;
+
+public record MemberSummary(Long id, Long userId, String userNom, String userPrenom, Long clubId, String clubNom,
+                            Date joinDate, boolean active) {
+}
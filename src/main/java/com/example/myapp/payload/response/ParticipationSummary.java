@@ -0,0 +1,7 @@
+package com.example.myapp.payload.response;
+
+import java.util.Date;
+
+public record ParticipationSummary(Long id, Date date, Long userId, String userNom, String userPrenom,
+                                   Long evenementId, String evenementTitre) {
+}
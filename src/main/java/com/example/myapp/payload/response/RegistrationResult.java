@@ -0,0 +1,21 @@
+package com.example.myapp.payload.response;
+
+import com.example.myapp.enums.RegistrationStatus;
+
+/**
+ * Answer to a registration: the participation when a seat was taken, otherwise the place in
+ * the event's waitlist, 1 being next in line.
+ */
+public record RegistrationResult(RegistrationStatus status, Long userId, Long evenementId, Long participationId,
+                                 Long waitlistPosition) {
+
+    public static RegistrationResult registered(RegistrationStatus status, Long userId, Long evenementId,
+                                                Long participationId) {
+        return new RegistrationResult(status, userId, evenementId, participationId, null);
+    }
+
+    public static RegistrationResult waitlisted(RegistrationStatus status, Long userId, Long evenementId,
+                                                long position) {
+        return new RegistrationResult(status, userId, evenementId, null, position);
+    }
+}
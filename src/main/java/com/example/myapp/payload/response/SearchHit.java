@@ -0,0 +1,6 @@
+package com.example.myapp.payload.response;
+
+import com.example.myapp.enums.SearchType;
+
+public record SearchHit(SearchType type, Long id, String title, String subtitle, float score) {
+}
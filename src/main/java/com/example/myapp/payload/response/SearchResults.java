@@ -0,0 +1,9 @@
+package com.example.myapp.payload.response;
+
+import java.util.List;
+
+/**
+ * One page of ranked search hits, best first. {@code nextPage} is null on the last page.
+ */
+public record SearchResults(List<SearchHit> items, int page, Integer nextPage) {
+}
@@ -0,0 +1,14 @@
+package com.example.myapp.payload.response;
+
+import com.example.myapp.enums.UploadState;
+
+public record UploadStatus(String id, UploadState state, String key, String url, long size, String contentType, String error) {
+
+    public static UploadStatus pending(String id) {
+        return new UploadStatus(id, UploadState.PENDING, null, null, 0, null, null);
+    }
+
+    public static UploadStatus failed(String id, String error) {
+        return new UploadStatus(id, UploadState.FAILED, null, null, 0, null, error);
+    }
+}
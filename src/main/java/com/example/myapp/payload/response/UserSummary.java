@@ -0,0 +1,11 @@
+package com.example.myapp.payload.response;
+
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.Role;
+
+public record UserSummary(Long id, String nom, String prenom, String email, Role role, String avatar) {
+
+    public static UserSummary of(User user) {
+        return new UserSummary(user.getId(), user.getNom(), user.getPrenom(), user.getEmail(), user.getRole(), user.getAvatar());
+    }
+}
@@ -0,0 +1,444 @@
+package com.example.myapp.registration;
+
+import com.example.myapp.entities.Participation;
+import com.example.myapp.entities.WaitlistEntry;
+import com.example.myapp.enums.RegistrationStatus;
+import com.example.myapp.payload.response.EvenementCapacity;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.ParticipationSummary;
+import com.example.myapp.payload.response.RegistrationResult;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.repositories.ParticipationRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.repositories.WaitlistRepository;
+import com.example.myapp.services.ClubStatsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registration for events with a limited number of seats. The seats of each event are counted
+ * in memory, loaded from the database the first time someone registers for it, so telling a
+ * seat from the waitlist is a compare-and-set on that counter rather than a locked count of
+ * participations: a full event answers without touching its participations at all. While
+ * seats are free, or being taken, the participation is inserted before its seat is taken, so
+ * the unique (user, event) constraint settles double registrations before a duplicate can find
+ * the event full because of its twin's seat; an insert that finds no seat is rolled back.
+ * <p>
+ * The waitlist is served oldest first. A seat given up by a deleted participation goes straight
+ * to the head of the waitlist and only returns to the counter when nobody is waiting. Whoever
+ * deletes an entry is the one who promotes it, so concurrent promotions never seat the same
+ * user twice. Participations written around this class (bulk import, another instance, manual
+ * SQL) are caught up by {@link #reconcile()}.
+ */
+@Component
+public class EventRegistrations {
+
+    private final ParticipationRepository participationRepository;
+    private final WaitlistRepository waitlistRepository;
+    private final EvenementRepository evenementRepository;
+    private final UserRepository userRepository;
+    private final ClubStatsService clubStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final int reconcileBatchSize;
+    private final Map<Long, Seats> seats = new ConcurrentHashMap<>();
+    private final Counter registered;
+    private final Counter waitlisted;
+    private final Counter promoted;
+
+    @Autowired
+    public EventRegistrations(ParticipationRepository participationRepository,
+                              WaitlistRepository waitlistRepository,
+                              EvenementRepository evenementRepository,
+                              UserRepository userRepository,
+                              ClubStatsService clubStatsService,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.registrations.reconcile-batch-size:500}") int reconcileBatchSize) {
+        this.participationRepository = participationRepository;
+        this.waitlistRepository = waitlistRepository;
+        this.evenementRepository = evenementRepository;
+        this.userRepository = userRepository;
+        this.clubStatsService = clubStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Promotions run after the deleting transaction committed, whose resources are still bound to the thread
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconcileBatchSize = reconcileBatchSize;
+        this.registered = Counter.builder("event.registrations").tag("result", "registered").register(meterRegistry);
+        this.waitlisted = Counter.builder("event.registrations").tag("result", "waitlisted").register(meterRegistry);
+        this.promoted = Counter.builder("event.registrations").tag("result", "promoted").register(meterRegistry);
+    }
+
+    /**
+     * Seats the user, or puts them at the end of the waitlist when the event is full.
+     *
+     * @throws IllegalArgumentException if the event or the user does not exist
+     */
+    public RegistrationResult register(Long userId, Long evenementId, Date date) {
+        Seats eventSeats = seatsOf(evenementId);
+        if (!eventSeats.settledFull()) {
+            AtomicBoolean seated = new AtomicBoolean();
+            Long participationId;
+            try {
+                // A twin's insert waits on this row and fails once it commits
+                participationId = transactionTemplate.execute(status -> {
+                    Long id = insertParticipation(userId, evenementId, date);
+                    if (!eventSeats.tryTake()) {
+                        status.setRollbackOnly();
+                        return null;
+                    }
+                    seated.set(true);
+                    return id;
+                });
+            } catch (DataIntegrityViolationException e) {
+                if (seated.get()) {
+                    eventSeats.giveBack();
+                }
+                return alreadyRegistered(userId, evenementId);
+            } catch (RuntimeException e) {
+                if (seated.get()) {
+                    eventSeats.giveBack();
+                }
+                throw e;
+            }
+            if (seated.get()) {
+                eventSeats.settle();
+                registered.increment();
+                participationAdded(eventSeats.clubId);
+                return RegistrationResult.registered(RegistrationStatus.REGISTERED, userId, evenementId, participationId);
+            }
+        }
+
+        Optional<ParticipationSummary> existing = participationRepository.findSummaryByUserIdAndEvenementId(userId, evenementId);
+        if (existing.isPresent()) {
+            return RegistrationResult.registered(RegistrationStatus.ALREADY_REGISTERED, userId, evenementId,
+                    existing.get().id());
+        }
+        Long entryId;
+        try {
+            entryId = transactionTemplate.execute(status -> {
+                WaitlistEntry entry = new WaitlistEntry();
+                entry.setEvenement(evenementRepository.getReferenceById(evenementId));
+                entry.setUser(userRepository.getReferenceById(userId));
+                entry.setRequestDate(new Date());
+                return waitlistRepository.saveAndFlush(entry).getId();
+            });
+        } catch (DataIntegrityViolationException e) {
+            Long queued = waitlistRepository.findIdByEvenementIdAndUserId(evenementId, userId)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown user: " + userId));
+            return RegistrationResult.waitlisted(RegistrationStatus.ALREADY_WAITLISTED, userId, evenementId,
+                    waitlistRepository.countUpTo(evenementId, queued));
+        }
+        waitlisted.increment();
+        // A seat freed while the entry was being written found nobody waiting and went back to the counter
+        if (fill(evenementId, eventSeats) > 0) {
+            Optional<ParticipationSummary> seated = participationRepository.findSummaryByUserIdAndEvenementId(userId, evenementId);
+            if (seated.isPresent()) {
+                return RegistrationResult.registered(RegistrationStatus.REGISTERED, userId, evenementId,
+                        seated.get().id());
+            }
+        }
+        return RegistrationResult.waitlisted(RegistrationStatus.WAITLISTED, userId, evenementId,
+                waitlistRepository.countUpTo(evenementId, entryId));
+    }
+
+    /**
+     * Place of the user in the event's waitlist, 1 being next in line.
+     */
+    public Optional<Long> waitlistPosition(Long userId, Long evenementId) {
+        return waitlistRepository.findIdByEvenementIdAndUserId(evenementId, userId)
+                .map(entryId -> waitlistRepository.countUpTo(evenementId, entryId));
+    }
+
+    public boolean leaveWaitlist(Long userId, Long evenementId) {
+        Integer deleted = transactionTemplate.execute(status ->
+                waitlistRepository.deleteByEvenementIdAndUserId(evenementId, userId));
+        return deleted != null && deleted > 0;
+    }
+
+    /**
+     * A participation of the event was deleted and committed: its seat goes to the head of the
+     * waitlist, or back to the counter when nobody is waiting.
+     */
+    public void seatFreed(Long evenementId) {
+        Seats eventSeats = seats.get(evenementId);
+        if (eventSeats == null) {
+            // Not counted yet: loading counts from the database, which no longer holds the deleted participation
+            eventSeats = loadSeats(evenementId);
+            if (eventSeats != null) {
+                fill(evenementId, eventSeats);
+            }
+            return;
+        }
+        eventSeats.hold();
+        if (promoteHead(evenementId, eventSeats.clubId)) {
+            eventSeats.settle();
+        } else {
+            eventSeats.giveBack();
+        }
+    }
+
+    /**
+     * The event was saved and its capacity may have changed: re-reads it and seats as many
+     * waiting users as the new capacity allows.
+     */
+    public void capacityChanged(Long evenementId) {
+        Seats eventSeats = seats.get(evenementId);
+        if (eventSeats == null) {
+            return;
+        }
+        Optional<EvenementCapacity> capacity = evenementRepository.findCapacityById(evenementId);
+        if (capacity.isEmpty()) {
+            seats.remove(evenementId, eventSeats);
+            return;
+        }
+        eventSeats.update(capacity.get());
+        fill(evenementId, eventSeats);
+    }
+
+    public void evenementDeleted(Long evenementId) {
+        seats.remove(evenementId);
+    }
+
+    /**
+     * Recounts the participations of every event held in memory and corrects the counters that
+     * drifted, then seats waiting users wherever seats turned out to be free. A counter that
+     * moved while it was being recounted is left for the next run.
+     *
+     * @return number of counters corrected
+     */
+    @Scheduled(fixedDelayString = "${app.registrations.reconcile-interval:PT5M}",
+            initialDelayString = "${app.registrations.reconcile-interval:PT5M}")
+    public int reconcile() {
+        List<Long> ids = new ArrayList<>(seats.keySet());
+        int corrected = 0;
+        for (int from = 0; from < ids.size(); from += reconcileBatchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + reconcileBatchSize, ids.size()));
+            // Observed before counting, so anything that moves a counter meanwhile makes its correction fail
+            Map<Long, Long> observed = new HashMap<>();
+            for (Long id : batch) {
+                Seats eventSeats = seats.get(id);
+                if (eventSeats != null) {
+                    long state = eventSeats.state.get();
+                    if (eventSeats.pending.get() == 0) {
+                        observed.put(id, state);
+                    }
+                }
+            }
+            Map<Long, EvenementCapacity> capacities = evenementRepository.findCapacitiesByIdIn(batch).stream()
+                    .collect(Collectors.toMap(EvenementCapacity::id, Function.identity()));
+            Map<Long, Long> counts = participationRepository.countByEvenementIdIn(batch).stream()
+                    .collect(Collectors.toMap(IdPair::left, IdPair::right));
+            for (Long id : batch) {
+                Seats eventSeats = seats.get(id);
+                if (eventSeats == null) {
+                    continue;
+                }
+                EvenementCapacity capacity = capacities.get(id);
+                if (capacity == null) {
+                    seats.remove(id, eventSeats);
+                    continue;
+                }
+                eventSeats.update(capacity);
+                Long state = observed.get(id);
+                if (state != null && eventSeats.correct(state, counts.getOrDefault(id, 0L))) {
+                    corrected++;
+                }
+                fill(id, eventSeats);
+            }
+        }
+        return corrected;
+    }
+
+    private Seats seatsOf(Long evenementId) {
+        Seats eventSeats = seats.get(evenementId);
+        if (eventSeats == null) {
+            eventSeats = loadSeats(evenementId);
+            if (eventSeats == null) {
+                throw new IllegalArgumentException("Unknown event: " + evenementId);
+            }
+        }
+        return eventSeats;
+    }
+
+    // One load per event however many first registrations arrive together
+    private Seats loadSeats(Long evenementId) {
+        return seats.computeIfAbsent(evenementId, id -> evenementRepository.findCapacityById(id)
+                .map(capacity -> new Seats(capacity, participationRepository.countByEvenementId(id)))
+                .orElse(null));
+    }
+
+    /**
+     * Seats waiting users while there are free seats.
+     *
+     * @return number of users promoted
+     */
+    private int fill(Long evenementId, Seats eventSeats) {
+        int seated = 0;
+        while (eventSeats.tryTake()) {
+            if (!promoteHead(evenementId, eventSeats.clubId)) {
+                eventSeats.giveBack();
+                break;
+            }
+            eventSeats.settle();
+            seated++;
+        }
+        return seated;
+    }
+
+    /**
+     * Turns the oldest waitlist entry into a participation, for a seat the caller already holds.
+     *
+     * @return false when nobody is waiting
+     */
+    private boolean promoteHead(Long evenementId, Long clubId) {
+        while (true) {
+            List<IdPair> head = waitlistRepository.findHeadByEvenementId(evenementId, Limit.of(1));
+            if (head.isEmpty()) {
+                return false;
+            }
+            Long entryId = head.get(0).left();
+            Long userId = head.get(0).right();
+            Boolean seated;
+            try {
+                seated = transactionTemplate.execute(status -> {
+                    if (waitlistRepository.deleteEntry(entryId) == 0) {
+                        // Promoted by a concurrent caller; the next head is ours to try
+                        return false;
+                    }
+                    insertParticipation(userId, evenementId, new Date());
+                    return true;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Registered meanwhile while still waiting: the entry is stale, not a claim on this seat
+                transactionTemplate.execute(status -> waitlistRepository.deleteEntry(entryId));
+                continue;
+            }
+            if (Boolean.TRUE.equals(seated)) {
+                promoted.increment();
+                participationAdded(clubId);
+                return true;
+            }
+        }
+    }
+
+    private Long insertParticipation(Long userId, Long evenementId, Date date) {
+        Participation participation = new Participation();
+        participation.setUser(userRepository.getReferenceById(userId));
+        participation.setEvenement(evenementRepository.getReferenceById(evenementId));
+        participation.setDate(date);
+        return participationRepository.saveAndFlush(participation).getId();
+    }
+
+    // Once the participation is committed, so the club's statistics row is not locked for the whole registration
+    private void participationAdded(Long clubId) {
+        if (clubId != null) {
+            transactionTemplate.executeWithoutResult(status -> clubStatsService.participationsChanged(clubId, 1));
+        }
+    }
+
+    private RegistrationResult alreadyRegistered(Long userId, Long evenementId) {
+        Long participationId = participationRepository.findSummaryByUserIdAndEvenementId(userId, evenementId)
+                .map(ParticipationSummary::id)
+                // Not a duplicate after all, so the insert failed on the user reference
+                .orElseThrow(() -> new IllegalArgumentException("Unknown user: " + userId));
+        return RegistrationResult.registered(RegistrationStatus.ALREADY_REGISTERED, userId, evenementId, participationId);
+    }
+
+    /**
+     * Seats of one event. The taken count shares a long with a version bumped by every change,
+     * so a reconcile can tell that its recount is stale even when the count came back to the
+     * value it observed. {@code pending} counts seats taken whose participation is not yet
+     * committed; it is raised before the seat is taken and lowered once the outcome is known.
+     */
+    static final class Seats {
+        private static final long TAKEN_MASK = 0xffff_ffffL;
+
+        final AtomicLong state = new AtomicLong();
+        final AtomicInteger pending = new AtomicInteger();
+        private volatile int capacity;
+        private volatile Long clubId;
+
+        Seats(EvenementCapacity capacity, long taken) {
+            update(capacity);
+            state.set(taken);
+        }
+
+        void update(EvenementCapacity capacity) {
+            this.capacity = capacity.capacity() == null ? Integer.MAX_VALUE : capacity.capacity();
+            this.clubId = capacity.clubId();
+        }
+
+        /**
+         * True when every seat is taken by a committed participation. A seat still being written
+         * may yet be given back, so while one is, the event does not count as full.
+         */
+        boolean settledFull() {
+            // State first: a seat is pending before it is taken, and settled only once committed
+            boolean full = (state.get() & TAKEN_MASK) >= capacity;
+            return full && pending.get() == 0;
+        }
+
+        boolean tryTake() {
+            pending.incrementAndGet();
+            while (true) {
+                long current = state.get();
+                if ((current & TAKEN_MASK) >= capacity) {
+                    pending.decrementAndGet();
+                    return false;
+                }
+                if (state.compareAndSet(current, next(current, 1))) {
+                    return true;
+                }
+            }
+        }
+
+        // A seat freed by a deletion, kept for the waitlist rather than returned to the counter
+        void hold() {
+            pending.incrementAndGet();
+        }
+
+        void settle() {
+            pending.decrementAndGet();
+        }
+
+        void giveBack() {
+            state.getAndUpdate(current -> next(current, -1));
+            pending.decrementAndGet();
+        }
+
+        boolean correct(long observed, long count) {
+            if ((observed & TAKEN_MASK) == count) {
+                return false;
+            }
+            return state.compareAndSet(observed, next(observed & ~TAKEN_MASK, (int) count));
+        }
+
+        private static long next(long current, int delta) {
+            long taken = Math.max(0, (current & TAKEN_MASK) + delta);
+            long version = (current >>> 32) + 1;
+            return (version << 32) | taken;
+        }
+    }
+}
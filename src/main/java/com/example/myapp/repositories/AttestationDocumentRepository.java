@@ -0,0 +1,38 @@
+package com.example.myapp.repositories;
+
+import com.example.myapp.entities.AttestationDocument;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface AttestationDocumentRepository extends JpaRepository<AttestationDocument, Long> {
+
+    @Query("select d.objectKey from AttestationDocument d where d.participationId = :participationId")
+    List<String> findObjectKeysByParticipationId(Long participationId);
+
+    /**
+     * Documents no longer handed out: replaced by a newer rendition for the same participation
+     * (a new template version or a renamed participant), or left by a deleted participation.
+     */
+    @Query("select d.objectKey from AttestationDocument d "
+            + "where exists (select n.id from AttestationDocument n where n.participationId = d.participationId and n.id > d.id) "
+            + "or not exists (select p.id from Participation p where p.id = d.participationId) "
+            + "order by d.id")
+    List<String> findSupersededObjectKeys(Limit limit);
+
+    /**
+     * In a transaction of its own: also called after a participation's deletion committed, while
+     * that finished transaction is still bound to the thread.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("delete from AttestationDocument d where d.objectKey = :objectKey")
+    int deleteByObjectKey(String objectKey);
+}
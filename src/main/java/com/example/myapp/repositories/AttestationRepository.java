@@ -1,11 +1,43 @@
 package com.example.myapp.repositories;
 
+import com.example.myapp.attestation.AttestationTemplate;
 import com.example.myapp.entities.Attestation;
+import com.example.myapp.payload.response.AttestationSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface AttestationRepository extends JpaRepository<Attestation, Long> {
+    String SUMMARY = "select new com.example.myapp.payload.response.AttestationSummary("
+            + "a.id, a.nom, a.description, e.id, e.titre) "
+            + "from Attestation a left join a.evenement e ";
+
     Attestation findByEvenementId(Long evenementId);
-}
 
+    @Query(SUMMARY + "where a.id = :id")
+    Optional<AttestationSummary> findSummaryById(Long id);
+
+    @Query(SUMMARY + "where e.id = :evenementId")
+    Optional<AttestationSummary> findSummaryByEvenementId(Long evenementId);
+
+    @Query("select new com.example.myapp.attestation.AttestationTemplate("
+            + "a.nom, a.description, e.id, e.titre, e.date, c.nom) "
+            + "from Attestation a join a.evenement e left join e.club c where e.id = :evenementId")
+    Optional<AttestationTemplate> findTemplateByEvenementId(Long evenementId);
+
+    @Query(SUMMARY + "where a.id > :afterId order by a.id")
+    List<AttestationSummary> findSummariesAfter(long afterId, Limit limit);
+
+    @Query(SUMMARY + "where a.id > :afterId order by a.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    Stream<AttestationSummary> streamSummariesAfter(long afterId);
+}
@@ -1,11 +1,32 @@
 package com.example.myapp.repositories;
 
 import com.example.myapp.entities.Club;
+import com.example.myapp.payload.response.ClubSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 
 @Repository
 public interface ClubRepository extends JpaRepository<Club, Long> {
+    String SUMMARY = "select new com.example.myapp.payload.response.ClubSummary("
+            + "c.id, c.nom, c.description, c.logopath) from Club c ";
+
     Club findByNom(String nom);
+
+    @Query(SUMMARY + "order by c.id")
+    List<ClubSummary> findAllSummaries();
+
+    @Query(SUMMARY + "where c.id = :id")
+    Optional<ClubSummary> findSummaryById(Long id);
+
+    @Query(SUMMARY + "where c.nom = :nom")
+    Optional<ClubSummary> findSummaryByNom(String nom);
+
+    @Query("select c.id from Club c where c.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
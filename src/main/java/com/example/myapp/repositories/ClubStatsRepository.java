@@ -0,0 +1,31 @@
+package com.example.myapp.repositories;
+
+import com.example.myapp.entities.ClubStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ClubStatsRepository extends JpaRepository<ClubStats, Long> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into club_stats (club_id) values (:clubId)", nativeQuery = true)
+    int insertEmpty(Long clubId);
+
+    /**
+     * Shifts the counters of one club in place, inside the caller's transaction, so they commit
+     * or roll back together with the write they describe.
+     */
+    @Transactional
+    @Modifying
+    @Query("update ClubStats s set s.memberCount = s.memberCount + :members, "
+            + "s.activeMemberCount = s.activeMemberCount + :activeMembers, "
+            + "s.pendingDemandCount = s.pendingDemandCount + :pendingDemands, "
+            + "s.eventCount = s.eventCount + :events, "
+            + "s.participationCount = s.participationCount + :participations "
+            + "where s.clubId = :clubId")
+    int adjust(Long clubId, long members, long activeMembers, long pendingDemands, long events, long participations);
+}
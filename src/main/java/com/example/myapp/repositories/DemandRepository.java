@@ -4,26 +4,91 @@ import com.example.myapp.entities.Demand;
 import com.example.myapp.entities.Club;
 import com.example.myapp.entities.User;
 import com.example.myapp.enums.DemandStatus;
+import com.example.myapp.payload.response.DemandSummary;
+import com.example.myapp.payload.response.IdPair;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface DemandRepository extends JpaRepository<Demand, Long> {
 
+    String SUMMARY = "select new com.example.myapp.payload.response.DemandSummary("
+            + "d.id, u.id, u.nom, u.prenom, c.id, c.nom, d.status, d.requestDate, d.responseDate, d.comment) "
+            + "from Demand d join d.user u join d.club c ";
+
+    @EntityGraph(Demand.WITH_USER_AND_CLUB)
     List<Demand> findByClub(Club club);
 
+    @EntityGraph(Demand.WITH_USER_AND_CLUB)
     List<Demand> findByUser(User user);
 
+    @EntityGraph(Demand.WITH_USER_AND_CLUB)
     List<Demand> findByStatus(DemandStatus status);
 
+    @EntityGraph(Demand.WITH_USER_AND_CLUB)
     List<Demand> findByClubAndStatus(Club club, DemandStatus status);
 
+    @EntityGraph(Demand.WITH_USER_AND_CLUB)
     List<Demand> findByUserAndStatus(User user, DemandStatus status);
 
+    @EntityGraph(Demand.WITH_USER_AND_CLUB)
     Optional<Demand> findFirstByUserAndClubOrderByRequestDateDesc(User user, Club club);
 
     boolean existsByUserAndClubAndStatus(User user, Club club, DemandStatus status);
-}
\ No newline at end of file
+
+    @Query("select new com.example.myapp.payload.response.IdPair(d.user.id, d.club.id) from Demand d where d.id in :ids")
+    List<IdPair> findUserClubPairsByIdIn(Collection<Long> ids);
+
+    @Query("select d.club.id from Demand d where d.id = :id")
+    Optional<Long> findClubIdById(Long id);
+
+    @Query("select d.id from Demand d where d.id in :ids and d.status = :status and d.responseDate = :at order by d.id")
+    List<Long> findIdsDecidedAt(Collection<Long> ids, DemandStatus status, Date at);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Demand d where d.id = :id and d.status = com.example.myapp.enums.DemandStatus.PENDING")
+    int deleteIfPending(Long id);
+
+    @Query(SUMMARY + "where d.id = :id")
+    Optional<DemandSummary> findSummaryById(Long id);
+
+    @Query(SUMMARY + "where c.id = :clubId order by d.requestDate desc")
+    List<DemandSummary> findSummariesByClubId(Long clubId);
+
+    @Query(SUMMARY + "where u.id = :userId order by d.requestDate desc")
+    List<DemandSummary> findSummariesByUserId(Long userId);
+
+    @Query(SUMMARY + "where d.status = :status order by d.requestDate desc")
+    List<DemandSummary> findSummariesByStatus(DemandStatus status);
+
+    @Query(SUMMARY + "where c.id = :clubId and d.status = :status order by d.requestDate desc")
+    List<DemandSummary> findSummariesByClubIdAndStatus(Long clubId, DemandStatus status);
+
+    @Query(SUMMARY + "where u.id = :userId and d.status = :status order by d.requestDate desc")
+    List<DemandSummary> findSummariesByUserIdAndStatus(Long userId, DemandStatus status);
+
+    @Query(SUMMARY + "where u.id = :userId and c.id = :clubId order by d.requestDate desc")
+    List<DemandSummary> findLatestSummaries(Long userId, Long clubId, Limit limit);
+
+    @Query(SUMMARY + "where d.id > :afterId order by d.id")
+    List<DemandSummary> findSummariesAfter(long afterId, Limit limit);
+
+    @Query(SUMMARY + "where d.id > :afterId order by d.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    Stream<DemandSummary> streamSummariesAfter(long afterId);
+}
@@ -2,15 +2,63 @@ package com.example.myapp.repositories;
 
 import com.example.myapp.entities.Evenement;
 import com.example.myapp.enums.EventType;
+import com.example.myapp.payload.response.EvenementCapacity;
+import com.example.myapp.payload.response.EvenementSummary;
+import com.example.myapp.payload.response.IdPair;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EvenementRepository extends JpaRepository<Evenement, Long> {
+    String SUMMARY = "select new com.example.myapp.payload.response.EvenementSummary("
+            + "e.id, e.titre, e.description, e.date, e.imageurl, e.eventType, c.id, c.nom) "
+            + "from Evenement e left join e.club c ";
+    String CAPACITY = "select new com.example.myapp.payload.response.EvenementCapacity(e.id, e.club.id, e.capacity) "
+            + "from Evenement e ";
+
     List<Evenement> findByClubId(Long clubId);
     List<Evenement> findByEventType(EventType eventType);
     List<Evenement> findByDateAfter(Date date);
-}
\ No newline at end of file
+
+    @Query("select e.club.id from Evenement e where e.id = :id")
+    Optional<Long> findClubIdById(Long id);
+
+    @Query(CAPACITY + "where e.id = :id")
+    Optional<EvenementCapacity> findCapacityById(Long id);
+
+    @Query(CAPACITY + "where e.id in :ids")
+    List<EvenementCapacity> findCapacitiesByIdIn(Collection<Long> ids);
+
+    @Query("select new com.example.myapp.payload.response.IdPair(e.id, e.club.id) from Evenement e where e.id in :ids")
+    List<IdPair> findClubIdPairsByIdIn(Collection<Long> ids);
+
+    @Query(SUMMARY + "where e.id = :id")
+    Optional<EvenementSummary> findSummaryById(Long id);
+
+    @Query(SUMMARY + "where c.id = :clubId order by e.date")
+    List<EvenementSummary> findSummariesByClubId(Long clubId);
+
+    @Query(SUMMARY + "where e.eventType = :eventType order by e.date")
+    List<EvenementSummary> findSummariesByEventType(EventType eventType);
+
+    @Query(SUMMARY + "where e.date > :date order by e.date")
+    List<EvenementSummary> findSummariesByDateAfter(Date date);
+
+    @Query(SUMMARY + "where e.id > :afterId order by e.id")
+    List<EvenementSummary> findSummariesAfter(long afterId, Limit limit);
+
+    @Query(SUMMARY + "where e.id > :afterId order by e.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    Stream<EvenementSummary> streamSummariesAfter(long afterId);
+}
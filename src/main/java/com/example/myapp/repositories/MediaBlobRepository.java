@@ -0,0 +1,27 @@
+package com.example.myapp.repositories;
+
+import com.example.myapp.entities.MediaBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update MediaBlob b set b.refCount = b.refCount + 1 where b.digest = :digest")
+    int retain(String digest);
+
+    @Transactional
+    @Modifying
+    @Query("update MediaBlob b set b.refCount = b.refCount - 1 where b.digest = :digest and b.refCount > 0")
+    int release(String digest);
+
+    @Transactional
+    @Modifying
+    @Query("delete from MediaBlob b where b.digest = :digest and b.refCount = 0")
+    int deleteIfUnreferenced(String digest);
+}
@@ -0,0 +1,53 @@
+package com.example.myapp.repositories;
+
+import com.example.myapp.entities.MediaVariant;
+import com.example.myapp.enums.VariantStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface MediaVariantRepository extends JpaRepository<MediaVariant, Long> {
+
+    List<MediaVariant> findByDigestOrderByWidth(String digest);
+
+    /**
+     * Least recently created or tried first, so a batch of images that keep failing cannot
+     * hold back the rest of the queue.
+     */
+    @Query("select v.digest from MediaVariant v where v.status = :status "
+            + "group by v.digest order by min(v.updatedAt), v.digest")
+    List<String> findDigestsByStatus(VariantStatus status, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("update MediaVariant v set v.attempts = v.attempts + 1, v.updatedAt = current_timestamp "
+            + "where v.digest = :digest and v.status = com.example.myapp.enums.VariantStatus.PENDING")
+    int recordAttempt(String digest);
+
+    @Transactional
+    @Modifying
+    @Query("update MediaVariant v set v.status = com.example.myapp.enums.VariantStatus.FAILED, "
+            + "v.updatedAt = current_timestamp where v.digest = :digest "
+            + "and v.status = com.example.myapp.enums.VariantStatus.PENDING and v.attempts >= :maxAttempts")
+    int failExhausted(String digest, int maxAttempts);
+
+    /**
+     * Only moves PENDING rows, so a retried or duplicated job cannot overwrite a finished one.
+     */
+    @Transactional
+    @Modifying
+    @Query("update MediaVariant v set v.status = :status, v.objectKey = :objectKey, v.size = :size, "
+            + "v.updatedAt = current_timestamp where v.id = :id and v.status = com.example.myapp.enums.VariantStatus.PENDING")
+    int complete(Long id, VariantStatus status, String objectKey, long size);
+
+    @Transactional
+    @Modifying
+    @Query("delete from MediaVariant v where v.digest = :digest")
+    int deleteByDigest(String digest);
+}
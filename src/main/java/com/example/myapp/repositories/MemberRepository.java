@@ -3,26 +3,87 @@ package com.example.myapp.repositories;
 import com.example.myapp.entities.Member;
 import com.example.myapp.entities.Club;
 import com.example.myapp.entities.User;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.MemberSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MemberRepository extends JpaRepository<Member, Long> {
 
+    String SUMMARY = "select new com.example.myapp.payload.response.MemberSummary("
+            + "m.id, u.id, u.nom, u.prenom, c.id, c.nom, m.joinDate, m.isActive) "
+            + "from Member m join m.user u join m.club c ";
+
+    @EntityGraph(Member.WITH_USER_AND_CLUB)
     List<Member> findByClub(Club club);
 
+    @EntityGraph(Member.WITH_USER_AND_CLUB)
     List<Member> findByUser(User user);
 
+    @EntityGraph(Member.WITH_USER_AND_CLUB)
     Optional<Member> findByUserAndClub(User user, Club club);
 
+    @EntityGraph(Member.WITH_USER_AND_CLUB)
     List<Member> findByClubAndIsActiveTrue(Club club);
 
+    @EntityGraph(Member.WITH_USER_AND_CLUB)
     List<Member> findByUserAndIsActiveTrue(User user);
 
     boolean existsByUserAndClub(User user, Club club);
 
+    boolean existsByUserIdAndClubIdAndIsActiveTrue(Long userId, Long clubId);
+
+    @Query("select new com.example.myapp.payload.response.IdPair(m.user.id, m.club.id) from Member m "
+            + "where m.user.id in :userIds and m.club.id in :clubIds")
+    List<IdPair> findUserClubPairs(Collection<Long> userIds, Collection<Long> clubIds);
+
+    @Query("select new com.example.myapp.payload.response.IdPair(m.user.id, m.club.id) from Member m "
+            + "where m.isActive = true and m.user.id in :userIds and m.club.id in :clubIds")
+    List<IdPair> findActiveUserClubPairs(Collection<Long> userIds, Collection<Long> clubIds);
+
+    /**
+     * (club id, user id) of every active membership, grouped by club.
+     */
+    @Query("select new com.example.myapp.payload.response.IdPair(m.club.id, m.user.id) from Member m "
+            + "where m.isActive = true order by m.club.id, m.user.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1024"))
+    Stream<IdPair> streamActiveClubUserPairs();
+
     long countByClub(Club club);
-}
\ No newline at end of file
+
+    long countByClubIdAndIsActiveTrue(Long clubId);
+
+    @Query(SUMMARY + "where m.id = :id")
+    Optional<MemberSummary> findSummaryById(Long id);
+
+    @Query(SUMMARY + "where c.id = :clubId order by m.id")
+    List<MemberSummary> findSummariesByClubId(Long clubId);
+
+    @Query(SUMMARY + "where c.id = :clubId and m.isActive = true order by m.id")
+    List<MemberSummary> findActiveSummariesByClubId(Long clubId);
+
+    @Query(SUMMARY + "where u.id = :userId order by m.id")
+    List<MemberSummary> findSummariesByUserId(Long userId);
+
+    @Query(SUMMARY + "where u.id = :userId and m.isActive = true order by m.id")
+    List<MemberSummary> findActiveSummariesByUserId(Long userId);
+
+    @Query(SUMMARY + "where m.id > :afterId order by m.id")
+    List<MemberSummary> findSummariesAfter(long afterId, Limit limit);
+
+    @Query(SUMMARY + "where m.id > :afterId order by m.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    Stream<MemberSummary> streamSummariesAfter(long afterId);
+}
@@ -1,15 +1,92 @@
 package com.example.myapp.repositories;
 
 import com.example.myapp.entities.Participation;
+import com.example.myapp.payload.response.CheckinEntry;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.ParticipationSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ParticipationRepository extends JpaRepository<Participation, Long> {
+    String SUMMARY = "select new com.example.myapp.payload.response.ParticipationSummary("
+            + "p.id, p.date, u.id, u.nom, u.prenom, e.id, e.titre) "
+            + "from Participation p left join p.user u left join p.evenement e ";
+    String CHECKIN = "select new com.example.myapp.payload.response.CheckinEntry("
+            + "p.id, e.id, u.id, u.nom, u.prenom, p.checkedInAt) "
+            + "from Participation p left join p.user u join p.evenement e ";
+
+    @EntityGraph(Participation.WITH_USER_AND_EVENEMENT)
     List<Participation> findByUserId(Long userId);
+
+    @EntityGraph(Participation.WITH_USER_AND_EVENEMENT)
     List<Participation> findByEvenementId(Long evenementId);
+
+    @EntityGraph(Participation.WITH_USER_AND_EVENEMENT)
     Participation findByUserIdAndEvenementId(Long userId, Long evenementId);
-}
 
+    @Query("select new com.example.myapp.payload.response.IdPair(p.user.id, p.evenement.id) from Participation p "
+            + "where p.user.id in :userIds and p.evenement.id in :evenementIds")
+    List<IdPair> findUserEvenementPairs(Collection<Long> userIds, Collection<Long> evenementIds);
+
+    @Query("select new com.example.myapp.payload.response.IdPair(p.user.id, p.evenement.id) from Participation p "
+            + "where p.id = :id")
+    Optional<IdPair> findUserEvenementPairById(Long id);
+
+    @Query("select new com.example.myapp.payload.response.IdPair(p.evenement.id, p.user.id) from Participation p "
+            + "order by p.evenement.id, p.user.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1024"))
+    Stream<IdPair> streamEvenementUserPairs();
+
+    @Query("select e.club.id from Participation p join p.evenement e where p.id = :id")
+    Optional<Long> findClubIdById(Long id);
+
+    @Query("select new com.example.myapp.payload.response.IdPair(p.user.id, e.club.id) from Participation p "
+            + "join p.evenement e where p.id = :id")
+    Optional<IdPair> findUserClubPairById(Long id);
+
+    long countByEvenementId(Long evenementId);
+
+    @Query("select new com.example.myapp.payload.response.IdPair(p.evenement.id, count(p)) from Participation p "
+            + "where p.evenement.id in :evenementIds group by p.evenement.id")
+    List<IdPair> countByEvenementIdIn(Collection<Long> evenementIds);
+
+    @Query(SUMMARY + "where p.id = :id")
+    Optional<ParticipationSummary> findSummaryById(Long id);
+
+    @Query(SUMMARY + "where u.id = :userId order by p.id")
+    List<ParticipationSummary> findSummariesByUserId(Long userId);
+
+    @Query(SUMMARY + "where e.id = :evenementId order by p.id")
+    List<ParticipationSummary> findSummariesByEvenementId(Long evenementId);
+
+    @Query(SUMMARY + "where e.id = :evenementId and p.id > :afterId order by p.id")
+    List<ParticipationSummary> findSummariesByEvenementIdAfter(Long evenementId, long afterId, Limit limit);
+
+    @Query(SUMMARY + "where u.id = :userId and e.id = :evenementId")
+    Optional<ParticipationSummary> findSummaryByUserIdAndEvenementId(Long userId, Long evenementId);
+
+    @Query(CHECKIN + "where e.id = :evenementId")
+    List<CheckinEntry> findCheckinEntriesByEvenementId(Long evenementId);
+
+    @Query(CHECKIN + "where p.id = :id")
+    Optional<CheckinEntry> findCheckinEntryById(Long id);
+
+    @Query(SUMMARY + "where p.id > :afterId order by p.id")
+    List<ParticipationSummary> findSummariesAfter(long afterId, Limit limit);
+
+    @Query(SUMMARY + "where p.id > :afterId order by p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    Stream<ParticipationSummary> streamSummariesAfter(long afterId);
+}
@@ -3,22 +3,55 @@ package com.example.myapp.repositories;
 import com.example.myapp.entities.President;
 import com.example.myapp.entities.Club;
 import com.example.myapp.entities.User;
+import com.example.myapp.payload.response.PresidentSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PresidentRepository extends JpaRepository<President, Long> {
 
+    String SUMMARY = "select new com.example.myapp.payload.response.PresidentSummary("
+            + "p.id, u.id, u.nom, u.prenom, c.id, c.nom, p.startDate, p.endDate, p.isCurrent) "
+            + "from President p join p.user u join p.club c ";
+
+    @EntityGraph(President.WITH_USER_AND_CLUB)
     Optional<President> findByClubAndIsCurrentTrue(Club club);
 
+    @EntityGraph(President.WITH_USER_AND_CLUB)
     Optional<President> findByUserAndIsCurrentTrue(User user);
 
+    @EntityGraph(President.WITH_USER_AND_CLUB)
     List<President> findByClubOrderByStartDateDesc(Club club);
 
     boolean existsByUserAndIsCurrentTrue(User user);
 
+    boolean existsByUserIdAndClubIdAndIsCurrentTrue(Long userId, Long clubId);
+
     boolean existsByClubAndIsCurrentTrue(Club club);
-}
\ No newline at end of file
+
+    @Query(SUMMARY + "where p.id = :id")
+    Optional<PresidentSummary> findSummaryById(Long id);
+
+    @Query(SUMMARY + "where c.id = :clubId and p.isCurrent = true")
+    Optional<PresidentSummary> findCurrentSummaryByClubId(Long clubId);
+
+    @Query(SUMMARY + "where c.id = :clubId order by p.startDate desc")
+    List<PresidentSummary> findHistorySummariesByClubId(Long clubId);
+
+    @Query(SUMMARY + "where p.id > :afterId order by p.id")
+    List<PresidentSummary> findSummariesAfter(long afterId, Limit limit);
+
+    @Query(SUMMARY + "where p.id > :afterId order by p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    Stream<PresidentSummary> streamSummariesAfter(long afterId);
+}
@@ -2,15 +2,57 @@ package com.example.myapp.repositories;
 
 import com.example.myapp.entities.User;
 import com.example.myapp.enums.Role;
+import com.example.myapp.payload.response.UserSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    String SUMMARY = "select new com.example.myapp.payload.response.UserSummary("
+            + "u.id, u.nom, u.prenom, u.email, u.role, u.avatar) from User u ";
+
     Optional<User> findByEmail(String email);
     List<User> findByRole(Role role);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.mdp = :mdp where u.id = :id")
+    int updatePassword(Long id, String mdp);
+
+    @Query(SUMMARY + "where u.id = :id")
+    Optional<UserSummary> findSummaryById(Long id);
+
+    @Query(SUMMARY + "where u.email = :email")
+    Optional<UserSummary> findSummaryByEmail(String email);
+
+    @Query(SUMMARY + "where u.email in :emails")
+    List<UserSummary> findSummariesByEmailIn(Collection<String> emails);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.role = :to where u.id in :ids and u.role = :from")
+    int updateRoles(Collection<Long> ids, Role from, Role to);
+
+    @Query(SUMMARY + "where u.role = :role order by u.id")
+    List<UserSummary> findSummariesByRole(Role role);
+
+    @Query(SUMMARY + "where u.id > :afterId order by u.id")
+    List<UserSummary> findSummariesAfter(long afterId, Limit limit);
+
+    @Query(SUMMARY + "where u.id > :afterId order by u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    Stream<UserSummary> streamSummariesAfter(long afterId);
+}
@@ -0,0 +1,41 @@
+package com.example.myapp.repositories;
+
+import com.example.myapp.entities.WaitlistEntry;
+import com.example.myapp.payload.response.IdPair;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    /**
+     * (entry id, user id) of the oldest entries of an event.
+     */
+    @Query("select new com.example.myapp.payload.response.IdPair(w.id, w.user.id) from WaitlistEntry w "
+            + "where w.evenement.id = :evenementId order by w.id")
+    List<IdPair> findHeadByEvenementId(Long evenementId, Limit limit);
+
+    @Query("select w.id from WaitlistEntry w where w.evenement.id = :evenementId and w.user.id = :userId")
+    Optional<Long> findIdByEvenementIdAndUserId(Long evenementId, Long userId);
+
+    @Query("select count(w) from WaitlistEntry w where w.evenement.id = :evenementId and w.id <= :id")
+    long countUpTo(Long evenementId, Long id);
+
+    /**
+     * Zero when another caller removed the entry first, which is how concurrent promotions of
+     * the same head are told apart.
+     */
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.id = :id")
+    int deleteEntry(Long id);
+
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.evenement.id = :evenementId and w.user.id = :userId")
+    int deleteByEvenementIdAndUserId(Long evenementId, Long userId);
+}
@@ -0,0 +1,110 @@
+package com.example.myapp.search;
+
+import com.example.myapp.enums.SearchType;
+import com.example.myapp.payload.response.SearchResults;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.utils.AfterCommit;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keyword search over clubs, events and users, answered from a local {@link SearchIndex}.
+ * The services report their saves and deletes here and the index follows once the
+ * transaction has committed; {@link #rebuild()} reloads everything at startup and
+ * periodically, to pick up writes made elsewhere (another instance, bulk SQL).
+ * <p>
+ * The index lives in memory unless {@code app.search.index-dir} names a directory.
+ */
+@Component
+public class ContentSearch implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentSearch.class);
+
+    private final ClubRepository clubRepository;
+    private final EvenementRepository evenementRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnly;
+    private final SearchIndex index;
+    private final Object writeLock = new Object();
+
+    @Autowired
+    public ContentSearch(ClubRepository clubRepository, EvenementRepository evenementRepository,
+                         UserRepository userRepository, PlatformTransactionManager transactionManager,
+                         @Value("${app.search.index-dir:}") String indexDir) throws IOException {
+        this.clubRepository = clubRepository;
+        this.evenementRepository = evenementRepository;
+        this.userRepository = userRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.index = new SearchIndex(indexDir.isBlank()
+                ? new ByteBuffersDirectory()
+                : FSDirectory.open(Paths.get(indexDir).toAbsolutePath().normalize()));
+    }
+
+    public SearchResults search(String text, Set<SearchType> types, int page, int size) {
+        return index.search(text, types, page, size);
+    }
+
+    public void changed(SearchDocument document) {
+        changed(List.of(document));
+    }
+
+    public void changed(Collection<SearchDocument> documents) {
+        AfterCommit.run(() -> {
+            synchronized (writeLock) {
+                index.upsert(documents);
+            }
+        });
+    }
+
+    public void deleted(SearchType type, Long id) {
+        AfterCommit.run(() -> {
+            synchronized (writeLock) {
+                index.delete(type, id);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.search.rebuild-interval:PT1H}",
+            initialDelayString = "${app.search.rebuild-interval:PT1H}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        // The reads run under the write lock so a change committed meanwhile is applied after the rebuild, not lost by it
+        synchronized (writeLock) {
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<SearchDocument> clubs = clubRepository.findAllSummaries().stream().map(SearchDocument::of);
+                     Stream<SearchDocument> evenements = evenementRepository.streamSummariesAfter(0L).map(SearchDocument::of);
+                     Stream<SearchDocument> users = userRepository.streamSummariesAfter(0L).map(SearchDocument::of)) {
+                    index.replaceAll(Stream.of(clubs, evenements, users).flatMap(documents -> documents).iterator());
+                }
+            });
+        }
+        log.info("Search index rebuilt in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        index.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.myapp.search;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.SearchType;
+import com.example.myapp.payload.response.ClubSummary;
+import com.example.myapp.payload.response.EvenementSummary;
+import com.example.myapp.payload.response.UserSummary;
+
+/**
+ * What the search index keeps of a club, event or user: {@code title} ranks above
+ * {@code text}, and {@code subtitle} is only shown in hits.
+ */
+public record SearchDocument(SearchType type, Long id, String title, String subtitle, String text) {
+
+    private static final int SUBTITLE_LENGTH = 160;
+
+    public static SearchDocument of(Club club) {
+        return club(club.getId(), club.getNom(), club.getDescription());
+    }
+
+    public static SearchDocument of(ClubSummary club) {
+        return club(club.id(), club.nom(), club.description());
+    }
+
+    public static SearchDocument of(Evenement evenement) {
+        return evenement(evenement.getId(), evenement.getTitre(), evenement.getDescription());
+    }
+
+    public static SearchDocument of(EvenementSummary evenement) {
+        return evenement(evenement.id(), evenement.titre(), evenement.description());
+    }
+
+    public static SearchDocument of(User user) {
+        return user(user.getId(), user.getPrenom(), user.getNom(), user.getEmail());
+    }
+
+    public static SearchDocument of(UserSummary user) {
+        return user(user.id(), user.prenom(), user.nom(), user.email());
+    }
+
+    private static SearchDocument club(Long id, String nom, String description) {
+        return new SearchDocument(SearchType.CLUB, id, nom, abbreviate(description), description);
+    }
+
+    private static SearchDocument evenement(Long id, String titre, String description) {
+        return new SearchDocument(SearchType.EVENEMENT, id, titre, abbreviate(description), description);
+    }
+
+    private static SearchDocument user(Long id, String prenom, String nom, String email) {
+        return new SearchDocument(SearchType.USER, id, join(prenom, nom), email, email);
+    }
+
+    private static String join(String first, String second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null ? first : first + " " + second;
+    }
+
+    private static String abbreviate(String text) {
+        if (text == null || text.length() <= SUBTITLE_LENGTH) {
+            return text;
+        }
+        return text.substring(0, SUBTITLE_LENGTH - 1) + "…";
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.myapp.search;
+
+import com.example.myapp.enums.SearchType;
+import com.example.myapp.payload.response.SearchHit;
+import com.example.myapp.payload.response.SearchResults;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.fr.FrenchAnalyzer;
+import org.apache.lucene.analysis.fr.FrenchLightStemFilter;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.util.ElisionFilter;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Embedded Lucene index over clubs, events and users. Text is split on word boundaries,
+ * French elisions (l', d', qu'...) and stop words are dropped and accents are folded, so
+ * "evenement" finds "Événement". Each field is indexed twice: light-stemmed, where a whole
+ * word scores (singular and plural alike), and as every leading part of every word, where the
+ * last query word also matches as a prefix for search-as-you-type. Storing the prefixes makes
+ * an unfinished word one term lookup instead of a union over every word it starts. Every
+ * query word must match somewhere, and title matches outrank text matches.
+ * <p>
+ * Writes are visible to the next search; searches never wait for writes.
+ */
+public class SearchIndex implements Closeable {
+
+    static final String KEY = "key";
+    static final String TYPE = "type";
+    static final String ID = "id";
+    static final String TITLE = "title";
+    static final String TITLE_PREFIX = "title_prefix";
+    static final String SUBTITLE = "subtitle";
+    static final String TEXT = "text";
+    static final String TEXT_PREFIX = "text_prefix";
+
+    // Longer prefixes are looked up by their first MAX_PREFIX characters
+    private static final int MAX_PREFIX = 16;
+
+    private final Directory directory;
+    private final Analyzer words = new FrenchFoldingAnalyzer(false, false);
+    private final Analyzer stems = new FrenchFoldingAnalyzer(true, false);
+    private final Analyzer prefixes = new FrenchFoldingAnalyzer(false, true);
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public SearchIndex(Directory directory) throws IOException {
+        this.directory = directory;
+        Analyzer perField = new PerFieldAnalyzerWrapper(stems, Map.of(TITLE_PREFIX, prefixes, TEXT_PREFIX, prefixes));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(perField)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * Ranked page {@code page} (0-based) of the documents matching every word of {@code text},
+     * restricted to {@code types} unless it is empty.
+     */
+    public SearchResults search(String text, Set<SearchType> types, int page, int size) {
+        Query query = query(text, types);
+        if (query == null) {
+            return new SearchResults(List.of(), page, null);
+        }
+        int from = page * size;
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                // One hit more than the page tells whether there is a next one. Plain top-k by score
+                // lets Lucene skip blocks that cannot make it; ties fall in index order
+                ScoreDoc[] docs = searcher.search(query, from + size + 1).scoreDocs;
+                StoredFields storedFields = searcher.storedFields();
+                List<SearchHit> hits = new ArrayList<>(size);
+                for (int i = from; i < Math.min(docs.length, from + size); i++) {
+                    Document document = storedFields.document(docs[i].doc);
+                    hits.add(new SearchHit(SearchType.valueOf(document.get(TYPE)),
+                            document.getField(ID).numericValue().longValue(),
+                            document.get(TITLE), document.get(SUBTITLE), docs[i].score));
+                }
+                return new SearchResults(hits, page, docs.length > from + size ? page + 1 : null);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void upsert(Collection<SearchDocument> documents) {
+        try {
+            for (SearchDocument document : documents) {
+                writer.updateDocument(keyOf(document.type(), document.id()), toLucene(document));
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete(SearchType type, Long id) {
+        try {
+            writer.deleteDocuments(keyOf(type, id));
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replaces the whole content. Searches keep seeing the previous content until the new one
+     * is complete; callers must not write concurrently.
+     */
+    public void replaceAll(Iterator<SearchDocument> documents) {
+        try {
+            writer.deleteAll();
+            while (documents.hasNext()) {
+                writer.addDocument(toLucene(documents.next()));
+            }
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private Query query(String text, Set<SearchType> types) {
+        List<String> tokens = analyze(words, text);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        // Only the word being typed can be unfinished; prefix expansion on every word costs more than it finds
+        boolean typing = !Character.isWhitespace(text.charAt(text.length() - 1));
+        BooleanQuery.Builder all = new BooleanQuery.Builder();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            List<String> stemmed = analyze(stems, token);
+            String stem = stemmed.isEmpty() ? token : stemmed.get(0);
+            BooleanQuery.Builder word = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(TITLE, stem)), 4f), BooleanClause.Occur.SHOULD)
+                    .add(new TermQuery(new Term(TEXT, stem)), BooleanClause.Occur.SHOULD);
+            if (typing && i == tokens.size() - 1) {
+                String prefix = token.length() > MAX_PREFIX ? token.substring(0, MAX_PREFIX) : token;
+                word.add(new BoostQuery(new TermQuery(new Term(TITLE_PREFIX, prefix)), 2f), BooleanClause.Occur.SHOULD)
+                        .add(new BoostQuery(new TermQuery(new Term(TEXT_PREFIX, prefix)), 0.5f), BooleanClause.Occur.SHOULD);
+            }
+            all.add(word.build(), BooleanClause.Occur.MUST);
+        }
+        if (!types.isEmpty() && !types.containsAll(EnumSet.allOf(SearchType.class))) {
+            BooleanQuery.Builder anyType = new BooleanQuery.Builder();
+            types.forEach(type -> anyType.add(new TermQuery(new Term(TYPE, type.name())), BooleanClause.Occur.SHOULD));
+            all.add(anyType.build(), BooleanClause.Occur.FILTER);
+        }
+        return all.build();
+    }
+
+    private static List<String> analyze(Analyzer analyzer, String text) {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(TEXT, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+
+    private static Term keyOf(SearchType type, Long id) {
+        return new Term(KEY, type.name() + ":" + id);
+    }
+
+    private static Document toLucene(SearchDocument source) {
+        Document document = new Document();
+        document.add(new StringField(KEY, keyOf(source.type(), source.id()).text(), Field.Store.NO));
+        document.add(new StringField(TYPE, source.type().name(), Field.Store.YES));
+        document.add(new StoredField(ID, source.id()));
+        if (source.title() != null) {
+            document.add(new TextField(TITLE, source.title(), Field.Store.YES));
+            document.add(new TextField(TITLE_PREFIX, source.title(), Field.Store.NO));
+        }
+        if (source.subtitle() != null) {
+            document.add(new StoredField(SUBTITLE, source.subtitle()));
+        }
+        if (source.text() != null) {
+            document.add(new TextField(TEXT, source.text(), Field.Store.NO));
+            document.add(new TextField(TEXT_PREFIX, source.text(), Field.Store.NO));
+        }
+        return document;
+    }
+
+    private static final class FrenchFoldingAnalyzer extends Analyzer {
+
+        private final boolean stem;
+        private final boolean prefixes;
+
+        FrenchFoldingAnalyzer(boolean stem, boolean prefixes) {
+            this.stem = stem;
+            this.prefixes = prefixes;
+        }
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer source = new StandardTokenizer();
+            TokenStream stream = new ElisionFilter(source, FrenchAnalyzer.DEFAULT_ARTICLES);
+            stream = new LowerCaseFilter(stream);
+            stream = new StopFilter(stream, FrenchAnalyzer.getDefaultStopSet());
+            stream = new ASCIIFoldingFilter(stream);
+            if (stem) {
+                stream = new FrenchLightStemFilter(stream);
+            }
+            if (prefixes) {
+                stream = new EdgeNGramTokenFilter(stream, 1, MAX_PREFIX, true);
+            }
+            return new TokenStreamComponents(source, stream);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.myapp.services;
 
+import com.example.myapp.attestation.AttestationTemplate;
 import com.example.myapp.entities.Attestation;
+import com.example.myapp.payload.response.AttestationSummary;
+import com.example.myapp.payload.response.CursorPage;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AttestationService {
     List<Attestation> getAllAttestations();
@@ -11,4 +15,9 @@ public interface AttestationService {
     Attestation getAttestationByEvenementId(Long evenementId);
     Attestation saveAttestation(Attestation attestation);
     void deleteAttestation(Long id);
+    Optional<AttestationSummary> getAttestationSummaryById(Long id);
+    Optional<AttestationSummary> getAttestationSummaryByEvenementId(Long evenementId);
+    Optional<AttestationTemplate> getTemplateByEvenementId(Long evenementId);
+    CursorPage<AttestationSummary> getAttestationsPage(long afterId, int limit);
+    void streamAttestations(long afterId, Consumer<? super AttestationSummary> consumer);
 }
@@ -0,0 +1,15 @@
+package com.example.myapp.services;
+
+import com.example.myapp.auth.AuthPrincipal;
+import com.example.myapp.payload.request.LoginRequest;
+import com.example.myapp.payload.response.AuthTokens;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AuthService {
+    CompletableFuture<AuthTokens> login(LoginRequest loginRequest, String clientAddress);
+    AuthTokens refresh(String refreshToken);
+    void logout(AuthPrincipal principal);
+    AuthPrincipal authenticate(String accessToken);
+    void revokeAll(Long userId);
+}
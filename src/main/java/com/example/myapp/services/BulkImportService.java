@@ -0,0 +1,10 @@
+package com.example.myapp.services;
+
+import com.example.myapp.payload.response.ImportReport;
+import com.example.myapp.utils.ImportRowReader;
+
+public interface BulkImportService {
+    ImportReport importUsers(ImportRowReader rows);
+    ImportReport importMembers(ImportRowReader rows);
+    ImportReport importParticipations(ImportRowReader rows);
+}
@@ -1,6 +1,7 @@
 package com.example.myapp.services;
 
 import com.example.myapp.entities.Club;
+import com.example.myapp.payload.response.ClubSummary;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,5 +12,8 @@ public interface ClubService {
     Club getClubByNom(String nom);
     Club saveClub(Club club);
     void deleteClub(Long id);
+    List<ClubSummary> getAllClubSummaries();
+    Optional<ClubSummary> getClubSummaryById(Long id);
+    Optional<ClubSummary> getClubSummaryByNom(String nom);
 
 }
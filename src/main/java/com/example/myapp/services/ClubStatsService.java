@@ -0,0 +1,30 @@
+package com.example.myapp.services;
+
+import com.example.myapp.entities.ClubStats;
+
+import java.util.Optional;
+
+public interface ClubStatsService {
+
+    /**
+     * Counters of one club, read from its club_stats row. Empty when the club does not exist.
+     */
+    Optional<ClubStats> getStats(Long clubId);
+
+    void clubCreated(Long clubId);
+
+    void membersChanged(Long clubId, long members, long activeMembers);
+
+    void pendingDemandsChanged(Long clubId, long pendingDemands);
+
+    void eventsChanged(Long clubId, long events);
+
+    void participationsChanged(Long clubId, long participations);
+
+    /**
+     * Recounts every club from the source tables and corrects the rows that drifted.
+     *
+     * @return number of clubs whose counters were corrected or created
+     */
+    int reconcile();
+}
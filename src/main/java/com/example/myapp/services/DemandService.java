@@ -4,9 +4,14 @@ import com.example.myapp.entities.Demand;
 import com.example.myapp.entities.Club;
 import com.example.myapp.entities.User;
 import com.example.myapp.enums.DemandStatus;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.DemandBatchResult;
+import com.example.myapp.payload.response.DemandSummary;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface DemandService {
 
@@ -38,5 +43,27 @@ public interface DemandService {
 
     Demand rejectDemand(Long demandId, String rejectionReason);
 
+    DemandBatchResult decideDemands(Long clubId, Collection<Long> approveIds, Collection<Long> rejectIds, String rejectionReason);
+
     boolean cancelDemand(Long demandId);
-}
\ No newline at end of file
+
+    Optional<DemandSummary> findSummaryById(Long id);
+
+    Optional<Long> findClubIdById(Long id);
+
+    List<DemandSummary> findSummariesByClubId(Long clubId);
+
+    List<DemandSummary> findPendingSummariesByClubId(Long clubId);
+
+    List<DemandSummary> findSummariesByUserId(Long userId);
+
+    List<DemandSummary> findPendingSummariesByUserId(Long userId);
+
+    List<DemandSummary> findSummariesByStatus(DemandStatus status);
+
+    Optional<DemandSummary> getLatestDemandSummary(Long userId, Long clubId);
+
+    CursorPage<DemandSummary> findPage(long afterId, int limit);
+
+    void streamAll(long afterId, Consumer<? super DemandSummary> consumer);
+}
@@ -2,10 +2,13 @@ package com.example.myapp.services;
 
 import com.example.myapp.entities.Evenement;
 import com.example.myapp.enums.EventType;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.EvenementSummary;
 
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EvenementService {
     List<Evenement> getAllEvenements();
@@ -16,4 +19,10 @@ public interface EvenementService {
     Evenement saveEvenement(Evenement evenement);
     void updateEvenement(Evenement evenement);
     void deleteEvenement(Long id);
+    Optional<EvenementSummary> getEvenementSummaryById(Long id);
+    List<EvenementSummary> getEvenementSummariesByClubId(Long clubId);
+    List<EvenementSummary> getEvenementSummariesByType(EventType eventType);
+    List<EvenementSummary> getUpcomingEvenementSummaries(Date date);
+    CursorPage<EvenementSummary> getEvenementsPage(long afterId, int limit);
+    void streamEvenements(long afterId, Consumer<? super EvenementSummary> consumer);
 }
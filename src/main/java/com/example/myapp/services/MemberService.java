@@ -3,9 +3,14 @@ package com.example.myapp.services;
 import com.example.myapp.entities.Member;
 import com.example.myapp.entities.Club;
 import com.example.myapp.entities.User;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.MemberSummary;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface MemberService {
 
@@ -31,11 +36,34 @@ public interface MemberService {
 
     long getMemberCount(Club club);
 
+    long getActiveMemberCount(Club club);
+
+    /**
+     * Ids of the users who are active members of both clubs, in ascending order.
+     */
+    List<Long> findSharedActiveUserIds(Club club, Club otherClub);
+
     Member addMember(User user, Club club);
 
+    void addMembers(Collection<IdPair> userClubPairs);
+
     boolean removeMember(User user, Club club);
 
     boolean deactivateMember(User user, Club club);
 
     boolean reactivateMember(User user, Club club);
-}
\ No newline at end of file
+
+    Optional<MemberSummary> findSummaryById(Long id);
+
+    List<MemberSummary> findSummariesByClubId(Long clubId);
+
+    List<MemberSummary> findActiveSummariesByClubId(Long clubId);
+
+    List<MemberSummary> findSummariesByUserId(Long userId);
+
+    List<MemberSummary> findActiveSummariesByUserId(Long userId);
+
+    CursorPage<MemberSummary> findPage(long afterId, int limit);
+
+    void streamAll(long afterId, Consumer<? super MemberSummary> consumer);
+}
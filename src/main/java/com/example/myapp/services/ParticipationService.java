@@ -1,9 +1,13 @@
 package com.example.myapp.services;
 
 import com.example.myapp.entities.Participation;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.ParticipationSummary;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author Vermeg
@@ -16,4 +20,12 @@ public interface ParticipationService {
     Participation getParticipationByUserAndEvenement(Long userId, Long evenementId);
     Participation saveParticipation(Participation participation);
     void deleteParticipation(Long id);
+    Optional<ParticipationSummary> getParticipationSummaryById(Long id);
+    /** The participant (left) and the club of the event (right), without loading either. */
+    Optional<IdPair> getUserClubPairById(Long id);
+    List<ParticipationSummary> getParticipationSummariesByUserId(Long userId);
+    List<ParticipationSummary> getParticipationSummariesByEvenementId(Long evenementId);
+    Optional<ParticipationSummary> getParticipationSummaryByUserAndEvenement(Long userId, Long evenementId);
+    CursorPage<ParticipationSummary> getParticipationsPage(long afterId, int limit);
+    void streamParticipations(long afterId, Consumer<? super ParticipationSummary> consumer);
 }
@@ -3,10 +3,13 @@ package com.example.myapp.services;
 import com.example.myapp.entities.President;
 import com.example.myapp.entities.Club;
 import com.example.myapp.entities.User;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.PresidentSummary;
 
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface PresidentService {
 
@@ -26,6 +29,8 @@ public interface PresidentService {
 
     boolean isUserCurrentlyPresident(User user);
 
+    boolean isCurrentPresident(Long userId, Long clubId);
+
     boolean hasClubCurrentPresident(Club club);
 
     President appointPresident(User user, Club club);
@@ -35,4 +40,14 @@ public interface PresidentService {
     boolean changePresident(Club club, User newPresident);
 
     boolean endPresidency(Club club, Date endDate);
-}
\ No newline at end of file
+
+    Optional<PresidentSummary> findSummaryById(Long id);
+
+    Optional<PresidentSummary> findCurrentPresidentSummaryByClubId(Long clubId);
+
+    List<PresidentSummary> getPresidentHistorySummaries(Long clubId);
+
+    CursorPage<PresidentSummary> findPage(long afterId, int limit);
+
+    void streamAll(long afterId, Consumer<? super PresidentSummary> consumer);
+}
@@ -4,9 +4,14 @@ import com.example.myapp.entities.User;
 import com.example.myapp.enums.Role;
 import com.example.myapp.payload.request.LoginRequest;
 import com.example.myapp.payload.request.SignupRequest;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.UserSummary;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 
 public interface UserService {
@@ -14,10 +19,18 @@ public interface UserService {
     Optional<User> getUserById(Long id);
     Optional<User> getUserByEmail(String email);
     List<User> getUsersByRole(Role role);
-    User registerUser(SignupRequest signupRequest);
-    User authenticateUser(LoginRequest loginRequest);
+    CompletableFuture<User> registerUser(SignupRequest signupRequest);
+    CompletableFuture<User> authenticateUser(LoginRequest loginRequest, String clientAddress);
+    CompletableFuture<String> encodePassword(String rawPassword);
+    /** {@code currentHash} itself when it already is the hash of {@code rawPassword}, else a new hash. */
+    CompletableFuture<String> encodePasswordIfChanged(String rawPassword, String currentHash);
     boolean existsByEmail(String email);
     User saveUser(User user);
     void deleteUser(Long id);
+    int updateRoles(Collection<Long> ids, Role from, Role to);
+    Optional<UserSummary> getUserSummaryById(Long id);
+    Optional<UserSummary> getUserSummaryByEmail(String email);
+    List<UserSummary> getUserSummariesByRole(Role role);
+    CursorPage<UserSummary> getUsersPage(long afterId, int limit);
+    void streamUsers(long afterId, Consumer<? super UserSummary> consumer);
 }
-
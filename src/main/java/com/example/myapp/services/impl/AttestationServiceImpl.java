@@ -1,13 +1,20 @@
 package com.example.myapp.services.impl;
 
+import com.example.myapp.attestation.AttestationTemplate;
 import com.example.myapp.entities.Attestation;
+import com.example.myapp.payload.response.AttestationSummary;
+import com.example.myapp.payload.response.CursorPage;
 import com.example.myapp.repositories.AttestationRepository;
 import com.example.myapp.services.AttestationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class AttestationServiceImpl implements AttestationService {
@@ -24,6 +31,35 @@ public class AttestationServiceImpl implements AttestationService {
         return attestationRepository.findAll();
     }
 
+    @Override
+    public Optional<AttestationSummary> getAttestationSummaryById(Long id) {
+        return attestationRepository.findSummaryById(id);
+    }
+
+    @Override
+    public Optional<AttestationSummary> getAttestationSummaryByEvenementId(Long evenementId) {
+        return attestationRepository.findSummaryByEvenementId(evenementId);
+    }
+
+    @Override
+    public Optional<AttestationTemplate> getTemplateByEvenementId(Long evenementId) {
+        return attestationRepository.findTemplateByEvenementId(evenementId);
+    }
+
+    @Override
+    public CursorPage<AttestationSummary> getAttestationsPage(long afterId, int limit) {
+        List<AttestationSummary> rows = attestationRepository.findSummariesAfter(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, AttestationSummary::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAttestations(long afterId, Consumer<? super AttestationSummary> consumer) {
+        try (Stream<AttestationSummary> rows = attestationRepository.streamSummariesAfter(afterId)) {
+            rows.forEach(consumer);
+        }
+    }
+
     @Override
     public Optional<Attestation> getAttestationById(Long id) {
         return attestationRepository.findById(id);
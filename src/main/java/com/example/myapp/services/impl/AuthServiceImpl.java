@@ -0,0 +1,135 @@
+package com.example.myapp.services.impl;
+
+import com.example.myapp.auth.AuthPrincipal;
+import com.example.myapp.auth.TokenClaims;
+import com.example.myapp.auth.TokenCodec;
+import com.example.myapp.auth.TokenRevocations;
+import com.example.myapp.auth.TokenType;
+import com.example.myapp.payload.request.LoginRequest;
+import com.example.myapp.payload.response.AuthTokens;
+import com.example.myapp.payload.response.UserSummary;
+import com.example.myapp.services.AuthService;
+import com.example.myapp.services.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Issues a short-lived access token and a long-lived refresh token per login. An access token
+ * is self-contained: resolving the caller checks its signature, expiry and the in-memory
+ * revocation list, and never reads the database. Its role claim may therefore lag a role
+ * change by up to the access token lifetime. A refresh token is single-use: each refresh
+ * reloads the user and hands out a new pair in the same session, and presenting a spent one
+ * revokes the whole session, since either the client or a thief is replaying it.
+ */
+@Service
+public class AuthServiceImpl implements AuthService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthServiceImpl.class);
+    private static final String TOKEN_TYPE = "Bearer";
+
+    private final UserService userService;
+    private final TokenRevocations revocations;
+    private final TokenCodec tokenCodec;
+    private final Duration accessTtl;
+    private final Duration refreshTtl;
+    private final Clock clock = Clock.systemUTC();
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    public AuthServiceImpl(UserService userService, TokenRevocations revocations,
+                           @Value("${app.auth.secret:}") String secret,
+                           @Value("${app.auth.access-ttl:PT15M}") Duration accessTtl,
+                           @Value("${app.auth.refresh-ttl:P14D}") Duration refreshTtl) {
+        this.userService = userService;
+        this.revocations = revocations;
+        this.tokenCodec = new TokenCodec(secret.isBlank() ? generatedSecret() : Base64.getDecoder().decode(secret));
+        this.accessTtl = accessTtl;
+        this.refreshTtl = refreshTtl;
+    }
+
+    @Override
+    public CompletableFuture<AuthTokens> login(LoginRequest loginRequest, String clientAddress) {
+        return userService.authenticateUser(loginRequest, clientAddress).thenApply(user -> issue(UserSummary.of(user), newId()));
+    }
+
+    @Override
+    public AuthTokens refresh(String refreshToken) {
+        TokenClaims claims = verified(refreshToken, TokenType.REFRESH);
+        if (!revocations.useRefreshToken(claims)) {
+            revocations.revokeSession(claims.sessionId(), now() + refreshTtl.toSeconds());
+            log.warn("Refresh token replayed for user {}, session revoked", claims.userId());
+            throw new IllegalArgumentException("Refresh token already used");
+        }
+        // Read past the user cache: the new tokens must carry the role as it is now
+        UserSummary user = userService.getUserSummaryById(claims.userId())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown user"));
+        return issue(user, claims.sessionId());
+    }
+
+    @Override
+    public void logout(AuthPrincipal principal) {
+        revocations.revokeSession(principal.sessionId(), now() + refreshTtl.toSeconds());
+    }
+
+    @Override
+    public AuthPrincipal authenticate(String accessToken) {
+        TokenClaims claims = verified(accessToken, TokenType.ACCESS);
+        return new AuthPrincipal(claims.userId(), claims.role(), claims.sessionId());
+    }
+
+    @Override
+    public void revokeAll(Long userId) {
+        revocations.revokeUser(userId, now() + refreshTtl.toSeconds());
+    }
+
+    private TokenClaims verified(String token, TokenType type) {
+        TokenClaims claims = tokenCodec.verify(token);
+        if (claims.type() != type) {
+            throw new IllegalArgumentException("Wrong token type");
+        }
+        if (claims.expiresAt() <= now()) {
+            throw new IllegalArgumentException("Token expired");
+        }
+        if (revocations.isRevoked(claims)) {
+            throw new IllegalArgumentException("Token revoked");
+        }
+        return claims;
+    }
+
+    private AuthTokens issue(UserSummary user, String sessionId) {
+        Instant now = clock.instant();
+        String access = tokenCodec.sign(new TokenClaims(TokenType.ACCESS, user.id(), user.role(), sessionId,
+                newId(), now.toEpochMilli(), now.getEpochSecond() + accessTtl.toSeconds()));
+        String refresh = tokenCodec.sign(new TokenClaims(TokenType.REFRESH, user.id(), user.role(), sessionId,
+                newId(), now.toEpochMilli(), now.getEpochSecond() + refreshTtl.toSeconds()));
+        return new AuthTokens(access, refresh, TOKEN_TYPE, accessTtl.toSeconds(), user);
+    }
+
+    private String newId() {
+        byte[] id = new byte[16];
+        random.nextBytes(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id);
+    }
+
+    private long now() {
+        return clock.instant().getEpochSecond();
+    }
+
+    // Without a configured secret tokens die with the instance and are not accepted by any other
+    private byte[] generatedSecret() {
+        log.warn("app.auth.secret is not set; using a random key, tokens will not survive a restart");
+        byte[] secret = new byte[TokenCodec.MIN_SECRET_BYTES];
+        random.nextBytes(secret);
+        return secret;
+    }
+}
@@ -0,0 +1,441 @@
+package com.example.myapp.services.impl;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.entities.Member;
+import com.example.myapp.entities.Participation;
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.Role;
+import com.example.myapp.membership.MembershipIndex;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.ImportReport;
+import com.example.myapp.payload.response.UserSummary;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.repositories.MemberRepository;
+import com.example.myapp.repositories.ParticipationRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.search.ContentSearch;
+import com.example.myapp.search.SearchDocument;
+import com.example.myapp.services.BulkImportService;
+import com.example.myapp.services.ClubStatsService;
+import com.example.myapp.services.UserService;
+import com.example.myapp.utils.ImportRowReader;
+import com.example.myapp.utils.PasswordEncoder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports rows in chunks: each chunk is validated with one lookup query per referenced table,
+ * then written in a single transaction whose inserts Hibernate sends as JDBC batches (ids come
+ * from pooled sequences, so nothing forces a round trip per row). Invalid rows are reported
+ * with their line number and never stop the rest of the file.
+ */
+@Service
+public class BulkImportServiceImpl implements BulkImportService {
+
+    private static final String DATE_PATTERN = "yyyy-MM-dd";
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final ClubRepository clubRepository;
+    private final EvenementRepository evenementRepository;
+    private final MemberRepository memberRepository;
+    private final ParticipationRepository participationRepository;
+    private final ClubStatsService clubStatsService;
+    private final ContentSearch contentSearch;
+    private final MembershipIndex membershipIndex;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public BulkImportServiceImpl(
+            UserRepository userRepository,
+            UserService userService,
+            ClubRepository clubRepository,
+            EvenementRepository evenementRepository,
+            MemberRepository memberRepository,
+            ParticipationRepository participationRepository,
+            ClubStatsService clubStatsService,
+            ContentSearch contentSearch,
+            MembershipIndex membershipIndex,
+            PasswordEncoder passwordEncoder,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.import.chunk-size:500}") int chunkSize,
+            @Value("${app.import.max-reported-errors:1000}") int maxReportedErrors
+    ) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.clubRepository = clubRepository;
+        this.evenementRepository = evenementRepository;
+        this.memberRepository = memberRepository;
+        this.participationRepository = participationRepository;
+        this.clubStatsService = clubStatsService;
+        this.contentSearch = contentSearch;
+        this.membershipIndex = membershipIndex;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public ImportReport importUsers(ImportRowReader rows) {
+        return run(rows, this::importUserChunk);
+    }
+
+    @Override
+    public ImportReport importMembers(ImportRowReader rows) {
+        return run(rows, this::importMemberChunk);
+    }
+
+    @Override
+    public ImportReport importParticipations(ImportRowReader rows) {
+        return run(rows, this::importParticipationChunk);
+    }
+
+    private ImportReport run(Iterator<ImportRowReader.Row> rows, BiConsumer<List<ImportRowReader.Row>, Report> importChunk) {
+        Report report = new Report(maxReportedErrors);
+        List<ImportRowReader.Row> chunk = new ArrayList<>(chunkSize);
+        while (rows.hasNext()) {
+            ImportRowReader.Row row = rows.next();
+            report.received++;
+            if (row.error() != null) {
+                report.reject(row, row.error());
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk.accept(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk.accept(chunk, report);
+        }
+        return report.toImportReport();
+    }
+
+    // Columns: nom, prenom, email, password, role (optional, USER by default)
+    private void importUserChunk(List<ImportRowReader.Row> chunk, Report report) {
+        Map<ImportRowReader.Row, User> candidates = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (ImportRowReader.Row row : chunk) {
+            User user = new User();
+            user.setNom(row.get("nom"));
+            user.setPrenom(row.get("prenom"));
+            user.setEmail(row.get("email"));
+            user.setMdp(row.get("password"));
+            try {
+                user.setRole(row.get("role") == null ? Role.USER : Role.valueOf(row.get("role").toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                report.reject(row, "Rôle inconnu: " + row.get("role"));
+                continue;
+            }
+            String violations = violations(user);
+            if (violations != null) {
+                report.reject(row, violations);
+            } else if (!seen.add(user.getEmail()) || !report.claimEmail(user.getEmail())) {
+                report.reject(row, "Email en double dans le fichier");
+            } else {
+                candidates.put(row, user);
+            }
+        }
+
+        Set<String> taken = userRepository.findSummariesByEmailIn(seen).stream()
+                .map(UserSummary::email)
+                .collect(Collectors.toSet());
+        List<ImportRowReader.Row> accepted = new ArrayList<>();
+        for (ImportRowReader.Row row : chunk) {
+            User user = candidates.get(row);
+            if (user == null) {
+                continue;
+            }
+            if (taken.contains(user.getEmail())) {
+                report.reject(row, "Cet email est déjà utilisé");
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        Map<ImportRowReader.Row, String> hashes = hashPasswords(accepted, candidates, report);
+        List<User> users = new ArrayList<>();
+        for (ImportRowReader.Row row : accepted) {
+            String hash = hashes.get(row);
+            if (hash != null) {
+                User user = candidates.get(row);
+                user.setMdp(hash);
+                users.add(user);
+            }
+        }
+        persist(users, report, () -> contentSearch.changed(users.stream().map(SearchDocument::of).toList()));
+    }
+
+    // Columns: email, clubid, joindate (optional, yyyy-MM-dd), active (optional, true by default)
+    private void importMemberChunk(List<ImportRowReader.Row> chunk, Report report) {
+        Map<String, Long> userIds = userIdsByEmail(chunk);
+        Set<Long> clubIds = existing(chunk, "clubid", clubRepository::findExistingIds);
+        Set<IdPair> existingPairs = userIds.isEmpty() || clubIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(memberRepository.findUserClubPairs(userIds.values(), clubIds));
+
+        List<Member> members = new ArrayList<>();
+        Set<Long> newMemberIds = new HashSet<>();
+        for (ImportRowReader.Row row : chunk) {
+            Long userId = userIds.get(row.get("email"));
+            Long clubId = parseId(row.get("clubid"));
+            Date joinDate;
+            try {
+                joinDate = parseDate(row.get("joindate"));
+            } catch (ParseException e) {
+                report.reject(row, "Date invalide, format attendu " + DATE_PATTERN);
+                continue;
+            }
+            if (userId == null) {
+                report.reject(row, "Utilisateur introuvable: " + row.get("email"));
+            } else if (clubId == null || !clubIds.contains(clubId)) {
+                report.reject(row, "Club introuvable: " + row.get("clubid"));
+            } else if (!existingPairs.add(new IdPair(userId, clubId)) || !report.claim("member", userId, clubId)) {
+                report.reject(row, "L'utilisateur est déjà membre de ce club");
+            } else {
+                Member member = new Member();
+                member.setUser(entityManager.getReference(User.class, userId));
+                member.setClub(entityManager.getReference(Club.class, clubId));
+                member.setJoinDate(joinDate != null ? joinDate : new Date());
+                member.setActive(row.get("active") == null || Boolean.parseBoolean(row.get("active")));
+                members.add(member);
+                newMemberIds.add(userId);
+            }
+        }
+        // Per club: members added, of which active
+        Map<Long, long[]> counts = new TreeMap<>();
+        for (Member member : members) {
+            long[] clubCounts = counts.computeIfAbsent(member.getClub().getId(), club -> new long[2]);
+            clubCounts[0]++;
+            clubCounts[1] += member.isActive() ? 1 : 0;
+        }
+        List<IdPair> active = members.stream()
+                .filter(Member::isActive)
+                .map(member -> new IdPair(member.getUser().getId(), member.getClub().getId()))
+                .toList();
+        persist(members, report, () -> {
+            counts.forEach((clubId, clubCounts) -> clubStatsService.membersChanged(clubId, clubCounts[0], clubCounts[1]));
+            membershipIndex.membershipsChanged(active);
+            // Same promotion addMember does one user at a time, committed with the memberships
+            userService.updateRoles(newMemberIds, Role.USER, Role.MEMBRE);
+        });
+    }
+
+    // Columns: email, evenementid, date (optional, yyyy-MM-dd, today by default)
+    private void importParticipationChunk(List<ImportRowReader.Row> chunk, Report report) {
+        Map<String, Long> userIds = userIdsByEmail(chunk);
+        Map<Long, Long> clubIds = clubIdsByEvenement(chunk);
+        Set<Long> evenementIds = clubIds.keySet();
+        Set<IdPair> existingPairs = userIds.isEmpty() || evenementIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(participationRepository.findUserEvenementPairs(userIds.values(), evenementIds));
+
+        List<Participation> participations = new ArrayList<>();
+        for (ImportRowReader.Row row : chunk) {
+            Long userId = userIds.get(row.get("email"));
+            Long evenementId = parseId(row.get("evenementid"));
+            Date date;
+            try {
+                date = parseDate(row.get("date"));
+            } catch (ParseException e) {
+                report.reject(row, "Date invalide, format attendu " + DATE_PATTERN);
+                continue;
+            }
+            if (userId == null) {
+                report.reject(row, "Utilisateur introuvable: " + row.get("email"));
+            } else if (evenementId == null || !evenementIds.contains(evenementId)) {
+                report.reject(row, "Événement introuvable: " + row.get("evenementid"));
+            } else if (!existingPairs.add(new IdPair(userId, evenementId)) || !report.claim("participation", userId, evenementId)) {
+                report.reject(row, "La participation existe déjà");
+            } else {
+                Participation participation = new Participation();
+                participation.setUser(entityManager.getReference(User.class, userId));
+                participation.setEvenement(entityManager.getReference(Evenement.class, evenementId));
+                participation.setDate(date != null ? date : new Date());
+                participations.add(participation);
+            }
+        }
+        Map<Long, Long> counts = participations.stream().collect(Collectors.groupingBy(
+                participation -> clubIds.get(participation.getEvenement().getId()), TreeMap::new, Collectors.counting()));
+        persist(participations, report, () -> counts.forEach(clubStatsService::participationsChanged));
+    }
+
+    /**
+     * Writes a chunk in one transaction; {@code alsoInTransaction} runs in that same transaction
+     * so derived data such as club statistics commits together with the rows, and the search
+     * index hears of them only once they have.
+     */
+    private void persist(List<?> entities, Report report, Runnable alsoInTransaction) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            entities.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+            alsoInTransaction.run();
+        });
+        report.imported += entities.size();
+    }
+
+    /**
+     * Hashes a chunk's passwords in parallel on the bulk hashing pool, which is sized apart from
+     * the login pool so an import never turns logins away.
+     */
+    private Map<ImportRowReader.Row, String> hashPasswords(List<ImportRowReader.Row> rows,
+                                                          Map<ImportRowReader.Row, User> users, Report report) {
+        Map<ImportRowReader.Row, CompletableFuture<String>> futures = new HashMap<>();
+        for (ImportRowReader.Row row : rows) {
+            futures.put(row, passwordEncoder.encodeBulk(users.get(row).getMdp()));
+        }
+
+        Map<ImportRowReader.Row, String> hashes = new HashMap<>();
+        futures.forEach((row, future) -> {
+            try {
+                hashes.put(row, future.join());
+            } catch (CompletionException e) {
+                report.reject(row, "Le mot de passe n'a pas pu être chiffré");
+            }
+        });
+        return hashes;
+    }
+
+    private Map<String, Long> userIdsByEmail(List<ImportRowReader.Row> chunk) {
+        Set<String> emails = chunk.stream()
+                .map(row -> row.get("email"))
+                .filter(email -> email != null)
+                .collect(Collectors.toSet());
+        if (emails.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findSummariesByEmailIn(emails).stream()
+                .collect(Collectors.toMap(UserSummary::email, UserSummary::id));
+    }
+
+    private Map<Long, Long> clubIdsByEvenement(List<ImportRowReader.Row> chunk) {
+        Set<Long> ids = chunk.stream()
+                .map(row -> parseId(row.get("evenementid")))
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return evenementRepository.findClubIdPairsByIdIn(ids).stream()
+                .collect(Collectors.toMap(IdPair::left, IdPair::right));
+    }
+
+    private static Set<Long> existing(List<ImportRowReader.Row> chunk, String column,
+                                      Function<Collection<Long>, List<Long>> lookup) {
+        Set<Long> ids = chunk.stream()
+                .map(row -> parseId(row.get(column)))
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        return ids.isEmpty() ? Set.of() : new HashSet<>(lookup.apply(ids));
+    }
+
+    private String violations(Object entity) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static Long parseId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Date parseDate(String value) throws ParseException {
+        if (value == null) {
+            return null;
+        }
+        SimpleDateFormat format = new SimpleDateFormat(DATE_PATTERN);
+        format.setLenient(false);
+        return format.parse(value);
+    }
+
+    /**
+     * Running totals for one import, plus the keys already taken by earlier chunks of the same
+     * file so duplicates across chunks are caught too.
+     */
+    private static final class Report {
+        private final int maxErrors;
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private final Set<String> claimed = new HashSet<>();
+        private long received;
+        private long imported;
+        private long rejected;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(ImportRowReader.Row row, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportReport.RowError(row.line(), message));
+            }
+        }
+
+        boolean claimEmail(String email) {
+            return claimed.add("email:" + email);
+        }
+
+        boolean claim(String kind, Long first, Long second) {
+            return claimed.add(kind + ":" + first + ":" + second);
+        }
+
+        ImportReport toImportReport() {
+            return new ImportReport(received, imported, rejected, List.copyOf(errors), rejected > errors.size());
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.myapp.services.impl;
 
+import com.example.myapp.cache.CacheNames;
 import com.example.myapp.entities.Club;
+import com.example.myapp.payload.response.ClubSummary;
+import com.example.myapp.enums.SearchType;
 import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.search.ContentSearch;
+import com.example.myapp.search.SearchDocument;
 import com.example.myapp.services.ClubService;
+import com.example.myapp.services.ClubStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,10 +23,14 @@ import java.util.Optional;
 public class ClubServiceImpl implements ClubService {
 
     private final ClubRepository clubRepository;
+    private final ClubStatsService clubStatsService;
+    private final ContentSearch contentSearch;
 
     @Autowired
-    public ClubServiceImpl(ClubRepository clubRepository) {
+    public ClubServiceImpl(ClubRepository clubRepository, ClubStatsService clubStatsService, ContentSearch contentSearch) {
         this.clubRepository = clubRepository;
+        this.clubStatsService = clubStatsService;
+        this.contentSearch = contentSearch;
     }
 
     @Override
@@ -27,6 +39,7 @@ public class ClubServiceImpl implements ClubService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.CLUBS, key = "#id", unless = "#result == null")
     public Optional<Club> getClubById(Long id) {
         return clubRepository.findById(id);
     }
@@ -37,12 +50,39 @@ public class ClubServiceImpl implements ClubService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.CLUBS, key = "#club.id", condition = "#club.id != null")
     public Club saveClub(Club club) {
-        return clubRepository.save(club);
+        if (club.getId() != null) {
+            Club saved = clubRepository.save(club);
+            contentSearch.changed(SearchDocument.of(saved));
+            return saved;
+        }
+        // The statistics row references the club, so the club row goes first
+        Club created = clubRepository.saveAndFlush(club);
+        clubStatsService.clubCreated(created.getId());
+        contentSearch.changed(SearchDocument.of(created));
+        return created;
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.CLUBS, key = "#id")
     public void deleteClub(Long id) {
         clubRepository.deleteById(id);
+        contentSearch.deleted(SearchType.CLUB, id);
+    }
+
+    @Override
+    public List<ClubSummary> getAllClubSummaries() {
+        return clubRepository.findAllSummaries();
+    }
+
+    @Override
+    public Optional<ClubSummary> getClubSummaryById(Long id) {
+        return clubRepository.findSummaryById(id);
+    }
+
+    @Override
+    public Optional<ClubSummary> getClubSummaryByNom(String nom) {
+        return clubRepository.findSummaryByNom(nom);
     }
 }
\ No newline at end of file
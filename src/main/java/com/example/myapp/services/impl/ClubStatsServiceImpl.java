@@ -0,0 +1,177 @@
+package com.example.myapp.services.impl;
+
+import com.example.myapp.entities.ClubStats;
+import com.example.myapp.repositories.ClubStatsRepository;
+import com.example.myapp.services.ClubStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the club_stats read model in step with the write paths. Every service that adds or
+ * removes members, pending demands, events or participations shifts the matching counters in
+ * its own transaction, so reading a club's statistics is a primary key lookup. The row stays
+ * locked until that transaction ends, which serialises concurrent writers of one club on it
+ * and nothing else. Writes that bypass those services (generic saves, bulk SQL, manual fixes)
+ * are caught up by {@link #reconcile()}.
+ */
+@Service
+public class ClubStatsServiceImpl implements ClubStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClubStatsServiceImpl.class);
+
+    private static final String COUNTS = "select s.club_id, s.member_count, s.active_member_count, "
+            + "s.pending_demand_count, s.event_count, s.participation_count, "
+            + "(select count(*) from members m where m.club_id = s.club_id), "
+            + "(select count(*) from members m where m.club_id = s.club_id and m.is_active), "
+            + "(select count(*) from demands d where d.club_id = s.club_id and d.status = 'PENDING'), "
+            + "(select count(*) from evenement e where e.club_id = s.club_id), "
+            + "(select count(*) from participation p join evenement e on e.id = p.evenement_id where e.club_id = s.club_id) "
+            + "from club_stats s ";
+
+    private static final String CORRECT = "update club_stats set member_count = ?, active_member_count = ?, "
+            + "pending_demand_count = ?, event_count = ?, participation_count = ? "
+            + "where club_id = ? and member_count = ? and active_member_count = ? "
+            + "and pending_demand_count = ? and event_count = ? and participation_count = ?";
+
+    private static final String INSERT_MISSING = "insert into club_stats (club_id) select c.id from club c "
+            + "where not exists (select 1 from club_stats s where s.club_id = c.id)";
+
+    private final ClubStatsRepository clubStatsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public ClubStatsServiceImpl(ClubStatsRepository clubStatsRepository, JdbcTemplate jdbcTemplate,
+                                @Value("${app.stats.reconcile-batch-size:500}") int batchSize) {
+        this.clubStatsRepository = clubStatsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Optional<ClubStats> getStats(Long clubId) {
+        Optional<ClubStats> stats = clubStatsRepository.findById(clubId);
+        if (stats.isPresent()) {
+            return stats;
+        }
+        // Club created behind the services' back: count it now rather than wait for the job
+        insertMissing(INSERT_MISSING + " and c.id = ?", clubId);
+        correct(jdbcTemplate.query(COUNTS + "where s.club_id = ?", Counts::read, clubId));
+        return clubStatsRepository.findById(clubId);
+    }
+
+    @Override
+    public void clubCreated(Long clubId) {
+        clubStatsRepository.insertEmpty(clubId);
+    }
+
+    @Override
+    public void membersChanged(Long clubId, long members, long activeMembers) {
+        adjust(clubId, members, activeMembers, 0, 0, 0);
+    }
+
+    @Override
+    public void pendingDemandsChanged(Long clubId, long pendingDemands) {
+        adjust(clubId, 0, 0, pendingDemands, 0, 0);
+    }
+
+    @Override
+    public void eventsChanged(Long clubId, long events) {
+        adjust(clubId, 0, 0, 0, events, 0);
+    }
+
+    @Override
+    public void participationsChanged(Long clubId, long participations) {
+        adjust(clubId, 0, 0, 0, 0, participations);
+    }
+
+    /**
+     * Recounts clubs a page at a time. Stored and actual counters are read by one statement,
+     * hence from one snapshot, and a correction only applies while the row still holds the
+     * stored values it was computed against: a write that commits in between moved the row
+     * itself, and its club is left for the next run instead of being overwritten with a stale
+     * count.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${app.stats.reconcile-interval:PT15M}",
+            initialDelayString = "${app.stats.reconcile-interval:PT15M}")
+    public int reconcile() {
+        int created = insertMissing(INSERT_MISSING);
+        int corrected = 0;
+        long afterId = Long.MIN_VALUE;
+        List<Counts> page;
+        do {
+            page = jdbcTemplate.query(COUNTS + "where s.club_id > ? order by s.club_id limit ?",
+                    Counts::read, afterId, batchSize);
+            corrected += correct(page);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).clubId();
+            }
+        } while (page.size() == batchSize);
+
+        if (created + corrected > 0) {
+            log.warn("Club statistics reconciled: {} rows created, {} rows corrected", created, corrected);
+        }
+        return created + corrected;
+    }
+
+    private void adjust(Long clubId, long members, long activeMembers, long pendingDemands, long events, long participations) {
+        if (clubStatsRepository.adjust(clubId, members, activeMembers, pendingDemands, events, participations) == 0) {
+            log.debug("No statistics row for club {} yet, left to reconciliation", clubId);
+        }
+    }
+
+    private int insertMissing(String sql, Object... args) {
+        try {
+            return jdbcTemplate.update(sql, args);
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently by clubCreated or another reconciliation
+            return 0;
+        }
+    }
+
+    private int correct(List<Counts> counts) {
+        List<Object[]> batch = new ArrayList<>();
+        for (Counts row : counts) {
+            if (!Arrays.equals(row.stored(), row.actual())) {
+                Object[] args = new Object[11];
+                for (int i = 0; i < 5; i++) {
+                    args[i] = row.actual()[i];
+                    args[6 + i] = row.stored()[i];
+                }
+                args[5] = row.clubId();
+                batch.add(args);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        return (int) Arrays.stream(jdbcTemplate.batchUpdate(CORRECT, batch)).filter(count -> count > 0).count();
+    }
+
+    private record Counts(long clubId, long[] stored, long[] actual) {
+
+        static Counts read(ResultSet rs, int rowNum) throws SQLException {
+            long[] stored = new long[5];
+            long[] actual = new long[5];
+            for (int i = 0; i < 5; i++) {
+                stored[i] = rs.getLong(2 + i);
+                actual[i] = rs.getLong(7 + i);
+            }
+            return new Counts(rs.getLong(1), stored, actual);
+        }
+    }
+}
@@ -4,27 +4,56 @@ import com.example.myapp.entities.Demand;
 import com.example.myapp.entities.Club;
 import com.example.myapp.entities.User;
 import com.example.myapp.enums.DemandStatus;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.DemandBatchResult;
+import com.example.myapp.payload.response.DemandSummary;
+import com.example.myapp.payload.response.IdPair;
 import com.example.myapp.repositories.DemandRepository;
+import com.example.myapp.services.ClubStatsService;
 import com.example.myapp.services.DemandService;
 import com.example.myapp.services.MemberService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class DemandServiceImpl implements DemandService {
 
     private final DemandRepository demandRepository;
     private final MemberService memberService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ClubStatsService clubStatsService;
+    private final int maxBatchSize;
 
     @Autowired
-    public DemandServiceImpl(DemandRepository demandRepository, MemberService memberService) {
+    public DemandServiceImpl(DemandRepository demandRepository, MemberService memberService, JdbcTemplate jdbcTemplate,
+                             ClubStatsService clubStatsService,
+                             @Value("${app.demands.max-batch-size:1000}") int maxBatchSize) {
         this.demandRepository = demandRepository;
         this.memberService = memberService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clubStatsService = clubStatsService;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Override
@@ -37,14 +66,74 @@ public class DemandServiceImpl implements DemandService {
         return demandRepository.findAll();
     }
 
+    @Override
+    public Optional<DemandSummary> findSummaryById(Long id) {
+        return demandRepository.findSummaryById(id);
+    }
+
+    @Override
+    public Optional<Long> findClubIdById(Long id) {
+        return demandRepository.findClubIdById(id);
+    }
+
+    @Override
+    public List<DemandSummary> findSummariesByClubId(Long clubId) {
+        return demandRepository.findSummariesByClubId(clubId);
+    }
+
+    @Override
+    public List<DemandSummary> findPendingSummariesByClubId(Long clubId) {
+        return demandRepository.findSummariesByClubIdAndStatus(clubId, DemandStatus.PENDING);
+    }
+
+    @Override
+    public List<DemandSummary> findSummariesByUserId(Long userId) {
+        return demandRepository.findSummariesByUserId(userId);
+    }
+
+    @Override
+    public List<DemandSummary> findPendingSummariesByUserId(Long userId) {
+        return demandRepository.findSummariesByUserIdAndStatus(userId, DemandStatus.PENDING);
+    }
+
+    @Override
+    public List<DemandSummary> findSummariesByStatus(DemandStatus status) {
+        return demandRepository.findSummariesByStatus(status);
+    }
+
+    @Override
+    public Optional<DemandSummary> getLatestDemandSummary(Long userId, Long clubId) {
+        return demandRepository.findLatestSummaries(userId, clubId, Limit.of(1)).stream().findFirst();
+    }
+
+    @Override
+    public CursorPage<DemandSummary> findPage(long afterId, int limit) {
+        List<DemandSummary> rows = demandRepository.findSummariesAfter(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, DemandSummary::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(long afterId, Consumer<? super DemandSummary> consumer) {
+        try (Stream<DemandSummary> rows = demandRepository.streamSummariesAfter(afterId)) {
+            rows.forEach(consumer);
+        }
+    }
+
     @Override
     public Optional<Demand> findById(Long id) {
         return demandRepository.findById(id);
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
-        demandRepository.deleteById(id);
+        demandRepository.findById(id).ifPresent(demand -> {
+            demandRepository.delete(demand);
+            if (demand.getStatus() == DemandStatus.PENDING) {
+                clubStatsService.pendingDemandsChanged(demand.getClub().getId(), -1);
+            }
+        });
     }
 
     @Override
@@ -89,10 +178,6 @@ public class DemandServiceImpl implements DemandService {
             throw new IllegalStateException("User is already a member of this club");
         }
 
-        if (hasActiveDemand(user, club)) {
-            throw new IllegalStateException("User already has a pending demand for this club");
-        }
-
         Demand demand = new Demand();
         demand.setUser(user);
         demand.setClub(club);
@@ -100,59 +185,122 @@ public class DemandServiceImpl implements DemandService {
         demand.setRequestDate(new Date());
         demand.setStatus(DemandStatus.PENDING);
 
-        return demandRepository.save(demand);
+        try {
+            // The unique index on pending (user, club) pairs settles concurrent requests
+            demand = demandRepository.saveAndFlush(demand);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("User already has a pending demand for this club");
+        }
+        clubStatsService.pendingDemandsChanged(club.getId(), 1);
+        return demand;
     }
 
     @Override
     @Transactional
     public Demand approveDemand(Long demandId) {
-        Optional<Demand> optionalDemand = demandRepository.findById(demandId);
-        if (optionalDemand.isPresent()) {
-            Demand demand = optionalDemand.get();
-
-            if (demand.getStatus() == DemandStatus.PENDING) {
-                demand.setStatus(DemandStatus.APPROVED);
-                demand.setResponseDate(new Date());
-
-                memberService.addMember(demand.getUser(), demand.getClub());
-
-                return demandRepository.save(demand);
-            }
+        if (decideDemands(null, List.of(demandId), List.of(), null).approved().isEmpty()) {
+            throw new IllegalArgumentException("Invalid demand ID or demand is not pending");
         }
-        throw new IllegalArgumentException("Invalid demand ID or demand is not pending");
+        return demandRepository.findById(demandId).orElseThrow();
     }
 
     @Override
     @Transactional
     public Demand rejectDemand(Long demandId, String rejectionReason) {
-        Optional<Demand> optionalDemand = demandRepository.findById(demandId);
-        if (optionalDemand.isPresent()) {
-            Demand demand = optionalDemand.get();
+        if (decideDemands(null, List.of(), List.of(demandId), rejectionReason).rejected().isEmpty()) {
+            throw new IllegalArgumentException("Invalid demand ID or demand is not pending");
+        }
+        return demandRepository.findById(demandId).orElseThrow();
+    }
 
-            // Only process if demand is pending
-            if (demand.getStatus() == DemandStatus.PENDING) {
-                demand.setStatus(DemandStatus.REFUSED);
-                demand.setResponseDate(new Date());
-                demand.setComment(demand.getComment() + "\nRejection reason: " + rejectionReason);
+    /**
+     * Approves and rejects many demands in a handful of statements. Each transition is its own
+     * {@code UPDATE ... WHERE status = 'PENDING'}, sent together as one JDBC batch, so the
+     * per-statement update counts say exactly which demands this call moved: a demand decided
+     * concurrently elsewhere is skipped here rather than approved twice. Approvals are applied
+     * before rejections.
+     *
+     * @param clubId when not null, demands of other clubs are skipped
+     */
+    @Override
+    @Transactional
+    public DemandBatchResult decideDemands(Long clubId, Collection<Long> approveIds, Collection<Long> rejectIds,
+                                           String rejectionReason) {
+        if (approveIds.size() + rejectIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " demands can be decided at once");
+        }
+        Date now = new Date();
+        List<Long> approved = transition(clubId, approveIds, DemandStatus.APPROVED, now, null);
+        List<Long> rejected = transition(clubId, rejectIds, DemandStatus.REFUSED, now, rejectionReason);
 
-                return demandRepository.save(demand);
-            }
+        List<IdPair> approvedPairs = approved.isEmpty() ? List.of() : demandRepository.findUserClubPairsByIdIn(approved);
+        if (!approvedPairs.isEmpty()) {
+            memberService.addMembers(approvedPairs);
         }
-        throw new IllegalArgumentException("Invalid demand ID or demand is not pending");
+        List<IdPair> rejectedPairs = rejected.isEmpty() ? List.of() : demandRepository.findUserClubPairsByIdIn(rejected);
+        Stream.concat(approvedPairs.stream(), rejectedPairs.stream())
+                .collect(Collectors.groupingBy(IdPair::right, TreeMap::new, Collectors.counting()))
+                .forEach((club, decided) -> clubStatsService.pendingDemandsChanged(club, -decided));
+
+        Set<Long> skipped = new LinkedHashSet<>(approveIds);
+        skipped.addAll(rejectIds);
+        approved.forEach(skipped::remove);
+        rejected.forEach(skipped::remove);
+        return new DemandBatchResult(approved, rejected, List.copyOf(skipped));
     }
 
     @Override
     @Transactional
     public boolean cancelDemand(Long demandId) {
-        Optional<Demand> optionalDemand = demandRepository.findById(demandId);
-        if (optionalDemand.isPresent()) {
-            Demand demand = optionalDemand.get();
+        Optional<Long> clubId = demandRepository.findClubIdById(demandId);
+        if (clubId.isEmpty() || demandRepository.deleteIfPending(demandId) == 0) {
+            return false;
+        }
+        clubStatsService.pendingDemandsChanged(clubId.get(), -1);
+        return true;
+    }
 
-            if (demand.getStatus() == DemandStatus.PENDING) {
-                demandRepository.deleteById(demandId);
-                return true;
+    private List<Long> transition(Long clubId, Collection<Long> ids, DemandStatus status, Date at, String rejectionReason) {
+        // Ascending id order: overlapping batches then lock rows in the same order and cannot deadlock
+        List<Long> distinct = List.copyOf(new TreeSet<>(ids));
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder("update demands set status = ?, response_date = ?, version = version + 1");
+        if (rejectionReason != null) {
+            sql.append(", comment = case when comment is null then ? else comment || ? end");
+        }
+        sql.append(" where id = ? and status = 'PENDING'");
+        if (clubId != null) {
+            sql.append(" and club_id = ?");
+        }
+
+        Timestamp timestamp = new Timestamp(at.getTime());
+        List<Object[]> batch = new ArrayList<>(distinct.size());
+        for (Long id : distinct) {
+            List<Object> args = new ArrayList<>(List.of(status.name(), timestamp));
+            if (rejectionReason != null) {
+                args.add("Rejection reason: " + rejectionReason);
+                args.add("\nRejection reason: " + rejectionReason);
+            }
+            args.add(id);
+            if (clubId != null) {
+                args.add(clubId);
+            }
+            batch.add(args.toArray());
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(sql.toString(), batch);
+        if (Arrays.stream(counts).anyMatch(count -> count == Statement.SUCCESS_NO_INFO)) {
+            // The driver ran the batch without reporting per-statement counts: read back which rows carry this decision
+            return demandRepository.findIdsDecidedAt(distinct, status, at);
+        }
+        List<Long> moved = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                moved.add(distinct.get(i));
             }
         }
-        return false;
+        return moved;
     }
 }
\ No newline at end of file
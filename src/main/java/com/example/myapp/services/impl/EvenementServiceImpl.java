@@ -1,26 +1,59 @@
 package com.example.myapp.services.impl;
 
+import com.example.myapp.cache.CacheNames;
+import com.example.myapp.checkin.CheckinDesk;
+import com.example.myapp.entities.Club;
 import com.example.myapp.entities.Evenement;
 import com.example.myapp.enums.EventType;
+import com.example.myapp.enums.SearchType;
+import com.example.myapp.feed.UpcomingEventsFeed;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.EvenementSummary;
+import com.example.myapp.registration.EventRegistrations;
 import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.repositories.ParticipationRepository;
+import com.example.myapp.search.ContentSearch;
+import com.example.myapp.search.SearchDocument;
+import com.example.myapp.services.ClubStatsService;
 import com.example.myapp.services.EvenementService;
+import com.example.myapp.utils.AfterCommit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class EvenementServiceImpl implements EvenementService {
 
     private final EvenementRepository evenementRepository;
+    private final ParticipationRepository participationRepository;
+    private final ClubStatsService clubStatsService;
+    private final UpcomingEventsFeed upcomingEventsFeed;
+    private final ContentSearch contentSearch;
+    private final EventRegistrations eventRegistrations;
+    private final CheckinDesk checkinDesk;
 
     @Autowired
-    public EvenementServiceImpl(EvenementRepository evenementRepository) {
+    public EvenementServiceImpl(EvenementRepository evenementRepository, ParticipationRepository participationRepository,
+                                ClubStatsService clubStatsService, UpcomingEventsFeed upcomingEventsFeed,
+                                ContentSearch contentSearch, EventRegistrations eventRegistrations,
+                                CheckinDesk checkinDesk) {
         this.evenementRepository = evenementRepository;
+        this.participationRepository = participationRepository;
+        this.clubStatsService = clubStatsService;
+        this.upcomingEventsFeed = upcomingEventsFeed;
+        this.contentSearch = contentSearch;
+        this.eventRegistrations = eventRegistrations;
+        this.checkinDesk = checkinDesk;
     }
 
     @Override
@@ -29,6 +62,41 @@ public class EvenementServiceImpl implements EvenementService {
     }
 
     @Override
+    public Optional<EvenementSummary> getEvenementSummaryById(Long id) {
+        return evenementRepository.findSummaryById(id);
+    }
+
+    @Override
+    public List<EvenementSummary> getEvenementSummariesByClubId(Long clubId) {
+        return evenementRepository.findSummariesByClubId(clubId);
+    }
+
+    @Override
+    public List<EvenementSummary> getEvenementSummariesByType(EventType eventType) {
+        return evenementRepository.findSummariesByEventType(eventType);
+    }
+
+    @Override
+    public List<EvenementSummary> getUpcomingEvenementSummaries(Date date) {
+        return evenementRepository.findSummariesByDateAfter(date);
+    }
+
+    @Override
+    public CursorPage<EvenementSummary> getEvenementsPage(long afterId, int limit) {
+        List<EvenementSummary> rows = evenementRepository.findSummariesAfter(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, EvenementSummary::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamEvenements(long afterId, Consumer<? super EvenementSummary> consumer) {
+        try (Stream<EvenementSummary> rows = evenementRepository.streamSummariesAfter(afterId)) {
+            rows.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.EVENEMENTS, key = "#id", unless = "#result == null")
     public Optional<Evenement> getEvenementById(Long id) {
         return evenementRepository.findById(id);
     }
@@ -49,17 +117,56 @@ public class EvenementServiceImpl implements EvenementService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.EVENEMENTS, key = "#evenement.id", condition = "#evenement.id != null")
     public Evenement saveEvenement(Evenement evenement) {
-        return evenementRepository.save(evenement);
+        return save(evenement);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.EVENEMENTS, key = "#evenement.id")
     public void updateEvenement(Evenement evenement) {
-        evenementRepository.save(evenement);
+        save(evenement);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.EVENEMENTS, key = "#id")
     public void deleteEvenement(Long id) {
+        Optional<Long> clubId = evenementRepository.findClubIdById(id);
         evenementRepository.deleteById(id);
+        clubId.ifPresent(club -> clubStatsService.eventsChanged(club, -1));
+        upcomingEventsFeed.evenementChanged(id);
+        contentSearch.deleted(SearchType.EVENEMENT, id);
+        AfterCommit.run(() -> {
+            eventRegistrations.evenementDeleted(id);
+            checkinDesk.evenementDeleted(id);
+        });
+    }
+
+    // Moving an event to another club carries its participations along in the statistics
+    private Evenement save(Evenement evenement) {
+        Optional<Long> previousClubId = evenement.getId() == null
+                ? Optional.empty()
+                : evenementRepository.findClubIdById(evenement.getId());
+        Evenement saved = evenementRepository.save(evenement);
+
+        Optional<Long> clubId = Optional.ofNullable(saved.getClub()).map(Club::getId);
+        if (!previousClubId.equals(clubId)) {
+            long participations = previousClubId.isPresent() ? participationRepository.countByEvenementId(saved.getId()) : 0;
+            previousClubId.ifPresent(previous -> {
+                clubStatsService.eventsChanged(previous, -1);
+                clubStatsService.participationsChanged(previous, -participations);
+            });
+            clubId.ifPresent(current -> {
+                clubStatsService.eventsChanged(current, 1);
+                clubStatsService.participationsChanged(current, participations);
+            });
+        }
+        upcomingEventsFeed.evenementChanged(saved.getId());
+        contentSearch.changed(SearchDocument.of(saved));
+        if (previousClubId.isPresent()) {
+            // A raised capacity seats people from the waitlist
+            AfterCommit.run(() -> eventRegistrations.capacityChanged(saved.getId()));
+        }
+        return saved;
     }
 }
\ No newline at end of file
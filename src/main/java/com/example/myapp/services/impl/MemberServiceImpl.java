@@ -2,34 +2,69 @@ package com.example.myapp.services.impl;
 
 import com.example.myapp.entities.Member;
 import com.example.myapp.entities.Club;
+import com.example.myapp.entities.ClubStats;
 import com.example.myapp.entities.User;
 import com.example.myapp.enums.Role;
+import com.example.myapp.membership.MembershipIndex;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.MemberSummary;
 import com.example.myapp.repositories.MemberRepository;
+import com.example.myapp.services.ClubStatsService;
 import com.example.myapp.services.MemberService;
 import com.example.myapp.services.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class MemberServiceImpl implements MemberService {
 
     private final MemberRepository memberRepository;
     private final UserService UserService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ClubStatsService clubStatsService;
+    private final MembershipIndex membershipIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public MemberServiceImpl(MemberRepository memberRepository, com.example.myapp.services.UserService userService) {
+    public MemberServiceImpl(MemberRepository memberRepository, com.example.myapp.services.UserService userService,
+                             JdbcTemplate jdbcTemplate, ClubStatsService clubStatsService,
+                             MembershipIndex membershipIndex) {
         this.memberRepository = memberRepository;
         UserService = userService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clubStatsService = clubStatsService;
+        this.membershipIndex = membershipIndex;
     }
 
     @Override
     public Member save(Member member) {
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        if (saved.getUser() != null && saved.getClub() != null) {
+            membershipIndex.membershipChanged(saved.getUser().getId(), saved.getClub().getId());
+        }
+        return saved;
     }
 
     @Override
@@ -37,14 +72,58 @@ public class MemberServiceImpl implements MemberService {
         return memberRepository.findAll();
     }
 
+    @Override
+    public Optional<MemberSummary> findSummaryById(Long id) {
+        return memberRepository.findSummaryById(id);
+    }
+
+    @Override
+    public List<MemberSummary> findSummariesByClubId(Long clubId) {
+        return memberRepository.findSummariesByClubId(clubId);
+    }
+
+    @Override
+    public List<MemberSummary> findActiveSummariesByClubId(Long clubId) {
+        return memberRepository.findActiveSummariesByClubId(clubId);
+    }
+
+    @Override
+    public List<MemberSummary> findSummariesByUserId(Long userId) {
+        return memberRepository.findSummariesByUserId(userId);
+    }
+
+    @Override
+    public List<MemberSummary> findActiveSummariesByUserId(Long userId) {
+        return memberRepository.findActiveSummariesByUserId(userId);
+    }
+
+    @Override
+    public CursorPage<MemberSummary> findPage(long afterId, int limit) {
+        List<MemberSummary> rows = memberRepository.findSummariesAfter(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, MemberSummary::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(long afterId, Consumer<? super MemberSummary> consumer) {
+        try (Stream<MemberSummary> rows = memberRepository.streamSummariesAfter(afterId)) {
+            rows.forEach(consumer);
+        }
+    }
+
     @Override
     public Optional<Member> findById(Long id) {
         return memberRepository.findById(id);
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
-        memberRepository.deleteById(id);
+        memberRepository.findById(id).ifPresent(member -> {
+            memberRepository.delete(member);
+            clubStatsService.membersChanged(member.getClub().getId(), -1, member.isActive() ? -1 : 0);
+            membershipIndex.membershipChanged(member.getUser().getId(), member.getClub().getId());
+        });
     }
 
     @Override
@@ -74,13 +153,26 @@ public class MemberServiceImpl implements MemberService {
 
     @Override
     public boolean isUserMemberOfClub(User user, Club club) {
-        Optional<Member> member = findByUserAndClub(user, club);
-        return member.isPresent() && member.get().isActive();
+        return membershipIndex.isActiveMember(user.getId(), club.getId());
     }
 
     @Override
     public long getMemberCount(Club club) {
-        return memberRepository.countByClub(club);
+        return clubStatsService.getStats(club.getId())
+                .map(ClubStats::getMemberCount)
+                .orElseGet(() -> memberRepository.countByClub(club));
+    }
+
+    @Override
+    public long getActiveMemberCount(Club club) {
+        return membershipIndex.activeMemberCount(club.getId());
+    }
+
+    @Override
+    public List<Long> findSharedActiveUserIds(Club club, Club otherClub) {
+        return Arrays.stream(membershipIndex.sharedActiveMembers(club.getId(), otherClub.getId()).toArray())
+                .boxed()
+                .toList();
     }
 
     @Override
@@ -94,6 +186,8 @@ public class MemberServiceImpl implements MemberService {
             if (!member.isActive()) {
                 // Reactivate if inactive
                 member.setActive(true);
+                clubStatsService.membersChanged(club.getId(), 0, 1);
+                membershipIndex.membershipChanged(user.getId(), club.getId());
                 return memberRepository.save(member);
             }
             return member; // Already a member
@@ -106,16 +200,74 @@ public class MemberServiceImpl implements MemberService {
             newMember.setActive(true);
             user.setRole(Role.MEMBRE);
             UserService.saveUser(user);
+            clubStatsService.membersChanged(club.getId(), 1, 1);
+            membershipIndex.membershipChanged(user.getId(), club.getId());
             return memberRepository.save(newMember);
         }
     }
 
+    /**
+     * Upsert of many memberships at once: inactive rows are reactivated in one JDBC batch (in a
+     * fixed order, so concurrent callers lock them alike), missing ones are inserted in another,
+     * and newly enrolled users are promoted in a single update, evicted from the user cache once
+     * it commits.
+     * The unique (user, club) constraint turns a concurrent insert of the same pair into an
+     * error instead of a duplicate row.
+     */
+    @Override
+    @Transactional
+    public void addMembers(Collection<IdPair> userClubPairs) {
+        List<IdPair> pairs = userClubPairs.stream()
+                .distinct()
+                .sorted(Comparator.comparing(IdPair::left).thenComparing(IdPair::right))
+                .toList();
+        if (pairs.isEmpty()) {
+            return;
+        }
+        Set<IdPair> existing = new HashSet<>(memberRepository.findUserClubPairs(
+                pairs.stream().map(IdPair::left).collect(Collectors.toSet()),
+                pairs.stream().map(IdPair::right).collect(Collectors.toSet())));
+        List<IdPair> known = pairs.stream().filter(existing::contains).toList();
+        int[] reactivated = jdbcTemplate.batchUpdate(
+                "update members set is_active = true where user_id = ? and club_id = ? and is_active = false",
+                known.stream().map(pair -> new Object[] {pair.left(), pair.right()}).toList());
+
+        // Per club: members added, members made active
+        Map<Long, long[]> counts = new TreeMap<>();
+        for (int i = 0; i < known.size(); i++) {
+            if (reactivated[i] > 0) {
+                counts.computeIfAbsent(known.get(i).right(), club -> new long[2])[1]++;
+            }
+        }
+        Set<Long> enrolled = new HashSet<>();
+        for (IdPair pair : pairs) {
+            if (!existing.contains(pair)) {
+                Member member = new Member();
+                member.setUser(entityManager.getReference(User.class, pair.left()));
+                member.setClub(entityManager.getReference(Club.class, pair.right()));
+                entityManager.persist(member);
+                enrolled.add(pair.left());
+                long[] clubCounts = counts.computeIfAbsent(pair.right(), club -> new long[2]);
+                clubCounts[0]++;
+                clubCounts[1]++;
+            }
+        }
+        if (!enrolled.isEmpty()) {
+            entityManager.flush();
+            UserService.updateRoles(enrolled, Role.USER, Role.MEMBRE);
+        }
+        counts.forEach((clubId, clubCounts) -> clubStatsService.membersChanged(clubId, clubCounts[0], clubCounts[1]));
+        membershipIndex.membershipsChanged(pairs);
+    }
+
     @Override
     @Transactional
     public boolean removeMember(User user, Club club) {
         Optional<Member> membership = findByUserAndClub(user, club);
         if (membership.isPresent()) {
             memberRepository.delete(membership.get());
+            clubStatsService.membersChanged(club.getId(), -1, membership.get().isActive() ? -1 : 0);
+            membershipIndex.membershipChanged(user.getId(), club.getId());
             user.setRole(Role.USER);
             UserService.saveUser(user);
             return true;
@@ -131,6 +283,8 @@ public class MemberServiceImpl implements MemberService {
             Member member = membership.get();
             member.setActive(false);
             memberRepository.save(member);
+            clubStatsService.membersChanged(club.getId(), 0, -1);
+            membershipIndex.membershipChanged(user.getId(), club.getId());
             return true;
         }
         return false;
@@ -144,6 +298,8 @@ public class MemberServiceImpl implements MemberService {
             Member member = membership.get();
             member.setActive(true);
             memberRepository.save(member);
+            clubStatsService.membersChanged(club.getId(), 0, 1);
+            membershipIndex.membershipChanged(user.getId(), club.getId());
             return true;
         }
         return false;
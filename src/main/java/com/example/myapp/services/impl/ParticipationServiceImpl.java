@@ -1,23 +1,52 @@
 package com.example.myapp.services.impl;
 
 
+import com.example.myapp.attestation.AttestationCodes;
+import com.example.myapp.attestation.AttestationDocuments;
+import com.example.myapp.checkin.CheckinDesk;
 import com.example.myapp.entities.Participation;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.payload.response.ParticipationSummary;
+import com.example.myapp.registration.EventRegistrations;
+import com.example.myapp.repositories.EvenementRepository;
 import com.example.myapp.repositories.ParticipationRepository;
+import com.example.myapp.services.ClubStatsService;
 import com.example.myapp.services.ParticipationService;
+import com.example.myapp.utils.AfterCommit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ParticipationServiceImpl implements ParticipationService {
 
     private final ParticipationRepository participationRepository;
+    private final EvenementRepository evenementRepository;
+    private final ClubStatsService clubStatsService;
+    private final AttestationCodes attestationCodes;
+    private final AttestationDocuments attestationDocuments;
+    private final EventRegistrations eventRegistrations;
+    private final CheckinDesk checkinDesk;
 
     @Autowired
-    public ParticipationServiceImpl(ParticipationRepository participationRepository) {
+    public ParticipationServiceImpl(ParticipationRepository participationRepository,
+                                    EvenementRepository evenementRepository, ClubStatsService clubStatsService,
+                                    AttestationCodes attestationCodes, AttestationDocuments attestationDocuments,
+                                    EventRegistrations eventRegistrations, CheckinDesk checkinDesk) {
         this.participationRepository = participationRepository;
+        this.evenementRepository = evenementRepository;
+        this.clubStatsService = clubStatsService;
+        this.attestationCodes = attestationCodes;
+        this.attestationDocuments = attestationDocuments;
+        this.eventRegistrations = eventRegistrations;
+        this.checkinDesk = checkinDesk;
     }
 
     @Override
@@ -25,6 +54,45 @@ public class ParticipationServiceImpl implements ParticipationService {
         return participationRepository.findAll();
     }
 
+    @Override
+    public Optional<ParticipationSummary> getParticipationSummaryById(Long id) {
+        return participationRepository.findSummaryById(id);
+    }
+
+    @Override
+    public Optional<IdPair> getUserClubPairById(Long id) {
+        return participationRepository.findUserClubPairById(id);
+    }
+
+    @Override
+    public List<ParticipationSummary> getParticipationSummariesByUserId(Long userId) {
+        return participationRepository.findSummariesByUserId(userId);
+    }
+
+    @Override
+    public List<ParticipationSummary> getParticipationSummariesByEvenementId(Long evenementId) {
+        return participationRepository.findSummariesByEvenementId(evenementId);
+    }
+
+    @Override
+    public Optional<ParticipationSummary> getParticipationSummaryByUserAndEvenement(Long userId, Long evenementId) {
+        return participationRepository.findSummaryByUserIdAndEvenementId(userId, evenementId);
+    }
+
+    @Override
+    public CursorPage<ParticipationSummary> getParticipationsPage(long afterId, int limit) {
+        List<ParticipationSummary> rows = participationRepository.findSummariesAfter(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, ParticipationSummary::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamParticipations(long afterId, Consumer<? super ParticipationSummary> consumer) {
+        try (Stream<ParticipationSummary> rows = participationRepository.streamSummariesAfter(afterId)) {
+            rows.forEach(consumer);
+        }
+    }
+
     @Override
     public Optional<Participation> getParticipationById(Long id) {
         return participationRepository.findById(id);
@@ -45,13 +113,46 @@ public class ParticipationServiceImpl implements ParticipationService {
         return participationRepository.findByUserIdAndEvenementId(userId, evenementId);
     }
 
+    /**
+     * An existing participation keeps its user and event: seats, waitlists, check-in doors and
+     * attestation codes all hang off that pair, so a move is a cancellation plus a registration.
+     */
     @Override
+    @Transactional
     public Participation saveParticipation(Participation participation) {
-        return participationRepository.save(participation);
+        boolean created = participation.getId() == null;
+        if (!created) {
+            IdPair current = participationRepository.findUserEvenementPairById(participation.getId())
+                    .orElseThrow(() -> new IllegalArgumentException("Participation introuvable"));
+            if (!current.left().equals(participation.getUser().getId())
+                    || !current.right().equals(participation.getEvenement().getId())) {
+                throw new IllegalArgumentException("Une participation ne change ni d'utilisateur ni d'événement");
+            }
+        }
+        Participation saved = participationRepository.save(participation);
+
+        if (created) {
+            evenementRepository.findClubIdById(saved.getEvenement().getId())
+                    .ifPresent(clubId -> clubStatsService.participationsChanged(clubId, 1));
+        }
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteParticipation(Long id) {
+        Optional<Long> clubId = participationRepository.findClubIdById(id);
+        Optional<IdPair> userAndEvenement = participationRepository.findUserEvenementPairById(id);
         participationRepository.deleteById(id);
+        clubId.ifPresent(club -> clubStatsService.participationsChanged(club, -1));
+        // Its attestation is revoked, so the next verification of the code must not be answered from
+        // memory and its printed PDFs go, its seat goes to whoever waits for one, and its ticket no
+        // longer opens the door
+        userAndEvenement.ifPresent(pair -> AfterCommit.run(() -> {
+            attestationCodes.participationRemoved(pair.left(), pair.right());
+            attestationDocuments.participationRemoved(id);
+            eventRegistrations.seatFreed(pair.right());
+            checkinDesk.participationRemoved(pair.right(), id);
+        }));
     }
 }
@@ -4,16 +4,21 @@ import com.example.myapp.entities.President;
 import com.example.myapp.entities.Club;
 import com.example.myapp.entities.User;
 import com.example.myapp.enums.Role;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.PresidentSummary;
 import com.example.myapp.repositories.PresidentRepository;
 import com.example.myapp.services.PresidentService;
 import com.example.myapp.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PresidentServiceImpl implements PresidentService {
@@ -35,6 +40,35 @@ public class PresidentServiceImpl implements PresidentService {
         return presidentRepository.findAll();
     }
 
+    @Override
+    public Optional<PresidentSummary> findSummaryById(Long id) {
+        return presidentRepository.findSummaryById(id);
+    }
+
+    @Override
+    public Optional<PresidentSummary> findCurrentPresidentSummaryByClubId(Long clubId) {
+        return presidentRepository.findCurrentSummaryByClubId(clubId);
+    }
+
+    @Override
+    public List<PresidentSummary> getPresidentHistorySummaries(Long clubId) {
+        return presidentRepository.findHistorySummariesByClubId(clubId);
+    }
+
+    @Override
+    public CursorPage<PresidentSummary> findPage(long afterId, int limit) {
+        List<PresidentSummary> rows = presidentRepository.findSummariesAfter(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, PresidentSummary::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(long afterId, Consumer<? super PresidentSummary> consumer) {
+        try (Stream<PresidentSummary> rows = presidentRepository.streamSummariesAfter(afterId)) {
+            rows.forEach(consumer);
+        }
+    }
+
     @Override
     public Optional<President> findById(Long id) {
         return presidentRepository.findById(id);
@@ -65,6 +99,11 @@ public class PresidentServiceImpl implements PresidentService {
         return presidentRepository.existsByUserAndIsCurrentTrue(user);
     }
 
+    @Override
+    public boolean isCurrentPresident(Long userId, Long clubId) {
+        return presidentRepository.existsByUserIdAndClubIdAndIsCurrentTrue(userId, clubId);
+    }
+
     @Override
     public boolean hasClubCurrentPresident(Club club) {
         return presidentRepository.existsByClubAndIsCurrentTrue(club);
@@ -1,30 +1,62 @@
 package com.example.myapp.services.impl;
 
 
+import com.example.myapp.auth.LoginThrottle;
+import com.example.myapp.auth.LoginThrottledException;
+import com.example.myapp.cache.CacheNames;
 import com.example.myapp.entities.User;
 import com.example.myapp.enums.Role;
+import com.example.myapp.enums.SearchType;
 import com.example.myapp.payload.request.LoginRequest;
 import com.example.myapp.payload.request.SignupRequest;
+import com.example.myapp.payload.response.CursorPage;
+import com.example.myapp.payload.response.UserSummary;
 import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.search.ContentSearch;
+import com.example.myapp.search.SearchDocument;
 import com.example.myapp.services.UserService;
+import com.example.myapp.utils.AfterCommit;
 import com.example.myapp.utils.PasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
-//import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ContentSearch contentSearch;
+    private final LoginThrottle loginThrottle;
+    private final Cache usersCache;
+    // Database work that follows a hash runs here, never on the hashing pool
+    private final Executor taskExecutor;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, ContentSearch contentSearch,
+                           LoginThrottle loginThrottle, CacheManager cacheManager,
+                           @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.contentSearch = contentSearch;
+        this.loginThrottle = loginThrottle;
+        this.usersCache = cacheManager.getCache(CacheNames.USERS);
+        this.taskExecutor = taskExecutor;
     }
 
     @Override
@@ -33,6 +65,36 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    public Optional<UserSummary> getUserSummaryById(Long id) {
+        return userRepository.findSummaryById(id);
+    }
+
+    @Override
+    public Optional<UserSummary> getUserSummaryByEmail(String email) {
+        return userRepository.findSummaryByEmail(email);
+    }
+
+    @Override
+    public List<UserSummary> getUserSummariesByRole(Role role) {
+        return userRepository.findSummariesByRole(role);
+    }
+
+    @Override
+    public CursorPage<UserSummary> getUsersPage(long afterId, int limit) {
+        List<UserSummary> rows = userRepository.findSummariesAfter(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, UserSummary::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUsers(long afterId, Consumer<? super UserSummary> consumer) {
+        try (Stream<UserSummary> rows = userRepository.streamSummariesAfter(afterId)) {
+            rows.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.USERS, key = "#id", unless = "#result == null")
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
     }
@@ -48,37 +110,73 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public User registerUser(SignupRequest signupRequest) {
+    public CompletableFuture<User> registerUser(SignupRequest signupRequest) {
         if (userRepository.existsByEmail(signupRequest.getEmail())) {
-            throw new RuntimeException("Cet email est déjà utilisé");
+            return CompletableFuture.failedFuture(new RuntimeException("Cet email est déjà utilisé"));
         }
 
         User user = new User();
         user.setNom(signupRequest.getNom());
         user.setPrenom(signupRequest.getPrenom());
         user.setEmail(signupRequest.getEmail());
-        user.setMdp(passwordEncoder.encode(signupRequest.getPassword()));
         user.setRole(Role.USER);
         user.setAvatar(signupRequest.getAvatar());
 
-        return userRepository.save(user);
+        return passwordEncoder.encode(signupRequest.getPassword())
+                .thenApplyAsync(hash -> {
+                    user.setMdp(hash);
+                    return saveUser(user);
+                }, taskExecutor);
     }
 
     @Override
-    public User authenticateUser(LoginRequest loginRequest) {
-        Optional<User> userOptional = userRepository.findByEmail(loginRequest.getEmail());
-
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            if (passwordEncoder.matches(loginRequest.getPassword(), user.getMdp())) {
-                return user;
-            }
+    public CompletableFuture<User> authenticateUser(LoginRequest loginRequest, String clientAddress) {
+        // Refused attempts cost neither a query nor a hash
+        try {
+            loginThrottle.acquire(loginRequest.getEmail(), clientAddress);
+        } catch (LoginThrottledException e) {
+            return CompletableFuture.failedFuture(e);
         }
-        else{
-            throw new RuntimeException("Email introuvable");
+        Optional<User> userOptional = userRepository.findByEmail(loginRequest.getEmail());
+        if (userOptional.isEmpty()) {
+            return CompletableFuture.failedFuture(new RuntimeException("Email introuvable"));
         }
 
-        throw new RuntimeException("mot de passe incorrect");
+        User user = userOptional.get();
+        return passwordEncoder.matches(loginRequest.getPassword(), user.getMdp())
+                .thenApply(matches -> {
+                    if (!matches) {
+                        throw new RuntimeException("mot de passe incorrect");
+                    }
+                    loginThrottle.succeeded(loginRequest.getEmail());
+                    if (passwordEncoder.needsRehash(user.getMdp())) {
+                        rehash(user, loginRequest.getPassword());
+                    }
+                    return user;
+                });
+    }
+
+    @Override
+    public CompletableFuture<String> encodePassword(String rawPassword) {
+        return passwordEncoder.encode(rawPassword);
+    }
+
+    @Override
+    public CompletableFuture<String> encodePasswordIfChanged(String rawPassword, String currentHash) {
+        return passwordEncoder.matches(rawPassword, currentHash)
+                .thenCompose(same -> same ? CompletableFuture.completedFuture(currentHash) : passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Re-hashes at the configured cost in the background; the login that triggered it does not
+     * wait. If the pool is saturated the upgrade is simply retried on a later login.
+     */
+    private void rehash(User user, String rawPassword) {
+        passwordEncoder.encode(rawPassword)
+                .thenAcceptAsync(hash -> {
+                    userRepository.updatePassword(user.getId(), hash);
+                    evictAfterCommit(List.of(user.getId()));
+                }, taskExecutor);
     }
 
     @Override
@@ -87,12 +185,36 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.USERS, key = "#user.id", condition = "#user.id != null")
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        contentSearch.changed(SearchDocument.of(saved));
+        return saved;
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.USERS, key = "#id")
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        contentSearch.deleted(SearchType.USER, id);
+    }
+
+    /**
+     * Bulk role change; the cached users are dropped once it has committed.
+     */
+    @Override
+    public int updateRoles(Collection<Long> ids, Role from, Role to) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int updated = userRepository.updateRoles(ids, from, to);
+        evictAfterCommit(ids);
+        return updated;
+    }
+
+    // JPQL updates bypass @CacheEvict, and evicting before the commit would let a reader cache the old row again
+    private void evictAfterCommit(Collection<Long> ids) {
+        List<Long> evicted = List.copyOf(ids);
+        AfterCommit.run(() -> evicted.forEach(usersCache::evict));
     }
 }
@@ -0,0 +1,77 @@
+package com.example.myapp.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Crockford's base32: digits and upper-case letters without I, L, O and U, so codes survive
+ * being read aloud or typed back, and fit the alphanumeric mode of a QR code. Decoding ignores
+ * case and dashes and reads I/L as 1 and O as 0.
+ */
+public final class CrockfordBase32 {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int[] VALUES = new int[128];
+
+    static {
+        Arrays.fill(VALUES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+            VALUES[Character.toLowerCase(ALPHABET[i])] = i;
+        }
+        VALUES['I'] = VALUES['i'] = VALUES['L'] = VALUES['l'] = 1;
+        VALUES['O'] = VALUES['o'] = 0;
+    }
+
+    private CrockfordBase32() {
+    }
+
+    public static String encode(byte[] bytes) {
+        StringBuilder encoded = new StringBuilder((bytes.length * 8 + 4) / 5);
+        int buffer = 0;
+        int bits = 0;
+        for (byte b : bytes) {
+            buffer = (buffer << 8) | (b & 0xff);
+            bits += 8;
+            while (bits >= 5) {
+                encoded.append(ALPHABET[(buffer >>> (bits - 5)) & 31]);
+                bits -= 5;
+            }
+        }
+        if (bits > 0) {
+            encoded.append(ALPHABET[(buffer << (5 - bits)) & 31]);
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text holds anything but base32 digits and dashes,
+     *                                  or was not produced by {@link #encode(byte[])}
+     */
+    public static byte[] decode(CharSequence text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(text.length());
+        int buffer = 0;
+        int bits = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '-') {
+                continue;
+            }
+            int value = c < VALUES.length ? VALUES[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Not a base32 digit: " + c);
+            }
+            buffer = (buffer << 5) | value;
+            bits += 5;
+            if (bits >= 8) {
+                out.write((buffer >>> (bits - 8)) & 0xff);
+                bits -= 8;
+            }
+        }
+        // Only the zero padding of the last digit may be left over; anything more was not produced by encode
+        if (bits >= 5 || (buffer & ((1 << bits) - 1)) != 0) {
+            throw new IllegalArgumentException("Truncated base32 text");
+        }
+        return out.toByteArray();
+    }
+}
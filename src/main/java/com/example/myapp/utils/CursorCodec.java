@@ -0,0 +1,78 @@
+package com.example.myapp.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the last seen id of a keyset page as an opaque, URL-safe cursor token. Listings
+ * ordered by something else than the id carry that sort position along with the id.
+ */
+public final class CursorCodec {
+
+    private static final String PREFIX = "id:";
+    private static final String POSITION_PREFIX = "at:";
+
+    /**
+     * Where a listing sorted by (position, id) stopped.
+     */
+    public record Position(long position, long id) {
+    }
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Long id) {
+        byte[] raw = (PREFIX + id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * Returns the id to resume after, or 0 when no cursor is given (first page).
+     *
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode(Long)}
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            long id = Long.parseLong(raw.substring(PREFIX.length()));
+            if (id < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return id;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public static String encode(long position, Long id) {
+        byte[] raw = (POSITION_PREFIX + position + ":" + id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * Returns the position to resume after, or null when no cursor is given (first page).
+     *
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode(long, Long)}
+     */
+    public static Position decodePosition(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (!raw.startsWith(POSITION_PREFIX) || parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Position(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
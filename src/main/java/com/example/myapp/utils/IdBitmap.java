@@ -0,0 +1,541 @@
+package com.example.myapp.utils;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Immutable compressed set of non-negative ids, laid out like a Roaring bitmap: ids are grouped
+ * by their high bits into chunks of 65536, and each chunk keeps its low 16 bits either as a
+ * sorted array, while it holds at most 4096 of them, or as a 65536-bit bitmap beyond that. A
+ * sparse set costs about two bytes per id, a dense one a bit per possible id, and
+ * intersections and unions work chunk by chunk.
+ * <p>
+ * {@link #with(long)} and {@link #without(long)} copy only the chunk they touch, so a shared
+ * instance can be replaced by an updated one without copying the whole set.
+ */
+public final class IdBitmap {
+
+    public static final IdBitmap EMPTY = new IdBitmap(new long[0], new Container[0], 0);
+
+    // Past this many ids a chunk is smaller as a bitmap than as an array
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private final long[] keys;
+    private final Container[] containers;
+    private final long cardinality;
+
+    private IdBitmap(long[] keys, Container[] containers, long cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * @throws IllegalArgumentException if an id is negative
+     */
+    public static IdBitmap of(long... ids) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        if (sorted.length > 0) {
+            check(sorted[0]);
+        }
+        long[] keys = new long[sorted.length];
+        Container[] containers = new Container[sorted.length];
+        int chunks = 0;
+        long cardinality = 0;
+        for (int from = 0; from < sorted.length; ) {
+            long key = sorted[from] >>> 16;
+            int to = from;
+            char[] values = new char[Math.min(sorted.length - from, 1 << 16)];
+            int count = 0;
+            while (to < sorted.length && sorted[to] >>> 16 == key) {
+                char low = (char) sorted[to];
+                if (count == 0 || values[count - 1] != low) {
+                    values[count++] = low;
+                }
+                to++;
+            }
+            keys[chunks] = key;
+            containers[chunks++] = count <= ARRAY_MAX
+                    ? new ArrayContainer(Arrays.copyOf(values, count))
+                    : BitmapContainer.of(values, count);
+            cardinality += count;
+            from = to;
+        }
+        return new IdBitmap(Arrays.copyOf(keys, chunks), Arrays.copyOf(containers, chunks), cardinality);
+    }
+
+    public long cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, id >>> 16);
+        return index >= 0 && containers[index].contains((char) id);
+    }
+
+    public IdBitmap with(long id) {
+        check(id);
+        long key = id >>> 16;
+        int index = Arrays.binarySearch(keys, key);
+        if (index >= 0) {
+            Container container = containers[index].add((char) id);
+            return container == containers[index] ? this : replace(index, container, cardinality + 1);
+        }
+        int at = -index - 1;
+        long[] newKeys = new long[keys.length + 1];
+        Container[] newContainers = new Container[keys.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, at);
+        System.arraycopy(containers, 0, newContainers, 0, at);
+        newKeys[at] = key;
+        newContainers[at] = new ArrayContainer(new char[] {(char) id});
+        System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+        System.arraycopy(containers, at, newContainers, at + 1, keys.length - at);
+        return new IdBitmap(newKeys, newContainers, cardinality + 1);
+    }
+
+    public IdBitmap without(long id) {
+        if (id < 0) {
+            return this;
+        }
+        int index = Arrays.binarySearch(keys, id >>> 16);
+        if (index < 0) {
+            return this;
+        }
+        Container container = containers[index].remove((char) id);
+        if (container == containers[index]) {
+            return this;
+        }
+        if (container != null) {
+            return replace(index, container, cardinality - 1);
+        }
+        long[] newKeys = new long[keys.length - 1];
+        Container[] newContainers = new Container[keys.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, index);
+        System.arraycopy(containers, 0, newContainers, 0, index);
+        System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+        System.arraycopy(containers, index + 1, newContainers, index, keys.length - index - 1);
+        return new IdBitmap(newKeys, newContainers, cardinality - 1);
+    }
+
+    public IdBitmap and(IdBitmap other) {
+        Merge merge = new Merge(Math.min(keys.length, other.keys.length));
+        for (int i = 0, j = 0; i < keys.length && j < other.keys.length; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                merge.add(keys[i], containers[i++].and(other.containers[j++]));
+            }
+        }
+        return merge.result();
+    }
+
+    /**
+     * The size of {@code and(other)} without building it.
+     */
+    public long andCardinality(IdBitmap other) {
+        long count = 0;
+        for (int i = 0, j = 0; i < keys.length && j < other.keys.length; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                count += containers[i++].andCardinality(other.containers[j++]);
+            }
+        }
+        return count;
+    }
+
+    public IdBitmap or(IdBitmap other) {
+        Merge merge = new Merge(keys.length + other.keys.length);
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || i < keys.length && keys[i] < other.keys[j]) {
+                merge.add(keys[i], containers[i++]);
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                merge.add(other.keys[j], other.containers[j++]);
+            } else {
+                merge.add(keys[i], containers[i++].or(other.containers[j++]));
+            }
+        }
+        return merge.result();
+    }
+
+    public IdBitmap andNot(IdBitmap other) {
+        Merge merge = new Merge(keys.length);
+        for (int i = 0, j = 0; i < keys.length; ) {
+            if (j == other.keys.length || keys[i] < other.keys[j]) {
+                merge.add(keys[i], containers[i++]);
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                merge.add(keys[i], containers[i++].andNot(other.containers[j++]));
+            }
+        }
+        return merge.result();
+    }
+
+    /**
+     * Calls the action with every id, in ascending order.
+     */
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * The ids in ascending order.
+     */
+    public long[] toArray() {
+        long[] ids = new long[Math.toIntExact(cardinality)];
+        int[] position = {0};
+        forEach(id -> ids[position[0]++] = id);
+        return ids;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IdBitmap other) || cardinality != other.cardinality) {
+            return false;
+        }
+        return Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "IdBitmap[" + cardinality + " ids in " + keys.length + " chunks]";
+    }
+
+    private IdBitmap replace(int index, Container container, long newCardinality) {
+        Container[] newContainers = containers.clone();
+        newContainers[index] = container;
+        return new IdBitmap(keys, newContainers, newCardinality);
+    }
+
+    private static void check(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Ids must not be negative: " + id);
+        }
+    }
+
+    private static final class Merge {
+        private final long[] keys;
+        private final Container[] containers;
+        private int size;
+        private long cardinality;
+
+        Merge(int capacity) {
+            keys = new long[capacity];
+            containers = new Container[capacity];
+        }
+
+        void add(long key, Container container) {
+            if (container != null) {
+                keys[size] = key;
+                containers[size++] = container;
+                cardinality += container.cardinality();
+            }
+        }
+
+        IdBitmap result() {
+            return size == 0 ? EMPTY : new IdBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size), cardinality);
+        }
+    }
+
+    /**
+     * The low 16 bits of the ids of one chunk. Never empty: operations that would leave one
+     * empty return null instead.
+     */
+    private abstract static sealed class Container permits ArrayContainer, BitmapContainer {
+
+        abstract int cardinality();
+
+        abstract boolean contains(char low);
+
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract void forEach(long base, LongConsumer action);
+
+        // Read-only view for the word-wise operations
+        abstract long[] words();
+
+        int andCardinality(Container other) {
+            if (this instanceof ArrayContainer array) {
+                return array.countIn(other, true);
+            }
+            if (other instanceof ArrayContainer array) {
+                return array.countIn(this, true);
+            }
+            long[] a = words();
+            long[] b = other.words();
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                count += Long.bitCount(a[i] & b[i]);
+            }
+            return count;
+        }
+
+        Container and(Container other) {
+            if (this instanceof ArrayContainer array) {
+                return array.filter(other, true);
+            }
+            if (other instanceof ArrayContainer array) {
+                return array.filter(this, true);
+            }
+            long[] a = words();
+            long[] b = other.words();
+            long[] result = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = a[i] & b[i];
+            }
+            return fromWords(result);
+        }
+
+        Container or(Container other) {
+            if (this instanceof ArrayContainer a && other instanceof ArrayContainer b
+                    && a.values.length + b.values.length <= ARRAY_MAX) {
+                return a.union(b);
+            }
+            long[] result = words().clone();
+            long[] b = other.words();
+            for (int i = 0; i < WORDS; i++) {
+                result[i] |= b[i];
+            }
+            return fromWords(result);
+        }
+
+        Container andNot(Container other) {
+            if (this instanceof ArrayContainer array) {
+                return array.filter(other, false);
+            }
+            long[] result = words().clone();
+            if (other instanceof ArrayContainer array) {
+                for (char low : array.values) {
+                    result[low >>> 6] &= ~(1L << low);
+                }
+            } else {
+                long[] b = other.words();
+                for (int i = 0; i < WORDS; i++) {
+                    result[i] &= ~b[i];
+                }
+            }
+            return fromWords(result);
+        }
+
+        static Container fromWords(long[] words) {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            if (count == 0) {
+                return null;
+            }
+            if (count > ARRAY_MAX) {
+                return new BitmapContainer(words, count);
+            }
+            char[] values = new char[count];
+            int n = 0;
+            for (int i = 0; i < WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    values[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new ArrayContainer(values);
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+        // Sorted, no duplicates
+        final char[] values;
+
+        ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        @Override
+        int cardinality() {
+            return values.length;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, low) >= 0;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = Arrays.binarySearch(values, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (values.length == ARRAY_MAX) {
+                return BitmapContainer.of(values, values.length).add(low);
+            }
+            int at = -index - 1;
+            char[] result = new char[values.length + 1];
+            System.arraycopy(values, 0, result, 0, at);
+            result[at] = low;
+            System.arraycopy(values, at, result, at + 1, values.length - at);
+            return new ArrayContainer(result);
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, low);
+            if (index < 0) {
+                return this;
+            }
+            if (values.length == 1) {
+                return null;
+            }
+            char[] result = new char[values.length - 1];
+            System.arraycopy(values, 0, result, 0, index);
+            System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+            return new ArrayContainer(result);
+        }
+
+        @Override
+        void forEach(long base, LongConsumer action) {
+            for (char low : values) {
+                action.accept(base | low);
+            }
+        }
+
+        @Override
+        long[] words() {
+            long[] words = new long[WORDS];
+            for (char low : values) {
+                words[low >>> 6] |= 1L << low;
+            }
+            return words;
+        }
+
+        int countIn(Container other, boolean present) {
+            int count = 0;
+            for (char low : values) {
+                if (other.contains(low) == present) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        // The values that are, or are not, in the other container
+        Container filter(Container other, boolean present) {
+            char[] result = new char[values.length];
+            int n = 0;
+            for (char low : values) {
+                if (other.contains(low) == present) {
+                    result[n++] = low;
+                }
+            }
+            return n == 0 ? null : n == values.length ? this : new ArrayContainer(Arrays.copyOf(result, n));
+        }
+
+        ArrayContainer union(ArrayContainer other) {
+            char[] result = new char[values.length + other.values.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < values.length && j < other.values.length) {
+                char a = values[i];
+                char b = other.values[j];
+                result[n++] = a <= b ? a : b;
+                i += a <= b ? 1 : 0;
+                j += b <= a ? 1 : 0;
+            }
+            while (i < values.length) {
+                result[n++] = values[i++];
+            }
+            while (j < other.values.length) {
+                result[n++] = other.values[j++];
+            }
+            return new ArrayContainer(n == result.length ? result : Arrays.copyOf(result, n));
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        final int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        static BitmapContainer of(char[] values, int count) {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < count; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, count);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(char low) {
+            if (contains(low)) {
+                return this;
+            }
+            long[] result = words.clone();
+            result[low >>> 6] |= 1L << low;
+            return new BitmapContainer(result, cardinality + 1);
+        }
+
+        @Override
+        Container remove(char low) {
+            if (!contains(low)) {
+                return this;
+            }
+            long[] result = words.clone();
+            result[low >>> 6] &= ~(1L << low);
+            return cardinality - 1 > ARRAY_MAX ? new BitmapContainer(result, cardinality - 1) : fromWords(result);
+        }
+
+        @Override
+        void forEach(long base, LongConsumer action) {
+            for (int i = 0; i < WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    action.accept(base | ((long) i << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+
+        @Override
+        long[] words() {
+            return words;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.myapp.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads bulk-import rows one at a time from CSV (first line is the header) or NDJSON (one JSON
+ * object per line), so a file of any size is never held in memory. Column names are matched
+ * case-insensitively. A line that cannot be parsed becomes a row carrying an error instead of
+ * aborting the whole import.
+ */
+public class ImportRowReader implements Iterator<ImportRowReader.Row>, Closeable {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final List<String> header;
+    private long line;
+    private Row next;
+
+    /**
+     * @param contentType {@code text/csv} or {@code application/x-ndjson}
+     * @throws IllegalArgumentException for any other content type or a CSV without a header
+     */
+    public ImportRowReader(InputStream in, String contentType) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith(TEXT_CSV_VALUE)) {
+            this.csv = true;
+            List<String> columns = readCsvRecord();
+            if (columns == null || columns.isEmpty()) {
+                throw new IllegalArgumentException("Le fichier CSV doit commencer par une ligne d'en-tête");
+            }
+            this.header = columns.stream()
+                    .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+        } else if (type.startsWith(NdjsonStreamer.APPLICATION_NDJSON_VALUE)) {
+            this.csv = false;
+            this.header = List.of();
+        } else {
+            throw new IllegalArgumentException("Type de contenu non supporté: " + contentType);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = csv ? readCsvRow() : readNdjsonRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row readNdjsonRow() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+
+        try {
+            JsonNode node = OBJECT_MAPPER.readTree(text);
+            if (!node.isObject()) {
+                return Row.invalid(line, "Un objet JSON est attendu");
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            node.fields().forEachRemaining(field -> values.put(
+                    field.getKey().trim().toLowerCase(Locale.ROOT),
+                    field.getValue().isNull() ? null : field.getValue().asText()));
+            return new Row(line, values, null);
+        } catch (JsonProcessingException e) {
+            return Row.invalid(line, "JSON invalide: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row readCsvRow() throws IOException {
+        List<String> record;
+        long start;
+        do {
+            start = line + 1;
+            record = readCsvRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        if (record.size() != header.size()) {
+            return Row.invalid(start, "Nombre de colonnes incorrect: " + record.size() + " au lieu de " + header.size());
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            values.put(header.get(i), record.get(i));
+        }
+        return new Row(start, values, null);
+    }
+
+    /**
+     * One RFC 4180 record: quoted fields may contain commas, doubled quotes and line breaks.
+     */
+    private List<String> readCsvRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        line++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int peek = reader.read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    /**
+     * One input record. {@code line} is where it starts in the file; {@code error} is set when
+     * the record itself could not be parsed.
+     */
+    public record Row(long line, Map<String, String> values, String error) {
+
+        static Row invalid(long line, String error) {
+            return new Row(line, Map.of(), error);
+        }
+
+        /**
+         * @return the trimmed value, or null when the column is missing or blank
+         */
+        public String get(String column) {
+            String value = values.get(column);
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+}
@@ -1,27 +1,118 @@
 package com.example.myapp.utils;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt hashing on a dedicated, bounded pool so a login burst queues here instead of pinning
+ * Tomcat threads. When both the workers and the queue are busy the returned future fails with
+ * {@link RejectedExecutionException}, which callers map to 503.
+ * <p>
+ * Bulk work such as imports hashes on a second, smaller pool, so it can never take the login
+ * pool's capacity; when that pool is full the caller hashes itself, which paces the import.
+ */
 @Component
-public class PasswordEncoder {
+public class PasswordEncoder implements DisposableBean {
 
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor bulkExecutor;
+
+    public PasswordEncoder(@Value("${app.security.bcrypt.strength:10}") int strength,
+                           @Value("${app.security.hashing.threads:0}") int threads,
+                           @Value("${app.security.hashing.queue-capacity:256}") int queueCapacity,
+                           @Value("${app.security.hashing.bulk-threads:0}") int bulkThreads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int bulkPoolSize = bulkThreads > 0 ? bulkThreads : Math.max(1, poolSize / 4);
+        AtomicInteger threadCount = new AtomicInteger();
+        AtomicInteger bulkThreadCount = new AtomicInteger();
+
+        this.strength = strength;
+        this.bCryptPasswordEncoder = new BCryptPasswordEncoder(strength);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.bulkExecutor = new ThreadPoolExecutor(bulkPoolSize, bulkPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(bulkPoolSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-bulk-" + bulkThreadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Hashing pool shut down");
+                    }
+                    runnable.run();
+                });
+    }
+
+    public CompletableFuture<String> encode(String password) {
+        return submit(() -> bCryptPasswordEncoder.encode(password));
+    }
 
-    public PasswordEncoder() {
-        this.bCryptPasswordEncoder = new BCryptPasswordEncoder();
+    /**
+     * Hashes on the bulk pool; never rejected while the application runs.
+     */
+    public CompletableFuture<String> encodeBulk(String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> bCryptPasswordEncoder.encode(password), bulkExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
-    public String encode(String password) {
-        System.out.println(bCryptPasswordEncoder.encode(password));
-        return bCryptPasswordEncoder.encode(password);
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> bCryptPasswordEncoder.matches(rawPassword, encodedPassword));
     }
 
-    public boolean matches(String rawPassword, String encodedPassword) {
-        System.out.println(bCryptPasswordEncoder.matches(rawPassword, encodedPassword));
-        System.out.println(rawPassword);
-        System.out.println(encodedPassword);
+    /**
+     * True when the hash was produced with a different cost than the configured one, so it
+     * should be replaced after the next successful login.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        // $2a$10$... : the cost is the two digits after the version
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        bulkExecutor.shutdown();
+    }
 
-        return bCryptPasswordEncoder.matches(rawPassword, encodedPassword);
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 }
@@ -0,0 +1,44 @@
+package com.example.myapp.utils;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Unsigned LEB128 varints, seven bits per byte, so the small ids packed into short codes take
+ * as few bytes as they need.
+ */
+public final class Varints {
+
+    private Varints() {
+    }
+
+    public static void write(ByteArrayOutputStream out, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative varint: " + value);
+        }
+        while (value >= 0x80) {
+            out.write((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Reads the varint at {@code position[0]} and moves the position past it.
+     *
+     * @throws IllegalArgumentException if the bytes end first or the value does not fit a long
+     */
+    public static long read(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 63; shift += 7) {
+            if (position[0] >= bytes.length) {
+                throw new IllegalArgumentException("Truncated varint");
+            }
+            int b = bytes[position[0]++] & 0xff;
+            value |= (long) (b & 0x7f) << shift;
+            if (b < 0x80) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+}
@@ -0,0 +1,14 @@
+-- Rendered attestation PDFs in the object store, so they can be deleted with their
+-- participation or once a newer rendition for it has replaced them.
+create sequence if not exists attestation_documents_seq start with 1 increment by 50;
+
+create table attestation_documents (
+    id bigint not null,
+    participation_id bigint not null,
+    object_key varchar(255) not null,
+    created_at timestamp(6),
+    primary key (id),
+    constraint uk_attestation_documents_key unique (object_key)
+);
+
+create index ix_attestation_documents_participation on attestation_documents (participation_id);
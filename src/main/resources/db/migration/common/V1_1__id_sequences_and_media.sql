@@ -0,0 +1,36 @@
+-- Ids moved from IDENTITY columns to pooled sequences (allocation size 50); PostgreSQL's V3
+-- moves them past the existing rows.
+create sequence if not exists attestation_seq start with 1 increment by 50;
+create sequence if not exists club_seq start with 1 increment by 50;
+create sequence if not exists demands_seq start with 1 increment by 50;
+create sequence if not exists evenement_seq start with 1 increment by 50;
+create sequence if not exists media_variants_seq start with 1 increment by 50;
+create sequence if not exists members_seq start with 1 increment by 50;
+create sequence if not exists participation_seq start with 1 increment by 50;
+create sequence if not exists presidents_seq start with 1 increment by 50;
+create sequence if not exists users_seq start with 1 increment by 50;
+
+-- Content-addressed media. Databases that ran before migrations took over may already have
+-- these from Hibernate.
+create table if not exists media_blobs (
+    digest varchar(64) not null,
+    size bigint not null,
+    content_type varchar(255),
+    ref_count integer,
+    created_at timestamp(6),
+    primary key (digest)
+);
+
+create table if not exists media_variants (
+    id bigint not null,
+    digest varchar(64) not null,
+    width integer not null,
+    status varchar(255) check (status in ('PENDING', 'READY', 'SKIPPED', 'FAILED')),
+    object_key varchar(255),
+    size bigint not null,
+    updated_at timestamp(6),
+    primary key (id),
+    unique (digest, width)
+);
+
+create index if not exists ix_media_variants_status on media_variants (status);
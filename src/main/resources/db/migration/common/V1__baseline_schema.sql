@@ -0,0 +1,92 @@
+-- Schema as Hibernate generated it before migrations took over, IDENTITY ids included. Databases
+-- created that way are baselined at this version (spring.flyway.baseline-on-migrate) and skip
+-- this script, so it must not hold anything added since: that goes into later versions.
+
+create table users (
+    id bigint generated by default as identity,
+    nom varchar(255) not null,
+    prenom varchar(255) not null,
+    email varchar(255) not null,
+    mdp varchar(255) not null,
+    role varchar(255) not null check (role in ('ADMIN', 'PRESIDENT', 'MEMBRE', 'USER')),
+    avatar varchar(255),
+    primary key (id)
+);
+
+create table club (
+    id bigint generated by default as identity,
+    nom varchar(255) not null,
+    description varchar(255) not null,
+    logopath varchar(255),
+    primary key (id)
+);
+
+create table evenement (
+    id bigint generated by default as identity,
+    titre varchar(255) not null,
+    description varchar(255) not null,
+    date date not null,
+    event_type smallint check (event_type between 0 and 2),
+    imageurl varchar(255),
+    club_id bigint not null,
+    primary key (id),
+    constraint fk_evenement_club foreign key (club_id) references club
+);
+
+create table attestation (
+    id bigint generated by default as identity,
+    nom varchar(255) not null,
+    description varchar(255) not null,
+    evenement_id bigint unique,
+    primary key (id),
+    constraint fk_attestation_evenement foreign key (evenement_id) references evenement
+);
+
+create table demands (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    club_id bigint not null,
+    status varchar(255) not null check (status in ('PENDING', 'APPROVED', 'REFUSED')),
+    request_date timestamp(6),
+    response_date timestamp(6),
+    comment varchar(500),
+    primary key (id),
+    constraint fk_demands_user foreign key (user_id) references users,
+    constraint fk_demands_club foreign key (club_id) references club
+);
+
+create table members (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    club_id bigint not null,
+    join_date date,
+    is_active boolean not null,
+    primary key (id),
+    constraint fk_members_user foreign key (user_id) references users,
+    constraint fk_members_club foreign key (club_id) references club
+);
+
+create table participation (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    evenement_id bigint not null,
+    date date not null,
+    primary key (id),
+    constraint fk_participation_user foreign key (user_id) references users,
+    constraint fk_participation_evenement foreign key (evenement_id) references evenement
+);
+
+create table presidents (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    club_id bigint not null,
+    start_date date,
+    end_date date,
+    is_current boolean not null,
+    primary key (id),
+    -- Both @OneToOne at the time; the names Hibernate gave them vary, see V1_2
+    constraint uk_presidents_user unique (user_id),
+    constraint uk_presidents_club unique (club_id),
+    constraint fk_presidents_user foreign key (user_id) references users,
+    constraint fk_presidents_club foreign key (club_id) references club
+);
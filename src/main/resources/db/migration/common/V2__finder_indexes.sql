@@ -0,0 +1,33 @@
+-- One index per repository finder, equality columns first and the sort column last so the
+-- rows come back already ordered.
+
+create index ix_users_email on users (email);
+create index ix_users_role on users (role, id);
+
+create index ix_club_nom on club (nom);
+
+-- findByClubAndStatus, findSummariesByClubId[AndStatus] (order by request_date desc)
+create index ix_demands_club_status_date on demands (club_id, status, request_date);
+-- findByUserAndStatus, findSummariesByUserId[AndStatus]
+create index ix_demands_user_status_date on demands (user_id, status, request_date);
+-- existsByUserAndClubAndStatus, findFirstByUserAndClubOrderByRequestDateDesc, findLatestSummaries
+create index ix_demands_user_club_date on demands (user_id, club_id, request_date);
+create index ix_demands_status_date on demands (status, request_date);
+
+create index ix_members_club on members (club_id, id);
+create index ix_members_user_club on members (user_id, club_id);
+
+create index ix_presidents_club_start on presidents (club_id, start_date);
+
+create index ix_evenement_club_date on evenement (club_id, date);
+create index ix_evenement_type_date on evenement (event_type, date);
+create index ix_evenement_date on evenement (date);
+
+create index ix_participation_evenement on participation (evenement_id, id);
+
+-- One participation per user and event; keep the oldest of any existing duplicates. The
+-- constraint's index also serves findByUserId and findByUserIdAndEvenementId.
+delete from participation p
+where exists (select 1 from participation q
+              where q.user_id = p.user_id and q.evenement_id = p.evenement_id and q.id < p.id);
+alter table participation add constraint uq_participation_user_evenement unique (user_id, evenement_id);
@@ -0,0 +1,20 @@
+-- Optimistic version for demands; the conditional status transitions bump it as well.
+alter table demands add column version bigint default 0 not null;
+
+-- At most one pending demand per user and club: refuse all but the oldest before the
+-- vendor script enforces it.
+update demands set status = 'REFUSED', response_date = current_timestamp
+where status = 'PENDING'
+  and exists (select 1 from demands q
+              where q.user_id = demands.user_id and q.club_id = demands.club_id
+                and q.status = 'PENDING' and q.id < demands.id);
+
+-- One membership row per user and club, so approvals can reactivate-or-insert safely. Keep
+-- the active row of any duplicates, else the oldest.
+delete from members
+where exists (select 1 from members q
+              where q.user_id = members.user_id and q.club_id = members.club_id
+                and ((coalesce(q.is_active, false) and not coalesce(members.is_active, false))
+                     or (coalesce(q.is_active, false) = coalesce(members.is_active, false) and q.id < members.id)));
+alter table members add constraint uq_members_user_club unique (user_id, club_id);
+drop index ix_members_user_club;
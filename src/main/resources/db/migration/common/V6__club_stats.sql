@@ -0,0 +1,20 @@
+-- Per-club counters kept up to date by the write paths and checked by ClubStatsService.reconcile().
+create table club_stats (
+    club_id bigint not null,
+    member_count bigint default 0 not null,
+    active_member_count bigint default 0 not null,
+    pending_demand_count bigint default 0 not null,
+    event_count bigint default 0 not null,
+    participation_count bigint default 0 not null,
+    primary key (club_id),
+    constraint fk_club_stats_club foreign key (club_id) references club (id) on delete cascade
+);
+
+insert into club_stats (club_id, member_count, active_member_count, pending_demand_count, event_count, participation_count)
+select c.id,
+       (select count(*) from members m where m.club_id = c.id),
+       (select count(*) from members m where m.club_id = c.id and m.is_active),
+       (select count(*) from demands d where d.club_id = c.id and d.status = 'PENDING'),
+       (select count(*) from evenement e where e.club_id = c.id),
+       (select count(*) from participation p join evenement e on e.id = p.evenement_id where e.club_id = c.id)
+from club c;
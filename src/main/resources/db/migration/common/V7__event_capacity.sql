@@ -0,0 +1,19 @@
+-- Seats per event; null leaves the event unlimited, as every existing event stays.
+alter table evenement add column capacity integer;
+alter table evenement add constraint ck_evenement_capacity check (capacity is null or capacity >= 0);
+
+-- Users waiting for a seat, served in id order.
+create sequence if not exists waitlist_seq start with 1 increment by 50;
+
+create table waitlist (
+    id bigint not null,
+    evenement_id bigint not null,
+    user_id bigint not null,
+    request_date timestamp not null,
+    primary key (id),
+    constraint uq_waitlist_evenement_user unique (evenement_id, user_id),
+    constraint fk_waitlist_evenement foreign key (evenement_id) references evenement on delete cascade,
+    constraint fk_waitlist_user foreign key (user_id) references users on delete cascade
+);
+
+create index ix_waitlist_evenement on waitlist (evenement_id, id);
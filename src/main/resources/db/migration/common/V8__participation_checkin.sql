@@ -0,0 +1,2 @@
+-- When the participant was checked in at the door; null until then.
+alter table participation add column checked_in_at timestamp;
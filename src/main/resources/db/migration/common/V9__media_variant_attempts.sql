@@ -0,0 +1,6 @@
+-- How many times the pipeline has started on a rendition; it is given up as FAILED after
+-- app.media.variants.max-attempts. Resume picks the least recently tried first.
+alter table media_variants add column attempts integer default 0 not null;
+
+drop index if exists ix_media_variants_status;
+create index ix_media_variants_status on media_variants (status, updated_at);
@@ -0,0 +1,8 @@
+-- A user may preside several clubs over time and a club has many past presidents. H2 lets the
+-- foreign keys borrow the unique indexes, so they go and come back around the drop.
+alter table presidents drop constraint fk_presidents_user;
+alter table presidents drop constraint fk_presidents_club;
+alter table presidents drop constraint uk_presidents_user;
+alter table presidents drop constraint uk_presidents_club;
+alter table presidents add constraint fk_presidents_user foreign key (user_id) references users;
+alter table presidents add constraint fk_presidents_club foreign key (club_id) references club;
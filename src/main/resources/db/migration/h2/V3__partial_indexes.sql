@@ -0,0 +1,6 @@
+-- H2 has no partial indexes: the filtered column goes into the key instead. The "one current
+-- president per club" rule is only enforced by the PostgreSQL index.
+create index ix_presidents_current_club on presidents (club_id, is_current);
+create index ix_presidents_current_user on presidents (user_id, is_current);
+create index ix_members_active_club on members (club_id, is_active, id);
+
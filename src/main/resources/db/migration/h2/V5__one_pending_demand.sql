@@ -0,0 +1,4 @@
+-- No partial indexes in H2: a generated column that is null unless the demand is pending
+-- gives the same uniqueness, since nulls never collide.
+alter table demands add column pending_club_id bigint generated always as (case when status = 'PENDING' then club_id end);
+create unique index ux_demands_pending_user_club on demands (user_id, pending_club_id);
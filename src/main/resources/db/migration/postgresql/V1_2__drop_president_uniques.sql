@@ -0,0 +1,18 @@
+-- A user may preside several clubs over time and a club has many past presidents. Hibernate
+-- named the old @OneToOne constraints itself, so find them by their column.
+do $$
+declare
+    legacy record;
+begin
+    for legacy in
+        select c.conname
+        from pg_constraint c
+        join pg_attribute a on a.attrelid = c.conrelid and a.attnum = c.conkey[1]
+        where c.conrelid = 'presidents'::regclass
+          and c.contype = 'u'
+          and cardinality(c.conkey) = 1
+          and a.attname in ('user_id', 'club_id')
+    loop
+        execute format('alter table presidents drop constraint %I', legacy.conname);
+    end loop;
+end $$;
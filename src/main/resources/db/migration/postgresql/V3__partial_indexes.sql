@@ -0,0 +1,21 @@
+-- At most one current president per club: demote all but the latest before enforcing it.
+update presidents p set is_current = false
+where p.is_current
+  and exists (select 1 from presidents q where q.club_id = p.club_id and q.is_current and q.id > p.id);
+create unique index ux_presidents_current_club on presidents (club_id) where is_current;
+create index ix_presidents_current_user on presidents (user_id) where is_current;
+
+-- findByClubAndIsActiveTrue, findActiveSummariesByClubId
+create index ix_members_active_club on members (club_id, id) where is_active;
+
+-- The pooled sequences created in V1_1 start below the rows the IDENTITY columns numbered:
+-- move each one past max(id).
+select setval('attestation_seq', greatest((select coalesce(max(id), 0) from attestation) + 50, (select last_value from attestation_seq)));
+select setval('club_seq', greatest((select coalesce(max(id), 0) from club) + 50, (select last_value from club_seq)));
+select setval('demands_seq', greatest((select coalesce(max(id), 0) from demands) + 50, (select last_value from demands_seq)));
+select setval('evenement_seq', greatest((select coalesce(max(id), 0) from evenement) + 50, (select last_value from evenement_seq)));
+select setval('media_variants_seq', greatest((select coalesce(max(id), 0) from media_variants) + 50, (select last_value from media_variants_seq)));
+select setval('members_seq', greatest((select coalesce(max(id), 0) from members) + 50, (select last_value from members_seq)));
+select setval('participation_seq', greatest((select coalesce(max(id), 0) from participation) + 50, (select last_value from participation_seq)));
+select setval('presidents_seq', greatest((select coalesce(max(id), 0) from presidents) + 50, (select last_value from presidents_seq)));
+select setval('users_seq', greatest((select coalesce(max(id), 0) from users) + 50, (select last_value from users_seq)));
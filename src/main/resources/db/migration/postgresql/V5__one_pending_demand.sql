@@ -0,0 +1 @@
+create unique index ux_demands_pending_user_club on demands (user_id, club_id) where status = 'PENDING';
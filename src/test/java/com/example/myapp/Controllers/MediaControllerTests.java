@@ -0,0 +1,351 @@
+package com.example.myapp.Controllers;
+
+import com.example.myapp.entities.MediaVariant;
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.VariantStatus;
+import com.example.myapp.media.ImageVariantPipeline;
+import com.example.myapp.media.MediaStorage;
+import com.example.myapp.media.StoredMedia;
+import com.example.myapp.repositories.MediaBlobRepository;
+import com.example.myapp.repositories.MediaVariantRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static com.example.myapp.support.TestEntities.newUser;
+import static com.example.myapp.support.TestEntities.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MediaControllerTests {
+
+    private static final String BODY = "0123456789abcdef";
+
+    @TempDir
+    static Path root;
+
+    @DynamicPropertySource
+    static void mediaRoot(DynamicPropertyRegistry registry) {
+        registry.add("app.media.root", () -> root.resolve("blobs").toString());
+        registry.add("app.media.temp-dir", () -> root.resolve("tmp").toString());
+        registry.add("app.media.max-upload-size", () -> "1MB");
+        registry.add("app.media.variants.max-attempts", () -> "3");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MediaStorage mediaStorage;
+
+    @Autowired
+    private MediaVariantRepository mediaVariantRepository;
+
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+
+    @Autowired
+    private ImageVariantPipeline imageVariantPipeline;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private StoredMedia media;
+    private int refCount;
+
+    @BeforeEach
+    void store() throws IOException {
+        media = mediaStorage.store(new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8)));
+        refCount = mediaBlobRepository.findById(media.digest()).orElseThrow().getRefCount();
+    }
+
+    @Test
+    void servesContentAddressedMediaAsImmutable() throws Exception {
+        mockMvc.perform(get("/api/media/" + media.key()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + media.digest() + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/octet-stream"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("attachment")))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void refusesKeysWhoseExtensionIsNotTheContents() throws Exception {
+        mockMvc.perform(get("/api/media/" + media.digest() + ".html"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/media/" + media.digest()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/octet-stream"));
+    }
+
+    @Test
+    void servesRasterImagesInline() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", png);
+        StoredMedia image = mediaStorage.store(new ByteArrayInputStream(png.toByteArray()));
+
+        mockMvc.perform(get("/api/media/" + image.key()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("inline")));
+        mockMvc.perform(get("/api/media/" + image.digest() + ".svg"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void answersRevalidationWithNotModified() throws Exception {
+        mockMvc.perform(get("/api/media/" + media.key())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + media.digest() + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void servesSingleByteRanges() throws Exception {
+        mockMvc.perform(get("/api/media/" + media.key()).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/16"))
+                .andExpect(content().string("2345"));
+
+        mockMvc.perform(get("/api/media/" + media.key()).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("def"));
+    }
+
+    @Test
+    void rejectsRangesPastTheEnd() throws Exception {
+        mockMvc.perform(get("/api/media/" + media.key()).header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */16"));
+    }
+
+    @Test
+    void ignoresStaleIfRange() throws Exception {
+        mockMvc.perform(get("/api/media/" + media.key())
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"some-other-version\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void servesResizedVariantsOnceThePipelineHasRunThem() throws Exception {
+        BufferedImage image = new BufferedImage(1200, 600, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", jpeg);
+        StoredMedia photo = mediaStorage.store(new ByteArrayInputStream(jpeg.toByteArray()));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (mediaVariantRepository.findByDigestOrderByWidth(photo.digest()).stream()
+                .anyMatch(variant -> variant.getStatus() == VariantStatus.PENDING)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+
+        byte[] body = mockMvc.perform(get("/api/media/" + photo.key()).param("w", "400"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + photo.digest() + "_w480.jpg\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(ImageIO.read(new ByteArrayInputStream(body)).getWidth()).isEqualTo(480);
+
+        // Wider than every rendition: the original comes back, for good
+        mockMvc.perform(get("/api/media/" + photo.key()).param("w", "4000"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + photo.digest() + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"));
+
+        mockMvc.perform(get("/api/media/" + photo.key() + "/variants"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.variants[*].width").value(contains(160, 480, 1024)));
+    }
+
+    @Test
+    void standInsForAPendingRenditionAreRevalidated() throws Exception {
+        // Not the image of the test above: renditions are shared by content, and these get deleted
+        BufferedImage image = new BufferedImage(1100, 500, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", jpeg);
+        StoredMedia photo = mediaStorage.store(new ByteArrayInputStream(jpeg.toByteArray()));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (mediaVariantRepository.findByDigestOrderByWidth(photo.digest()).stream()
+                .anyMatch(variant -> variant.getStatus() == VariantStatus.PENDING)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+
+        // As before the pipeline got to them: the next wider rendition, then the original, stand in
+        Files.delete(imageVariantPipeline.find(photo.digest(), 400).orElseThrow().file());
+        mockMvc.perform(get("/api/media/" + photo.key()).param("w", "400"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + photo.digest() + "_w1024.jpg\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+        Files.delete(imageVariantPipeline.find(photo.digest(), 400).orElseThrow().file());
+        mockMvc.perform(get("/api/media/" + photo.key()).param("w", "400"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + photo.digest() + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+
+        // Without a width the original is the answer and never changes
+        mockMvc.perform(get("/api/media/" + photo.key()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"));
+    }
+
+    @Test
+    void givesUpOnAnImageThatKeepsFailing() throws Exception {
+        // A PNG signature followed by garbage: stored as an image, but no decoder gets past the header
+        byte[] broken = ("\u0089PNG\r\n\u001a\n" + UUID.randomUUID()).getBytes(StandardCharsets.ISO_8859_1);
+        StoredMedia photo = mediaStorage.store(new ByteArrayInputStream(broken));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (mediaVariantRepository.findByDigestOrderByWidth(photo.digest()).stream()
+                .anyMatch(variant -> variant.getStatus() == VariantStatus.PENDING)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            imageVariantPipeline.resume();
+            Thread.sleep(50);
+        }
+
+        assertThat(mediaVariantRepository.findByDigestOrderByWidth(photo.digest()))
+                .hasSize(3)
+                .allSatisfy(variant -> assertThat(variant.getStatus()).isEqualTo(VariantStatus.FAILED))
+                .extracting(MediaVariant::getAttempts)
+                .containsOnly(3);
+    }
+
+    @Test
+    void streamsRawUploadsAndTrustsTheBytesOverTheDeclaredType() throws Exception {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0};
+
+        mockMvc.perform(post("/api/media").param("filename", "avatar.exe")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content(png))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.state").value("STORED"))
+                .andExpect(jsonPath("$.contentType").value("image/png"))
+                .andExpect(jsonPath("$.key").value(endsWith(".png")));
+    }
+
+    @Test
+    void rejectsUploadsOverTheLimit() throws Exception {
+        mockMvc.perform(post("/api/media").contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[1024 * 1024 + 1]))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void acceptsAsyncUploadsAndReportsTheirStatus() throws Exception {
+        String location = mockMvc.perform(post("/api/media").param("async", "true")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content("async body"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        assertThat(location).contains("/api/media/uploads/");
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        String state;
+        do {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            state = JsonPath.read(mockMvc.perform(get(URI.create(location).getPath()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), "$.state");
+        } while ("PENDING".equals(state));
+        assertThat(state).isEqualTo("STORED");
+    }
+
+    @Test
+    void ignoresMediaUrlsSentInsteadOfAnUpload() throws Exception {
+        String url = "http://localhost/api/media/" + media.key();
+        MockMultipartFile club = new MockMultipartFile("club", "", MediaType.APPLICATION_JSON_VALUE,
+                ("{\"nom\":\"Borrowed logo\",\"description\":\"d\",\"logopath\":\"" + url + "\"}")
+                        .getBytes(StandardCharsets.UTF_8));
+
+        String id = JsonPath.read(mockMvc.perform(multipart("/api/clubs").file(club))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.logopath").doesNotExist())
+                .andReturn().getResponse().getContentAsString(), "$.id").toString();
+        mockMvc.perform(delete("/api/clubs/" + id)).andExpect(status().isNoContent());
+
+        // The club never held a reference, so deleting it must not drop one
+        assertThat(mediaBlobRepository.findById(media.digest())).get()
+                .satisfies(blob -> assertThat(blob.getRefCount()).isEqualTo(refCount));
+    }
+
+    @Test
+    void keepsTheOldAvatarWhenAnUpdateFails() throws Exception {
+        StoredMedia first = mediaStorage.store(new ByteArrayInputStream(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8)));
+        User user = newUser(uniqueName("avatar"));
+        user.setAvatar("http://localhost/api/media/" + first.key());
+        user = userRepository.save(user);
+        byte[] second = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+        // Too long for the column: the save fails after the new avatar was stored
+        updateUser(user, "n".repeat(300), second).andExpect(status().isBadRequest());
+
+        assertThat(mediaBlobRepository.findById(first.digest())).get()
+                .satisfies(blob -> assertThat(blob.getRefCount()).isEqualTo(1));
+        String secondDigest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(second));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (mediaBlobRepository.existsById(secondDigest)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void refusesLegacyPathsOutsideTheUploadFolder() throws Exception {
+        mockMvc.perform(get("/api/clubs/logos/..%2F..%2Fpom.xml"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions updateUser(User user, String nom, byte[] avatar) throws Exception {
+        String json = "{\"nom\":\"" + nom + "\",\"prenom\":\"" + user.getPrenom() + "\",\"email\":\""
+                + user.getEmail() + "\",\"mdp\":\"secret123\",\"role\":\"USER\"}";
+        MockMultipartFile userPart = new MockMultipartFile("user", "", MediaType.APPLICATION_JSON_VALUE,
+                json.getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile avatarPart = new MockMultipartFile("avatar", "avatar.bin",
+                MediaType.APPLICATION_OCTET_STREAM_VALUE, avatar);
+        return mockMvc.perform(asyncDispatch(mockMvc.perform(multipart(HttpMethod.PUT, "/api/users/" + user.getId())
+                        .file(userPart).file(avatarPart))
+                .andReturn()));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.myapp.Controllers;
+
+import com.example.myapp.entities.*;
+import com.example.myapp.repositories.*;
+import com.example.myapp.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.stream.Stream;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newEvenement;
+import static com.example.myapp.support.TestEntities.newParticipation;
+import static com.example.myapp.support.TestEntities.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every read endpoint must answer with a single SQL statement, whatever the size of the
+ * entity graph behind it. A failure here usually means an endpoint went back to
+ * serializing entities (lazy loads) or grew an extra lookup.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadEndpointQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ClubRepository clubRepository;
+    @Autowired
+    private EvenementRepository evenementRepository;
+    @Autowired
+    private ParticipationRepository participationRepository;
+    @Autowired
+    private DemandRepository demandRepository;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private PresidentRepository presidentRepository;
+    @Autowired
+    private AttestationRepository attestationRepository;
+
+    private User user;
+    private Club club;
+    private Evenement evenement;
+    private Participation participation;
+    private Demand demand;
+    private Member member;
+    private President president;
+    private Attestation attestation;
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < 5; i++) {
+            User u = userRepository.save(newUser("user" + i));
+            Club c = clubRepository.save(newClub("club" + i));
+            Evenement e = evenementRepository.save(newEvenement(c, "event" + i));
+            participation = participationRepository.save(newParticipation(u, e));
+
+            Demand d = new Demand();
+            d.setUser(u);
+            d.setClub(c);
+            demand = demandRepository.save(d);
+
+            Member m = new Member();
+            m.setUser(u);
+            m.setClub(c);
+            member = memberRepository.save(m);
+
+            President pr = new President();
+            pr.setUser(u);
+            pr.setClub(c);
+            president = presidentRepository.save(pr);
+
+            Attestation a = new Attestation();
+            a.setNom("attestation" + i);
+            a.setDescription("description");
+            a.setEvenement(e);
+            attestation = attestationRepository.save(a);
+
+            user = u;
+            club = c;
+            evenement = e;
+        }
+    }
+
+    Stream<String> readEndpoints() {
+        Long u = user.getId();
+        Long c = club.getId();
+        Long e = evenement.getId();
+        return Stream.of(
+                "/api/users", "/api/users/" + u, "/api/users/email/" + user.getEmail(), "/api/users/role/USER",
+                "/api/clubs", "/api/clubs/" + c, "/api/clubs/nom/" + club.getNom(),
+                "/api/evenements", "/api/evenements/" + e, "/api/evenements/club/" + c,
+                "/api/evenements/type/WORKSHOP",
+                "/api/participations", "/api/participations/" + participation.getId(),
+                "/api/participations/user/" + u, "/api/participations/evenement/" + e,
+                "/api/participations/user/" + u + "/evenement/" + e,
+                "/api/demands", "/api/demands/" + demand.getId(), "/api/demands/club/" + c,
+                "/api/demands/club/" + c + "/pending", "/api/demands/user/" + u,
+                "/api/demands/user/" + u + "/pending", "/api/demands/status/pending",
+                "/api/demands/latest?userId=" + u + "&clubId=" + c,
+                "/api/members", "/api/members/" + member.getId(), "/api/members/club/" + c,
+                "/api/members/club/" + c + "/active", "/api/members/user/" + u, "/api/members/user/" + u + "/active",
+                "/api/presidents", "/api/presidents/" + president.getId(),
+                "/api/presidents/club/" + c + "/current", "/api/presidents/club/" + c + "/history",
+                "/api/attestations", "/api/attestations/" + attestation.getId(), "/api/attestations/evenement/" + e
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("readEndpoints")
+    void readEndpointIssuesOneStatement(String url) throws Exception {
+        SqlStatementCounter.reset();
+
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        assertThat(SqlStatementCounter.count()).as("SQL statements for GET %s", url).isEqualTo(1);
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.myapp.attestation;
+
+import com.example.myapp.entities.Attestation;
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.entities.Participation;
+import com.example.myapp.entities.User;
+import com.example.myapp.media.ObjectStore;
+import com.example.myapp.repositories.AttestationDocumentRepository;
+import com.example.myapp.repositories.AttestationRepository;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.repositories.ParticipationRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.services.ParticipationService;
+import com.example.myapp.support.SqlStatementCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newEvenement;
+import static com.example.myapp.support.TestEntities.newParticipation;
+import static com.example.myapp.support.TestEntities.newUser;
+import static com.example.myapp.support.TestEntities.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The ZIP holds one PDF per participant, and a second download of the same template is served
+ * from the store without rendering anything. The code printed on each one verifies until the
+ * participation is deleted, and stored documents go with their participation or once replaced.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AttestationDocumentsTests {
+
+    @TempDir
+    static Path root;
+
+    @DynamicPropertySource
+    static void mediaRoot(DynamicPropertyRegistry registry) {
+        registry.add("app.media.root", () -> root.resolve("blobs").toString());
+        registry.add("app.media.temp-dir", () -> root.resolve("tmp").toString());
+        // Fewer in flight than participants, so the window has to slide
+        registry.add("app.attestations.render.in-flight-per-download", () -> "2");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ParticipationService participationService;
+
+    @Autowired
+    private ClubRepository clubRepository;
+    @Autowired
+    private EvenementRepository evenementRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ParticipationRepository participationRepository;
+    @Autowired
+    private AttestationRepository attestationRepository;
+    @Autowired
+    private AttestationDocumentRepository attestationDocumentRepository;
+    @Autowired
+    private AttestationDocuments attestationDocuments;
+    @Autowired
+    private AttestationCodes attestationCodes;
+    @Autowired
+    private ObjectStore objectStore;
+
+    @Test
+    void everyParticipantGetsAPdfAndRedownloadsComeFromTheStore() throws Exception {
+        Evenement evenement = savedEvenement();
+        String[] noms = {"Dupont", "Lefèvre", "Nguyen", "Martin", "O'Brien"};
+        List<Participation> participations = new ArrayList<>();
+        for (String nom : noms) {
+            participations.add(participate(savedUser(nom), evenement));
+        }
+        Attestation attestation = attest(evenement, "Merci pour votre présence à cet atelier.");
+
+        double rendered = count("rendered");
+        Map<String, byte[]> first = download(evenement.getId());
+        assertThat(first).hasSize(noms.length);
+        assertThat(first.keySet()).anyMatch(name -> name.startsWith("attestation-Lefevre-"));
+        for (byte[] pdf : first.values()) {
+            String text = new String(pdf, StandardCharsets.ISO_8859_1);
+            assertThat(text).startsWith("%PDF-1.4").endsWith("%%EOF\n").contains("Merci pour votre présence");
+        }
+        assertThat(new String(first.values().iterator().next(), StandardCharsets.ISO_8859_1)).contains("Dupont");
+        assertThat(count("rendered") - rendered).isEqualTo(noms.length);
+
+        double cached = count("cache");
+        Map<String, byte[]> second = download(evenement.getId());
+        assertThat(count("rendered") - rendered).isEqualTo(noms.length);
+        assertThat(count("cache") - cached).isEqualTo(noms.length);
+        assertThat(second.keySet()).containsExactlyElementsOf(first.keySet());
+        second.forEach((name, pdf) -> assertThat(pdf).isEqualTo(first.get(name)));
+
+        // A new text is a new template version; the sweep then drops the previous renditions
+        List<String> previous = storedKeys(participations);
+        assertThat(previous).hasSize(noms.length).allMatch(objectStore::exists);
+        attestation.setDescription("Merci d'avoir animé cet atelier.");
+        attestationRepository.save(attestation);
+        download(evenement.getId());
+        assertThat(count("rendered") - rendered).isEqualTo(2 * noms.length);
+
+        attestationDocuments.sweep();
+        List<String> current = storedKeys(participations);
+        assertThat(current).hasSize(noms.length).doesNotContainAnyElementsOf(previous).allMatch(objectStore::exists);
+        assertThat(previous).noneMatch(objectStore::exists);
+    }
+
+    @Test
+    void printedCodesVerifyUntilTheParticipationIsDeleted() throws Exception {
+        Evenement evenement = savedEvenement();
+        Participation participation = participate(savedUser("Rousseau"), evenement);
+        attest(evenement, "Merci pour votre présence.");
+
+        String pdf = new String(download(evenement.getId()).values().iterator().next(), StandardCharsets.ISO_8859_1);
+        Matcher printed = Pattern.compile("Code de vérification : ([0-9A-Z-]+)").matcher(pdf);
+        assertThat(printed.find()).isTrue();
+        String code = printed.group(1);
+
+        JsonNode verification = verify(code, 200);
+        assertThat(verification.get("status").asText()).isEqualTo("VALID");
+        assertThat(verification.get("userNom").asText()).isEqualTo("Rousseau");
+        assertThat(verification.get("evenementId").asLong()).isEqualTo(evenement.getId());
+
+        // Confirmed once, then answered without the database, in any case and without the dashes
+        SqlStatementCounter.reset();
+        verify(code.toLowerCase().replace("-", ""), 200);
+        assertThat(SqlStatementCounter.count()).isZero();
+
+        char last = code.charAt(code.length() - 1);
+        verify(code.substring(0, code.length() - 1) + (last == 'A' ? 'B' : 'A'), 404);
+        verify("not-a-code", 404);
+
+        List<String> stored = storedKeys(List.of(participation));
+        assertThat(stored).hasSize(1);
+        participationService.deleteParticipation(participation.getId());
+        // Revoked in memory, without asking the database
+        SqlStatementCounter.reset();
+        assertThat(verify(code, 410).get("status").asText()).isEqualTo("REVOKED");
+        assertThat(SqlStatementCounter.count()).isZero();
+        assertThat(objectStore.exists(stored.get(0))).isFalse();
+        assertThat(storedKeys(List.of(participation))).isEmpty();
+    }
+
+    @Test
+    void participationsDeletedElsewhereAreRevokedByTheNextReload() throws Exception {
+        Evenement evenement = savedEvenement();
+        Participation participation = participate(savedUser("Fontaine"), evenement);
+        attest(evenement, "Merci pour votre présence.");
+        String pdf = new String(download(evenement.getId()).values().iterator().next(), StandardCharsets.ISO_8859_1);
+        Matcher printed = Pattern.compile("Code de vérification : ([0-9A-Z-]+)").matcher(pdf);
+        assertThat(printed.find()).isTrue();
+        verify(printed.group(1), 200);
+
+        participationRepository.deleteById(participation.getId());
+        attestationCodes.reload();
+
+        assertThat(verify(printed.group(1), 410).get("status").asText()).isEqualTo("REVOKED");
+    }
+
+    @Test
+    void eventsWithoutAnAttestationHaveNoDocuments() throws Exception {
+        mockMvc.perform(get("/api/attestations/evenement/" + savedEvenement().getId() + "/documents"))
+                .andExpect(status().isNotFound());
+    }
+
+    private List<String> storedKeys(List<Participation> participations) {
+        return participations.stream()
+                .flatMap(participation -> attestationDocumentRepository.findObjectKeysByParticipationId(participation.getId()).stream())
+                .toList();
+    }
+
+    private JsonNode verify(String code, int expectedStatus) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/attestations/verify/" + code))
+                .andExpect(status().is(expectedStatus))
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+        return body.isEmpty() ? null : objectMapper.readTree(body);
+    }
+
+    private Map<String, byte[]> download(Long evenementId) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/attestations/evenement/" + evenementId + "/documents"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/zip"))
+                .andReturn();
+        return unzip(result.getResponse().getContentAsByteArray());
+    }
+
+    private static Map<String, byte[]> unzip(byte[] bytes) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private double count(String source) {
+        return meterRegistry.get("attestation.documents").tag("source", source).counter().count();
+    }
+
+    private Evenement savedEvenement() {
+        Club club = clubRepository.save(newClub(uniqueName("Club attestations")));
+        return evenementRepository.save(newEvenement(club, "Atelier soudure"));
+    }
+
+    private User savedUser(String nom) {
+        return userRepository.save(newUser("Camille", nom));
+    }
+
+    private Participation participate(User user, Evenement evenement) {
+        return participationRepository.save(newParticipation(user, evenement));
+    }
+
+    private Attestation attest(Evenement evenement, String description) {
+        Attestation attestation = new Attestation();
+        attestation.setNom("Attestation de participation");
+        attestation.setDescription(description);
+        attestation.setEvenement(evenement);
+        return attestationRepository.save(attestation);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.myapp.attestation;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerificationCodeCodecTests {
+
+    private static final byte[] SECRET = "verification-secret-verification-secret".getBytes(StandardCharsets.US_ASCII);
+
+    private final VerificationCodeCodec codec = new VerificationCodeCodec(SECRET);
+
+    @Test
+    void codesAreShortAndCarryWhatTheyVouchFor() {
+        VerificationClaims claims = new VerificationClaims(123_456L, 98_765L, LocalDate.of(2026, 3, 14));
+
+        String code = codec.sign(claims);
+
+        assertThat(code).matches("[0-9A-Z]{4}(-[0-9A-Z]{1,4})+").hasSizeLessThanOrEqualTo(38);
+        assertThat(codec.verify(code)).isEqualTo(claims);
+    }
+
+    @Test
+    void readingMistakesAreForgiven() {
+        VerificationClaims claims = new VerificationClaims(1L, 2L, LocalDate.of(2026, 1, 1));
+        String code = codec.sign(claims);
+
+        String typed = code.toLowerCase().replace("-", "").replace('0', 'o').replace('1', 'l');
+        assertThat(codec.verify(typed)).isEqualTo(claims);
+    }
+
+    @Test
+    void alteredOrForeignCodesAreRefused() {
+        String code = codec.sign(new VerificationClaims(7L, 8L, LocalDate.of(2026, 6, 1)));
+
+        char first = code.charAt(0);
+        String altered = (first == 'Z' ? 'Y' : 'Z') + code.substring(1);
+        assertThatThrownBy(() -> codec.verify(altered)).isInstanceOf(IllegalArgumentException.class);
+
+        VerificationCodeCodec other = new VerificationCodeCodec("another-secret-another-secret-another".getBytes(StandardCharsets.US_ASCII));
+        assertThatThrownBy(() -> other.verify(code)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThatThrownBy(() -> codec.verify(code.substring(0, 10))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.verify(code + "U")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.verify("")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.myapp.auth;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.enums.Role;
+import com.example.myapp.payload.request.SignupRequest;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.services.PresidentService;
+import com.example.myapp.services.UserService;
+import com.example.myapp.support.SqlStatementCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.Map;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Login hands out tokens instead of the user row, the caller is then known from the token
+ * alone, and logout, refresh rotation and replay detection take effect at once.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthFlowTests {
+
+    private static final String PASSWORD = "secret123";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PresidentService presidentService;
+    @Autowired
+    private ClubRepository clubRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void loginReturnsTokensAndNeverThePasswordHash() throws Exception {
+        String email = newUser();
+
+        String body = login("/api/users/login", email).getResponse().getContentAsString();
+        JsonNode tokens = objectMapper.readTree(body);
+        assertThat(tokens.get("accessToken").asText()).isNotBlank();
+        assertThat(tokens.get("refreshToken").asText()).isNotBlank();
+        assertThat(tokens.get("tokenType").asText()).isEqualTo("Bearer");
+        assertThat(tokens.get("user").get("email").asText()).isEqualTo(email);
+        assertThat(body).doesNotContain("mdp").doesNotContain("$2");
+
+        mockMvc.perform(asyncPost("/api/auth/login", Map.of("email", email, "password", "wrong-password")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void callerIsResolvedFromTheTokenWithoutTheDatabase() throws Exception {
+        JsonNode tokens = tokens(newUser());
+        String access = tokens.get("accessToken").asText();
+        long userId = tokens.get("user").get("id").asLong();
+
+        SqlStatementCounter.reset();
+        MvcResult me = mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + access))
+                .andExpect(status().isOk()).andReturn();
+        assertThat(SqlStatementCounter.count()).isZero();
+        assertThat(objectMapper.readTree(me.getResponse().getContentAsString()).get("userId").asLong()).isEqualTo(userId);
+
+        mockMvc.perform(get("/api/auth/me")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + access.substring(0, access.length() - 2) + "xx"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+    }
+
+    @Test
+    void demandsAreFiledForTheCallerOnly() throws Exception {
+        JsonNode tokens = tokens(newUser());
+        String bearer = "Bearer " + tokens.get("accessToken").asText();
+        long userId = tokens.get("user").get("id").asLong();
+        Club club = savedClub();
+
+        mockMvc.perform(post("/api/demands/create").param("clubId", club.getId().toString()).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/demands/check").param("clubId", club.getId().toString()).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/demands/create").param("clubId", savedClub().getId().toString())
+                        .param("userId", String.valueOf(userId + 1)).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void approvalReturnsTheDecidedDemandAndTheNextRefreshCarriesTheNewRole() throws Exception {
+        JsonNode tokens = tokens(newUser());
+        String bearer = "Bearer " + tokens.get("accessToken").asText();
+        Club club = savedClub();
+        // Cached as a plain user before the approval
+        assertThat(userService.getUserById(tokens.get("user").get("id").asLong())).get()
+                .satisfies(user -> assertThat(user.getRole()).isEqualTo(Role.USER));
+
+        MvcResult created = mockMvc.perform(post("/api/demands/create").param("clubId", club.getId().toString())
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isCreated()).andReturn();
+        long demandId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(put("/api/demands/approve/" + demandId)).andExpect(status().isUnauthorized());
+        mockMvc.perform(put("/api/demands/approve/" + demandId).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isForbidden());
+        JsonNode president = tokens(newUser());
+        presidentService.appointPresident(userService.getUserById(president.get("user").get("id").asLong()).orElseThrow(), club);
+
+        MvcResult approved = mockMvc.perform(put("/api/demands/approve/" + demandId)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + president.get("accessToken").asText()))
+                .andExpect(status().isOk()).andReturn();
+        JsonNode demand = objectMapper.readTree(approved.getResponse().getContentAsString());
+        assertThat(demand.get("status").asText()).isEqualTo("APPROVED");
+        assertThat(demand.get("clubId").asLong()).isEqualTo(club.getId());
+
+        assertThat(refresh(tokens.get("refreshToken").asText()).get("user").get("role").asText()).isEqualTo("MEMBRE");
+        assertThat(userService.getUserById(tokens.get("user").get("id").asLong())).get()
+                .satisfies(user -> assertThat(user.getRole()).isEqualTo(Role.MEMBRE));
+    }
+
+    @Test
+    void refreshTokensAreSingleUseAndReplayEndsTheSession() throws Exception {
+        JsonNode first = tokens(newUser());
+        String refresh = first.get("refreshToken").asText();
+
+        JsonNode second = refresh(refresh);
+        assertThat(second.get("accessToken").asText()).isNotEqualTo(first.get("accessToken").asText());
+        mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + second.get("accessToken").asText()))
+                .andExpect(status().isOk());
+
+        // Replaying the spent token revokes every token of the session, including the fresh pair
+        mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", refresh))))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + second.get("accessToken").asText()))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", second.get("refreshToken").asText()))))
+                .andExpect(status().isUnauthorized());
+
+        // Access tokens are not refresh tokens
+        mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", first.get("accessToken").asText()))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutRevokesTheSessionImmediately() throws Exception {
+        String email = newUser();
+        JsonNode session = tokens(email);
+        JsonNode otherSession = tokens(email);
+        String bearer = "Bearer " + session.get("accessToken").asText();
+
+        mockMvc.perform(post("/api/auth/logout").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", session.get("refreshToken").asText()))))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + otherSession.get("accessToken").asText()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void profileEditsEndTheSessionsOnlyWhenThePasswordChanges() throws Exception {
+        String email = newUser();
+        JsonNode tokens = tokens(email);
+        String bearer = "Bearer " + tokens.get("accessToken").asText();
+        long userId = tokens.get("user").get("id").asLong();
+
+        // The edit form sends the unchanged password back
+        updateProfile(userId, email, PASSWORD);
+        mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isOk());
+
+        updateProfile(userId, email, "another-secret");
+        mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void repeatedFailuresForOneEmailAreRefusedBeforeHashing() throws Exception {
+        String email = newUser();
+        double throttledBefore = meterRegistry.counter("auth.login.throttled", "limit", "email").count();
+
+        // Spread over addresses, so only the per-email limit of 10 applies
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(asyncPost("/api/auth/login", Map.of("email", email, "password", "wrong-password"), "10.0.1." + i))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(asyncPost("/api/auth/login", Map.of("email", email, "password", PASSWORD), "10.0.1.99"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "900"));
+        assertThat(meterRegistry.counter("auth.login.throttled", "limit", "email").count()).isEqualTo(throttledBefore + 1);
+
+        // Other accounts are unaffected
+        mockMvc.perform(asyncPost("/api/auth/login", Map.of("email", newUser(), "password", PASSWORD), "10.0.1.99"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void oneAddressCannotSprayManyAccounts() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            mockMvc.perform(asyncPost("/api/auth/login", Map.of("email", "nobody-" + i + "@example.com", "password", PASSWORD), "10.0.2.1"))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(asyncPost("/api/users/login", Map.of("email", newUser(), "password", PASSWORD), "10.0.2.1"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(asyncPost("/api/users/login", Map.of("email", newUser(), "password", PASSWORD), "10.0.2.2"))
+                .andExpect(status().isOk());
+    }
+
+    private JsonNode tokens(String email) throws Exception {
+        return objectMapper.readTree(login("/api/auth/login", email).getResponse().getContentAsString());
+    }
+
+    private JsonNode refresh(String refreshToken) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken))))
+                .andExpect(status().isOk()).andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private MvcResult login(String url, String email) throws Exception {
+        MvcResult pending = mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("email", email, "password", PASSWORD))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private void updateProfile(long userId, String email, String password) throws Exception {
+        String name = email.substring(0, email.indexOf('@'));
+        MockMultipartFile user = new MockMultipartFile("user", "", MediaType.APPLICATION_JSON_VALUE,
+                objectMapper.writeValueAsBytes(Map.of("nom", name, "prenom", name, "email", email, "mdp", password, "role", "USER")));
+        MvcResult pending = mockMvc.perform(multipart(HttpMethod.PUT, "/api/users/" + userId).file(user))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isOk());
+    }
+
+    private RequestBuilder asyncPost(String url, Map<String, String> body) throws Exception {
+        return asyncPost(url, body, "127.0.0.1");
+    }
+
+    private RequestBuilder asyncPost(String url, Map<String, String> body, String clientAddress) throws Exception {
+        MvcResult pending = mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body))
+                        .with(request -> {
+                            request.setRemoteAddr(clientAddress);
+                            return request;
+                        }))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return asyncDispatch(pending);
+    }
+
+    private String newUser() {
+        String name = uniqueName("auth");
+        SignupRequest signup = new SignupRequest();
+        signup.setNom(name);
+        signup.setPrenom(name);
+        signup.setEmail(name + "@example.com");
+        signup.setPassword(PASSWORD);
+        userService.registerUser(signup).join();
+        return signup.getEmail();
+    }
+
+    private Club savedClub() {
+        return clubRepository.save(newClub(uniqueName("auth-club")));
+    }
+}
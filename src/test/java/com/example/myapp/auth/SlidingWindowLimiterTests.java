@@ -0,0 +1,141 @@
+package com.example.myapp.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowLimiterTests {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private final TestClock clock = new TestClock();
+
+    @Test
+    void refusesAttemptsOverTheLimitUntilTheWindowSlidesPast() {
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(3, WINDOW, 100, clock);
+
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+        assertThat(limiter.tryAcquire("b")).isTrue();
+
+        // A second into the next window the three attempts still weigh 2.95
+        clock.advance(Duration.ofSeconds(61));
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+
+        // Two thirds through, they weigh one: with the attempt above that leaves room for one more
+        clock.advance(Duration.ofSeconds(39));
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+
+        clock.advance(WINDOW.multipliedBy(2));
+        assertThat(limiter.tryAcquire("a")).isTrue();
+    }
+
+    @Test
+    void resetForgetsTheKey() {
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(1, WINDOW, 100, clock);
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+
+        limiter.reset("a");
+
+        assertThat(limiter.tryAcquire("a")).isTrue();
+    }
+
+    @Test
+    void staysBoundedByDroppingIdleThenLeastUsedKeys() {
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(3, WINDOW, 2, clock);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("target");
+        }
+        limiter.tryAcquire("b");
+
+        // Full of live keys: the newcomer replaces the least used one and is counted
+        assertThat(limiter.tryAcquire("c")).isTrue();
+        assertThat(limiter.size()).isEqualTo(2);
+        assertThat(limiter.evicted()).isEqualTo(1);
+
+        // A flood of fresh keys neither frees the locked key nor goes uncounted
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("spray-" + i);
+        }
+        assertThat(limiter.tryAcquire("target")).isFalse();
+        assertThat(limiter.tryAcquire("spray-99")).isTrue();
+        assertThat(limiter.tryAcquire("spray-99")).isTrue();
+        assertThat(limiter.tryAcquire("spray-99")).isFalse();
+
+        // Once the keys are idle they make room before any live one is touched
+        clock.advance(WINDOW.multipliedBy(2));
+        long evicted = limiter.evicted();
+        assertThat(limiter.tryAcquire("d")).isTrue();
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.evicted()).isEqualTo(evicted);
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedTheLimit() throws InterruptedException {
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(100, WINDOW, 100, clock);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 50; i++) {
+                    if (limiter.tryAcquire("shared")) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(admitted.get()).isEqualTo(100);
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.myapp.auth;
+
+import com.example.myapp.enums.Role;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationsTests {
+
+    private static final Instant REVOKED_AT = Instant.parse("2026-01-01T10:00:00.500Z");
+
+    @Test
+    void revokingAUserCoversTokensIssuedEarlierInTheSameSecond() {
+        TokenRevocations revocations = new TokenRevocations(Clock.fixed(REVOKED_AT, ZoneOffset.UTC));
+        revocations.revokeUser(7, REVOKED_AT.plus(Duration.ofDays(14)).getEpochSecond());
+
+        assertThat(revocations.isRevoked(issuedAt(7, REVOKED_AT.minusMillis(300)))).isTrue();
+        assertThat(revocations.isRevoked(issuedAt(7, REVOKED_AT))).isTrue();
+        // The login that follows a password change, in the same second
+        assertThat(revocations.isRevoked(issuedAt(7, REVOKED_AT.plusMillis(200)))).isFalse();
+        assertThat(revocations.isRevoked(issuedAt(8, REVOKED_AT.minusMillis(300)))).isFalse();
+    }
+
+    @Test
+    void issueTimesSurviveTheCodecToTheMillisecond() {
+        TokenCodec codec = new TokenCodec(new byte[TokenCodec.MIN_SECRET_BYTES]);
+        TokenClaims claims = issuedAt(7, REVOKED_AT.plusMillis(1));
+
+        assertThat(codec.verify(codec.sign(claims))).isEqualTo(claims);
+    }
+
+    private static TokenClaims issuedAt(long userId, Instant issuedAt) {
+        return new TokenClaims(TokenType.ACCESS, userId, Role.USER, "session", "token", issuedAt.toEpochMilli(),
+                issuedAt.plus(Duration.ofMinutes(15)).getEpochSecond());
+    }
+}
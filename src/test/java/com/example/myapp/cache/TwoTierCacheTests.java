@@ -0,0 +1,145 @@
+package com.example.myapp.cache;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.User;
+import com.example.myapp.services.ClubService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TwoTierCacheTests {
+
+    private final TwoTierCache cache = new TwoTierCache(CacheNames.USERS, Caffeine.newBuilder().build(), new NoOpCacheTier());
+
+    @Autowired
+    private ClubService clubService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MapCacheTier secondTier;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void callersNeverShareTheCachedEntity() {
+        User user = new User();
+        user.setId(1L);
+        user.setNom("before");
+        cache.put(1L, user);
+        user.setNom("changed by the caller that loaded it");
+
+        User first = cache.get(1L, User.class);
+        first.setNom("changed by a reader");
+        User second = cache.get(1L, () -> null);
+
+        assertThat(second.getNom()).isEqualTo("before");
+        assertThat(second).isNotSameAs(first);
+    }
+
+    @Test
+    void savesAndDeletesEvictFromBothTiers() {
+        Club club = clubService.saveClub(newClub(uniqueName("cache")));
+        clubService.getClubById(club.getId());
+        assertThat(nearCache().getIfPresent(club.getId())).isNotNull();
+        assertThat(secondTier.contains(CacheNames.CLUBS, club.getId())).isTrue();
+
+        club.setDescription("updated");
+        clubService.saveClub(club);
+        assertThat(nearCache().getIfPresent(club.getId())).isNull();
+        assertThat(secondTier.contains(CacheNames.CLUBS, club.getId())).isFalse();
+        assertThat(clubService.getClubById(club.getId())).get()
+                .satisfies(cached -> assertThat(cached.getDescription()).isEqualTo("updated"));
+
+        clubService.deleteClub(club.getId());
+        assertThat(nearCache().getIfPresent(club.getId())).isNull();
+        assertThat(secondTier.contains(CacheNames.CLUBS, club.getId())).isFalse();
+        assertThat(clubService.getClubById(club.getId())).isEmpty();
+    }
+
+    @Test
+    void hitsAndMissesAreCountedPerTier() {
+        Club club = clubService.saveClub(newClub(uniqueName("cache")));
+        double nearHits = count("cache.gets", "hit");
+        double nearMisses = count("cache.gets", "miss");
+        double secondTierHits = count("cache.second.tier.gets", "hit");
+        double secondTierMisses = count("cache.second.tier.gets", "miss");
+
+        // Loaded from the database, then read from the near tier
+        clubService.getClubById(club.getId());
+        clubService.getClubById(club.getId());
+        // Another instance's near tier would start empty and find it in the second tier
+        nearCache().invalidate(club.getId());
+        clubService.getClubById(club.getId());
+
+        assertThat(count("cache.gets", "hit") - nearHits).isEqualTo(1);
+        assertThat(count("cache.gets", "miss") - nearMisses).isEqualTo(2);
+        assertThat(count("cache.second.tier.gets", "hit") - secondTierHits).isEqualTo(1);
+        assertThat(count("cache.second.tier.gets", "miss") - secondTierMisses).isEqualTo(1);
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nearCache() {
+        return ((TwoTierCache) cacheManager.getCache(CacheNames.CLUBS)).getNativeCache();
+    }
+
+    private double count(String meter, String result) {
+        return meterRegistry.get(meter).tags("cache", CacheNames.CLUBS, "result", result).functionCounter().count();
+    }
+
+    @TestConfiguration
+    static class SecondTierConfig {
+
+        @Bean
+        MapCacheTier mapCacheTier() {
+            return new MapCacheTier();
+        }
+    }
+
+    /**
+     * In-memory stand-in for a shared second tier, so tests can see what reached it.
+     */
+    static class MapCacheTier implements CacheTier {
+
+        private final Map<String, Map<Object, Object>> caches = new ConcurrentHashMap<>();
+
+        boolean contains(String cacheName, Object key) {
+            return entries(cacheName).containsKey(key);
+        }
+
+        @Override
+        public Object get(String cacheName, Object key) {
+            return entries(cacheName).get(key);
+        }
+
+        @Override
+        public void put(String cacheName, Object key, Object value) {
+            entries(cacheName).put(key, value);
+        }
+
+        @Override
+        public void evict(String cacheName, Object key) {
+            entries(cacheName).remove(key);
+        }
+
+        @Override
+        public void clear(String cacheName) {
+            entries(cacheName).clear();
+        }
+
+        private Map<Object, Object> entries(String cacheName) {
+            return caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        }
+    }
+}
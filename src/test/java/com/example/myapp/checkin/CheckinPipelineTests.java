@@ -0,0 +1,247 @@
+package com.example.myapp.checkin;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.entities.Participation;
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.CheckinStatus;
+import com.example.myapp.enums.Role;
+import com.example.myapp.payload.response.CheckinBitmap;
+import com.example.myapp.payload.response.CheckinResult;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.repositories.ParticipationRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.services.ParticipationService;
+import com.example.myapp.services.PresidentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newEvenement;
+import static com.example.myapp.support.TestEntities.newParticipation;
+import static com.example.myapp.support.TestEntities.newUser;
+import static com.example.myapp.support.TestEntities.uniqueName;
+import static com.example.myapp.support.TestTokens.bearer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CheckinPipelineTests {
+
+    @Autowired
+    private CheckinDesk checkinDesk;
+    @Autowired
+    private ParticipationService participationService;
+    @Autowired
+    private PresidentService presidentService;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ClubRepository clubRepository;
+    @Autowired
+    private EvenementRepository evenementRepository;
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Test
+    void aTicketAdmitsOnceAndTheCheckinIsWrittenBehind() throws Exception {
+        Evenement evenement = savedEvenement();
+        Participation participation = savedParticipations(evenement, 1).get(0);
+        String token = token(participation);
+
+        mockMvc.perform(post("/api/participations/checkin").contentType(MediaType.APPLICATION_JSON).content(body(token, evenement.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ADMITTED"))
+                .andExpect(jsonPath("$.userNom").value(participation.getUser().getNom()));
+        mockMvc.perform(post("/api/participations/checkin").contentType(MediaType.APPLICATION_JSON).content(body(token, evenement.getId())))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value("ALREADY_CHECKED_IN"))
+                .andExpect(jsonPath("$.checkedInAt").isNotEmpty());
+
+        Date checkedInAt = awaitCheckedIn(participation.getId());
+        assertThat(checkedInAt).isNotNull();
+
+        // Saving the participation from a stale copy keeps the check-in
+        participation.setCheckedInAt(null);
+        participationService.saveParticipation(participation);
+        assertThat(awaitCheckedIn(participation.getId())).isEqualTo(checkedInAt);
+
+        // A door reopened from the database still knows who came in
+        checkinDesk.evenementDeleted(evenement.getId());
+        assertThat(checkinDesk.checkIn(token, evenement.getId()).status()).isEqualTo(CheckinStatus.ALREADY_CHECKED_IN);
+    }
+
+    @Test
+    void forgedForeignAndCancelledTicketsAreRefused() throws Exception {
+        Evenement evenement = savedEvenement();
+        Evenement other = savedEvenement();
+        List<Participation> participations = savedParticipations(evenement, 2);
+        String token = token(participations.get(0));
+
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == '0' ? '1' : '0');
+        mockMvc.perform(post("/api/participations/checkin").contentType(MediaType.APPLICATION_JSON).content(body(tampered, null)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value("INVALID"));
+        mockMvc.perform(post("/api/participations/checkin").contentType(MediaType.APPLICATION_JSON).content(body("", null)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/participations/checkin").contentType(MediaType.APPLICATION_JSON).content(body(token, other.getId())))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value("WRONG_EVENT"));
+
+        // Open the door first, so the cancellation has to reach the loaded door
+        String cancelled = token(participations.get(1));
+        assertThat(checkinDesk.checkIn(token, null).status()).isEqualTo(CheckinStatus.ADMITTED);
+        participationService.deleteParticipation(participations.get(1).getId());
+        mockMvc.perform(post("/api/participations/checkin").contentType(MediaType.APPLICATION_JSON).content(body(cancelled, evenement.getId())))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value("NOT_REGISTERED"));
+        mockMvc.perform(get("/api/participations/" + participations.get(1).getId() + "/checkin-token")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(participations.get(1).getUser().getId(), Role.USER)))
+                .andExpect(status().isNotFound());
+
+        // Registered after the door was loaded
+        Participation late = savedParticipations(evenement, 1).get(0);
+        assertThat(checkinDesk.checkIn(token(late), evenement.getId()).status()).isEqualTo(CheckinStatus.ADMITTED);
+    }
+
+    @Test
+    void onlyTheParticipantThePresidentOrAnAdminGetTheTicket() throws Exception {
+        Evenement evenement = savedEvenement();
+        Participation participation = savedParticipations(evenement, 1).get(0);
+        String uri = "/api/participations/" + participation.getId() + "/checkin-token";
+        User other = userRepository.save(newUser(uniqueName("checkin")));
+        User president = userRepository.save(newUser(uniqueName("checkin")));
+        presidentService.appointPresident(president, evenement.getClub());
+
+        mockMvc.perform(get(uri)).andExpect(status().isUnauthorized());
+        mockMvc.perform(get(uri).header(HttpHeaders.AUTHORIZATION, bearer(other.getId(), Role.USER)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get(uri).header(HttpHeaders.AUTHORIZATION, bearer(president.getId(), Role.PRESIDENT)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(uri).header(HttpHeaders.AUTHORIZATION, bearer(other.getId(), Role.ADMIN)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void concurrentScansOfOneTicketAdmitOnce() throws Exception {
+        Evenement evenement = savedEvenement();
+        String token = token(savedParticipations(evenement, 1).get(0));
+
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CheckinResult>> futures = new ArrayList<>();
+        for (String same : Collections.nCopies(threads, token)) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return checkinDesk.checkIn(same, evenement.getId());
+            }));
+        }
+        start.countDown();
+        List<CheckinResult> results = new ArrayList<>();
+        for (Future<CheckinResult> future : futures) {
+            results.add(future.get());
+        }
+        executor.shutdown();
+
+        assertThat(results).filteredOn(result -> result.status() == CheckinStatus.ADMITTED).hasSize(1);
+        CheckinResult admitted = results.stream().filter(result -> result.status() == CheckinStatus.ADMITTED)
+                .findFirst().orElseThrow();
+        assertThat(results).filteredOn(result -> result.status() == CheckinStatus.ALREADY_CHECKED_IN)
+                .hasSize(threads - 1)
+                .allSatisfy(result -> assertThat(result.checkedInAt()).isEqualTo(admitted.checkedInAt()));
+    }
+
+    @Test
+    void theOfflineBitmapHoldsEveryTicketAndFewForgeries() throws Exception {
+        Evenement evenement = savedEvenement();
+        List<Participation> participations = savedParticipations(evenement, 200);
+
+        mockMvc.perform(get("/api/participations/checkin/evenement/-1/offline")).andExpect(status().isNotFound());
+        CheckinBitmap bitmap = checkinDesk.offlineBitmap(evenement.getId()).orElseThrow();
+        assertThat(bitmap.participants()).isEqualTo(200);
+        byte[] bits = Base64.getDecoder().decode(bitmap.bitmap());
+        assertThat(bits).hasSize(bitmap.bits() / 8);
+
+        for (Participation participation : participations) {
+            assertThat(OfflineBitmap.mightContain(bits, bitmap.bits(), bitmap.hashes(),
+                    CheckinTokenCodec.fingerprint(token(participation)))).isTrue();
+        }
+        // Tickets signed with another key, as a forger would have to
+        CheckinTokenCodec forger = new CheckinTokenCodec(new byte[CheckinTokenCodec.MIN_SECRET_BYTES]);
+        int accepted = 0;
+        for (int i = 0; i < 2000; i++) {
+            String forged = forger.sign(new CheckinClaims(i, evenement.getId()));
+            if (OfflineBitmap.mightContain(bits, bitmap.bits(), bitmap.hashes(), CheckinTokenCodec.fingerprint(forged))) {
+                accepted++;
+            }
+        }
+        // About 0.05 % at 16 bits per participant
+        assertThat(accepted).isLessThan(10);
+    }
+
+    private String token(Participation participation) throws Exception {
+        String json = mockMvc.perform(get("/api/participations/" + participation.getId() + "/checkin-token")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(participation.getUser().getId(), Role.USER)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return json.replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+    }
+
+    private Date awaitCheckedIn(Long participationId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            Date checkedInAt = jdbcTemplate.queryForObject(
+                    "select checked_in_at from participation where id = ?", Date.class, participationId);
+            if (checkedInAt != null || System.currentTimeMillis() > deadline) {
+                return checkedInAt;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static String body(String token, Long evenementId) {
+        return "{\"token\":\"" + token + "\",\"evenementId\":" + evenementId + "}";
+    }
+
+    private List<Participation> savedParticipations(Evenement evenement, int count) {
+        List<Participation> participations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = userRepository.save(newUser(uniqueName("checkin")));
+            participations.add(newParticipation(user, evenement));
+        }
+        return participationRepository.saveAll(participations);
+    }
+
+    private Evenement savedEvenement() {
+        Club club = clubRepository.save(newClub(uniqueName("checkin-club")));
+        return evenementRepository.save(newEvenement(club, "Gala"));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.myapp.feed;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.enums.EventType;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.services.ClubService;
+import com.example.myapp.services.EvenementService;
+import com.example.myapp.support.SqlStatementCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newEvenement;
+import static com.example.myapp.support.TestEntities.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The upcoming feed must answer from memory, in date order, follow committed writes only, and
+ * let pollers revalidate with If-None-Match.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UpcomingEventsFeedTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UpcomingEventsFeed upcomingEventsFeed;
+    @Autowired
+    private EvenementService evenementService;
+    @Autowired
+    private ClubService clubService;
+    @Autowired
+    private EvenementRepository evenementRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void pagesThroughOneClubInDateOrder() throws Exception {
+        Club club = savedClub();
+        Long later = save(upcoming(club, 3, EventType.WORKSHOP)).getId();
+        Long sooner = save(upcoming(club, 1, EventType.WORKSHOP)).getId();
+        Long sameDay = save(upcoming(club, 1, EventType.CONFERANCE)).getId();
+        Long today = save(upcoming(club, 0, EventType.CONFERANCE)).getId();
+        save(upcoming(club, -1, EventType.CONFERANCE));
+        save(upcoming(savedClub(), 2, EventType.WORKSHOP));
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = "";
+        do {
+            JsonNode page = getJson("/api/evenements/upcoming?clubId=" + club.getId() + "&size=2&cursor=" + cursor);
+            assertThat(page.get("items").size()).isLessThanOrEqualTo(2);
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(ids).containsExactly(today, sooner, sameDay, later);
+
+        JsonNode conferences = getJson("/api/evenements/upcoming?clubId=" + club.getId() + "&eventType=CONFERANCE&date="
+                + LocalDate.now());
+        assertThat(conferences.get("items")).extracting(item -> item.get("id").asLong()).containsExactly(sameDay);
+    }
+
+    @Test
+    void pollersRevalidateWithoutTouchingTheDatabase() throws Exception {
+        Club club = savedClub();
+        Evenement evenement = save(upcoming(club, 2, EventType.WORKSHOP));
+        String url = "/api/evenements/upcoming?clubId=" + club.getId();
+
+        MvcResult first = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+        assertThat(SqlStatementCounter.count()).isZero();
+
+        evenement.setTitre("renamed");
+        evenementService.updateEvenement(evenement);
+        MvcResult changed = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk()).andReturn();
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(objectMapper.readTree(changed.getResponse().getContentAsString()).get("items").get(0).get("titre").asText())
+                .isEqualTo("renamed");
+
+        evenementService.deleteEvenement(evenement.getId());
+        assertThat(getJson(url).get("items")).isEmpty();
+    }
+
+    @Test
+    void followsCommittedWritesOnlyAndResyncsTheRest() throws Exception {
+        Club club = savedClub();
+        String url = "/api/evenements/upcoming?clubId=" + club.getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            evenementService.saveEvenement(upcoming(club, 1, EventType.WORKSHOP));
+            status.setRollbackOnly();
+        });
+        assertThat(getJson(url).get("items")).isEmpty();
+
+        Evenement behindTheService = evenementRepository.save(upcoming(club, 1, EventType.WORKSHOP));
+        assertThat(getJson(url).get("items")).isEmpty();
+        upcomingEventsFeed.resync();
+        assertThat(getJson(url).get("items")).extracting(item -> item.get("id").asLong())
+                .containsExactly(behindTheService.getId());
+    }
+
+    @Test
+    void rejectsForeignCursors() throws Exception {
+        mockMvc.perform(get("/api/evenements/upcoming?cursor=aWQ6MTI")).andExpect(status().isBadRequest());
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private Evenement save(Evenement evenement) {
+        return evenementService.saveEvenement(evenement);
+    }
+
+    private Club savedClub() {
+        return clubService.saveClub(newClub(uniqueName("feed-club")));
+    }
+
+    private static Evenement upcoming(Club club, int daysFromNow, EventType eventType) {
+        Evenement evenement = newEvenement(club, uniqueName("feed-event"));
+        evenement.setDate(Date.from(LocalDate.now().plusDays(daysFromNow).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        evenement.setEventType(eventType);
+        return evenement;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.myapp.media;
+
+import com.example.myapp.repositories.MediaBlobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MediaStorageTests {
+
+    @TempDir
+    static Path root;
+
+    @DynamicPropertySource
+    static void mediaRoot(DynamicPropertyRegistry registry) {
+        registry.add("app.media.root", () -> root.resolve("blobs").toString());
+        registry.add("app.media.temp-dir", () -> root.resolve("tmp").toString());
+    }
+
+    @Autowired
+    private MediaStorage mediaStorage;
+
+    @Autowired
+    private FileSystemObjectStore objectStore;
+
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+
+    @Test
+    void identicalUploadsShareOneBlobUntilTheLastReferenceIsReleased() throws IOException {
+        StoredMedia logo = store("same bytes");
+        StoredMedia avatar = store("same bytes");
+
+        assertThat(logo.digest()).isEqualTo(avatar.digest());
+        // Not an image, whatever the file was called
+        assertThat(logo.key()).isEqualTo(logo.digest() + ".bin");
+        assertThat(mediaBlobRepository.findById(logo.digest())).get()
+                .satisfies(blob -> assertThat(blob.getRefCount()).isEqualTo(2));
+
+        mediaStorage.release("http://localhost/api/media/" + logo.key());
+        assertThat(objectStore.exists(logo.digest())).isTrue();
+
+        mediaStorage.release(avatar.key());
+        assertThat(objectStore.exists(logo.digest())).isFalse();
+        assertThat(mediaBlobRepository.findById(logo.digest())).isEmpty();
+    }
+
+    @Test
+    void ignoresUrlsThatAreNotMediaKeys() throws IOException {
+        StoredMedia image = store("other bytes");
+
+        mediaStorage.release("http://localhost/api/evenements/images/3f1c-legacy.jpg");
+        mediaStorage.release(null);
+
+        assertThat(objectStore.exists(image.digest())).isTrue();
+    }
+
+    private StoredMedia store(String content) throws IOException {
+        return mediaStorage.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.myapp.membership;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Member;
+import com.example.myapp.entities.User;
+import com.example.myapp.payload.response.IdPair;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.MemberRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.services.MemberService;
+import com.example.myapp.support.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newUser;
+import static com.example.myapp.support.TestEntities.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The index must follow every membership write path, answer without queries, and catch up
+ * with writes made behind the services' back on its next rebuild.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MembershipIndexTests {
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+    @Autowired
+    private MemberService memberService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ClubRepository clubRepository;
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Test
+    void writePathsKeepTheIndexInStep() {
+        Club club = savedClub();
+        User alice = savedUser();
+        User bob = savedUser();
+
+        memberService.addMember(alice, club);
+        memberService.addMember(bob, club);
+        assertThat(memberService.isUserMemberOfClub(alice, club)).isTrue();
+        assertThat(memberService.getActiveMemberCount(club)).isEqualTo(2);
+
+        memberService.deactivateMember(alice, club);
+        assertThat(memberService.isUserMemberOfClub(alice, club)).isFalse();
+        memberService.reactivateMember(alice, club);
+        assertThat(memberService.isUserMemberOfClub(alice, club)).isTrue();
+
+        memberService.removeMember(bob, club);
+        assertThat(memberService.isUserMemberOfClub(bob, club)).isFalse();
+
+        User carol = savedUser();
+        memberService.addMembers(List.of(new IdPair(bob.getId(), club.getId()), new IdPair(carol.getId(), club.getId())));
+        assertThat(membershipIndex.activeMembers(club.getId()).toArray())
+                .containsExactlyInAnyOrder(alice.getId(), bob.getId(), carol.getId());
+
+        Long aliceMembership = memberService.findByUserAndClub(alice, club).orElseThrow().getId();
+        memberService.deleteById(aliceMembership);
+        assertThat(memberService.getActiveMemberCount(club)).isEqualTo(2);
+        assertThat(memberService.isUserMemberOfClub(alice, club)).isFalse();
+    }
+
+    @Test
+    void checksAndSetOperationsNeedNoQueries() throws Exception {
+        Club chess = savedClub();
+        Club music = savedClub();
+        List<User> users = List.of(savedUser(), savedUser(), savedUser(), savedUser());
+        memberService.addMembers(List.of(
+                new IdPair(users.get(0).getId(), chess.getId()), new IdPair(users.get(1).getId(), chess.getId()),
+                new IdPair(users.get(2).getId(), chess.getId()), new IdPair(users.get(1).getId(), music.getId()),
+                new IdPair(users.get(2).getId(), music.getId()), new IdPair(users.get(3).getId(), music.getId())));
+        memberService.deactivateMember(users.get(2), music);
+
+        SqlStatementCounter.reset();
+        assertThat(memberService.isUserMemberOfClub(users.get(0), chess)).isTrue();
+        assertThat(memberService.isUserMemberOfClub(users.get(0), music)).isFalse();
+        assertThat(memberService.findSharedActiveUserIds(chess, music)).containsExactly(users.get(1).getId());
+        assertThat(SqlStatementCounter.count()).isZero();
+
+        mockMvc.perform(get("/api/members/club/" + chess.getId() + "/shared/" + music.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[" + users.get(1).getId() + "]"));
+        mockMvc.perform(get("/api/members/count/" + music.getId() + "/active"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+        mockMvc.perform(get("/api/members/club/" + chess.getId() + "/shared/-1"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rebuildPicksUpWritesMadeElsewhere() {
+        Club club = savedClub();
+        User user = savedUser();
+        Member member = new Member();
+        member.setUser(user);
+        member.setClub(club);
+        member.setJoinDate(new Date());
+        member.setActive(true);
+        memberRepository.save(member);
+        assertThat(membershipIndex.isActiveMember(user.getId(), club.getId())).isFalse();
+
+        membershipIndex.rebuild();
+        assertThat(membershipIndex.isActiveMember(user.getId(), club.getId())).isTrue();
+        assertThat(membershipIndex.activeMemberCount(club.getId())).isEqualTo(1);
+    }
+
+    private User savedUser() {
+        return userRepository.save(newUser(uniqueName("membership")));
+    }
+
+    private Club savedClub() {
+        return clubRepository.save(newClub(uniqueName("membership-club")));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.myapp.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every layer the dashboard relies on shows up in the Prometheus scrape once it has been used.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class PrometheusMetricsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void scrapeCoversRequestsServicesRepositoriesPoolHibernateAndUploads() throws Exception {
+        mockMvc.perform(get("/api/clubs/1")).andReturn();
+        mockMvc.perform(get("/api/users/999999")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/media").param("filename", "notes.txt")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content(new byte[1234]))
+                .andExpect(status().isCreated());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/api/users/{id}\"")
+                .containsPattern("app_service_seconds_bucket\\{.*method=\"getUserSummaryById\".*service=\"UserService\"")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("hikaricp_connections_active{")
+                .contains("hibernate_query_executions_total{")
+                .contains("hibernate_entities_loads_total{")
+                .containsPattern("media_upload_bytes_total\\{.*outcome=\"staged\".*} [1-9]")
+                .contains("media_upload_size_bytes_bucket{");
+    }
+}
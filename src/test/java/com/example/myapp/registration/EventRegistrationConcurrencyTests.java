@@ -0,0 +1,273 @@
+package com.example.myapp.registration;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.RegistrationStatus;
+import com.example.myapp.payload.response.ParticipationSummary;
+import com.example.myapp.payload.response.RegistrationResult;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.repositories.ParticipationRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.repositories.WaitlistRepository;
+import com.example.myapp.services.ClubStatsService;
+import com.example.myapp.services.EvenementService;
+import com.example.myapp.services.ParticipationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newEvenement;
+import static com.example.myapp.support.TestEntities.newParticipation;
+import static com.example.myapp.support.TestEntities.newUser;
+import static com.example.myapp.support.TestEntities.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Thousands of users racing for the seats of one event: exactly the capacity gets in, everyone
+ * else waits, and every freed seat goes to the oldest waiter.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EventRegistrationConcurrencyTests {
+
+    private static final int THREADS = 32;
+    @Autowired
+    private EventRegistrations eventRegistrations;
+    @Autowired
+    private ParticipationService participationService;
+    @Autowired
+    private EvenementService evenementService;
+    @Autowired
+    private ClubStatsService clubStatsService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ClubRepository clubRepository;
+    @Autowired
+    private EvenementRepository evenementRepository;
+    @Autowired
+    private ParticipationRepository participationRepository;
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Test
+    void thousandsOfConcurrentRegistrationsFillTheEventExactly() throws Exception {
+        int capacity = 50;
+        int users = 2000;
+        Evenement evenement = savedEvenement(capacity);
+        List<User> crowd = savedUsers(users);
+
+        List<RegistrationResult> results = race(crowd, user ->
+                eventRegistrations.register(user.getId(), evenement.getId(), new Date()));
+
+        Map<RegistrationStatus, Long> byStatus = results.stream()
+                .collect(Collectors.groupingBy(RegistrationResult::status, Collectors.counting()));
+        assertThat(byStatus).containsOnly(
+                Map.entry(RegistrationStatus.REGISTERED, (long) capacity),
+                Map.entry(RegistrationStatus.WAITLISTED, (long) users - capacity));
+        assertThat(participationRepository.countByEvenementId(evenement.getId())).isEqualTo(capacity);
+        assertThat(waitlistRepository.countUpTo(evenement.getId(), Long.MAX_VALUE)).isEqualTo(users - capacity);
+        assertThat(clubStatsService.getStats(evenement.getClub().getId()))
+                .hasValueSatisfying(stats -> assertThat(stats.getParticipationCount()).isEqualTo(capacity));
+        assertThat(register(savedUsers(1).get(0), evenement).status()).isEqualTo(RegistrationStatus.WAITLISTED);
+    }
+
+    @Test
+    void concurrentDuplicatesRegisterOnce() throws Exception {
+        Evenement evenement = savedEvenement(10);
+        User user = savedUsers(1).get(0);
+
+        List<RegistrationResult> results = race(Collections.nCopies(THREADS, user), same ->
+                eventRegistrations.register(same.getId(), evenement.getId(), new Date()));
+
+        assertThat(results).filteredOn(result -> result.status() == RegistrationStatus.REGISTERED).hasSize(1);
+        assertThat(results).filteredOn(result -> result.status() == RegistrationStatus.ALREADY_REGISTERED)
+                .hasSize(THREADS - 1);
+        assertThat(participationRepository.countByEvenementId(evenement.getId())).isEqualTo(1);
+
+        // The seats the duplicates took for a moment were all given back
+        List<User> others = savedUsers(9);
+        for (User other : others) {
+            assertThat(register(other, evenement).status()).isEqualTo(RegistrationStatus.REGISTERED);
+        }
+        assertThat(register(savedUsers(1).get(0), evenement).status()).isEqualTo(RegistrationStatus.WAITLISTED);
+    }
+
+    @Test
+    void freedSeatsGoToTheOldestWaiters() throws Exception {
+        Evenement evenement = savedEvenement(2);
+        List<User> users = savedUsers(6);
+        List<RegistrationResult> results = new ArrayList<>();
+        for (User user : users) {
+            results.add(register(user, evenement));
+        }
+        assertThat(results).extracting(RegistrationResult::status).containsExactly(
+                RegistrationStatus.REGISTERED, RegistrationStatus.REGISTERED, RegistrationStatus.WAITLISTED,
+                RegistrationStatus.WAITLISTED, RegistrationStatus.WAITLISTED, RegistrationStatus.WAITLISTED);
+        assertThat(results.subList(2, 6)).extracting(RegistrationResult::waitlistPosition).containsExactly(1L, 2L, 3L, 4L);
+
+        participationService.deleteParticipation(results.get(0).participationId());
+        assertThat(seated(evenement)).containsExactlyInAnyOrder(users.get(1).getId(), users.get(2).getId());
+        assertThat(eventRegistrations.waitlistPosition(users.get(3).getId(), evenement.getId())).hasValue(1L);
+
+        // Both seats freed at once go to the next two, in order, and to nobody twice
+        List<Long> leaving = List.of(results.get(1).participationId(),
+                participationRepository.findSummaryByUserIdAndEvenementId(users.get(2).getId(), evenement.getId())
+                        .orElseThrow().id());
+        race(leaving, id -> {
+            participationService.deleteParticipation(id);
+            return null;
+        });
+        assertThat(seated(evenement)).containsExactlyInAnyOrder(users.get(3).getId(), users.get(4).getId());
+        assertThat(eventRegistrations.waitlistPosition(users.get(5).getId(), evenement.getId())).hasValue(1L);
+
+        // A larger capacity seats the rest of the waitlist, then new registrations again
+        Evenement reloaded = evenementRepository.findById(evenement.getId()).orElseThrow();
+        reloaded.setCapacity(4);
+        evenementService.updateEvenement(reloaded);
+        assertThat(seated(evenement)).contains(users.get(5).getId()).hasSize(3);
+        assertThat(register(savedUsers(1).get(0), evenement).status()).isEqualTo(RegistrationStatus.REGISTERED);
+        assertThat(register(savedUsers(1).get(0), evenement).status()).isEqualTo(RegistrationStatus.WAITLISTED);
+    }
+
+    @Test
+    void reconcileCatchesUpWithParticipationsWrittenElsewhere() {
+        Evenement evenement = savedEvenement(3);
+        List<User> users = savedUsers(4);
+        register(users.get(0), evenement);
+
+        // Written around the registrations, as a bulk import would
+        for (User user : users.subList(1, 3)) {
+            participationRepository.save(newParticipation(user, evenement));
+        }
+        assertThat(eventRegistrations.reconcile()).isGreaterThanOrEqualTo(1);
+        assertThat(register(users.get(3), evenement).status()).isEqualTo(RegistrationStatus.WAITLISTED);
+    }
+
+    @Test
+    void theEndpointAnswersSeatedWaitlistedOrConflict() throws Exception {
+        Evenement evenement = savedEvenement(1);
+        List<User> users = savedUsers(2);
+
+        mockMvc.perform(post("/api/participations").contentType(MediaType.APPLICATION_JSON).content(body(users.get(0), evenement)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("REGISTERED"));
+        mockMvc.perform(post("/api/participations").contentType(MediaType.APPLICATION_JSON).content(body(users.get(1), evenement)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.waitlistPosition").value(1));
+        mockMvc.perform(post("/api/participations").contentType(MediaType.APPLICATION_JSON).content(body(users.get(1), evenement)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value("ALREADY_WAITLISTED"));
+        mockMvc.perform(post("/api/participations").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"user\":{\"id\":" + users.get(0).getId() + "},\"evenement\":{\"id\":-1},\"date\":\"2026-10-18\"}"))
+                .andExpect(status().isBadRequest());
+
+        String waitlist = "/api/participations/evenement/" + evenement.getId() + "/waitlist/" + users.get(1).getId();
+        mockMvc.perform(get(waitlist)).andExpect(status().isOk()).andExpect(jsonPath("$.waitlistPosition").value(1));
+        mockMvc.perform(delete(waitlist)).andExpect(status().isNoContent());
+        mockMvc.perform(get(waitlist)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void aParticipationCannotBeMovedPastTheSeatCounters() throws Exception {
+        Evenement evenement = savedEvenement(1);
+        Evenement full = savedEvenement(1);
+        List<User> users = savedUsers(2);
+        Long participationId = register(users.get(0), evenement).participationId();
+        register(users.get(1), full);
+
+        mockMvc.perform(put("/api/participations/" + participationId).contentType(MediaType.APPLICATION_JSON)
+                        .content(body(users.get(0), full)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/participations/" + participationId).contentType(MediaType.APPLICATION_JSON)
+                        .content(body(users.get(1), evenement)))
+                .andExpect(status().isBadRequest());
+        assertThat(seated(full)).containsExactly(users.get(1).getId());
+
+        mockMvc.perform(put("/api/participations/" + participationId).contentType(MediaType.APPLICATION_JSON)
+                        .content(body(users.get(0), evenement)))
+                .andExpect(status().isOk());
+        assertThat(seated(evenement)).containsExactly(users.get(0).getId());
+    }
+
+    private RegistrationResult register(User user, Evenement evenement) {
+        return eventRegistrations.register(user.getId(), evenement.getId(), new Date());
+    }
+
+    private List<Long> seated(Evenement evenement) {
+        return participationRepository.findSummariesByEvenementId(evenement.getId()).stream()
+                .map(ParticipationSummary::userId)
+                .toList();
+    }
+
+    private static String body(User user, Evenement evenement) {
+        return "{\"user\":{\"id\":" + user.getId() + "},\"evenement\":{\"id\":" + evenement.getId() + "},\"date\":\"2026-10-18\"}";
+    }
+
+    /**
+     * Runs the task once per input on {@code THREADS} threads, all released at the same
+     * instant, and returns the results in input order.
+     */
+    private static <T, R> List<R> race(List<T> inputs, Function<T, R> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<R>> futures = new ArrayList<>();
+        for (T input : inputs) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.apply(input);
+            }));
+        }
+        start.countDown();
+        List<R> results = new ArrayList<>();
+        for (Future<R> future : futures) {
+            results.add(future.get());
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    private List<User> savedUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(newUser(uniqueName("registration")));
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private Evenement savedEvenement(int capacity) {
+        Club club = clubRepository.save(newClub(uniqueName("registration-club")));
+        clubStatsService.clubCreated(club.getId());
+
+        Evenement evenement = newEvenement(club, "Concert");
+        evenement.setCapacity(capacity);
+        return evenementRepository.save(evenement);
+    }
+}
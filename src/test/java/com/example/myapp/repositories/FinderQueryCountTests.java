@@ -0,0 +1,124 @@
+package com.example.myapp.repositories;
+
+import com.example.myapp.entities.*;
+import com.example.myapp.enums.DemandStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newEvenement;
+import static com.example.myapp.support.TestEntities.newParticipation;
+import static com.example.myapp.support.TestEntities.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The entity-graph finders must load their rows together with the eager user/club/event
+ * references in one statement, for a one-row club as well as for a crowded one.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FinderQueryCountTests {
+
+    private static final int CROWDED = 25;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ClubRepository clubRepository;
+    @Autowired
+    private EvenementRepository evenementRepository;
+    @Autowired
+    private ParticipationRepository participationRepository;
+    @Autowired
+    private DemandRepository demandRepository;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private PresidentRepository presidentRepository;
+
+    private Club smallClub;
+    private Club crowdedClub;
+    private Evenement smallEvent;
+    private Evenement crowdedEvent;
+
+    @BeforeAll
+    void seed() {
+        smallClub = clubRepository.save(newClub("finder-small"));
+        crowdedClub = clubRepository.save(newClub("finder-crowded"));
+        smallEvent = evenementRepository.save(newEvenement(smallClub, smallClub.getNom()));
+        crowdedEvent = evenementRepository.save(newEvenement(crowdedClub, crowdedClub.getNom()));
+
+        populate(smallClub, smallEvent, 1);
+        populate(crowdedClub, crowdedEvent, CROWDED);
+    }
+
+    @Test
+    void membersByClub() {
+        assertSingleStatement(() -> memberRepository.findByClub(smallClub), 1);
+        assertSingleStatement(() -> memberRepository.findByClub(crowdedClub), CROWDED);
+    }
+
+    @Test
+    void pendingDemandsByClub() {
+        assertSingleStatement(() -> demandRepository.findByClubAndStatus(smallClub, DemandStatus.PENDING), 1);
+        assertSingleStatement(() -> demandRepository.findByClubAndStatus(crowdedClub, DemandStatus.PENDING), CROWDED);
+    }
+
+    @Test
+    void participationsByEvenement() {
+        assertSingleStatement(() -> participationRepository.findByEvenementId(smallEvent.getId()), 1);
+        assertSingleStatement(() -> participationRepository.findByEvenementId(crowdedEvent.getId()), CROWDED);
+    }
+
+    @Test
+    void presidentHistoryByClub() {
+        assertSingleStatement(() -> presidentRepository.findByClubOrderByStartDateDesc(smallClub), 1);
+        assertSingleStatement(() -> presidentRepository.findByClubOrderByStartDateDesc(crowdedClub), CROWDED);
+    }
+
+    private void assertSingleStatement(Supplier<List<?>> finder, int expectedRows) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<?> rows = finder.get();
+
+        assertThat(rows).hasSize(expectedRows);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private void populate(Club club, Evenement evenement, int rows) {
+        for (int i = 0; i < rows; i++) {
+            User user = userRepository.save(newUser(club.getNom() + "-" + i));
+
+            Member member = new Member();
+            member.setUser(user);
+            member.setClub(club);
+            memberRepository.save(member);
+
+            Demand demand = new Demand();
+            demand.setUser(user);
+            demand.setClub(club);
+            demandRepository.save(demand);
+
+            participationRepository.save(newParticipation(user, evenement));
+
+            President president = new President();
+            president.setUser(user);
+            president.setClub(club);
+            president.setCurrent(i == rows - 1);
+            presidentRepository.save(president);
+        }
+    }
+}
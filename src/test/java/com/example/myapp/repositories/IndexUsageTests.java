@@ -0,0 +1,120 @@
+package com.example.myapp.repositories;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The migrated schema must give every repository finder an index lookup rather than a table
+ * scan. Each row is the SQL shape Hibernate issues for a finder and the columns its index
+ * lookup must bind. Runs on H2 in PostgreSQL mode: H2 has no partial indexes and keeps its own
+ * index per foreign key, so the test checks the columns sought rather than index names.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:index-usage;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IndexUsageTests {
+
+    private static final long BASE = 10_000_000;
+    private static final int USERS = 50;
+    private static final int CLUBS = 100;
+    private static final int EVENTS = 500;
+
+    private static final Pattern INDEX_LOOKUP = Pattern.compile("/\\* public\\.(\\w+): ([^*]+)\\*/");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * With empty tables every index costs the same and H2 settles for the ones it adds to
+     * foreign keys; give the optimizer a realistic spread of rows and fresh statistics.
+     */
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("insert into users (id, nom, prenom, email, mdp, role) "
+                + "select ? + n, 'n', 'p', concat('index-', n, '@example.com'), 'secret123', "
+                + "case when mod(n, 10) = 0 then 'MEMBRE' else 'USER' end from system_range(1, ?) r(n)", BASE, USERS);
+        jdbcTemplate.update("insert into club (id, nom, description) "
+                + "select ? + n, concat('index-club-', n), 'd' from system_range(1, ?) r(n)", BASE, CLUBS);
+        jdbcTemplate.update("insert into evenement (id, titre, description, date, event_type, club_id) "
+                + "select ? + n, 't', 'd', dateadd(day, n, date '2024-01-01'), mod(n, 3), ? + 1 + mod(n, ?) "
+                + "from system_range(1, ?) r(n)", BASE, BASE, CLUBS, EVENTS);
+        jdbcTemplate.update("insert into demands (id, user_id, club_id, status, request_date) "
+                + "select ? + n, ? + 1 + mod(n, ?), ? + 1 + mod(n / ?, ?), "
+                + "case mod(n, 3) when 0 then 'PENDING' when 1 then 'APPROVED' else 'REFUSED' end, "
+                + "dateadd(minute, n, timestamp '2024-01-01 00:00:00') from system_range(1, 5000) r(n)",
+                BASE, BASE, USERS, BASE, USERS, CLUBS);
+        jdbcTemplate.update("insert into members (id, user_id, club_id, join_date, is_active) "
+                + "select ? + n, ? + 1 + mod(n, ?), ? + 1 + mod(n / ?, ?), date '2024-01-01', mod(n, 4) <> 0 "
+                + "from system_range(1, 5000) r(n)", BASE, BASE, USERS, BASE, USERS, CLUBS);
+        jdbcTemplate.update("insert into presidents (id, user_id, club_id, start_date, is_current) "
+                + "select ? + n, ? + 1 + mod(n * 13, ?), ? + 1 + mod(n, ?), dateadd(day, n, date '2020-01-01'), n > 400 "
+                + "from system_range(1, 500) r(n)", BASE, BASE, USERS, BASE, CLUBS);
+        jdbcTemplate.update("insert into participation (id, user_id, evenement_id, date) "
+                + "select ? + n, ? + 1 + mod(n, ?), ? + 1 + mod(n / ?, ?), date '2024-01-01' "
+                + "from system_range(1, 5000) r(n)", BASE, BASE, USERS, BASE, USERS, EVENTS);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            UserRepository.findByEmail                         | select * from users where email = 'a@example.com'                                                    | email
+            UserRepository.findSummariesByRole                 | select * from users where role = 'USER' order by id                                                  | role
+            ClubRepository.findByNom                           | select * from club where nom = 'club'                                                                | nom
+            DemandRepository.findByClubAndStatus               | select * from demands where club_id = :club and status = 'PENDING' order by request_date desc        | club_id status
+            DemandRepository.findSummariesByClubId             | select * from demands where club_id = :club order by request_date desc                               | club_id
+            DemandRepository.findByUserAndStatus               | select * from demands where user_id = :user and status = 'PENDING' order by request_date desc        | user_id status
+            DemandRepository.existsByUserAndClubAndStatus      | select id from demands where user_id = :user and club_id = :club and status = 'PENDING'              | club_id
+            DemandRepository.findLatestSummaries               | select * from demands where user_id = :user and club_id = :club order by request_date desc           | user_id club_id
+            DemandRepository.findByStatus                      | select * from demands where status = 'PENDING' order by request_date desc                            | status
+            MemberRepository.findByClub                        | select * from members where club_id = :club order by id                                              | club_id
+            MemberRepository.findByClubAndIsActiveTrue         | select * from members where club_id = :club and is_active = true order by id                         | club_id is_active
+            MemberRepository.existsByUserAndClub               | select id from members where user_id = :user and club_id = :club                                     | user_id club_id
+            MemberRepository.findByUser                        | select * from members where user_id = :user                                                          | user_id
+            PresidentRepository.findByClubAndIsCurrentTrue     | select * from presidents where club_id = :club and is_current = true                                 | club_id is_current
+            PresidentRepository.findByUserAndIsCurrentTrue     | select * from presidents where user_id = :user and is_current = true                                 | user_id is_current
+            PresidentRepository.findByClubOrderByStartDateDesc | select * from presidents where club_id = :club order by start_date desc                              | club_id
+            ParticipationRepository.findByUserId               | select * from participation where user_id = :user                                                    | user_id
+            ParticipationRepository.findByUserIdAndEvenementId | select * from participation where user_id = :user and evenement_id = :event                          | user_id evenement_id
+            ParticipationRepository.findByEvenementId          | select * from participation where evenement_id = :event order by id                                  | evenement_id
+            EvenementRepository.findSummariesByClubId          | select * from evenement where club_id = :club order by date                                          | club_id
+            EvenementRepository.findSummariesByEventType       | select * from evenement where event_type = 1 order by date                                           | event_type
+            EvenementRepository.findSummariesByDateAfter       | select * from evenement where date > date '2024-01-01' order by date                                 | date
+            """)
+    void finderUsesIndex(String finder, String sql, String columns) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql
+                .replace(":user", String.valueOf(BASE + 1))
+                .replace(":club", String.valueOf(BASE + 1))
+                .replace(":event", String.valueOf(BASE + 1)), String.class);
+
+        // H2 prints the index it picked and the conditions it seeks on: /* public.ix_name: col = ... */
+        Matcher lookup = INDEX_LOOKUP.matcher(plan);
+        assertThat(lookup.find()).as("%s should not scan the table:%n%s", finder, plan).isTrue();
+        for (String column : columns.split(" ")) {
+            assertThat(lookup.group(2)).as("%s seeks on %s:%n%s", finder, column, plan).contains(column);
+        }
+    }
+
+    @Test
+    void participationIsUniquePerUserAndEvenement() {
+        jdbcTemplate.update("insert into users (id, nom, prenom, email, mdp, role) values (-1, 'u', 'u', 'index-unique@example.com', 'secret123', 'USER')");
+        jdbcTemplate.update("insert into club (id, nom, description) values (-1, 'index-unique', 'description')");
+        jdbcTemplate.update("insert into evenement (id, titre, description, date, club_id) values (-1, 'e', 'description', current_date, -1)");
+        jdbcTemplate.update("insert into participation (id, user_id, evenement_id, date) values (-1, -1, -1, current_date)");
+
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "insert into participation (id, user_id, evenement_id, date) values (-2, -1, -1, current_date)"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.myapp.search;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.entities.User;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.services.ClubService;
+import com.example.myapp.services.EvenementService;
+import com.example.myapp.services.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newEvenement;
+import static com.example.myapp.support.TestEntities.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Search must be forgiving about accents, elisions, plurals and unfinished words, rank title
+ * matches first, and follow committed service writes only.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ContentSearchTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ContentSearch contentSearch;
+    @Autowired
+    private ClubService clubService;
+    @Autowired
+    private EvenementService evenementService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ClubRepository clubRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void matchesAcrossAccentsElisionsPluralsAndPrefixes() throws Exception {
+        String marker = marker();
+        Club club = clubService.saveClub(newClub("Club d'Échecs " + marker, "Tournois et parties rapides"));
+        Evenement evenement = evenementService.saveEvenement(
+                newEvenement(club, "Conférences sur l'Intelligence artificielle", marker));
+        User user = userService.saveUser(newUser("Hélène", "Dupré-" + marker));
+
+        assertThat(ids("/api/search?q=echec " + marker)).containsExactly(club.getId());
+        assertThat(ids("/api/search?q=l'échecs " + marker)).containsExactly(club.getId());
+        assertThat(ids("/api/search?q=conference " + marker + " intellig")).containsExactly(evenement.getId());
+        assertThat(ids("/api/search?q=helene " + marker.substring(0, 5))).containsExactly(user.getId());
+        assertThat(ids("/api/search?q=" + marker + " tournoi")).containsExactly(club.getId());
+        assertThat(ids("/api/search?q=" + marker + " inconnu")).isEmpty();
+    }
+
+    @Test
+    void ranksTitleMatchesFirstAndFiltersByType() throws Exception {
+        String marker = marker();
+        Club mentioned = clubService.saveClub(newClub("Club de lecture", "Partenaire du club " + marker));
+        Club named = clubService.saveClub(newClub("Club " + marker, "Musique"));
+        Evenement evenement = evenementService.saveEvenement(newEvenement(named, "Concert " + marker, "Musique"));
+
+        JsonNode results = getJson("/api/search?q=" + marker);
+        assertThat(results.get("items")).extracting(item -> item.get("id").asLong())
+                .containsExactlyInAnyOrder(named.getId(), evenement.getId(), mentioned.getId());
+        assertThat(results.get("items").get(2).get("id").asLong()).isEqualTo(mentioned.getId());
+
+        JsonNode clubs = getJson("/api/search?q=" + marker + "&type=CLUB");
+        assertThat(clubs.get("items")).extracting(item -> item.get("type").asText()).containsOnly("CLUB");
+        assertThat(clubs.get("items")).extracting(item -> item.get("id").asLong())
+                .containsExactly(named.getId(), mentioned.getId());
+    }
+
+    @Test
+    void pagesThroughEveryHitOnce() throws Exception {
+        String marker = marker();
+        Club club = clubService.saveClub(newClub("Club " + marker(), "description"));
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(evenementService.saveEvenement(newEvenement(club, "Atelier " + marker, "description")).getId());
+        }
+
+        List<Long> ids = new ArrayList<>();
+        JsonNode page = getJson("/api/search?q=" + marker + "&size=2");
+        ids.addAll(idsOf(page));
+        while (!page.get("nextPage").isNull()) {
+            page = getJson("/api/search?q=" + marker + "&size=2&page=" + page.get("nextPage").asInt());
+            assertThat(page.get("items").size()).isLessThanOrEqualTo(2);
+            ids.addAll(idsOf(page));
+        }
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void followsCommittedWritesOnlyAndRebuildsTheRest() throws Exception {
+        String marker = marker();
+        String renamed = marker();
+        Club club = clubService.saveClub(newClub("Club " + marker, "description"));
+        Evenement evenement = evenementService.saveEvenement(newEvenement(club, "Sortie " + marker, "description"));
+
+        evenement.setTitre("Sortie " + renamed);
+        evenementService.updateEvenement(evenement);
+        assertThat(ids("/api/search?q=" + marker + "&type=EVENEMENT")).isEmpty();
+        assertThat(ids("/api/search?q=" + renamed)).containsExactly(evenement.getId());
+
+        evenementService.deleteEvenement(evenement.getId());
+        assertThat(ids("/api/search?q=" + renamed)).isEmpty();
+
+        String rolledBack = marker();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            clubService.saveClub(newClub("Club " + rolledBack, "description"));
+            status.setRollbackOnly();
+        });
+        assertThat(ids("/api/search?q=" + rolledBack)).isEmpty();
+
+        String behind = marker();
+        Club behindTheServices = clubRepository.save(newClub("Club " + behind, "description"));
+        assertThat(ids("/api/search?q=" + behind)).isEmpty();
+        contentSearch.rebuild();
+        assertThat(ids("/api/search?q=" + behind)).containsExactly(behindTheServices.getId());
+        assertThat(ids("/api/search?q=" + marker)).containsExactly(club.getId());
+    }
+
+    @Test
+    void rejectsBlankQueriesAndDeepPages() throws Exception {
+        mockMvc.perform(get("/api/search?q= ")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/search?q=club&size=100&page=10")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/search?q=club&type=PLANET")).andExpect(status().isBadRequest());
+    }
+
+    private List<Long> ids(String url) throws Exception {
+        return idsOf(getJson(url));
+    }
+
+    private static List<Long> idsOf(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+        return ids;
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    // A made-up word no other test data contains, so each test only sees its own documents
+    private static String marker() {
+        StringBuilder word = new StringBuilder("zq");
+        for (int i = 0; i < 10; i++) {
+            word.append((char) ('a' + ThreadLocalRandom.current().nextInt(26)));
+        }
+        return word.toString();
+    }
+}
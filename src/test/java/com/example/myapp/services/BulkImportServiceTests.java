@@ -0,0 +1,152 @@
+package com.example.myapp.services;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.Role;
+import com.example.myapp.payload.response.ImportReport;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.repositories.MemberRepository;
+import com.example.myapp.repositories.ParticipationRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.utils.ImportRowReader;
+import com.example.myapp.utils.NdjsonStreamer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newEvenement;
+import static com.example.myapp.support.TestEntities.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk imports must report bad rows by line without losing the good ones, and write the good
+ * ones in JDBC batches rather than one round trip per row.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BulkImportServiceTests {
+
+    private static final int MEMBERS = 1000;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ClubRepository clubRepository;
+    @Autowired
+    private EvenementRepository evenementRepository;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    private Club club;
+    private Evenement evenement;
+
+    @BeforeAll
+    void seed() {
+        club = clubRepository.save(newClub("import-club"));
+        evenement = evenementRepository.save(newEvenement(club, "import-event"));
+    }
+
+    @Test
+    void usersReportInvalidRowsByLine() throws IOException {
+        userRepository.save(newUser("import-taken"));
+        String csv = """
+                nom,prenom,email,password,role
+                Alpha,Ana,import-alpha@example.com,secret123,
+                Beta,Bob,not-an-email,secret123,USER
+                Gamma,"Guy, Jr",import-gamma@example.com,secret123,ADMIN
+                Delta,Dan,import-alpha@example.com,secret123,
+                Eps,Eve,import-eps@example.com,123,
+                Taken,Tom,import-taken@example.com,secret123,
+                Zeta,Zoe,import-zeta@example.com,secret123,BOSS
+                too,few
+                """;
+
+        ImportReport report = bulkImportService.importUsers(reader(csv, ImportRowReader.TEXT_CSV_VALUE));
+
+        assertThat(report.received()).isEqualTo(8);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.rejected()).isEqualTo(6);
+        assertThat(report.errors()).extracting(ImportReport.RowError::line)
+                .containsExactlyInAnyOrder(3L, 5L, 6L, 7L, 8L, 9L);
+        assertThat(userRepository.findByEmail("import-gamma@example.com"))
+                .hasValueSatisfying(user -> {
+                    assertThat(user.getPrenom()).isEqualTo("Guy, Jr");
+                    assertThat(user.getRole()).isEqualTo(Role.ADMIN);
+                    assertThat(user.getMdp()).startsWith("$2");
+                });
+    }
+
+    @Test
+    void membersAreWrittenInBatches() throws IOException {
+        StringBuilder users = new StringBuilder();
+        StringBuilder members = new StringBuilder("email,clubId\n");
+        for (int i = 0; i < MEMBERS; i++) {
+            String email = "import-member-" + i + "@example.com";
+            users.append("{\"nom\":\"m").append(i).append("\",\"prenom\":\"m\",\"email\":\"").append(email)
+                    .append("\",\"password\":\"secret123\"}\n");
+            members.append(email).append(',').append(club.getId()).append('\n');
+        }
+        assertThat(bulkImportService.importUsers(reader(users.toString(), NdjsonStreamer.APPLICATION_NDJSON_VALUE)).imported())
+                .isEqualTo(MEMBERS);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ImportReport report = bulkImportService.importMembers(reader(members.toString(), ImportRowReader.TEXT_CSV_VALUE));
+
+        assertThat(report.imported()).isEqualTo(MEMBERS);
+        assertThat(report.rejected()).isZero();
+        assertThat(memberRepository.countByClub(club)).isEqualTo(MEMBERS);
+        assertThat(userRepository.findByEmail("import-member-0@example.com"))
+                .hasValueSatisfying(user -> assertThat(user.getRole()).isEqualTo(Role.MEMBRE));
+        // Per 500-row chunk: 3 lookups, a few sequence calls, 1 batched insert and 1 role update
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(50);
+
+        ImportReport again = bulkImportService.importMembers(reader(members.toString(), ImportRowReader.TEXT_CSV_VALUE));
+        assertThat(again.imported()).isZero();
+        assertThat(again.rejected()).isEqualTo(MEMBERS);
+        assertThat(again.errors()).hasSize(MEMBERS);
+    }
+
+    @Test
+    void participationsRejectUnknownAndDuplicatePairs() throws IOException {
+        User user = userRepository.save(newUser("import-participant"));
+        String ndjson = """
+                {"email":"import-participant@example.com","evenementId":%d,"date":"2024-05-01"}
+                {"email":"import-participant@example.com","evenementId":%d}
+                {"email":"nobody@example.com","evenementId":%d}
+                {"email":"import-participant@example.com","evenementId":999999}
+                {"email":"import-participant@example.com","evenementId":%d,"date":"01/05/2024"}
+                not json
+                """.formatted(evenement.getId(), evenement.getId(), evenement.getId(), evenement.getId());
+
+        ImportReport report = bulkImportService.importParticipations(reader(ndjson, NdjsonStreamer.APPLICATION_NDJSON_VALUE));
+
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).extracting(ImportReport.RowError::line)
+                .containsExactly(6L, 2L, 3L, 4L, 5L);
+        assertThat(participationRepository.findByUserIdAndEvenementId(user.getId(), evenement.getId())).isNotNull();
+    }
+
+    private static ImportRowReader reader(String content, String contentType) throws IOException {
+        return new ImportRowReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), contentType);
+    }
+}
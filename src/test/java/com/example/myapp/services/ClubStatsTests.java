@@ -0,0 +1,151 @@
+package com.example.myapp.services;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.ClubStats;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.entities.Participation;
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.DemandStatus;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.DemandRepository;
+import com.example.myapp.repositories.EvenementRepository;
+import com.example.myapp.repositories.MemberRepository;
+import com.example.myapp.repositories.ParticipationRepository;
+import com.example.myapp.repositories.UserRepository;
+import com.example.myapp.support.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newEvenement;
+import static com.example.myapp.support.TestEntities.newParticipation;
+import static com.example.myapp.support.TestEntities.newUser;
+import static com.example.myapp.support.TestEntities.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The club_stats counters must follow every service write path and be restored by
+ * reconciliation when something writes behind the services' back.
+ */
+@SpringBootTest
+class ClubStatsTests {
+
+    @Autowired
+    private ClubStatsService clubStatsService;
+    @Autowired
+    private ClubService clubService;
+    @Autowired
+    private MemberService memberService;
+    @Autowired
+    private DemandService demandService;
+    @Autowired
+    private EvenementService evenementService;
+    @Autowired
+    private ParticipationService participationService;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ClubRepository clubRepository;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private DemandRepository demandRepository;
+    @Autowired
+    private EvenementRepository evenementRepository;
+    @Autowired
+    private ParticipationRepository participationRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void writePathsKeepCountersInStep() {
+        Club club = clubService.saveClub(newClub(uniqueName("stats-club")));
+        User alice = savedUser();
+        User bob = savedUser();
+        User carol = savedUser();
+        User dave = savedUser();
+
+        memberService.addMember(alice, club);
+        memberService.addMember(bob, club);
+        memberService.deactivateMember(bob, club);
+        Long approved = demandService.createDemand(carol, club, null).getId();
+        Long rejected = demandService.createDemand(dave, club, null).getId();
+        demandService.createDemand(savedUser(), club, null);
+        demandService.approveDemand(approved);
+        demandService.rejectDemand(rejected, "full");
+
+        Evenement evenement = evenementService.saveEvenement(newEvenement(club, "stats-event"));
+        evenementService.saveEvenement(newEvenement(club, "stats-event"));
+        participationService.saveParticipation(newParticipation(alice, evenement));
+        Participation removed = participationService.saveParticipation(newParticipation(carol, evenement));
+        participationService.deleteParticipation(removed.getId());
+
+        assertThat(clubStatsService.getStats(club.getId())).hasValueSatisfying(stats -> {
+            assertThat(stats.getMemberCount()).isEqualTo(3);
+            assertThat(stats.getActiveMemberCount()).isEqualTo(2);
+            assertThat(stats.getPendingDemandCount()).isEqualTo(1);
+            assertThat(stats.getEventCount()).isEqualTo(2);
+            assertThat(stats.getParticipationCount()).isEqualTo(1);
+            assertMatchesSourceTables(stats, club);
+        });
+    }
+
+    @Test
+    void statsAreOnePrimaryKeyLookup() {
+        Club club = clubService.saveClub(newClub(uniqueName("stats-club")));
+        for (int i = 0; i < 20; i++) {
+            memberService.addMember(savedUser(), club);
+        }
+
+        SqlStatementCounter.reset();
+        assertThat(clubStatsService.getStats(club.getId()))
+                .hasValueSatisfying(stats -> assertThat(stats.getMemberCount()).isEqualTo(20));
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+    }
+
+    @Test
+    void reconciliationRepairsDrift() {
+        Club club = clubService.saveClub(newClub(uniqueName("stats-club")));
+        memberService.addMember(savedUser(), club);
+        demandService.createDemand(savedUser(), club, null);
+        jdbcTemplate.update("update club_stats set member_count = 42, pending_demand_count = 0 where club_id = ?", club.getId());
+
+        assertThat(clubStatsService.reconcile()).isPositive();
+
+        assertThat(clubStatsService.getStats(club.getId())).hasValueSatisfying(stats -> {
+            assertThat(stats.getMemberCount()).isEqualTo(1);
+            assertThat(stats.getPendingDemandCount()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void clubWrittenBehindTheServicesIsCountedOnFirstRead() {
+        Club club = clubRepository.save(newClub(uniqueName("stats-club")));
+        Evenement evenement = evenementRepository.save(newEvenement(club, "stats-event"));
+        participationRepository.save(newParticipation(savedUser(), evenement));
+
+        assertThat(clubStatsService.getStats(club.getId())).hasValueSatisfying(stats ->
+                assertMatchesSourceTables(stats, club));
+        assertThat(clubStatsService.getStats(-1L)).isEmpty();
+    }
+
+    private void assertMatchesSourceTables(ClubStats stats, Club club) {
+        List<Evenement> evenements = evenementRepository.findByClubId(club.getId());
+        assertThat(stats.getMemberCount()).isEqualTo(memberRepository.countByClub(club));
+        assertThat(stats.getActiveMemberCount()).isEqualTo(memberRepository.findByClubAndIsActiveTrue(club).size());
+        assertThat(stats.getPendingDemandCount()).isEqualTo(demandRepository.findByClubAndStatus(club, DemandStatus.PENDING).size());
+        assertThat(stats.getEventCount()).isEqualTo(evenements.size());
+        assertThat(stats.getParticipationCount()).isEqualTo(evenements.stream()
+                .mapToLong(evenement -> participationRepository.countByEvenementId(evenement.getId()))
+                .sum());
+    }
+
+    private User savedUser() {
+        return userRepository.save(newUser(uniqueName("stats")));
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.myapp.services;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Demand;
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.DemandStatus;
+import com.example.myapp.enums.Role;
+import com.example.myapp.payload.response.DemandBatchResult;
+import com.example.myapp.repositories.ClubRepository;
+import com.example.myapp.repositories.DemandRepository;
+import com.example.myapp.repositories.MemberRepository;
+import com.example.myapp.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.example.myapp.support.TestEntities.newClub;
+import static com.example.myapp.support.TestEntities.newUser;
+import static com.example.myapp.support.TestEntities.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many callers racing on the same demands: every demand must end up created once, decided
+ * once and turned into exactly one membership.
+ */
+@SpringBootTest
+class DemandWorkflowConcurrencyTests {
+
+    private static final int THREADS = 16;
+    @Autowired
+    private DemandService demandService;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ClubRepository clubRepository;
+    @Autowired
+    private DemandRepository demandRepository;
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Test
+    void concurrentRequestsCreateOnePendingDemand() throws Exception {
+        User user = savedUser();
+        Club club = savedClub();
+
+        List<Object> outcomes = race(THREADS, () -> demandService.createDemand(user, club, "please"));
+
+        assertThat(outcomes).filteredOn(Demand.class::isInstance).hasSize(1);
+        assertThat(outcomes).filteredOn(IllegalStateException.class::isInstance).hasSize(THREADS - 1);
+        assertThat(demandRepository.findByClubAndStatus(club, DemandStatus.PENDING)).hasSize(1);
+    }
+
+    @Test
+    void concurrentApprovalsApproveOnce() throws Exception {
+        User user = savedUser();
+        Club club = savedClub();
+        Long demandId = demandService.createDemand(user, club, null).getId();
+
+        List<Object> outcomes = race(THREADS, () -> demandService.approveDemand(demandId));
+
+        assertThat(outcomes).filteredOn(Demand.class::isInstance).hasSize(1);
+        assertThat(outcomes).filteredOn(IllegalArgumentException.class::isInstance).hasSize(THREADS - 1);
+        assertThat(demandRepository.findById(demandId)).hasValueSatisfying(demand -> {
+            assertThat(demand.getStatus()).isEqualTo(DemandStatus.APPROVED);
+            assertThat(demand.getVersion()).isEqualTo(1L);
+        });
+        assertThat(memberRepository.findByClub(club)).hasSize(1);
+        assertThat(userRepository.findById(user.getId())).hasValueSatisfying(
+                approved -> assertThat(approved.getRole()).isEqualTo(Role.MEMBRE));
+    }
+
+    @Test
+    void overlappingBatchesDecideEachDemandOnce() throws Exception {
+        Club club = savedClub();
+        List<Long> demandIds = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            demandIds.add(demandService.createDemand(savedUser(), club, null).getId());
+        }
+
+        List<Object> outcomes = race(8, () -> {
+            List<Long> shuffled = new ArrayList<>(demandIds);
+            Collections.shuffle(shuffled);
+            return demandService.decideDemands(club.getId(), shuffled, List.of(), null);
+        });
+
+        List<Long> approved = new ArrayList<>();
+        for (Object outcome : outcomes) {
+            assertThat(outcome).isInstanceOf(DemandBatchResult.class);
+            approved.addAll(((DemandBatchResult) outcome).approved());
+        }
+        assertThat(approved).containsExactlyInAnyOrderElementsOf(demandIds);
+        assertThat(memberRepository.countByClub(club)).isEqualTo(demandIds.size());
+    }
+
+    @Test
+    void batchSkipsOtherClubsAndAppendsRejectionReason() {
+        Club club = savedClub();
+        Club otherClub = savedClub();
+        Long ownDemand = demandService.createDemand(savedUser(), club, "hello").getId();
+        Long foreignDemand = demandService.createDemand(savedUser(), otherClub, null).getId();
+
+        DemandBatchResult result = demandService.decideDemands(club.getId(), List.of(), List.of(ownDemand, foreignDemand), "full");
+
+        assertThat(result.rejected()).containsExactly(ownDemand);
+        assertThat(result.skipped()).containsExactly(foreignDemand);
+        assertThat(demandRepository.findById(ownDemand)).hasValueSatisfying(demand ->
+                assertThat(demand.getComment()).isEqualTo("hello\nRejection reason: full"));
+        assertThat(demandRepository.findById(foreignDemand)).hasValueSatisfying(demand ->
+                assertThat(demand.getStatus()).isEqualTo(DemandStatus.PENDING));
+    }
+
+    /**
+     * Runs the task on {@code threads} threads released at the same instant and returns what
+     * each one returned or threw.
+     */
+    private static List<Object> race(int threads, Callable<Object> task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            try {
+                outcomes.add(future.get());
+            } catch (ExecutionException e) {
+                outcomes.add(e.getCause());
+            }
+        }
+        executor.shutdown();
+        return outcomes;
+    }
+
+    private User savedUser() {
+        return userRepository.save(newUser(uniqueName("demand-race")));
+    }
+
+    private Club savedClub() {
+        return clubRepository.save(newClub(uniqueName("demand-race-club")));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.myapp.support;
+
+import com.example.myapp.entities.Club;
+import com.example.myapp.entities.Evenement;
+import com.example.myapp.entities.Participation;
+import com.example.myapp.entities.User;
+import com.example.myapp.enums.EventType;
+import com.example.myapp.enums.Role;
+
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unsaved entities with every required field filled in, for tests and benchmarks to adjust and
+ * save through whichever service or repository they exercise. Names from
+ * {@link #uniqueName(String)} never repeat, neither within a run nor across runs against a
+ * persistent database.
+ */
+public final class TestEntities {
+
+    public static final String PASSWORD = "secret123";
+
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicInteger NAMES = new AtomicInteger();
+
+    private TestEntities() {
+    }
+
+    public static String uniqueName(String prefix) {
+        return prefix + "-" + RUN + "-" + NAMES.incrementAndGet();
+    }
+
+    /**
+     * A user named {@code name} in full, with {@code name@example.com} as email.
+     */
+    public static User newUser(String name) {
+        return newUser(name, name, name + "@example.com");
+    }
+
+    /**
+     * A user with a generated email, so any name will do.
+     */
+    public static User newUser(String prenom, String nom) {
+        return newUser(prenom, nom, uniqueName("user").toLowerCase(Locale.ROOT) + "@example.com");
+    }
+
+    public static Club newClub(String nom) {
+        return newClub(nom, "description");
+    }
+
+    public static Club newClub(String nom, String description) {
+        Club club = new Club();
+        club.setNom(nom);
+        club.setDescription(description);
+        return club;
+    }
+
+    public static Evenement newEvenement(Club club, String titre) {
+        return newEvenement(club, titre, "description");
+    }
+
+    /**
+     * A workshop taking place now.
+     */
+    public static Evenement newEvenement(Club club, String titre, String description) {
+        Evenement evenement = new Evenement();
+        evenement.setTitre(titre);
+        evenement.setDescription(description);
+        evenement.setDate(new Date());
+        evenement.setEventType(EventType.WORKSHOP);
+        evenement.setClub(club);
+        return evenement;
+    }
+
+    public static Participation newParticipation(User user, Evenement evenement) {
+        Participation participation = new Participation();
+        participation.setUser(user);
+        participation.setEvenement(evenement);
+        participation.setDate(new Date());
+        return participation;
+    }
+
+    private static User newUser(String prenom, String nom, String email) {
+        User user = new User();
+        user.setNom(nom);
+        user.setPrenom(prenom);
+        user.setEmail(email);
+        user.setMdp(PASSWORD);
+        user.setRole(Role.USER);
+        return user;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.myapp.support;
+
+import com.example.myapp.auth.TokenClaims;
+import com.example.myapp.auth.TokenCodec;
+import com.example.myapp.auth.TokenType;
+import com.example.myapp.enums.Role;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Access tokens for tests that call protected endpoints as a given user without logging in.
+ * They are signed with {@code app.auth.secret} from the test properties.
+ */
+public final class TestTokens {
+
+    private static final TokenCodec CODEC = new TokenCodec(
+            Base64.getDecoder().decode("8zkrBB5Rfl4EKS8wLz529t7dNxo2tnjrpofyHPMpK5U="));
+
+    private TestTokens() {
+    }
+
+    /**
+     * An {@code Authorization} header value for {@code userId} acting with {@code role}.
+     */
+    public static String bearer(Long userId, Role role) {
+        Instant now = Instant.now();
+        String id = UUID.randomUUID().toString();
+        return "Bearer " + CODEC.sign(new TokenClaims(TokenType.ACCESS, userId, role, id, id,
+                now.toEpochMilli(), now.plus(Duration.ofMinutes(15)).getEpochSecond()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.myapp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdBitmapTests {
+
+    @Test
+    void behavesLikeASortedSetAcrossSparseAndDenseChunks() {
+        Random random = new Random(42);
+        TreeSet<Long> expected = new TreeSet<>();
+        IdBitmap bitmap = IdBitmap.EMPTY;
+        for (int i = 0; i < 40_000; i++) {
+            // Mostly packed into the first chunk so it turns into a bitmap and back, plus a sparse tail
+            long id = random.nextInt(4) == 0 ? random.nextInt(1 << 22) : random.nextInt(9000);
+            if (random.nextInt(3) == 0) {
+                IdBitmap before = bitmap;
+                bitmap = bitmap.without(id);
+                assertThat(before.contains(id)).isEqualTo(expected.remove(id));
+            } else {
+                bitmap = bitmap.with(id);
+                expected.add(id);
+            }
+        }
+        assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+        assertThat(bitmap.toArray()).containsExactly(expected.stream().mapToLong(Long::longValue).toArray());
+        assertThat(IdBitmap.of(bitmap.toArray())).isEqualTo(bitmap);
+        assertThat(bitmap.contains(-1)).isFalse();
+        assertThat(bitmap.contains(Long.MAX_VALUE)).isFalse();
+    }
+
+    @Test
+    void setOperationsMatchTheirDefinitions() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            TreeSet<Long> a = randomSet(random);
+            TreeSet<Long> b = randomSet(random);
+            IdBitmap left = IdBitmap.of(a.stream().mapToLong(Long::longValue).toArray());
+            IdBitmap right = IdBitmap.of(b.stream().mapToLong(Long::longValue).toArray());
+
+            TreeSet<Long> and = new TreeSet<>(a);
+            and.retainAll(b);
+            TreeSet<Long> or = new TreeSet<>(a);
+            or.addAll(b);
+            TreeSet<Long> andNot = new TreeSet<>(a);
+            andNot.removeAll(b);
+
+            assertThat(left.and(right).toArray()).containsExactly(and.stream().mapToLong(Long::longValue).toArray());
+            assertThat(left.andCardinality(right)).isEqualTo(and.size());
+            assertThat(left.or(right).toArray()).containsExactly(or.stream().mapToLong(Long::longValue).toArray());
+            assertThat(left.or(right).cardinality()).isEqualTo(or.size());
+            assertThat(left.andNot(right).toArray()).containsExactly(andNot.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+
+    @Test
+    void updatesLeaveTheOriginalUntouched() {
+        IdBitmap original = IdBitmap.of(1, 2, 70_000);
+        IdBitmap added = original.with(3);
+        IdBitmap removed = original.without(70_000);
+
+        assertThat(original.toArray()).containsExactly(1, 2, 70_000);
+        assertThat(added.toArray()).containsExactly(1, 2, 3, 70_000);
+        assertThat(removed.toArray()).containsExactly(1, 2);
+        assertThat(original.with(2)).isSameAs(original);
+        assertThat(original.without(5)).isSameAs(original);
+        assertThatThrownBy(() -> original.with(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Dense, sparse or mixed, so every pair of chunk kinds meets
+    private static TreeSet<Long> randomSet(Random random) {
+        TreeSet<Long> set = new TreeSet<>();
+        int size = random.nextInt(20_000);
+        int range = random.nextBoolean() ? 12_000 : 1 << 20;
+        for (int i = 0; i < size; i++) {
+            set.add((long) random.nextInt(range));
+        }
+        return set;
+    }
+}
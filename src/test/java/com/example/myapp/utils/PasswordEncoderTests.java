@@ -0,0 +1,72 @@
+package com.example.myapp.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordEncoderTests {
+
+    private PasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void shutDown() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    void hashesAtConfiguredCostAndVerifies() {
+        passwordEncoder = new PasswordEncoder(5, 1, 4, 1);
+
+        String hash = passwordEncoder.encode("secret123").join();
+
+        assertThat(hash).startsWith("$2a$05$");
+        assertThat(passwordEncoder.matches("secret123", hash).join()).isTrue();
+        assertThat(passwordEncoder.matches("wrong", hash).join()).isFalse();
+        assertThat(passwordEncoder.needsRehash(hash)).isFalse();
+    }
+
+    @Test
+    void flagsHashesFromAnotherCostForRehash() {
+        String oldHash = new PasswordEncoder(4, 1, 1, 1).encode("secret123").join();
+        passwordEncoder = new PasswordEncoder(6, 1, 4, 1);
+
+        assertThat(passwordEncoder.needsRehash(oldHash)).isTrue();
+        assertThat(passwordEncoder.needsRehash("plain-text")).isTrue();
+    }
+
+    @Test
+    void rejectsWorkOnceThePoolAndQueueAreFull() {
+        passwordEncoder = new PasswordEncoder(14, 1, 1, 1);
+
+        CompletableFuture<String> running = passwordEncoder.encode("a");
+        CompletableFuture<String> queued = passwordEncoder.encode("b");
+        CompletableFuture<String> rejected = passwordEncoder.encode("c");
+
+        assertThatThrownBy(rejected::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        running.cancel(true);
+        queued.cancel(true);
+    }
+
+    @Test
+    void bulkHashingIsPacedInsteadOfRejected() {
+        passwordEncoder = new PasswordEncoder(4, 1, 1, 1);
+
+        List<CompletableFuture<String>> hashes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            hashes.add(passwordEncoder.encodeBulk("secret" + i));
+        }
+
+        assertThat(hashes).allSatisfy(hash -> assertThat(hash.join()).startsWith("$2a$04$"));
+        assertThat(passwordEncoder.encode("login").join()).startsWith("$2a$04$");
+    }
+}